@@ -0,0 +1,99 @@
+package com.hsbc.transaction.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.model.TransactionStatus;
+import com.hsbc.transaction.model.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encoding one page of transactions in each negotiable response format, with
+ * and without gzip. Encoded and gzipped sizes are printed once per trial,
+ * since they do not vary between invocations.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="WireFormat"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"json", "smile", "cbor", "protobuf"})
+    private String format;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private PageResponse<TransactionResponse> page;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Same settings as the converters: Boot's defaults on each format's factory
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper = switch (format) {
+            case "smile" -> builder.factory(new SmileFactory()).build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            default -> builder.build();
+        };
+
+        LocalDateTime now = LocalDateTime.now();
+        List<TransactionResponse> rows = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            rows.add(new TransactionResponse((long) 100_000 + i, "TXN2024010112000000000" + (1000 + i),
+                    "1234567" + (i % 10), new BigDecimal("100.00").add(BigDecimal.valueOf(i)),
+                    TransactionType.values()[i % TransactionType.values().length], "Benchmark transaction " + i,
+                    now.minusMinutes(i), TransactionStatus.COMPLETED, i % 3 == 0 ? "Reviewed" : null,
+                    now, now, (long) i % 4));
+        }
+        page = new PageResponse<>(rows, 3, pageSize, 10_000L, 10_000 / pageSize, false, false);
+
+        System.out.printf("%n%s, %d rows: %d bytes, %d gzipped%n", format, pageSize, encode().length, gzip().length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return format.equals("protobuf")
+                ? TransactionProtobufHttpMessageConverter.encode(page)
+                : objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] gzip() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(encode());
+        }
+        return buffer.toByteArray();
+    }
+}
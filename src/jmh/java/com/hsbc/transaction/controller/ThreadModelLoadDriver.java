@@ -0,0 +1,261 @@
+package com.hsbc.transaction.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hsbc.transaction.TransactionManagementApplication;
+import com.hsbc.transaction.dto.BatchTransactionResponse;
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.service.TransactionService;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load against {@code GET /api/v1/transactions/{id}} with
+ * Tomcat on platform threads and then on virtual threads, at each client
+ * count given on the command line (default 1000, 5000 and 10000).
+ *
+ * <p>Caching is off and every JDBC statement is delayed by
+ * {@code DB_LATENCY} while it holds its connection, so requests are bound by
+ * a slow database rather than by H2. Clients always run on virtual threads so
+ * the driver itself is not the bottleneck. Throughput, p50/p99 latency and
+ * errors are printed and written to {@code target/thread-model.json}.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec \
+ *     -Dbenchmark.main=com.hsbc.transaction.controller.ThreadModelLoadDriver \
+ *     -Dbenchmark.args="1000 5000 10000"
+ * </pre>
+ * Needs an open-file limit above the largest client count ({@code ulimit -n}).
+ */
+public final class ThreadModelLoadDriver {
+
+    private static final Duration DB_LATENCY = Duration.ofMillis(5);
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(20);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int SEED_ROWS = 1_000;
+    private static final Set<String> DELAYED_CALLS = Set.of("execute", "executeQuery", "executeUpdate", "executeBatch");
+
+    private ThreadModelLoadDriver() {}
+
+    public static void main(String[] args) throws Exception {
+        int[] clientCounts = args.length == 0
+                ? new int[]{1_000, 5_000, 10_000}
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtualThreads)) {
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                long[] ids = seed(context.getBean(TransactionService.class));
+                for (int clients : clientCounts) {
+                    Map<String, Object> result = run(port, ids, clients);
+                    result.put("threads", virtualThreads ? "virtual" : "platform");
+                    results.add(result);
+                    System.out.printf("%-8s clients=%-6d throughput=%9.1f req/s  p50=%7.1f ms  p99=%8.1f ms  errors=%d%n",
+                            result.get("threads"), clients, result.get("throughput"),
+                            result.get("p50Millis"), result.get("p99Millis"), result.get("errors"));
+                }
+            }
+        }
+
+        Path output = Path.of("target", "thread-model.json");
+        Files.createDirectories(output.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(TransactionManagementApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.cache.type=none",
+                        // Let every client hold a connection; otherwise Tomcat refuses them before the thread model matters
+                        "server.tomcat.max-connections=20000",
+                        "server.tomcat.accept-count=10000",
+                        "logging.level.root=WARN",
+                        "logging.level.com.hsbc.transaction=WARN")
+                .initializers(context -> context.getBeanFactory().addBeanPostProcessor(new SlowDatabase()))
+                .run();
+    }
+
+    private static long[] seed(TransactionService transactionService) {
+        List<TransactionRequest> requests = new ArrayList<>(SEED_ROWS);
+        for (int i = 0; i < SEED_ROWS; i++) {
+            TransactionRequest request = new TransactionRequest();
+            request.setAccountNumber("9990" + (1000 + i % 100));
+            request.setAmount(BigDecimal.valueOf(1 + i % 500));
+            request.setType("DEPOSIT");
+            request.setDescription("Load test row " + i);
+            requests.add(request);
+        }
+        BatchTransactionResponse created = transactionService.createTransactions(requests);
+        return created.getResults().stream()
+                .mapToLong(result -> result.getTransaction().getId())
+                .toArray();
+    }
+
+    private static Map<String, Object> run(int port, long[] ids, int clients) throws InterruptedException {
+        AtomicLong errors = new AtomicLong();
+        // One slot per client, read once every client has finished
+        long[][] samples = new long[clients][];
+        long measureFrom = System.nanoTime() + WARMUP.toNanos();
+        long measureUntil = measureFrom + MEASUREMENT.toNanos();
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(clientThreads)
+                     .connectTimeout(REQUEST_TIMEOUT)
+                     .build()) {
+            for (int c = 0; c < clients; c++) {
+                int slot = c;
+                clientThreads.submit(() -> {
+                    LatencySamples latencies = new LatencySamples();
+                    while (System.nanoTime() < measureUntil) {
+                        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/transactions/" + id))
+                                .timeout(REQUEST_TIMEOUT)
+                                .GET()
+                                .build();
+                        long started = System.nanoTime();
+                        boolean ok;
+                        try {
+                            ok = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long finished = System.nanoTime();
+                        if (started >= measureFrom && finished <= measureUntil) {
+                            if (ok) {
+                                latencies.add(finished - started);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                    samples[slot] = latencies.toArray();
+                });
+            }
+            clientThreads.shutdown();
+            clientThreads.awaitTermination(WARMUP.plus(MEASUREMENT).plus(REQUEST_TIMEOUT).toSeconds() + 60, TimeUnit.SECONDS);
+        }
+
+        long[] all = Arrays.stream(samples)
+                .filter(Objects::nonNull)
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .toArray();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("clients", clients);
+        result.put("requests", all.length);
+        result.put("throughput", all.length / (MEASUREMENT.toNanos() / 1e9));
+        result.put("p50Millis", percentile(all, 0.50) / 1e6);
+        result.put("p99Millis", percentile(all, 0.99) / 1e6);
+        result.put("maxMillis", all.length == 0 ? 0.0 : all[all.length - 1] / 1e6);
+        result.put("errors", errors.get());
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static final class LatencySamples {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Wraps the pooled data source so every statement sleeps for
+     * {@link #DB_LATENCY} before it runs, while its connection is checked out.
+     */
+    private static final class SlowDatabase implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)) {
+                return new DelegatingDataSource(dataSource) {
+                    @Override
+                    public Connection getConnection() throws SQLException {
+                        return slow(super.getConnection());
+                    }
+                };
+            }
+            return bean;
+        }
+
+        private static Connection slow(Connection connection) {
+            return proxy(Connection.class, connection, (method, result) ->
+                    result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")
+                            ? proxy(PreparedStatement.class, statement, (call, value) -> value, true)
+                            : result, false);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, ResultMapper mapper, boolean delayExecution) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (delayExecution && DELAYED_CALLS.contains(method.getName())) {
+                    Thread.sleep(DB_LATENCY);
+                }
+                try {
+                    return mapper.map(method, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+        }
+
+        @FunctionalInterface
+        private interface ResultMapper {
+            Object map(Method method, Object result);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.hsbc.transaction.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hsbc.transaction.TransactionManagementApplication;
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.service.TransactionService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load against {@code GET /api/v1/transactions?size=100}
+ * in each negotiable format, uncompressed and gzipped, measuring what a
+ * client sees end to end: bytes on the wire, throughput and p50/p99
+ * latency. Pages come from the cache, so serialization and transfer
+ * dominate. The client count is the only argument (default 32). Results
+ * are printed and written to {@code target/wire-formats.json}.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec \
+ *     -Dbenchmark.main=com.hsbc.transaction.controller.WireFormatLoadDriver \
+ *     -Dbenchmark.args="32"
+ * </pre>
+ */
+public final class WireFormatLoadDriver {
+
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+    private static final Duration MEASUREMENT = Duration.ofSeconds(15);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final int SEED_ROWS = 2_000;
+    private static final int PAGE_SIZE = 100;
+    private static final String[] FORMATS = {
+            "application/json", "application/x-jackson-smile", "application/cbor", "application/x-protobuf"};
+
+    private WireFormatLoadDriver() {}
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length == 0 ? 32 : Integer.parseInt(args[0]);
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TransactionManagementApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "server.compression.enabled=true",
+                        "logging.level.root=WARN",
+                        "logging.level.com.hsbc.transaction=WARN")
+                .run()) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            seed(context.getBean(TransactionService.class));
+            for (String format : FORMATS) {
+                for (String encoding : new String[]{"identity", "gzip"}) {
+                    Map<String, Object> result = run(port, clients, format, encoding);
+                    results.add(result);
+                    System.out.printf("%-28s %-8s bytes=%7d  throughput=%8.1f req/s  p50=%6.2f ms  p99=%7.2f ms  errors=%d%n",
+                            format, encoding, result.get("bytesPerResponse"), result.get("throughput"),
+                            result.get("p50Millis"), result.get("p99Millis"), result.get("errors"));
+                }
+            }
+        }
+
+        Path output = Path.of("target", "wire-formats.json");
+        Files.createDirectories(output.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static void seed(TransactionService transactionService) {
+        List<TransactionRequest> requests = new ArrayList<>(SEED_ROWS);
+        for (int i = 0; i < SEED_ROWS; i++) {
+            TransactionRequest request = new TransactionRequest();
+            request.setAccountNumber("9990" + (1000 + i % 100));
+            request.setAmount(new BigDecimal("1.25").add(BigDecimal.valueOf(i % 500)));
+            request.setType(i % 2 == 0 ? "DEPOSIT" : "PAYMENT");
+            request.setDescription("Wire format test row " + i);
+            requests.add(request);
+        }
+        transactionService.createTransactions(requests);
+    }
+
+    private static Map<String, Object> run(int port, int clients, String format, String encoding)
+            throws InterruptedException {
+        AtomicLong errors = new AtomicLong();
+        AtomicLong bytes = new AtomicLong(-1);
+        long[][] samples = new long[clients][];
+        long measureFrom = System.nanoTime() + WARMUP.toNanos();
+        long measureUntil = measureFrom + MEASUREMENT.toNanos();
+        int pages = SEED_ROWS / PAGE_SIZE;
+
+        try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder()
+                     .version(HttpClient.Version.HTTP_1_1)
+                     .executor(clientThreads)
+                     .connectTimeout(REQUEST_TIMEOUT)
+                     .build()) {
+            for (int c = 0; c < clients; c++) {
+                int slot = c;
+                clientThreads.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < measureUntil) {
+                        int page = ThreadLocalRandom.current().nextInt(pages);
+                        // HttpClient does not decompress, so the body length is what crossed the wire
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port
+                                        + "/api/v1/transactions?size=" + PAGE_SIZE + "&page=" + page))
+                                .timeout(REQUEST_TIMEOUT)
+                                .header("Accept", format)
+                                .header("Accept-Encoding", encoding)
+                                .GET()
+                                .build();
+                        long started = System.nanoTime();
+                        boolean ok;
+                        try {
+                            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            ok = response.statusCode() == 200;
+                            if (ok) {
+                                bytes.compareAndSet(-1, response.body().length);
+                            }
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long finished = System.nanoTime();
+                        if (started >= measureFrom && finished <= measureUntil) {
+                            if (!ok) {
+                                errors.incrementAndGet();
+                            } else {
+                                if (count == latencies.length) {
+                                    latencies = Arrays.copyOf(latencies, count * 2);
+                                }
+                                latencies[count++] = finished - started;
+                            }
+                        }
+                    }
+                    samples[slot] = Arrays.copyOf(latencies, count);
+                });
+            }
+            clientThreads.shutdown();
+            clientThreads.awaitTermination(WARMUP.plus(MEASUREMENT).plus(REQUEST_TIMEOUT).toSeconds() + 60, TimeUnit.SECONDS);
+        }
+
+        long[] all = Arrays.stream(samples)
+                .filter(Objects::nonNull)
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .toArray();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("format", format);
+        result.put("encoding", encoding);
+        result.put("clients", clients);
+        result.put("bytesPerResponse", bytes.get());
+        result.put("requests", all.length);
+        result.put("throughput", all.length / (MEASUREMENT.toNanos() / 1e9));
+        result.put("p50Millis", percentile(all, 0.50) / 1e6);
+        result.put("p99Millis", percentile(all, 0.99) / 1e6);
+        result.put("errors", errors.get());
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
@@ -0,0 +1,152 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.TransactionManagementApplication;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One criteria page, with its count, for every combination of present
+ * filters: once through the old single query whose absent filters collapse to
+ * {@code (:x IS NULL OR ...)}, once through the per-combination query shapes
+ * of {@link TransactionCriteriaRepositoryImpl}. Run a subset of combinations
+ * with {@code -p mask=...}; the bits follow {@link TransactionCriteria.Filter}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class CriteriaQueryBenchmark {
+
+    private static final int ROWS = 20_000;
+    private static final String ACCOUNT = "77700007";
+    private static final LocalDateTime BASE_DATE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static final String STATIC_WHERE = " WHERE "
+            + "(:accountNumber IS NULL OR t.accountNumber = :accountNumber) AND "
+            + "(:type IS NULL OR t.type = :type) AND "
+            + "(:startDate IS NULL OR t.transactionDate >= :startDate) AND "
+            + "(:endDate IS NULL OR t.transactionDate <= :endDate) AND "
+            + "(:minAmount IS NULL OR t.amount >= :minAmount) AND "
+            + "(:maxAmount IS NULL OR t.amount <= :maxAmount)";
+
+    @Param({"0", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15",
+            "16", "17", "18", "19", "20", "21", "22", "23", "24", "25", "26", "27", "28", "29", "30", "31",
+            "32", "33", "34", "35", "36", "37", "38", "39", "40", "41", "42", "43", "44", "45", "46", "47",
+            "48", "49", "50", "51", "52", "53", "54", "55", "56", "57", "58", "59", "60", "61", "62", "63"})
+    private int mask;
+
+    @Param({"static", "dynamic"})
+    private String engine;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate transactionTemplate;
+    private TransactionCriteria criteria;
+    private Pageable firstPage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TransactionManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=WARN",
+                        "logging.level.com.hsbc.transaction=WARN")
+                .run();
+        transactionRepository = context.getBean(TransactionRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Timestamp date = Timestamp.valueOf(BASE_DATE.plusMinutes(i));
+            rows.add(new Object[]{5_000_000L + i, "CRITERIA" + i, String.valueOf(77_700_000 + i % 500),
+                    BigDecimal.valueOf(1 + i % 1000), TransactionType.values()[i % TransactionType.values().length].name(),
+                    "Criteria row " + i, date, "COMPLETED", date, date});
+        }
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (id, reference, account_number, amount, type, description, "
+                + "transaction_date, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.execute("ANALYZE");
+
+        criteria = new TransactionCriteria(
+                (mask & TransactionCriteria.Filter.ACCOUNT_NUMBER.bit()) != 0 ? ACCOUNT : null,
+                (mask & TransactionCriteria.Filter.TYPE.bit()) != 0 ? TransactionType.DEPOSIT : null,
+                (mask & TransactionCriteria.Filter.START_DATE.bit()) != 0 ? BASE_DATE.plusDays(2) : null,
+                (mask & TransactionCriteria.Filter.END_DATE.bit()) != 0 ? BASE_DATE.plusDays(9) : null,
+                (mask & TransactionCriteria.Filter.MIN_AMOUNT.bit()) != 0 ? new BigDecimal("100.00") : null,
+                (mask & TransactionCriteria.Filter.MAX_AMOUNT.bit()) != 0 ? new BigDecimal("400.00") : null);
+        firstPage = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "transactionDate"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Transaction> findByCriteria() {
+        if ("dynamic".equals(engine)) {
+            return transactionRepository.findByCriteria(criteria.accountNumber(), criteria.type(), criteria.startDate(),
+                    criteria.endDate(), criteria.minAmount(), criteria.maxAmount(), firstPage);
+        }
+        return transactionTemplate.execute(status -> findByStaticQuery());
+    }
+
+    private Page<Transaction> findByStaticQuery() {
+        TypedQuery<Transaction> query = entityManager.createQuery(
+                "SELECT t FROM Transaction t" + STATIC_WHERE + " ORDER BY t.transactionDate DESC", Transaction.class);
+        bindAll(query);
+        query.setFirstResult(Math.toIntExact(firstPage.getOffset()));
+        query.setMaxResults(firstPage.getPageSize());
+        return PageableExecutionUtils.getPage(query.getResultList(), firstPage, () -> {
+            TypedQuery<Long> count = entityManager.createQuery("SELECT COUNT(t) FROM Transaction t" + STATIC_WHERE, Long.class);
+            bindAll(count);
+            return count.getSingleResult();
+        });
+    }
+
+    // The static query names every parameter, present or not
+    private void bindAll(TypedQuery<?> query) {
+        query.setParameter("accountNumber", criteria.accountNumber());
+        query.setParameter("type", criteria.type());
+        query.setParameter("startDate", criteria.startDate());
+        query.setParameter("endDate", criteria.endDate());
+        query.setParameter("minAmount", criteria.minAmount());
+        query.setParameter("maxAmount", criteria.maxAmount());
+    }
+}
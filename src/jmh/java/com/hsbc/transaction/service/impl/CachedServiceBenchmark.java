@@ -0,0 +1,113 @@
+package com.hsbc.transaction.service.impl;
+
+import com.hsbc.transaction.TransactionManagementApplication;
+import com.hsbc.transaction.dto.BatchTransactionResponse;
+import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths through the full service stack (proxy, transaction, JPA, H2),
+ * once with the Caffeine caches and once with {@code spring.cache.type=none},
+ * so the difference is what the caches actually save.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CachedServiceBenchmark {
+
+    private static final int ROWS = 2_000;
+    private static final int HOT_IDS = 64;
+    private static final String ACCOUNT = "88800001";
+
+    @Param({"caffeine", "none"})
+    private String cacheType;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private Pageable firstPage;
+    private Long[] hotIds;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TransactionManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("spring.cache.type=" + cacheType,
+                        "logging.level.root=WARN",
+                        "logging.level.com.hsbc.transaction=WARN")
+                .run();
+        transactionService = context.getBean(TransactionService.class);
+
+        List<TransactionRequest> requests = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            TransactionRequest request = new TransactionRequest();
+            request.setAccountNumber(i % 4 == 0 ? ACCOUNT : "888" + (10000 + i % 50));
+            request.setAmount(BigDecimal.valueOf(10 + i % 500));
+            request.setType(i % 2 == 0 ? "DEPOSIT" : "WITHDRAWAL");
+            request.setDescription("Benchmark row " + i);
+            requests.add(request);
+        }
+        BatchTransactionResponse created = transactionService.createTransactions(requests);
+        hotIds = created.getResults().stream()
+                .limit(HOT_IDS)
+                .map(result -> result.getTransaction().getId())
+                .toArray(Long[]::new);
+        firstPage = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "transactionDate"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResponse getTransactionById() {
+        next = (next + 1) % HOT_IDS;
+        return transactionService.getTransactionById(hotIds[next]);
+    }
+
+    @Benchmark
+    public PageResponse<TransactionResponse> getAllTransactions() {
+        return transactionService.getAllTransactions(firstPage, true);
+    }
+
+    @Benchmark
+    public BigDecimal getAccountBalance() {
+        return transactionService.getAccountBalance(ACCOUNT);
+    }
+
+    @Benchmark
+    public List<TransactionResponse> getRecentTransactions() {
+        return transactionService.getRecentTransactions();
+    }
+}
@@ -0,0 +1,158 @@
+package com.hsbc.transaction.service.impl;
+
+import com.hsbc.transaction.TransactionManagementApplication;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import com.hsbc.transaction.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The read paths of {@link TransactionServiceImpl} against 100k rows: the
+ * old way (a read-write transaction loading managed entities that are then
+ * copied into responses), the same entity load in a read-only transaction,
+ * and a read-only transaction selecting responses through constructor
+ * expressions. Run with {@code -prof gc} to see allocation per operation
+ * next to latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final int FIRST_ID = 6_000_000;
+    private static final String ACCOUNT = "66600007";
+    private static final LocalDateTime BASE_DATE = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"entity", "readOnlyEntity", "projection"})
+    private String path;
+
+    private ConfigurableApplicationContext context;
+    private TransactionRepository transactionRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private List<Long> lookupIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(TransactionManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties("logging.level.root=WARN",
+                        "logging.level.com.hsbc.transaction=WARN")
+                .run();
+        transactionRepository = context.getBean(TransactionRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        List<Object[]> rows = new ArrayList<>(10_000);
+        for (int i = 0; i < ROWS; i++) {
+            Timestamp date = Timestamp.valueOf(BASE_DATE.plusMinutes(i));
+            rows.add(new Object[]{(long) FIRST_ID + i, "READPATH" + i, String.valueOf(66_600_000 + i % 1000),
+                    BigDecimal.valueOf(1 + i % 1000), TransactionType.values()[i % TransactionType.values().length].name(),
+                    "Read path row " + i, date, "COMPLETED", date, date});
+            if (rows.size() == 10_000) {
+                insert(jdbcTemplate, rows);
+                rows.clear();
+            }
+        }
+        insert(jdbcTemplate, rows);
+        jdbcTemplate.execute("ANALYZE");
+
+        lookupIds = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            lookupIds.add((long) FIRST_ID + i * 997L);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TransactionResponse findById() {
+        Long id = lookupIds.get(0);
+        if (!"projection".equals(path)) {
+            return entityTemplate().execute(status -> new TransactionResponse(entityManager.find(Transaction.class, id)));
+        }
+        return readOnly.execute(status -> entityManager.createQuery("SELECT " + TransactionRepository.RESPONSE_PROJECTION
+                        + " FROM Transaction t WHERE t.id = :id", TransactionResponse.class)
+                .setParameter("id", id)
+                .getSingleResult());
+    }
+
+    @Benchmark
+    public List<TransactionResponse> accountPage() {
+        if (!"projection".equals(path)) {
+            return entityTemplate().execute(status -> toResponses(entityManager.createQuery(
+                            "SELECT t FROM Transaction t WHERE t.accountNumber = :accountNumber "
+                                    + "ORDER BY t.transactionDate DESC, t.id DESC", Transaction.class)
+                    .setParameter("accountNumber", ACCOUNT)
+                    .setMaxResults(100)
+                    .getResultList()));
+        }
+        return readOnly.execute(status ->
+                transactionRepository.findByAccountNumberOrderByTransactionDateDescIdDesc(ACCOUNT, Limit.of(100)));
+    }
+
+    @Benchmark
+    public List<TransactionResponse> lookup() {
+        if (!"projection".equals(path)) {
+            return entityTemplate().execute(status -> toResponses(transactionRepository.findAllById(lookupIds)));
+        }
+        return readOnly.execute(status -> transactionRepository.findResponsesByIdIn(lookupIds));
+    }
+
+    private TransactionTemplate entityTemplate() {
+        return "entity".equals(path) ? readWrite : readOnly;
+    }
+
+    private static List<TransactionResponse> toResponses(List<Transaction> transactions) {
+        return transactions.stream()
+                .map(TransactionResponse::new)
+                .collect(Collectors.toList());
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (id, reference, account_number, amount, type, description, "
+                + "transaction_date, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+}
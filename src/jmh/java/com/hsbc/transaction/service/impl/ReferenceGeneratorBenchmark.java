@@ -0,0 +1,48 @@
+package com.hsbc.transaction.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reference generation on one thread and under contention on the shared
+ * compare-and-set state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReferenceGeneratorBenchmark {
+
+    private TimeBasedReferenceGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new TimeBasedReferenceGenerator(1, Clock.systemDefaultZone(), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public String nextReference() {
+        return generator.nextReference();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String nextReferenceContended() {
+        return generator.nextReference();
+    }
+}
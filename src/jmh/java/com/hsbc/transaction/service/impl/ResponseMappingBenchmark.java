@@ -0,0 +1,94 @@
+package com.hsbc.transaction.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping and JSON serialization of a page, i.e. the work done
+ * for every list response after the rows are loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Transaction transaction;
+    private Page<Transaction> page;
+    private PageResponse<TransactionResponse> pageResponse;
+
+    @Setup
+    public void setUp() {
+        // Same serialization settings as the ObjectMapper Spring Boot configures for MVC
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> rows = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Transaction row = new Transaction("TXN2024010112000000000" + (1000 + i), "1234567" + (i % 10),
+                    new BigDecimal("100.00").add(BigDecimal.valueOf(i)), TransactionType.values()[i % TransactionType.values().length],
+                    "Benchmark transaction " + i, now.minusMinutes(i));
+            row.setId((long) i + 1);
+            row.setNotes(i % 3 == 0 ? "Reviewed" : null);
+            row.setCreatedAt(now);
+            row.setUpdatedAt(now);
+            rows.add(row);
+        }
+        transaction = rows.get(0);
+        page = new PageImpl<>(rows, PageRequest.of(3, pageSize), 10_000);
+        pageResponse = TransactionServiceImpl.createPageResponse(page);
+    }
+
+    @Benchmark
+    public TransactionResponse transactionResponse() {
+        return new TransactionResponse(transaction);
+    }
+
+    @Benchmark
+    public PageResponse<TransactionResponse> createPageResponse() {
+        return TransactionServiceImpl.createPageResponse(page);
+    }
+
+    @Benchmark
+    public byte[] serializePageResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(pageResponse);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(TransactionServiceImpl.createPageResponse(page));
+    }
+}
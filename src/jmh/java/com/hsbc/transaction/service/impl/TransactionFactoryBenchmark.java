@@ -0,0 +1,78 @@
+package com.hsbc.transaction.service.impl;
+
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.model.Transaction;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request validation and entity creation, the per-row work shared by the
+ * synchronous, batch and write-behind creation paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionFactoryBenchmark {
+
+    private ValidatorFactory validatorFactory;
+    private TransactionFactory transactionFactory;
+    private TransactionRequest request;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        transactionFactory = new TransactionFactory(
+                new TimeBasedReferenceGenerator(1, Clock.systemDefaultZone(), new SimpleMeterRegistry()),
+                validatorFactory.getValidator(), new SimpleMeterRegistry());
+
+        request = new TransactionRequest();
+        request.setAccountNumber("12345678");
+        request.setAmount(new BigDecimal("250.75"));
+        request.setType("deposit");
+        request.setDescription("Salary payment");
+        request.setTransactionDate(LocalDateTime.now().minusDays(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public void validateTransactionRequest(Blackhole blackhole) {
+        transactionFactory.validateTransactionRequest(request);
+        blackhole.consume(request);
+    }
+
+    @Benchmark
+    public void validateConstraints(Blackhole blackhole) {
+        transactionFactory.validateConstraints(request);
+        blackhole.consume(request);
+    }
+
+    @Benchmark
+    public Transaction create() {
+        return transactionFactory.create(request);
+    }
+}
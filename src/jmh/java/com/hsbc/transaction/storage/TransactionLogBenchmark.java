@@ -0,0 +1,94 @@
+package com.hsbc.transaction.storage;
+
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Appending one group of rows to the transaction log, as one commit does:
+ * a single create, or a 100-row batch. With {@code ALWAYS} every append
+ * waits for its range to be forced to disk; with {@code NEVER} an append is
+ * encoding, a checksum and a memory copy. Each iteration starts a new log.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="TransactionLogBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionLogBenchmark {
+
+    @Param({"ALWAYS", "NEVER"})
+    private FsyncPolicy fsync;
+
+    @Param({"1", "100"})
+    private int batchSize;
+
+    private Path directory;
+    private TransactionLog transactionLog;
+    private List<Transaction> batch;
+    private long nextId;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("transaction-log-benchmark");
+        transactionLog = TransactionLog.open(directory, 256L * 1024 * 1024, fsync, 1);
+        LocalDateTime now = LocalDateTime.now();
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            Transaction transaction = new Transaction("TXN2024010112000000000" + (1000 + i), "1234567" + (i % 10),
+                    new BigDecimal("100.00").add(BigDecimal.valueOf(i)), TransactionType.PAYMENT,
+                    "Benchmark transaction " + i, now);
+            transaction.setVersion(0L);
+            transaction.setCreatedAt(now);
+            transaction.setUpdatedAt(now);
+            batch.add(transaction);
+        }
+        nextId = 1;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        transactionLog = null;
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void append() {
+        for (Transaction transaction : batch) {
+            transaction.setId(nextId++);
+        }
+        transactionLog.write(batch);
+    }
+}
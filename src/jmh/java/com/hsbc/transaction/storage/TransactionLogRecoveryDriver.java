@@ -0,0 +1,158 @@
+package com.hsbc.transaction.storage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionStatus;
+import com.hsbc.transaction.model.TransactionType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes a transaction log of N rows (default 10 million) in commits of
+ * 1000, then reopens it with each replay thread count, timing the parallel
+ * segment replay that rebuilds the indexes and the full scan that loads the
+ * database on startup. Every 20th row is updated once and every 100th
+ * deleted, so replay also resolves versions and tombstones. Results are
+ * printed and written to {@code target/log-recovery.json}; the log itself
+ * goes to {@code target/log-recovery} and is removed afterwards.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec \
+ *     -Dbenchmark.main=com.hsbc.transaction.storage.TransactionLogRecoveryDriver \
+ *     -Dbenchmark.args="10000000 1,2,4,8"
+ * </pre>
+ *
+ * The indexes hold about 60 bytes per row, and replay briefly needs more, so
+ * 10 million rows want a heap of a few gigabytes:
+ * {@code JDK_JAVA_OPTIONS=-Xmx4g} in front of the command above.
+ */
+public final class TransactionLogRecoveryDriver {
+
+    private static final int COMMIT_SIZE = 1_000;
+    private static final long SEGMENT_SIZE = 256L * 1024 * 1024;
+
+    private TransactionLogRecoveryDriver() {}
+
+    public static void main(String[] args) throws Exception {
+        long rows = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int[] threadCounts = args.length > 1
+                ? Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 2, 4, 8};
+        Path directory = Path.of("target", "log-recovery");
+        delete(directory);
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("rows", rows);
+        results.put("append", append(directory, rows));
+        List<Map<String, Object>> replays = new ArrayList<>();
+        for (int threads : threadCounts) {
+            replays.add(replay(directory, threads, rows));
+        }
+        results.put("replay", replays);
+        delete(directory);
+
+        Path output = Path.of("target", "log-recovery.json");
+        Files.createDirectories(output.getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), results);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+
+    private static Map<String, Object> append(Path directory, long rows) throws IOException {
+        // Forced once at the end: this measures the append path, not the disk's flush latency
+        TransactionLog transactionLog = TransactionLog.open(directory, SEGMENT_SIZE, FsyncPolicy.NEVER, 1);
+        LocalDateTime now = LocalDateTime.now();
+        List<Transaction> commit = new ArrayList<>(COMMIT_SIZE);
+        List<Long> deletes = new ArrayList<>();
+        long records = 0;
+        long started = System.nanoTime();
+        for (long id = 1; id <= rows; id++) {
+            commit.add(row(id, now, 0L));
+            if (id % 20 == 0) {
+                commit.add(row(id, now, 1L));
+            }
+            if (id % 100 == 0) {
+                deletes.add(id);
+            }
+            if (commit.size() >= COMMIT_SIZE || id == rows) {
+                transactionLog.write(commit);
+                transactionLog.delete(deletes);
+                records += commit.size() + deletes.size();
+                commit.clear();
+                deletes.clear();
+            }
+        }
+        transactionLog.flush();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("records", records);
+        result.put("seconds", seconds);
+        result.put("recordsPerSecond", records / seconds);
+        result.put("bytes", transactionLog.usedBytes());
+        result.put("segments", transactionLog.segmentCount());
+        System.out.printf("append   %,d records (%,d bytes, %d segments) in %.2f s: %,.0f records/s%n",
+                records, transactionLog.usedBytes(), transactionLog.segmentCount(), seconds, records / seconds);
+        return result;
+    }
+
+    private static Map<String, Object> replay(Path directory, int threads, long rows) throws IOException {
+        System.gc();
+        long started = System.nanoTime();
+        TransactionLog transactionLog = TransactionLog.open(directory, SEGMENT_SIZE, FsyncPolicy.NEVER, threads);
+        double replaySeconds = (System.nanoTime() - started) / 1e9;
+
+        long[] visited = {0};
+        started = System.nanoTime();
+        transactionLog.forEach(row -> visited[0]++);
+        double scanSeconds = (System.nanoTime() - started) / 1e9;
+
+        long expected = rows - rows / 100;
+        if (transactionLog.size() != expected || visited[0] != expected) {
+            throw new IllegalStateException("Expected " + expected + " live rows, found " + transactionLog.size());
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("threads", threads);
+        result.put("replaySeconds", replaySeconds);
+        result.put("scanSeconds", scanSeconds);
+        result.put("liveRows", transactionLog.size());
+        System.out.printf("replay   %2d threads: indexes rebuilt in %.2f s, %,d live rows decoded in %.2f s%n",
+                threads, replaySeconds, transactionLog.size(), scanSeconds);
+        return result;
+    }
+
+    private static Transaction row(long id, LocalDateTime now, long version) {
+        Transaction transaction = new Transaction(String.format("TXN20240101120000000%011d", id),
+                String.valueOf(10_000_000 + id % 50_000), BigDecimal.valueOf(100 + id % 10_000, 2),
+                TransactionType.values()[(int) (id % TransactionType.values().length)],
+                "Recovery benchmark transaction " + id, now.minusSeconds(id));
+        transaction.setId(id);
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        transaction.setVersion(version);
+        transaction.setCreatedAt(now);
+        transaction.setUpdatedAt(now);
+        return transaction;
+    }
+
+    private static void delete(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+}
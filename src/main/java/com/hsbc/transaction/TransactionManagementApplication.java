@@ -2,12 +2,21 @@ package com.hsbc.transaction;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// R2DBC is only used by the reactive read API, which builds its own pool; a ConnectionFactory
+// bean would make Boot skip the JDBC DataSource that JPA and Flyway run on
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
+@ConfigurationPropertiesScan
 @EnableCaching
 @EnableJpaAuditing
+@EnableAsync
+@EnableScheduling
 public class TransactionManagementApplication {
 
     public static void main(String[] args) {
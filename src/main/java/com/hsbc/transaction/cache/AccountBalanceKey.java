@@ -0,0 +1,29 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.model.TransactionType;
+
+/**
+ * Cache key for a per-account aggregate. Keeping the account number as its
+ * own component lets a write evict exactly the figures of the account it
+ * touched.
+ */
+public record AccountBalanceKey(String accountNumber, Metric metric, TransactionType type) {
+
+    public enum Metric {
+        COUNT,
+        BALANCE,
+        TYPE_BALANCE
+    }
+
+    public static AccountBalanceKey count(String accountNumber) {
+        return new AccountBalanceKey(accountNumber, Metric.COUNT, null);
+    }
+
+    public static AccountBalanceKey balance(String accountNumber) {
+        return new AccountBalanceKey(accountNumber, Metric.BALANCE, null);
+    }
+
+    public static AccountBalanceKey balance(String accountNumber, TransactionType type) {
+        return new AccountBalanceKey(accountNumber, Metric.TYPE_BALANCE, type);
+    }
+}
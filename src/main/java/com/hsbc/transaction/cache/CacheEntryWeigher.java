@@ -0,0 +1,24 @@
+package com.hsbc.transaction.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import com.hsbc.transaction.dto.PageResponse;
+
+import java.util.Collection;
+
+/**
+ * Weighs cached values by the number of transaction rows they hold, so a
+ * weight bound caps memory rather than the number of keys.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+    @Override
+    public int weigh(Object key, Object value) {
+        if (value instanceof PageResponse<?> page) {
+            return 1 + page.getContent().size();
+        }
+        if (value instanceof Collection<?> collection) {
+            return 1 + collection.size();
+        }
+        return 1;
+    }
+}
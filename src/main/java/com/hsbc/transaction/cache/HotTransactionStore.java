@@ -0,0 +1,337 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.config.HotStoreProperties;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.service.AccountSummaryService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The latest transactions of each recently read account, and of the whole
+ * table, held in memory so the recent list and first account pages need no
+ * query. Buffers are filled from the database on first read and then kept
+ * current by applying each committed create, update and delete; accounts
+ * are evicted least recently used first once the estimated footprint passes
+ * {@code transaction.hot-store.max-memory}.
+ *
+ * <p>Each buffer has its own lock, so reads and writes of different accounts
+ * never wait for each other; a global lock is only taken to evict once the
+ * budget is exceeded, oldest read first. A load that overlaps a write to its
+ * scope returns what it read but does not install it, see
+ * {@link InFlightWrites}. The importer writes without events and clears the
+ * store instead.
+ */
+@Component
+public class HotTransactionStore {
+
+    private static final Sort DATE_DESC = Sort.by(Sort.Direction.DESC, "transactionDate");
+    private static final Sort DATE_ID_DESC = Sort.by(Sort.Direction.DESC, "transactionDate", "id");
+
+    private final HotStoreProperties properties;
+    private final TransactionRepository transactionRepository;
+    private final AccountSummaryService accountSummaryService;
+    private final Counter hits;
+    private final Counter misses;
+
+    private final Map<String, Slot> accounts = new ConcurrentHashMap<>();
+    private final Slot recent = new Slot(null);
+    private final AtomicLong usedBytes = new AtomicLong();
+    // Plain locks rather than synchronized, which would pin virtual threads while waiting
+    private final Lock evictionLock = new ReentrantLock();
+    private final InFlightWrites writes = new InFlightWrites();
+
+    @Autowired
+    public HotTransactionStore(HotStoreProperties properties,
+                               TransactionRepository transactionRepository,
+                               AccountSummaryService accountSummaryService,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.transactionRepository = transactionRepository;
+        this.accountSummaryService = accountSummaryService;
+
+        Gauge.builder("transaction.hotstore.bytes", usedBytes, AtomicLong::get)
+                .description("Estimated memory held by the hot transaction store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("transaction.hotstore.accounts", accounts, Map::size)
+                .register(meterRegistry);
+        this.hits = Counter.builder("transaction.hotstore.reads")
+                .tag("outcome", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("transaction.hotstore.reads")
+                .tag("outcome", "miss")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled() && properties.getCapacity() > 0;
+    }
+
+    /**
+     * Whether the store can answer this account page: the first page, no
+     * larger than the buffers, newest first.
+     */
+    public boolean covers(Pageable pageable) {
+        if (!isEnabled() || pageable.isUnpaged() || pageable.getOffset() != 0
+                || pageable.getPageSize() > properties.getCapacity()) {
+            return false;
+        }
+        Sort sort = pageable.getSort();
+        return sort.isUnsorted() || sort.equals(DATE_DESC) || sort.equals(DATE_ID_DESC);
+    }
+
+    /**
+     * The newest {@code limit} transactions of the whole table.
+     */
+    public List<TransactionResponse> recent(int limit) {
+        if (!isEnabled() || limit > properties.getCapacity()) {
+            return transactionRepository.findRecentResponses(Limit.of(limit));
+        }
+        recent.lock.lock();
+        try {
+            if (recent.buffer != null && recent.buffer.covers(limit)) {
+                hits.increment();
+                return recent.buffer.newest(limit);
+            }
+        } finally {
+            recent.lock.unlock();
+        }
+        misses.increment();
+
+        InFlightWrites.Read load = writes.begin(row -> true);
+        List<TransactionResponse> rows;
+        try {
+            rows = transactionRepository.findRecentResponses(Limit.of(properties.getCapacity()));
+            RecentTransactionBuffer buffer = RecentTransactionBuffer.global(properties.getCapacity(), rows);
+            recent.lock.lock();
+            try {
+                if (buffer != null && !load.isStale()) {
+                    recent.replace(buffer);
+                }
+            } finally {
+                recent.lock.unlock();
+            }
+        } finally {
+            writes.end(load);
+        }
+        enforceBudget();
+        return rows.size() > limit ? List.copyOf(rows.subList(0, limit)) : rows;
+    }
+
+    /**
+     * The newest {@code size} transactions of an account and how many it
+     * has in total. Callers check {@link #covers(Pageable)} first.
+     */
+    public AccountWindow accountWindow(String accountNumber, int size) {
+        Slot slot = accounts.get(accountNumber);
+        if (slot != null) {
+            slot.lock.lock();
+            try {
+                if (slot.buffer != null && slot.buffer.covers(size)) {
+                    slot.lastRead = System.nanoTime();
+                    hits.increment();
+                    return new AccountWindow(slot.buffer.newest(size), slot.buffer.total());
+                }
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+        misses.increment();
+
+        InFlightWrites.Read load = writes.begin(row -> accountNumber.equals(row.getAccountNumber()));
+        List<TransactionResponse> rows;
+        long total;
+        try {
+            rows = transactionRepository.findByAccountNumberOrderByTransactionDateDescIdDesc(accountNumber,
+                    Limit.of(properties.getCapacity()));
+            total = accountSummaryService.getTransactionCount(accountNumber);
+            RecentTransactionBuffer buffer = RecentTransactionBuffer.forAccount(accountNumber,
+                    properties.getCapacity(), rows, total);
+            if (buffer != null && !load.isStale()) {
+                install(accountNumber, buffer, load);
+            }
+        } finally {
+            writes.end(load);
+        }
+        enforceBudget();
+        List<TransactionResponse> window = rows.size() > size ? List.copyOf(rows.subList(0, size)) : rows;
+        return new AccountWindow(window, Math.max(total, rows.size()));
+    }
+
+    /**
+     * Drop every buffer, for writes that bypass change events.
+     */
+    public void clear() {
+        // Loads that read before the clear must not reinstall what they saw
+        writes.invalidateReads();
+        for (Slot slot : accounts.values()) {
+            drop(slot);
+        }
+        drop(recent);
+    }
+
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        List<Transaction> rows = event.getTransactions();
+        writes.track(rows, TransactionChangeTracker.STATE_SYNCHRONIZATION_ORDER,
+                () -> apply(event.getChangeType(), rows));
+    }
+
+    private void install(String accountNumber, RecentTransactionBuffer buffer, InFlightWrites.Read load) {
+        while (true) {
+            Slot slot = accounts.computeIfAbsent(accountNumber, Slot::new);
+            slot.lock.lock();
+            try {
+                if (slot.removed) {
+                    // Evicted since it was looked up; the next lookup makes a fresh slot
+                    continue;
+                }
+                if (load.isStale()) {
+                    if (slot.buffer == null) {
+                        slot.remove();
+                    }
+                    return;
+                }
+                slot.lastRead = System.nanoTime();
+                slot.replace(buffer);
+                return;
+            } finally {
+                slot.lock.unlock();
+            }
+        }
+    }
+
+    // Rows are read once committed, so values set on flush such as updatedAt are included
+    private void apply(TransactionChangedEvent.ChangeType changeType, List<Transaction> rows) {
+        for (Transaction row : rows) {
+            TransactionResponse response = new TransactionResponse(row);
+            apply(recent, changeType, response);
+            Slot slot = accounts.get(response.getAccountNumber());
+            if (slot != null) {
+                apply(slot, changeType, response);
+            }
+        }
+        enforceBudget();
+    }
+
+    private void apply(Slot slot, TransactionChangedEvent.ChangeType changeType, TransactionResponse response) {
+        slot.lock.lock();
+        try {
+            if (slot.buffer == null) {
+                return;
+            }
+            // Counts as a use: accounts being written to stay warm
+            slot.lastRead = System.nanoTime();
+            long before = slot.buffer.bytes();
+            if (apply(slot.buffer, changeType, response)) {
+                usedBytes.addAndGet(slot.buffer.bytes() - before);
+            } else {
+                slot.replace(null);
+                slot.remove();
+            }
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    private static boolean apply(RecentTransactionBuffer buffer, TransactionChangedEvent.ChangeType changeType,
+                                 TransactionResponse response) {
+        switch (changeType) {
+            case CREATED -> {
+                return buffer.add(response);
+            }
+            case UPDATED -> buffer.update(response);
+            case DELETED -> buffer.remove(response.getId());
+        }
+        return true;
+    }
+
+    private void drop(Slot slot) {
+        slot.lock.lock();
+        try {
+            slot.replace(null);
+            slot.remove();
+        } finally {
+            slot.lock.unlock();
+        }
+    }
+
+    // Accounts go first, least recently read first, and the global buffer only if they are not enough
+    private void enforceBudget() {
+        long limit = properties.getMaxMemory().toBytes();
+        if (usedBytes.get() <= limit) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            // Read times move while sorting, so sort a snapshot of them
+            List<Map.Entry<Slot, Long>> eldestFirst = new ArrayList<>(accounts.size());
+            for (Slot slot : accounts.values()) {
+                eldestFirst.add(Map.entry(slot, slot.lastRead));
+            }
+            eldestFirst.sort(Map.Entry.comparingByValue(Comparator.naturalOrder()));
+            for (int i = 0; i < eldestFirst.size() && usedBytes.get() > limit; i++) {
+                drop(eldestFirst.get(i).getKey());
+            }
+            if (usedBytes.get() > limit) {
+                drop(recent);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public record AccountWindow(List<TransactionResponse> rows, long total) {
+    }
+
+    /**
+     * One buffer and the lock that guards it. An account slot leaves the map
+     * for good once removed; a later load makes a new one.
+     */
+    private final class Slot {
+
+        // null for the global buffer, which is never removed
+        private final String accountNumber;
+        private final Lock lock = new ReentrantLock();
+        private RecentTransactionBuffer buffer;
+        private boolean removed;
+        private volatile long lastRead;
+
+        private Slot(String accountNumber) {
+            this.accountNumber = accountNumber;
+        }
+
+        // Callers hold the lock
+        private void replace(RecentTransactionBuffer replacement) {
+            usedBytes.addAndGet((replacement != null ? replacement.bytes() : 0) - (buffer != null ? buffer.bytes() : 0));
+            buffer = replacement;
+        }
+
+        // Callers hold the lock
+        private void remove() {
+            if (accountNumber != null && !removed) {
+                removed = true;
+                accounts.remove(accountNumber, this);
+            }
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.config.IdempotencyProperties;
+import com.hsbc.transaction.exception.IdempotencyKeyInProgressException;
+import com.hsbc.transaction.exception.IdempotencyKeyMismatchException;
+import com.hsbc.transaction.exception.ValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Outcomes of keyed create requests, so a client retrying with the same
+ * {@code Idempotency-Key} gets the original response instead of a second
+ * transaction. The first request for a key runs the write; requests
+ * arriving while it is in flight wait for its result rather than racing it
+ * to the database.
+ *
+ * <p>Keys are spread over independently locked segments, and a lock is only
+ * held to look up or register an entry, never while writing or waiting.
+ * Completed outcomes are kept for {@code transaction.idempotency.ttl}, up to
+ * {@code maximum-size} in total. Past that, the key column on the
+ * transactions table answers: the write path's {@code recorded} lookup runs
+ * before every first attempt, and again if the write fails, since a unique
+ * key violation means another instance wrote the row first.
+ *
+ * <p>Each key is bound to the {@link RequestFingerprint} of the request that
+ * first used it. A request reusing the key with a different body gets
+ * {@link IdempotencyKeyMismatchException} rather than someone else's outcome;
+ * {@code recorded} lookups check the fingerprint stored with the row through
+ * {@link #verify}.
+ */
+@Component
+public class IdempotencyKeyStore {
+
+    // Batch items are stored as "<key>:<index>", so ':' cannot appear in client keys
+    private static final Pattern KEY_PATTERN = Pattern.compile("[A-Za-z0-9._-]{1,200}");
+    // Completes the entry of a failed attempt; waiters then try again themselves
+    private static final Object RETRY = new Object();
+
+    private final IdempotencyProperties properties;
+    private final Clock clock;
+    private final Segment[] segments;
+    private final int segmentCapacity;
+    private final Counter firstRequests;
+    private final Counter replays;
+
+    @Autowired
+    public IdempotencyKeyStore(IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Clock.systemUTC());
+    }
+
+    public IdempotencyKeyStore(IdempotencyProperties properties, MeterRegistry meterRegistry, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        int stripes = Integer.highestOneBit(Math.max(1, properties.getStripes() - 1) << 1);
+        this.segments = new Segment[stripes];
+        for (int i = 0; i < stripes; i++) {
+            segments[i] = new Segment();
+        }
+        this.segmentCapacity = Math.max(1, properties.getMaximumSize() / stripes);
+        this.firstRequests = Counter.builder("transaction.idempotency.requests")
+                .tag("outcome", "first")
+                .register(meterRegistry);
+        this.replays = Counter.builder("transaction.idempotency.requests")
+                .tag("outcome", "replayed")
+                .register(meterRegistry);
+    }
+
+    public static void validate(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new ValidationException("Idempotency-Key must be 1 to 200 characters from A-Z, a-z, 0-9, '.', '_' and '-'");
+        }
+    }
+
+    /**
+     * Rejects a recorded row whose request differs from the one retrying its
+     * key. Rows written without a fingerprint are taken as they are.
+     */
+    public static void verify(String key, String fingerprint, String recordedFingerprint) {
+        if (recordedFingerprint != null && !recordedFingerprint.equals(fingerprint)) {
+            throw new IdempotencyKeyMismatchException(key);
+        }
+    }
+
+    /**
+     * The key recorded on the {@code index}-th item of a keyed batch.
+     */
+    public static String itemKey(String key, int index) {
+        return itemKeyPrefix(key) + index;
+    }
+
+    public static String itemKeyPrefix(String key) {
+        return key + ":";
+    }
+
+    /**
+     * The outcome for {@code key}: replayed from memory, taken from
+     * {@code recorded}, or produced by running {@code action} once.
+     * Outcomes of different types never share a key.
+     *
+     * @throws IdempotencyKeyInProgressException if the request holding the
+     *         key does not finish within {@code wait-timeout}
+     * @throws IdempotencyKeyMismatchException if the key was used for a
+     *         request with another {@code fingerprint}
+     */
+    public <T> T execute(String key, String fingerprint, Class<T> type, Supplier<Optional<T>> recorded,
+                         Supplier<T> action) {
+        return execute(key, fingerprint, type, recorded, action, outcome -> true);
+    }
+
+    /**
+     * As {@link #execute(String, String, Class, Supplier, Supplier)}, but an
+     * outcome failing {@code replayable} is handed to the requests already
+     * waiting and then forgotten, so the next retry runs {@code action} again.
+     */
+    public <T> T execute(String key, String fingerprint, Class<T> type, Supplier<Optional<T>> recorded,
+                         Supplier<T> action, Predicate<? super T> replayable) {
+        validate(key);
+        EntryKey entryKey = new EntryKey(type, key);
+        Segment segment = segmentFor(entryKey);
+        while (true) {
+            Entry entry;
+            boolean owner = false;
+            segment.lock.lock();
+            try {
+                long now = clock.millis();
+                segment.purgeExpired(now);
+                entry = segment.entries.get(entryKey);
+                if (entry != null && entry.expiresAt <= now) {
+                    segment.entries.remove(entryKey);
+                    entry = null;
+                }
+                if (entry == null) {
+                    entry = new Entry(fingerprint);
+                    segment.entries.put(entryKey, entry);
+                    owner = true;
+                } else if (!Objects.equals(entry.fingerprint, fingerprint)) {
+                    throw new IdempotencyKeyMismatchException(key);
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+
+            if (owner) {
+                return run(segment, entryKey, entry, recorded, action, replayable);
+            }
+            Object outcome = await(entry, key);
+            if (outcome != RETRY) {
+                replays.increment();
+                return type.cast(outcome);
+            }
+        }
+    }
+
+    private <T> T run(Segment segment, EntryKey entryKey, Entry entry,
+                      Supplier<Optional<T>> recorded, Supplier<T> action, Predicate<? super T> replayable) {
+        T outcome;
+        Optional<T> previous;
+        try {
+            previous = recorded.get();
+        } catch (RuntimeException e) {
+            // Including a row recorded for a different request
+            abandon(segment, entryKey, entry);
+            throw e;
+        }
+        try {
+            if (previous.isPresent()) {
+                replays.increment();
+                outcome = previous.get();
+            } else {
+                outcome = action.get();
+                firstRequests.increment();
+            }
+        } catch (RuntimeException e) {
+            previous = Optional.empty();
+            try {
+                previous = recorded.get();
+            } catch (IdempotencyKeyMismatchException mismatch) {
+                // Another instance won the key with a different request
+                abandon(segment, entryKey, entry);
+                throw mismatch;
+            } catch (RuntimeException lookupFailure) {
+                e.addSuppressed(lookupFailure);
+            }
+            if (previous.isEmpty()) {
+                abandon(segment, entryKey, entry);
+                throw e;
+            }
+            replays.increment();
+            outcome = previous.get();
+        }
+
+        segment.lock.lock();
+        try {
+            if (replayable.test(outcome)) {
+                entry.expiresAt = clock.millis() + properties.getTtl().toMillis();
+                segment.evictOverflow(segmentCapacity);
+            } else {
+                segment.entries.remove(entryKey, entry);
+            }
+        } finally {
+            segment.lock.unlock();
+        }
+        entry.outcome.complete(outcome);
+        return outcome;
+    }
+
+    private void abandon(Segment segment, EntryKey entryKey, Entry entry) {
+        segment.lock.lock();
+        try {
+            segment.entries.remove(entryKey, entry);
+        } finally {
+            segment.lock.unlock();
+        }
+        entry.outcome.complete(RETRY);
+    }
+
+    private Object await(Entry entry, String key) {
+        try {
+            return entry.outcome.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException(key);
+        } catch (ExecutionException e) {
+            // Entries are never completed exceptionally; treat it like a failed attempt
+            return RETRY;
+        }
+    }
+
+    private Segment segmentFor(EntryKey entryKey) {
+        int hash = entryKey.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    private record EntryKey(Class<?> type, String key) {
+    }
+
+    private static final class Entry {
+
+        private final String fingerprint;
+        private final CompletableFuture<Object> outcome = new CompletableFuture<>();
+        // In flight until completed; written and read under the segment lock
+        private long expiresAt = Long.MAX_VALUE;
+
+        private Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static final class Segment {
+
+        private final Lock lock = new ReentrantLock();
+        // Insertion order, which is close to completion order, so expired entries gather at the head
+        private final LinkedHashMap<EntryKey, Entry> entries = new LinkedHashMap<>();
+
+        private void purgeExpired(long now) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.expiresAt > now) {
+                    return;
+                }
+                iterator.remove();
+            }
+        }
+
+        // Oldest completed outcomes go first; the database still answers for them
+        private void evictOverflow(int capacity) {
+            Iterator<Map.Entry<EntryKey, Entry>> iterator = entries.entrySet().iterator();
+            while (entries.size() > capacity && iterator.hasNext()) {
+                if (iterator.next().getValue().expiresAt != Long.MAX_VALUE) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.model.Transaction;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Writes published through change events but not yet committed or rolled
+ * back, and the reads running alongside them, for the in-memory state that
+ * loads from the database and is then kept current by applying each write.
+ *
+ * <p>A read cannot know whether it saw the rows of a write that overlapped
+ * it, so such a read is marked stale: its result may be returned but must
+ * not be installed. A write counts as in flight from its change event,
+ * published inside the writing transaction before it commits, until its
+ * changes have been applied after the commit.
+ *
+ * <p>Installing a read's result and applying a write must exclude each
+ * other; that is up to the owner, which checks {@link Read#isStale()} under
+ * the same lock it applies writes under.
+ */
+final class InFlightWrites {
+
+    private final Lock lock = new ReentrantLock();
+    private final Set<List<Transaction>> writes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Read> reads = new HashSet<>();
+
+    /**
+     * Start tracking a read of the rows {@code scope} matches, stale at once
+     * if a matching write is already in flight.
+     */
+    Read begin(Predicate<Transaction> scope) {
+        Read read = new Read(scope);
+        lock.lock();
+        try {
+            read.stale = writes.stream().anyMatch(rows -> rows.stream().anyMatch(scope));
+            reads.add(read);
+        } finally {
+            lock.unlock();
+        }
+        return read;
+    }
+
+    /**
+     * Stop tracking a read, only once its result has been installed or
+     * dropped: a write published before that must still mark it stale.
+     */
+    void end(Read read) {
+        lock.lock();
+        try {
+            reads.remove(read);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mark every running read stale, for writes made without change events.
+     */
+    void invalidateReads() {
+        lock.lock();
+        try {
+            reads.forEach(read -> read.stale = true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Track a published write until {@code onCommit} has applied it, or until
+     * it rolls back. The rows stay in flight while they are applied, so a
+     * read that starts meanwhile cannot install a result that already holds
+     * them and then have them applied again.
+     */
+    void track(List<Transaction> rows, int order, Runnable onCommit) {
+        lock.lock();
+        try {
+            writes.add(rows);
+            for (Read read : reads) {
+                if (!read.stale && rows.stream().anyMatch(read.scope)) {
+                    read.stale = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        afterCompletion(order, committed -> {
+            try {
+                if (committed) {
+                    onCommit.run();
+                }
+            } finally {
+                lock.lock();
+                try {
+                    writes.remove(rows);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        });
+    }
+
+    /**
+     * Run {@code completion} once the current transaction completes, with
+     * whether it committed, or right away outside a transaction.
+     */
+    static void afterCompletion(int order, Consumer<Boolean> completion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Published outside a transaction: the rows are already committed
+            completion.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                return order;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                completion.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    static final class Read {
+
+        private final Predicate<Transaction> scope;
+        private volatile boolean stale;
+
+        private Read(Predicate<Transaction> scope) {
+            this.scope = scope;
+        }
+
+        boolean isStale() {
+            return stale;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.hsbc.transaction.cache;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A Caffeine cache that keeps a {@link TransactionPageKeyIndex} of its page
+ * keys, so writes can find the pages or totals they affect directly. Entries
+ * Caffeine evicts on its own are dropped from the index by the eviction
+ * listener {@code CacheConfig} installs.
+ */
+public class PageIndexedCaffeineCache extends CaffeineCache {
+
+    private final TransactionPageKeyIndex keyIndex;
+
+    public PageIndexedCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                    boolean allowNullValues, TransactionPageKeyIndex keyIndex) {
+        super(name, cache, allowNullValues);
+        this.keyIndex = keyIndex;
+    }
+
+    public TransactionPageKeyIndex getKeyIndex() {
+        return keyIndex;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        T value = super.get(key, valueLoader);
+        keyIndex.add(key);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        keyIndex.add(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = super.putIfAbsent(key, value);
+        keyIndex.add(key);
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        keyIndex.remove(key);
+        super.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        keyIndex.remove(key);
+        return super.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        keyIndex.clear();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        keyIndex.clear();
+        return super.invalidate();
+    }
+}
@@ -0,0 +1,344 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.model.TransactionStatus;
+import com.hsbc.transaction.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The newest transactions of one account, or of all accounts, ordered by
+ * {@code transactionDate desc, id desc} in fixed-size columns. Numbers,
+ * timestamps and enums are stored as primitives; only the text fields are
+ * objects. Responses are rebuilt on read.
+ *
+ * <p>The buffer always holds the newest {@link #size()} transactions of its
+ * scope. A transaction older than everything held is only added while the
+ * buffer is known to be complete, since an unheld row could sit in between.
+ * Not thread-safe; {@link HotTransactionStore} guards every instance.
+ */
+final class RecentTransactionBuffer {
+
+    // Rough footprint on a 64-bit JVM with compressed oops
+    private static final long FIXED_BYTES = 16 * 16 + 64;
+    private static final long SLOT_BYTES = 8 + 8 + 8 + 3 * (8 + 4) + 1 + 1 + 4 * 4;
+    private static final long STRING_BYTES = 40;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final long NO_VERSION = Long.MIN_VALUE;
+    private static final TransactionType[] TYPES = TransactionType.values();
+    private static final TransactionStatus[] STATUSES = TransactionStatus.values();
+
+    // Shared by every slot of an account buffer; null for the global buffer
+    private final String accountNumber;
+
+    private final long[] ids;
+    private final long[] amountCents;
+    private final long[] versions;
+    private final long[] dateSeconds;
+    private final int[] dateNanos;
+    private final long[] createdSeconds;
+    private final int[] createdNanos;
+    private final long[] updatedSeconds;
+    private final int[] updatedNanos;
+    private final byte[] types;
+    private final byte[] statuses;
+    private final String[] accountNumbers;
+    private final String[] references;
+    private final String[] descriptions;
+    private final String[] notes;
+
+    private int size;
+    // Transactions in scope in the database, or -1 when not tracked
+    private long total;
+    // Every transaction in scope is held
+    private boolean complete;
+
+    private RecentTransactionBuffer(String accountNumber, int capacity) {
+        this.accountNumber = accountNumber;
+        ids = new long[capacity];
+        amountCents = new long[capacity];
+        versions = new long[capacity];
+        dateSeconds = new long[capacity];
+        dateNanos = new int[capacity];
+        createdSeconds = new long[capacity];
+        createdNanos = new int[capacity];
+        updatedSeconds = new long[capacity];
+        updatedNanos = new int[capacity];
+        types = new byte[capacity];
+        statuses = new byte[capacity];
+        accountNumbers = accountNumber == null ? new String[capacity] : null;
+        references = new String[capacity];
+        descriptions = new String[capacity];
+        notes = new String[capacity];
+    }
+
+    /**
+     * An account buffer from its newest rows, newest first, and the number
+     * of rows the account has. {@code null} when a row cannot be stored.
+     */
+    static RecentTransactionBuffer forAccount(String accountNumber, int capacity,
+                                              List<TransactionResponse> newest, long total) {
+        RecentTransactionBuffer buffer = new RecentTransactionBuffer(accountNumber, capacity);
+        buffer.total = Math.max(total, newest.size());
+        return buffer.fill(newest) ? buffer : null;
+    }
+
+    /**
+     * The global buffer from the newest rows of the table, newest first.
+     * {@code null} when a row cannot be stored.
+     */
+    static RecentTransactionBuffer global(int capacity, List<TransactionResponse> newest) {
+        RecentTransactionBuffer buffer = new RecentTransactionBuffer(null, capacity);
+        buffer.total = -1;
+        buffer.complete = newest.size() < capacity;
+        return buffer.fill(newest) ? buffer : null;
+    }
+
+    private boolean fill(List<TransactionResponse> newest) {
+        for (TransactionResponse response : newest) {
+            if (size == ids.length || !storable(response)) {
+                return size == ids.length;
+            }
+            write(size++, response);
+        }
+        if (total >= 0) {
+            complete = size == total;
+        }
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long total() {
+        return total;
+    }
+
+    /**
+     * Whether the newest {@code limit} transactions in scope are all held.
+     */
+    boolean covers(int limit) {
+        return size >= limit || complete;
+    }
+
+    List<TransactionResponse> newest(int limit) {
+        int count = Math.min(limit, size);
+        List<TransactionResponse> responses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            responses.add(read(i));
+        }
+        return responses;
+    }
+
+    /**
+     * Apply a committed create. Returns false when the row cannot be stored
+     * and the buffer has to be dropped.
+     */
+    boolean add(TransactionResponse response) {
+        if (!storable(response)) {
+            return false;
+        }
+        if (total >= 0) {
+            total++;
+        }
+        if (indexOf(response.getId()) >= 0) {
+            // Already read from the database by the load that installed this buffer
+            if (total >= 0) {
+                total--;
+            }
+            return true;
+        }
+        int position = 0;
+        while (position < size && isNewer(position, response)) {
+            position++;
+        }
+        if (position == size && !complete) {
+            // Older than everything held, and unheld rows may be newer
+            return true;
+        }
+        if (size == ids.length) {
+            if (position == size) {
+                complete = false;
+                return true;
+            }
+            // The oldest row falls out
+            size--;
+            complete = false;
+        }
+        shift(position, size, 1);
+        write(position, response);
+        size++;
+        if (total >= 0) {
+            complete = size == total;
+        }
+        return true;
+    }
+
+    /**
+     * Apply a committed delete.
+     */
+    void remove(long id) {
+        if (total > 0) {
+            total--;
+        }
+        int index = indexOf(id);
+        if (index >= 0) {
+            shift(index + 1, size, -1);
+            size--;
+            clear(size);
+        }
+        if (total >= 0) {
+            complete = size == total;
+        }
+    }
+
+    /**
+     * Apply a committed update to the mutable text and version of a held row.
+     */
+    void update(TransactionResponse response) {
+        int index = indexOf(response.getId());
+        if (index >= 0) {
+            descriptions[index] = response.getDescription();
+            notes[index] = response.getNotes();
+            updatedSeconds[index] = seconds(response.getUpdatedAt());
+            updatedNanos[index] = nanos(response.getUpdatedAt());
+            versions[index] = version(response.getVersion());
+        }
+    }
+
+    long bytes() {
+        long bytes = FIXED_BYTES + ids.length * SLOT_BYTES;
+        for (int i = 0; i < size; i++) {
+            bytes += stringBytes(references[i]) + stringBytes(descriptions[i]) + stringBytes(notes[i]);
+            if (accountNumbers != null) {
+                bytes += stringBytes(accountNumbers[i]);
+            }
+        }
+        return bytes + stringBytes(accountNumber);
+    }
+
+    static boolean storable(TransactionResponse response) {
+        if (response.getId() == null || response.getAmount() == null || response.getType() == null
+                || response.getStatus() == null || response.getTransactionDate() == null) {
+            return false;
+        }
+        try {
+            // The column keeps two decimals, which the cents column must reproduce exactly
+            response.getAmount().setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+            return true;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private int indexOf(long id) {
+        for (int i = 0; i < size; i++) {
+            if (ids[i] == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Ordered by transactionDate desc, id desc
+    private boolean isNewer(int index, TransactionResponse response) {
+        long seconds = seconds(response.getTransactionDate());
+        if (dateSeconds[index] != seconds) {
+            return dateSeconds[index] > seconds;
+        }
+        int nanos = nanos(response.getTransactionDate());
+        if (dateNanos[index] != nanos) {
+            return dateNanos[index] > nanos;
+        }
+        return ids[index] > response.getId();
+    }
+
+    private void shift(int from, int to, int distance) {
+        int length = to - from;
+        if (length <= 0) {
+            return;
+        }
+        System.arraycopy(ids, from, ids, from + distance, length);
+        System.arraycopy(amountCents, from, amountCents, from + distance, length);
+        System.arraycopy(versions, from, versions, from + distance, length);
+        System.arraycopy(dateSeconds, from, dateSeconds, from + distance, length);
+        System.arraycopy(dateNanos, from, dateNanos, from + distance, length);
+        System.arraycopy(createdSeconds, from, createdSeconds, from + distance, length);
+        System.arraycopy(createdNanos, from, createdNanos, from + distance, length);
+        System.arraycopy(updatedSeconds, from, updatedSeconds, from + distance, length);
+        System.arraycopy(updatedNanos, from, updatedNanos, from + distance, length);
+        System.arraycopy(types, from, types, from + distance, length);
+        System.arraycopy(statuses, from, statuses, from + distance, length);
+        if (accountNumbers != null) {
+            System.arraycopy(accountNumbers, from, accountNumbers, from + distance, length);
+        }
+        System.arraycopy(references, from, references, from + distance, length);
+        System.arraycopy(descriptions, from, descriptions, from + distance, length);
+        System.arraycopy(notes, from, notes, from + distance, length);
+    }
+
+    private void write(int index, TransactionResponse response) {
+        ids[index] = response.getId();
+        amountCents[index] = response.getAmount().setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        versions[index] = version(response.getVersion());
+        dateSeconds[index] = seconds(response.getTransactionDate());
+        dateNanos[index] = nanos(response.getTransactionDate());
+        createdSeconds[index] = seconds(response.getCreatedAt());
+        createdNanos[index] = nanos(response.getCreatedAt());
+        updatedSeconds[index] = seconds(response.getUpdatedAt());
+        updatedNanos[index] = nanos(response.getUpdatedAt());
+        types[index] = (byte) response.getType().ordinal();
+        statuses[index] = (byte) response.getStatus().ordinal();
+        if (accountNumbers != null) {
+            accountNumbers[index] = response.getAccountNumber();
+        }
+        references[index] = response.getReference();
+        descriptions[index] = response.getDescription();
+        notes[index] = response.getNotes();
+    }
+
+    private TransactionResponse read(int index) {
+        return new TransactionResponse(ids[index], references[index],
+                accountNumbers != null ? accountNumbers[index] : accountNumber,
+                BigDecimal.valueOf(amountCents[index], 2), TYPES[types[index]], descriptions[index],
+                time(dateSeconds[index], dateNanos[index]), STATUSES[statuses[index]], notes[index],
+                time(createdSeconds[index], createdNanos[index]), time(updatedSeconds[index], updatedNanos[index]),
+                versions[index] == NO_VERSION ? null : versions[index]);
+    }
+
+    private void clear(int index) {
+        if (accountNumbers != null) {
+            accountNumbers[index] = null;
+        }
+        references[index] = null;
+        descriptions[index] = null;
+        notes[index] = null;
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time == null ? NO_TIME : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static int nanos(LocalDateTime time) {
+        return time == null ? 0 : time.getNano();
+    }
+
+    private static LocalDateTime time(long seconds, int nanos) {
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static long version(Long version) {
+        return version == null ? NO_VERSION : version;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : STRING_BYTES + 2L * value.length();
+    }
+}
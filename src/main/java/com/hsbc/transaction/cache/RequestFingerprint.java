@@ -0,0 +1,78 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.dto.TransactionRequest;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * SHA-256 of a create request in a canonical form, stored with its
+ * {@code Idempotency-Key} so a retry can be told apart from a different
+ * request reusing the key. Fields are length-prefixed so no two requests
+ * share an encoding, and amounts compare by value, so {@code 100} and
+ * {@code 100.00} are the same request.
+ */
+public final class RequestFingerprint {
+
+    private RequestFingerprint() {}
+
+    public static String of(TransactionRequest request) {
+        MessageDigest digest = sha256();
+        update(digest, request);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * The fingerprint of a whole batch, in order; every item written for it
+     * records this one.
+     */
+    public static String of(List<TransactionRequest> requests) {
+        MessageDigest digest = sha256();
+        int size = requests != null ? requests.size() : 0;
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(size).array());
+        for (int i = 0; i < size; i++) {
+            update(digest, requests.get(i));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void update(MessageDigest digest, TransactionRequest request) {
+        if (request == null) {
+            field(digest, null);
+            return;
+        }
+        BigDecimal amount = request.getAmount();
+        field(digest, request.getReference());
+        field(digest, request.getAccountNumber());
+        field(digest, amount != null ? amount.stripTrailingZeros().toPlainString() : null);
+        field(digest, request.getType());
+        field(digest, request.getDescription());
+        field(digest, request.getTransactionDate() != null ? request.getTransactionDate().toString() : null);
+        field(digest, request.getNotes());
+    }
+
+    private static void field(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) 1);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the transaction caches in step with committed writes by evicting or
+ * refreshing only the entries a change can affect, instead of clearing whole
+ * caches.
+ *
+ * <ul>
+ *   <li>Create and delete drop the pages whose query selects the row, the
+ *   balance entries of its account and the recent list when the row could
+ *   enter or leave it. Deletes also drop the id and reference lookups.</li>
+ *   <li>Update only touches mutable text, so the id and reference lookups are
+ *   refreshed and cached pages that hold the row get the new copy in place.
+ *   Keyword search pages are dropped instead, since the new description can
+ *   move the row in or out of their results.</li>
+ * </ul>
+ *
+ * Pages are found through the page cache's key index, balances by key and
+ * the recent list is a single entry, so a write touches only the entries it
+ * can affect and never walks a cache. Runs after commit so a concurrent
+ * read can never re-cache rows that are about to be rolled back.
+ */
+@Component
+public class TransactionCacheInvalidator {
+
+    public static final String TRANSACTIONS = "transactions";
+    public static final String RECENT_TRANSACTIONS = "recentTransactions";
+    public static final String ACCOUNT_BALANCES = "accountBalances";
+
+    // The recent list is a single entry
+    public static final String RECENT_KEY = "recent";
+
+    static final int RECENT_LIMIT = 10;
+
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public TransactionCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        List<Transaction> transactions = event.getTransactions();
+        switch (event.getChangeType()) {
+            case CREATED -> {
+                evictPages(transactions);
+                evictBalances(transactions);
+                evictRecentIfEntering(transactions);
+            }
+            case UPDATED -> transactions.forEach(this::refresh);
+            case DELETED -> {
+                evictLookups(transactions);
+                evictPages(transactions);
+                evictBalances(transactions);
+                evictRecentIfContaining(transactions);
+            }
+        }
+    }
+
+    private void evictPages(List<Transaction> transactions) {
+        PageIndexedCaffeineCache cache = pageCache();
+        if (cache == null) {
+            return;
+        }
+        for (TransactionPageKey page : cache.getKeyIndex().candidates(transactions)) {
+            if (transactions.stream().anyMatch(page::matches)) {
+                cache.evict(page);
+            }
+        }
+    }
+
+    private void evictBalances(List<Transaction> transactions) {
+        Cache cache = cacheManager.getCache(ACCOUNT_BALANCES);
+        if (cache == null) {
+            return;
+        }
+        // An account has a fixed set of figures, so they are evicted by key
+        Set<String> accounts = transactions.stream()
+                .map(Transaction::getAccountNumber)
+                .collect(Collectors.toSet());
+        for (String account : accounts) {
+            cache.evict(AccountBalanceKey.count(account));
+            cache.evict(AccountBalanceKey.balance(account));
+            for (TransactionType type : TransactionType.values()) {
+                cache.evict(AccountBalanceKey.balance(account, type));
+            }
+        }
+    }
+
+    private void evictLookups(List<Transaction> transactions) {
+        Cache cache = cacheManager.getCache(TRANSACTIONS);
+        if (cache == null) {
+            return;
+        }
+        for (Transaction transaction : transactions) {
+            cache.evict(TransactionLookupKey.byId(transaction.getId()));
+            cache.evict(TransactionLookupKey.byReference(transaction.getReference()));
+        }
+    }
+
+    private void evictRecentIfEntering(List<Transaction> transactions) {
+        evictRecentIf(recent -> {
+            if (recent.size() < RECENT_LIMIT) {
+                return true;
+            }
+            // The list is newest first; anything not older than its tail displaces an entry
+            TransactionResponse oldest = (TransactionResponse) recent.get(recent.size() - 1);
+            return transactions.stream().anyMatch(t -> t.getTransactionDate() == null
+                    || !t.getTransactionDate().isBefore(oldest.getTransactionDate()));
+        });
+    }
+
+    private void evictRecentIfContaining(List<Transaction> transactions) {
+        Set<Long> ids = transactions.stream().map(Transaction::getId).collect(Collectors.toSet());
+        evictRecentIf(recent -> recent.stream().anyMatch(r -> ids.contains(((TransactionResponse) r).getId())));
+    }
+
+    private void evictRecentIf(Predicate<List<?>> condition) {
+        Cache cache = cacheManager.getCache(RECENT_TRANSACTIONS);
+        if (cache == null) {
+            return;
+        }
+        Object cached = peek(cache, RECENT_KEY);
+        if (cached != null && (!(cached instanceof List<?> recent) || condition.test(recent))) {
+            cache.evict(RECENT_KEY);
+        }
+    }
+
+    private void refresh(Transaction transaction) {
+        TransactionResponse fresh = new TransactionResponse(transaction);
+        Cache lookups = cacheManager.getCache(TRANSACTIONS);
+        if (lookups != null) {
+            lookups.put(TransactionLookupKey.byId(transaction.getId()), fresh);
+            lookups.put(TransactionLookupKey.byReference(transaction.getReference()), fresh);
+        }
+
+        PageIndexedCaffeineCache cache = pageCache();
+        if (cache != null) {
+            // Pages holding the row match its account and type, since updates never change them
+            for (TransactionPageKey page : cache.getKeyIndex().candidates(List.of(transaction))) {
+                if (page.query() == TransactionPageKey.Query.SEARCH) {
+                    if (page.matches(transaction) || peek(cache, page) instanceof PageResponse<?> response
+                            && containsId(response.getContent(), transaction.getId())) {
+                        cache.evict(page);
+                    }
+                } else {
+                    cache.getNativeCache().asMap().computeIfPresent(page, (key, value) ->
+                            value instanceof PageResponse<?> response && containsId(response.getContent(), transaction.getId())
+                                    ? withReplaced(response, fresh) : value);
+                }
+            }
+        }
+
+        Cache recent = cacheManager.getCache(RECENT_TRANSACTIONS);
+        if (recent != null) {
+            if (peek(recent, RECENT_KEY) instanceof List<?> list && containsId(list, transaction.getId())) {
+                recent.put(RECENT_KEY, replaced(list, fresh));
+            }
+        }
+    }
+
+    private static boolean containsId(List<?> responses, Long id) {
+        return responses.stream().anyMatch(r -> r instanceof TransactionResponse response && id.equals(response.getId()));
+    }
+
+    private static List<TransactionResponse> replaced(List<?> responses, TransactionResponse fresh) {
+        return responses.stream()
+                .map(r -> (TransactionResponse) r)
+                .map(r -> fresh.getId().equals(r.getId()) ? fresh : r)
+                .collect(Collectors.toList());
+    }
+
+    private static PageResponse<TransactionResponse> withReplaced(PageResponse<?> page, TransactionResponse fresh) {
+        List<TransactionResponse> content = replaced(page.getContent(), fresh);
+        if (page.getTotalElements() == null) {
+            return new PageResponse<>(content, page.getPageNumber(), page.getPageSize(), page.isFirst(), page.isHasNext());
+        }
+        return new PageResponse<>(content, page.getPageNumber(), page.getPageSize(),
+                page.getTotalElements(), page.getTotalPages(), page.isFirst(), page.isLast());
+    }
+
+    /**
+     * The cached value, read around the cache's statistics where the provider
+     * allows, so invalidation does not count as hits.
+     */
+    private static Object peek(Cache cache, Object key) {
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            return caffeine.asMap().get(key);
+        }
+        Cache.ValueWrapper cached = cache.get(key);
+        return cached != null ? cached.get() : null;
+    }
+
+    /**
+     * The page cache, or null when there is none. A cache without a key index
+     * cannot find the affected pages, so it is cleared instead.
+     */
+    private PageIndexedCaffeineCache pageCache() {
+        Cache cache = cacheManager.getCache(TRANSACTIONS);
+        if (cache instanceof PageIndexedCaffeineCache indexed) {
+            return indexed;
+        }
+        if (cache != null) {
+            cache.clear();
+        }
+        return null;
+    }
+}
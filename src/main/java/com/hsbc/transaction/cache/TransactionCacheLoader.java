@@ -0,0 +1,58 @@
+package com.hsbc.transaction.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.service.AccountSummaryService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loader behind caches configured with {@code refresh-after-write}. It can
+ * rebuild single lookups and account figures exactly as the cached service
+ * methods would; for any other key {@link #load} returns {@code null} so the
+ * caching aspect falls through to the method, and {@link #reload} keeps the
+ * current value until the expiry settings drop it.
+ */
+@Component
+public class TransactionCacheLoader implements CacheLoader<Object, Object> {
+
+    private final ObjectProvider<TransactionRepository> transactionRepository;
+    private final ObjectProvider<AccountSummaryService> accountSummaryService;
+
+    @Autowired
+    public TransactionCacheLoader(ObjectProvider<TransactionRepository> transactionRepository,
+                                  ObjectProvider<AccountSummaryService> accountSummaryService) {
+        this.transactionRepository = transactionRepository;
+        this.accountSummaryService = accountSummaryService;
+    }
+
+    @Override
+    public Object load(Object key) {
+        if (key instanceof AccountBalanceKey balance) {
+            AccountSummaryService summaries = accountSummaryService.getObject();
+            return switch (balance.metric()) {
+                case COUNT -> summaries.getTransactionCount(balance.accountNumber());
+                case BALANCE -> summaries.getBalance(balance.accountNumber());
+                case TYPE_BALANCE -> summaries.getBalanceByType(balance.accountNumber(), balance.type());
+            };
+        }
+        if (key instanceof TransactionLookupKey lookup) {
+            TransactionRepository repository = transactionRepository.getObject();
+            return (lookup.id() != null
+                    ? repository.findResponseById(lookup.id())
+                    : repository.findResponseByReference(lookup.reference()))
+                    .orElse(null);
+        }
+        return null;
+    }
+
+    @Override
+    public Object reload(Object key, Object oldValue) {
+        if (key instanceof AccountBalanceKey || key instanceof TransactionLookupKey) {
+            // null removes the entry, e.g. a lookup whose row has been deleted
+            return load(key);
+        }
+        return oldValue;
+    }
+}
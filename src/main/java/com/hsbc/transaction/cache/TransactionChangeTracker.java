@@ -0,0 +1,126 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Change counters behind the ETags of account balances, counts and the
+ * recent list. Accounts are hashed onto a fixed set of slots, so memory
+ * stays bounded; accounts sharing a slot only cost each other a full
+ * response now and then, never a wrong {@code 304}.
+ *
+ * <p>A tag must name exactly one body, so none is given while a write to
+ * the slot is between publishing its change event and completing. Readers
+ * take the tag before reading and compare it again afterwards; a read that
+ * overlapped a commit sees a different tag, or none, and is sent untagged.
+ * The counters live in this process only, and the epoch in every tag keeps
+ * them from matching across restarts or instances.
+ */
+@Component
+public class TransactionChangeTracker {
+
+    /**
+     * Order for the completion callbacks of in-memory state that tagged
+     * responses are read from, so it is current before tags move on.
+     */
+    public static final int STATE_SYNCHRONIZATION_ORDER = Ordered.LOWEST_PRECEDENCE - 1;
+
+    private static final int SLOTS = 4096;
+    // The extra slot counts every change, for the recent list
+    private static final int ALL = SLOTS;
+
+    private final AtomicLongArray versions = new AtomicLongArray(SLOTS + 1);
+    private final AtomicIntegerArray writing = new AtomicIntegerArray(SLOTS + 1);
+    // Writes that bypass change events, such as ledger rebuilds, hold back every tag
+    private final AtomicInteger rebuilding = new AtomicInteger();
+    private volatile String epoch = newEpoch();
+
+    /**
+     * The current tag of everything derived from an account's rows, or
+     * {@code null} while a write to it is in flight.
+     */
+    public String accountTag(String accountNumber) {
+        return tag(slot(accountNumber));
+    }
+
+    /**
+     * The current tag of the newest transactions across all accounts, or
+     * {@code null} while any write is in flight.
+     */
+    public String recentTag() {
+        return tag(ALL);
+    }
+
+    /**
+     * Retire every tag, for changes made without change events. Inside a
+     * transaction, tags are held back until it completes.
+     */
+    public void invalidateAll() {
+        epoch = newEpoch();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        rebuilding.incrementAndGet();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                epoch = newEpoch();
+                rebuilding.decrementAndGet();
+            }
+        });
+    }
+
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        int[] slots = slots(event.getTransactions());
+        for (int slot : slots) {
+            writing.incrementAndGet(slot);
+            versions.incrementAndGet(slot);
+        }
+        // Last, once the state the tags describe has applied the write
+        InFlightWrites.afterCompletion(Ordered.LOWEST_PRECEDENCE, committed -> {
+            // Rolled back writes bump too; a spare full response is harmless
+            for (int slot : slots) {
+                versions.incrementAndGet(slot);
+                writing.decrementAndGet(slot);
+            }
+        });
+    }
+
+    private String tag(int slot) {
+        if (rebuilding.get() > 0 || writing.get(slot) > 0) {
+            return null;
+        }
+        return "\"" + epoch + "-" + Long.toString(versions.get(slot), 36) + "\"";
+    }
+
+    private static int[] slots(List<Transaction> transactions) {
+        return Stream.concat(
+                        transactions.stream().map(transaction -> slot(transaction.getAccountNumber())),
+                        Stream.of(ALL))
+                .mapToInt(Integer::intValue)
+                .distinct()
+                .toArray();
+    }
+
+    private static int slot(String accountNumber) {
+        int hash = accountNumber == null ? 0 : accountNumber.hashCode();
+        return (hash ^ (hash >>> 16)) & (SLOTS - 1);
+    }
+
+    private static String newEpoch() {
+        return Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    }
+}
@@ -0,0 +1,126 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Totals of paged queries, cached per set of filters and kept exact by
+ * adding or subtracting each committed create or delete instead of counting
+ * again. Updates only touch mutable text and never move a row between
+ * filters.
+ *
+ * <p>A count that runs while a matching write is in flight cannot know
+ * whether it saw that row, so its result is returned but not cached; see
+ * {@link InFlightWrites}.
+ *
+ * <p>Adjustments only visit the totals the cache's key index files under the
+ * rows' accounts and types plus the unscoped ones. The bookkeeping is
+ * guarded by a {@link ReentrantLock} rather than a monitor, so virtual
+ * threads waiting on it unmount.
+ */
+@Component
+public class TransactionCountCache {
+
+    public static final String TRANSACTION_COUNTS = "transactionCounts";
+
+    private final CacheManager cacheManager;
+
+    // Orders caching a fresh count against adjusting the cached ones
+    private final Lock lock = new ReentrantLock();
+    private final InFlightWrites writes = new InFlightWrites();
+
+    @Autowired
+    public TransactionCountCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * The cached total for the filters of {@code query}, or the result of
+     * {@code counter} when there is none yet.
+     */
+    public long total(TransactionPageKey query, LongSupplier counter) {
+        Cache cache = cacheManager.getCache(TRANSACTION_COUNTS);
+        if (cache == null) {
+            return counter.getAsLong();
+        }
+        TransactionPageKey key = query.withoutPaging();
+        Long cached = cache.get(key, Long.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        InFlightWrites.Read count = writes.begin(key::matches);
+        long total;
+        try {
+            total = counter.getAsLong();
+            lock.lock();
+            try {
+                if (!count.isStale()) {
+                    cache.put(key, total);
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            writes.end(count);
+        }
+        return total;
+    }
+
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        int sign = switch (event.getChangeType()) {
+            case CREATED -> 1;
+            case DELETED -> -1;
+            case UPDATED -> 0;
+        };
+        if (sign == 0) {
+            return;
+        }
+        List<Transaction> rows = event.getTransactions();
+        writes.track(rows, TransactionChangeTracker.STATE_SYNCHRONIZATION_ORDER, () -> {
+            lock.lock();
+            try {
+                adjust(rows, sign);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    private void adjust(List<Transaction> rows, int sign) {
+        Cache cache = cacheManager.getCache(TRANSACTION_COUNTS);
+        if (cache == null) {
+            return;
+        }
+        if (!(cache instanceof PageIndexedCaffeineCache indexed)) {
+            // Caches without a key index cannot find the affected totals, so they start over
+            cache.clear();
+            return;
+        }
+        TransactionPageKeyIndex keyIndex = indexed.getKeyIndex();
+        for (TransactionPageKey filters : keyIndex.candidates(rows)) {
+            long delta = sign * rows.stream().filter(filters::matches).count();
+            if (delta != 0) {
+                indexed.getNativeCache().asMap().compute(filters, (key, total) -> {
+                    if (total == null) {
+                        // Already evicted; the index kept it only through a race with the removal
+                        keyIndex.remove(key);
+                        return null;
+                    }
+                    return (Long) total + delta;
+                });
+            }
+        }
+    }
+}
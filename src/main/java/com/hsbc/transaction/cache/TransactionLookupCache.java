@@ -0,0 +1,74 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.dto.TransactionResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk access to the id and reference lookups in the {@code transactions}
+ * cache, for multi-gets that resolve many keys in one call.
+ *
+ * <p>The cache is a Caffeine {@code LoadingCache}, and Spring's {@link Cache#get}
+ * would load every miss one by one through {@link TransactionCacheLoader}.
+ * Reading the native cache instead only returns what is present, so the
+ * caller can fetch all misses with one query.
+ */
+@Component
+public class TransactionLookupCache {
+
+    private final CacheManager cacheManager;
+
+    @Autowired
+    public TransactionLookupCache(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Map<TransactionLookupKey, TransactionResponse> getAllPresent(Collection<TransactionLookupKey> keys) {
+        Cache cache = cacheManager.getCache(TransactionCacheInvalidator.TRANSACTIONS);
+        if (cache == null || keys.isEmpty()) {
+            return Map.of();
+        }
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            // Records one hit or miss per key in the cache statistics
+            return (Map<TransactionLookupKey, TransactionResponse>) (Map<?, ?>)
+                    ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) caffeine).getAllPresent(keys);
+        }
+        Map<TransactionLookupKey, TransactionResponse> present = new HashMap<>();
+        for (TransactionLookupKey key : keys) {
+            TransactionResponse response = cache.get(key, TransactionResponse.class);
+            if (response != null) {
+                present.put(key, response);
+            }
+        }
+        return present;
+    }
+
+    /**
+     * The cached transaction under {@code key}, or {@code null} without
+     * loading it on a miss.
+     */
+    public TransactionResponse getIfPresent(TransactionLookupKey key) {
+        Map<TransactionLookupKey, TransactionResponse> present = getAllPresent(List.of(key));
+        return present.get(key);
+    }
+
+    /**
+     * Caches a fetched transaction under both its id and its reference, as
+     * the single lookups would.
+     */
+    public void put(TransactionResponse response) {
+        Cache cache = cacheManager.getCache(TransactionCacheInvalidator.TRANSACTIONS);
+        if (cache != null) {
+            cache.put(TransactionLookupKey.byId(response.getId()), response);
+            cache.put(TransactionLookupKey.byReference(response.getReference()), response);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.hsbc.transaction.cache;
+
+/**
+ * Cache key for a single transaction looked up by id or by reference.
+ */
+public record TransactionLookupKey(Long id, String reference) {
+
+    public static TransactionLookupKey byId(Long id) {
+        return new TransactionLookupKey(id, null);
+    }
+
+    public static TransactionLookupKey byReference(String reference) {
+        return new TransactionLookupKey(null, reference);
+    }
+}
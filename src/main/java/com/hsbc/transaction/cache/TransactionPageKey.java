@@ -0,0 +1,130 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import com.hsbc.transaction.search.SearchQuery;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Cache key for one page of a transaction query. Every query the service
+ * caches is a conjunction of the filters held here, so {@link #matches}
+ * can tell whether a given transaction belongs to the result set and the
+ * page has to be dropped when that transaction is created or deleted.
+ * Slices, read without a total, are cached apart from full pages.
+ */
+public record TransactionPageKey(Query query,
+                                 String accountNumber,
+                                 TransactionType type,
+                                 LocalDateTime startDate,
+                                 LocalDateTime endDate,
+                                 BigDecimal minAmount,
+                                 BigDecimal maxAmount,
+                                 String keyword,
+                                 int page,
+                                 int size,
+                                 String sort,
+                                 boolean withTotal) {
+
+    public enum Query {
+        ALL,
+        ACCOUNT,
+        TYPE,
+        DATE_RANGE,
+        AMOUNT_RANGE,
+        SEARCH,
+        CRITERIA
+    }
+
+    public static TransactionPageKey all(Pageable pageable) {
+        return of(Query.ALL, null, null, null, null, null, null, null, pageable);
+    }
+
+    public static TransactionPageKey account(String accountNumber, Pageable pageable) {
+        return of(Query.ACCOUNT, accountNumber, null, null, null, null, null, null, pageable);
+    }
+
+    public static TransactionPageKey type(TransactionType type, Pageable pageable) {
+        return of(Query.TYPE, null, type, null, null, null, null, null, pageable);
+    }
+
+    public static TransactionPageKey dateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
+        return of(Query.DATE_RANGE, null, null, startDate, endDate, null, null, null, pageable);
+    }
+
+    public static TransactionPageKey amountRange(BigDecimal minAmount, BigDecimal maxAmount, Pageable pageable) {
+        return of(Query.AMOUNT_RANGE, null, null, null, null, minAmount, maxAmount, null, pageable);
+    }
+
+    public static TransactionPageKey search(String keyword, Pageable pageable) {
+        return of(Query.SEARCH, null, null, null, null, null, null, keyword, pageable);
+    }
+
+    public static TransactionPageKey criteria(String accountNumber, TransactionType type,
+                                              LocalDateTime startDate, LocalDateTime endDate,
+                                              BigDecimal minAmount, BigDecimal maxAmount,
+                                              Pageable pageable) {
+        return of(Query.CRITERIA, accountNumber, type, startDate, endDate, minAmount, maxAmount, null, pageable);
+    }
+
+    private static TransactionPageKey of(Query query, String accountNumber, TransactionType type,
+                                         LocalDateTime startDate, LocalDateTime endDate,
+                                         BigDecimal minAmount, BigDecimal maxAmount, String keyword,
+                                         Pageable pageable) {
+        // 100 and 100.00 select the same rows, so they must share a key
+        return new TransactionPageKey(query, accountNumber, type, startDate, endDate,
+                normalize(minAmount), normalize(maxAmount), keyword,
+                pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString(), true);
+    }
+
+    public TransactionPageKey withTotal(boolean withTotal) {
+        return new TransactionPageKey(query, accountNumber, type, startDate, endDate, minAmount, maxAmount, keyword,
+                page, size, sort, withTotal);
+    }
+
+    /**
+     * The filters alone, which is what totals are counted and cached by.
+     * Every query but search is a criteria query with some filters unset, so
+     * they all share one kind of key.
+     */
+    public TransactionPageKey withoutPaging() {
+        return new TransactionPageKey(query == Query.SEARCH ? Query.SEARCH : Query.CRITERIA, accountNumber, type,
+                startDate, endDate, minAmount, maxAmount, keyword, 0, 0, "", true);
+    }
+
+    private static BigDecimal normalize(BigDecimal amount) {
+        return amount != null ? amount.stripTrailingZeros() : null;
+    }
+
+    /**
+     * Whether the query behind this key selects the given transaction.
+     * Mirrors the predicates of the corresponding repository queries.
+     */
+    public boolean matches(Transaction transaction) {
+        if (accountNumber != null && !accountNumber.equals(transaction.getAccountNumber())) {
+            return false;
+        }
+        if (type != null && type != transaction.getType()) {
+            return false;
+        }
+        LocalDateTime date = transaction.getTransactionDate();
+        if (startDate != null && (date == null || date.isBefore(startDate))) {
+            return false;
+        }
+        if (endDate != null && (date == null || date.isAfter(endDate))) {
+            return false;
+        }
+        if (minAmount != null && transaction.getAmount().compareTo(minAmount) < 0) {
+            return false;
+        }
+        if (maxAmount != null && transaction.getAmount().compareTo(maxAmount) > 0) {
+            return false;
+        }
+        if (keyword != null) {
+            return SearchQuery.parse(keyword).matches(transaction.getDescription(), transaction.getReference());
+        }
+        return true;
+    }
+}
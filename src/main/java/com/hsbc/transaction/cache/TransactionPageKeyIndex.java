@@ -0,0 +1,82 @@
+package com.hsbc.transaction.cache;
+
+import com.hsbc.transaction.model.Transaction;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link TransactionPageKey}s held by one cache, grouped by the narrowest
+ * filter they are sure to apply: their account, else their type, else none.
+ * A row can only match keys in its own account's and type's groups and the
+ * unscoped group, so a write looks at those instead of the whole cache.
+ *
+ * <p>The index may briefly hold a key the cache has already dropped, which
+ * costs a wasted lookup, but never misses a key the cache holds: keys are
+ * added after the entry is stored and removed before it is.
+ */
+public class TransactionPageKeyIndex {
+
+    private static final Object UNSCOPED = new Object();
+
+    private final ConcurrentMap<Object, Set<TransactionPageKey>> keysByScope = new ConcurrentHashMap<>();
+
+    public void add(Object key) {
+        if (key instanceof TransactionPageKey page) {
+            keysByScope.compute(scope(page), (scope, keys) -> {
+                Set<TransactionPageKey> updated = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                updated.add(page);
+                return updated;
+            });
+        }
+    }
+
+    public void remove(Object key) {
+        if (key instanceof TransactionPageKey page) {
+            keysByScope.computeIfPresent(scope(page), (scope, keys) -> {
+                keys.remove(page);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    public void clear() {
+        keysByScope.clear();
+    }
+
+    /**
+     * Every indexed key that could match one of {@code rows}; callers still
+     * test each with {@link TransactionPageKey#matches}.
+     */
+    public Set<TransactionPageKey> candidates(Collection<Transaction> rows) {
+        Set<TransactionPageKey> candidates = new HashSet<>(keys(UNSCOPED));
+        for (Transaction row : rows) {
+            if (row.getAccountNumber() != null) {
+                candidates.addAll(keys(row.getAccountNumber()));
+            }
+            if (row.getType() != null) {
+                candidates.addAll(keys(row.getType()));
+            }
+        }
+        return candidates;
+    }
+
+    public int size() {
+        return keysByScope.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private Set<TransactionPageKey> keys(Object scope) {
+        Set<TransactionPageKey> keys = keysByScope.get(scope);
+        return keys != null ? keys : Set.of();
+    }
+
+    private static Object scope(TransactionPageKey page) {
+        if (page.accountNumber() != null) {
+            return page.accountNumber();
+        }
+        return page.type() != null ? page.type() : UNSCOPED;
+    }
+}
@@ -0,0 +1,565 @@
+package com.hsbc.transaction.codec;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.hsbc.transaction.controller.GlobalExceptionHandler;
+import com.hsbc.transaction.dto.CursorPageResponse;
+import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionAggregateResponse;
+import com.hsbc.transaction.dto.TransactionLookupResponse;
+import com.hsbc.transaction.dto.TransactionResponse;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes transaction responses as Protocol Buffers
+ * ({@code application/x-protobuf}) following
+ * {@code src/main/resources/proto/transaction.proto}. The messages are
+ * encoded straight from the response DTOs with {@link CodedOutputStream}, so
+ * no generated classes or intermediate copies are involved. Amounts are
+ * scaled integers and timestamps are microsecond counts, which makes a page
+ * a fraction of its JSON size and cheap to produce.
+ *
+ * <p>Transaction bodies, lookups, aggregates, balances, counts and error
+ * bodies have a schema, so a Protobuf client gets its errors in the format it
+ * asked for. Other responses are not writable here and fall back to the
+ * remaining formats. The body is sized before it is written, so responses
+ * carry a {@code Content-Length}.
+ */
+public class TransactionProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public TransactionProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == TransactionResponse.class || clazz == TransactionLookupResponse.class
+                || clazz == TransactionAggregateResponse.class || clazz == GlobalExceptionHandler.ErrorResponse.class
+                || clazz == BigDecimal.class || clazz == Long.class;
+    }
+
+    /**
+     * Spring MVC lists producible types by the body's class alone, which for
+     * a list or page says nothing about its elements; {@link #canWrite(Type,
+     * Class, MediaType)} has already checked those by the declared type.
+     */
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return getSupportedMediaTypes();
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (type == null) {
+            return supports(clazz);
+        }
+        ResolvableType resolved = ResolvableType.forType(type);
+        Class<?> raw = resolved.toClass();
+        if (raw == List.class || raw == PageResponse.class || raw == CursorPageResponse.class) {
+            return resolved.getGeneric(0).toClass() == TransactionResponse.class;
+        }
+        return supports(raw == long.class ? Long.class : raw);
+    }
+
+    @Override
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        byte[] encoded = encode(body);
+        outputMessage.getHeaders().setContentLength(encoded.length);
+        outputMessage.getBody().write(encoded);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    /**
+     * The top-level message for a response body.
+     */
+    static byte[] encode(Object body) throws IOException {
+        Sizes sizes = new Sizes(body);
+        byte[] encoded = new byte[sizes.total];
+        CodedOutputStream output = CodedOutputStream.newInstance(encoded);
+        write(output, body, sizes);
+        output.checkNoSpaceLeft();
+        return encoded;
+    }
+
+    private static void write(CodedOutputStream output, Object body, Sizes sizes) throws IOException {
+        if (body instanceof TransactionResponse transaction) {
+            writeTransaction(output, transaction);
+        } else if (body instanceof List<?> content) {
+            writeContent(output, content, sizes);
+        } else if (body instanceof PageResponse<?> page) {
+            writeContent(output, page.getContent(), sizes);
+            output.writeInt32(2, page.getPageNumber());
+            output.writeInt32(3, page.getPageSize());
+            if (page.getTotalElements() != null) {
+                output.writeInt64(4, page.getTotalElements());
+            }
+            if (page.getTotalPages() != null) {
+                output.writeInt32(5, page.getTotalPages());
+            }
+            output.writeBool(6, page.isFirst());
+            output.writeBool(7, page.isLast());
+            output.writeBool(8, page.isHasNext());
+        } else if (body instanceof CursorPageResponse<?> page) {
+            writeContent(output, page.getContent(), sizes);
+            output.writeInt32(2, page.getSize());
+            if (page.getNextCursor() != null) {
+                output.writeString(3, page.getNextCursor());
+            }
+            output.writeBool(4, page.isHasNext());
+        } else if (body instanceof TransactionLookupResponse lookup) {
+            writeLookup(output, lookup);
+        } else if (body instanceof TransactionAggregateResponse aggregate) {
+            writeAggregate(output, aggregate);
+        } else if (body instanceof GlobalExceptionHandler.ErrorResponse error) {
+            writeError(output, error);
+        } else if (body instanceof BigDecimal decimal) {
+            writeDecimal(output, decimal);
+        } else if (body instanceof Long count) {
+            output.writeInt64(1, count);
+        }
+    }
+
+    private static void writeContent(CodedOutputStream output, List<?> content, Sizes sizes) throws IOException {
+        if (content == null) {
+            return;
+        }
+        for (int i = 0; i < content.size(); i++) {
+            output.writeTag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(sizes.rows[i]);
+            writeTransaction(output, (TransactionResponse) content.get(i));
+        }
+    }
+
+    private static void writeTransaction(CodedOutputStream output, TransactionResponse transaction) throws IOException {
+        if (transaction.getId() != null) {
+            output.writeInt64(1, transaction.getId());
+        }
+        if (transaction.getReference() != null) {
+            output.writeString(2, transaction.getReference());
+        }
+        if (transaction.getAccountNumber() != null) {
+            output.writeString(3, transaction.getAccountNumber());
+        }
+        if (transaction.getAmount() != null) {
+            output.writeTag(4, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(decimalSize(transaction.getAmount()));
+            writeDecimal(output, transaction.getAmount());
+        }
+        if (transaction.getType() != null) {
+            output.writeEnum(5, transaction.getType().ordinal() + 1);
+        }
+        if (transaction.getDescription() != null) {
+            output.writeString(6, transaction.getDescription());
+        }
+        if (transaction.getTransactionDate() != null) {
+            output.writeSInt64(7, micros(transaction.getTransactionDate()));
+        }
+        if (transaction.getStatus() != null) {
+            output.writeEnum(8, transaction.getStatus().ordinal() + 1);
+        }
+        if (transaction.getNotes() != null) {
+            output.writeString(9, transaction.getNotes());
+        }
+        if (transaction.getCreatedAt() != null) {
+            output.writeSInt64(10, micros(transaction.getCreatedAt()));
+        }
+        if (transaction.getUpdatedAt() != null) {
+            output.writeSInt64(11, micros(transaction.getUpdatedAt()));
+        }
+        if (transaction.getVersion() != null) {
+            output.writeInt64(12, transaction.getVersion());
+        }
+    }
+
+    private static int transactionSize(TransactionResponse transaction) {
+        int size = 0;
+        if (transaction.getId() != null) {
+            size += CodedOutputStream.computeInt64Size(1, transaction.getId());
+        }
+        if (transaction.getReference() != null) {
+            size += CodedOutputStream.computeStringSize(2, transaction.getReference());
+        }
+        if (transaction.getAccountNumber() != null) {
+            size += CodedOutputStream.computeStringSize(3, transaction.getAccountNumber());
+        }
+        if (transaction.getAmount() != null) {
+            size += nestedSize(4, decimalSize(transaction.getAmount()));
+        }
+        if (transaction.getType() != null) {
+            size += CodedOutputStream.computeEnumSize(5, transaction.getType().ordinal() + 1);
+        }
+        if (transaction.getDescription() != null) {
+            size += CodedOutputStream.computeStringSize(6, transaction.getDescription());
+        }
+        if (transaction.getTransactionDate() != null) {
+            size += CodedOutputStream.computeSInt64Size(7, micros(transaction.getTransactionDate()));
+        }
+        if (transaction.getStatus() != null) {
+            size += CodedOutputStream.computeEnumSize(8, transaction.getStatus().ordinal() + 1);
+        }
+        if (transaction.getNotes() != null) {
+            size += CodedOutputStream.computeStringSize(9, transaction.getNotes());
+        }
+        if (transaction.getCreatedAt() != null) {
+            size += CodedOutputStream.computeSInt64Size(10, micros(transaction.getCreatedAt()));
+        }
+        if (transaction.getUpdatedAt() != null) {
+            size += CodedOutputStream.computeSInt64Size(11, micros(transaction.getUpdatedAt()));
+        }
+        if (transaction.getVersion() != null) {
+            size += CodedOutputStream.computeInt64Size(12, transaction.getVersion());
+        }
+        return size;
+    }
+
+    // Lookups, aggregates and errors are rare enough that nested sizes are simply worked out again while writing
+
+    private static void writeLookup(CodedOutputStream output, TransactionLookupResponse lookup) throws IOException {
+        if (lookup.getIds() != null) {
+            for (Map.Entry<Long, TransactionResponse> entry : lookup.getIds().entrySet()) {
+                int rowSize = transactionSize(entry.getValue());
+                output.writeTag(1, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(CodedOutputStream.computeInt64Size(1, entry.getKey()) + nestedSize(2, rowSize));
+                output.writeInt64(1, entry.getKey());
+                output.writeTag(2, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(rowSize);
+                writeTransaction(output, entry.getValue());
+            }
+        }
+        if (lookup.getReferences() != null) {
+            for (Map.Entry<String, TransactionResponse> entry : lookup.getReferences().entrySet()) {
+                int rowSize = transactionSize(entry.getValue());
+                output.writeTag(2, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(CodedOutputStream.computeStringSize(1, entry.getKey()) + nestedSize(2, rowSize));
+                output.writeString(1, entry.getKey());
+                output.writeTag(2, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(rowSize);
+                writeTransaction(output, entry.getValue());
+            }
+        }
+        if (lookup.getNotFoundIds() != null && !lookup.getNotFoundIds().isEmpty()) {
+            // Packed, the proto3 default for repeated numbers
+            output.writeTag(3, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(packedSize(lookup.getNotFoundIds()));
+            for (Long id : lookup.getNotFoundIds()) {
+                output.writeInt64NoTag(id);
+            }
+        }
+        if (lookup.getNotFoundReferences() != null) {
+            for (String reference : lookup.getNotFoundReferences()) {
+                output.writeString(4, reference);
+            }
+        }
+    }
+
+    private static int lookupSize(TransactionLookupResponse lookup) {
+        int size = 0;
+        if (lookup.getIds() != null) {
+            for (Map.Entry<Long, TransactionResponse> entry : lookup.getIds().entrySet()) {
+                size += nestedSize(1, CodedOutputStream.computeInt64Size(1, entry.getKey())
+                        + nestedSize(2, transactionSize(entry.getValue())));
+            }
+        }
+        if (lookup.getReferences() != null) {
+            for (Map.Entry<String, TransactionResponse> entry : lookup.getReferences().entrySet()) {
+                size += nestedSize(2, CodedOutputStream.computeStringSize(1, entry.getKey())
+                        + nestedSize(2, transactionSize(entry.getValue())));
+            }
+        }
+        if (lookup.getNotFoundIds() != null && !lookup.getNotFoundIds().isEmpty()) {
+            size += nestedSize(3, packedSize(lookup.getNotFoundIds()));
+        }
+        if (lookup.getNotFoundReferences() != null) {
+            for (String reference : lookup.getNotFoundReferences()) {
+                size += CodedOutputStream.computeStringSize(4, reference);
+            }
+        }
+        return size;
+    }
+
+    private static int packedSize(List<Long> values) {
+        int size = 0;
+        for (Long value : values) {
+            size += CodedOutputStream.computeInt64SizeNoTag(value);
+        }
+        return size;
+    }
+
+    private static void writeAggregate(CodedOutputStream output, TransactionAggregateResponse aggregate)
+            throws IOException {
+        if (aggregate.getAccountNumber() != null) {
+            output.writeString(1, aggregate.getAccountNumber());
+        }
+        if (aggregate.getType() != null) {
+            output.writeEnum(2, aggregate.getType().ordinal() + 1);
+        }
+        if (aggregate.getGranularity() != null) {
+            output.writeEnum(3, aggregate.getGranularity().ordinal() + 1);
+        }
+        if (aggregate.getFrom() != null) {
+            output.writeInt32(4, days(aggregate.getFrom()));
+        }
+        if (aggregate.getTo() != null) {
+            output.writeInt32(5, days(aggregate.getTo()));
+        }
+        if (aggregate.getBuckets() != null) {
+            for (TransactionAggregateResponse.Bucket bucket : aggregate.getBuckets()) {
+                output.writeTag(6, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(bucketSize(bucket));
+                writeBucket(output, bucket);
+            }
+        }
+    }
+
+    private static int aggregateSize(TransactionAggregateResponse aggregate) {
+        int size = 0;
+        if (aggregate.getAccountNumber() != null) {
+            size += CodedOutputStream.computeStringSize(1, aggregate.getAccountNumber());
+        }
+        if (aggregate.getType() != null) {
+            size += CodedOutputStream.computeEnumSize(2, aggregate.getType().ordinal() + 1);
+        }
+        if (aggregate.getGranularity() != null) {
+            size += CodedOutputStream.computeEnumSize(3, aggregate.getGranularity().ordinal() + 1);
+        }
+        if (aggregate.getFrom() != null) {
+            size += CodedOutputStream.computeInt32Size(4, days(aggregate.getFrom()));
+        }
+        if (aggregate.getTo() != null) {
+            size += CodedOutputStream.computeInt32Size(5, days(aggregate.getTo()));
+        }
+        if (aggregate.getBuckets() != null) {
+            for (TransactionAggregateResponse.Bucket bucket : aggregate.getBuckets()) {
+                size += nestedSize(6, bucketSize(bucket));
+            }
+        }
+        return size;
+    }
+
+    private static void writeBucket(CodedOutputStream output, TransactionAggregateResponse.Bucket bucket)
+            throws IOException {
+        if (bucket.getStart() != null) {
+            output.writeInt32(1, days(bucket.getStart()));
+        }
+        if (bucket.getEnd() != null) {
+            output.writeInt32(2, days(bucket.getEnd()));
+        }
+        if (bucket.getType() != null) {
+            output.writeEnum(3, bucket.getType().ordinal() + 1);
+        }
+        if (bucket.getTotalAmount() != null) {
+            output.writeTag(4, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(decimalSize(bucket.getTotalAmount()));
+            writeDecimal(output, bucket.getTotalAmount());
+        }
+        output.writeInt64(5, bucket.getTransactionCount());
+    }
+
+    private static int bucketSize(TransactionAggregateResponse.Bucket bucket) {
+        int size = CodedOutputStream.computeInt64Size(5, bucket.getTransactionCount());
+        if (bucket.getStart() != null) {
+            size += CodedOutputStream.computeInt32Size(1, days(bucket.getStart()));
+        }
+        if (bucket.getEnd() != null) {
+            size += CodedOutputStream.computeInt32Size(2, days(bucket.getEnd()));
+        }
+        if (bucket.getType() != null) {
+            size += CodedOutputStream.computeEnumSize(3, bucket.getType().ordinal() + 1);
+        }
+        if (bucket.getTotalAmount() != null) {
+            size += nestedSize(4, decimalSize(bucket.getTotalAmount()));
+        }
+        return size;
+    }
+
+    private static void writeError(CodedOutputStream output, GlobalExceptionHandler.ErrorResponse error)
+            throws IOException {
+        if (error.getErrorCode() != null) {
+            output.writeString(1, error.getErrorCode());
+        }
+        if (error.getMessage() != null) {
+            output.writeString(2, error.getMessage());
+        }
+        output.writeInt32(3, error.getStatus());
+        if (error.getTimestamp() != null) {
+            output.writeSInt64(4, micros(error.getTimestamp()));
+        }
+        if (error.getPath() != null) {
+            output.writeString(5, error.getPath());
+        }
+        if (error.getDetails() != null) {
+            for (Map.Entry<String, Object> detail : error.getDetails().entrySet()) {
+                String value = String.valueOf(detail.getValue());
+                output.writeTag(6, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+                output.writeUInt32NoTag(CodedOutputStream.computeStringSize(1, detail.getKey())
+                        + CodedOutputStream.computeStringSize(2, value));
+                output.writeString(1, detail.getKey());
+                output.writeString(2, value);
+            }
+        }
+    }
+
+    private static int errorSize(GlobalExceptionHandler.ErrorResponse error) {
+        int size = CodedOutputStream.computeInt32Size(3, error.getStatus());
+        if (error.getErrorCode() != null) {
+            size += CodedOutputStream.computeStringSize(1, error.getErrorCode());
+        }
+        if (error.getMessage() != null) {
+            size += CodedOutputStream.computeStringSize(2, error.getMessage());
+        }
+        if (error.getTimestamp() != null) {
+            size += CodedOutputStream.computeSInt64Size(4, micros(error.getTimestamp()));
+        }
+        if (error.getPath() != null) {
+            size += CodedOutputStream.computeStringSize(5, error.getPath());
+        }
+        if (error.getDetails() != null) {
+            for (Map.Entry<String, Object> detail : error.getDetails().entrySet()) {
+                size += nestedSize(6, CodedOutputStream.computeStringSize(1, detail.getKey())
+                        + CodedOutputStream.computeStringSize(2, String.valueOf(detail.getValue())));
+            }
+        }
+        return size;
+    }
+
+    private static void writeDecimal(CodedOutputStream output, BigDecimal value) throws IOException {
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            output.writeSInt64(1, unscaled.longValue());
+            output.writeInt32(2, value.scale());
+        } else {
+            output.writeString(3, value.toPlainString());
+        }
+    }
+
+    private static int decimalSize(BigDecimal value) {
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            return CodedOutputStream.computeSInt64Size(1, unscaled.longValue())
+                    + CodedOutputStream.computeInt32Size(2, value.scale());
+        }
+        return CodedOutputStream.computeStringSize(3, value.toPlainString());
+    }
+
+    private static int nestedSize(int field, int size) {
+        return CodedOutputStream.computeTagSize(field) + CodedOutputStream.computeUInt32SizeNoTag(size) + size;
+    }
+
+    // The stored local date-time read as if it were UTC, like the zone-less JSON form
+    private static long micros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    private static int days(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    /**
+     * Message sizes worked out once before writing: the whole body, and each
+     * row of a list, since every nested message is preceded by its length.
+     */
+    private static final class Sizes {
+
+        private int[] rows = new int[0];
+        private final int total;
+
+        private Sizes(Object body) {
+            if (body instanceof TransactionResponse transaction) {
+                total = transactionSize(transaction);
+            } else if (body instanceof List<?> content) {
+                total = contentSize(content);
+            } else if (body instanceof PageResponse<?> page) {
+                int size = contentSize(page.getContent())
+                        + CodedOutputStream.computeInt32Size(2, page.getPageNumber())
+                        + CodedOutputStream.computeInt32Size(3, page.getPageSize())
+                        + CodedOutputStream.computeBoolSize(6, page.isFirst())
+                        + CodedOutputStream.computeBoolSize(7, page.isLast())
+                        + CodedOutputStream.computeBoolSize(8, page.isHasNext());
+                if (page.getTotalElements() != null) {
+                    size += CodedOutputStream.computeInt64Size(4, page.getTotalElements());
+                }
+                if (page.getTotalPages() != null) {
+                    size += CodedOutputStream.computeInt32Size(5, page.getTotalPages());
+                }
+                total = size;
+            } else if (body instanceof CursorPageResponse<?> page) {
+                int size = contentSize(page.getContent())
+                        + CodedOutputStream.computeInt32Size(2, page.getSize())
+                        + CodedOutputStream.computeBoolSize(4, page.isHasNext());
+                if (page.getNextCursor() != null) {
+                    size += CodedOutputStream.computeStringSize(3, page.getNextCursor());
+                }
+                total = size;
+            } else if (body instanceof TransactionLookupResponse lookup) {
+                total = lookupSize(lookup);
+            } else if (body instanceof TransactionAggregateResponse aggregate) {
+                total = aggregateSize(aggregate);
+            } else if (body instanceof GlobalExceptionHandler.ErrorResponse error) {
+                total = errorSize(error);
+            } else if (body instanceof BigDecimal decimal) {
+                total = decimalSize(decimal);
+            } else if (body instanceof Long count) {
+                total = CodedOutputStream.computeInt64Size(1, count);
+            } else {
+                throw new HttpMessageNotWritableException("No protobuf schema for " + body.getClass().getName());
+            }
+        }
+
+        private int contentSize(List<?> content) {
+            if (content == null) {
+                return 0;
+            }
+            rows = new int[content.size()];
+            int size = 0;
+            for (int i = 0; i < rows.length; i++) {
+                if (!(content.get(i) instanceof TransactionResponse transaction)) {
+                    throw new HttpMessageNotWritableException("No protobuf schema for list elements other than transactions");
+                }
+                rows[i] = transactionSize(transaction);
+                size += nestedSize(1, rows[i]);
+            }
+            return size;
+        }
+    }
+}
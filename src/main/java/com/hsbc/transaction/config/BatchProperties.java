@@ -0,0 +1,33 @@
+package com.hsbc.transaction.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for bulk transaction creation. The JDBC batch size itself is
+ * configured through {@code spring.jpa.properties.hibernate.jdbc.batch_size}.
+ */
+@ConfigurationProperties(prefix = "transaction.batch")
+public class BatchProperties {
+
+    // Maximum number of items accepted in a single batch request
+    private int maxSize = 50000;
+
+    // Number of rows written per database transaction
+    private int chunkSize = 1000;
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+}
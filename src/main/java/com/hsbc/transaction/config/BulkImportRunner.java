@@ -0,0 +1,64 @@
+package com.hsbc.transaction.config;
+
+import com.hsbc.transaction.dto.ImportReport;
+import com.hsbc.transaction.importer.ImportFormat;
+import com.hsbc.transaction.importer.TransactionFileImporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * One-shot bulk import from the command line:
+ * {@code java -jar app.jar --import-file=/data/transactions.csv [--import-format=csv]}.
+ * The application exits once the import finishes, with status 1 if it is
+ * incomplete; running the same command again resumes it.
+ */
+@Component
+public class BulkImportRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportRunner.class);
+
+    static final String FILE_OPTION = "import-file";
+    static final String FORMAT_OPTION = "import-format";
+
+    private final TransactionFileImporter fileImporter;
+    private final ConfigurableApplicationContext context;
+
+    @Autowired
+    public BulkImportRunner(TransactionFileImporter fileImporter, ConfigurableApplicationContext context) {
+        this.fileImporter = fileImporter;
+        this.context = context;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> files = args.getOptionValues(FILE_OPTION);
+        if (files == null || files.isEmpty()) {
+            return;
+        }
+        List<String> formats = args.getOptionValues(FORMAT_OPTION);
+        String format = formats == null || formats.isEmpty() ? null : formats.get(0);
+
+        int exitCode = 0;
+        for (String name : files) {
+            Path file = Path.of(name);
+            ImportReport report = fileImporter.importFile(file, ImportFormat.fromParameter(format, file));
+            log.info("Imported {}: {} rows ({} rejected) at {} rows/s{}", file, report.getRowsImported(),
+                    report.getRowsRejected(), Math.round(report.getRowsPerSecond()),
+                    report.isCompleted() ? "" : "; incomplete: " + report.getFailure());
+            if (!report.isCompleted()) {
+                exitCode = 1;
+            }
+        }
+        int status = exitCode;
+        System.exit(SpringApplication.exit(context, () -> status));
+    }
+}
@@ -1,26 +1,102 @@
 package com.hsbc.transaction.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hsbc.transaction.cache.CacheEntryWeigher;
+import com.hsbc.transaction.cache.PageIndexedCaffeineCache;
+import com.hsbc.transaction.cache.TransactionCacheInvalidator;
+import com.hsbc.transaction.cache.TransactionCacheLoader;
+import com.hsbc.transaction.cache.TransactionCountCache;
+import com.hsbc.transaction.cache.TransactionPageKeyIndex;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.Arrays; 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Caffeine caches (W-TinyLFU eviction) sized and expired per cache from
+ * {@code transaction.cache.caches}. Statistics are always recorded so the
+ * actuator binds hit, miss, eviction and load metrics for every cache.
+ * Setting {@code spring.cache.type=none} leaves caching to Boot's no-op manager.
+ *
+ * <p>The caches holding pages and page totals also index their keys by
+ * account and type ({@link PageIndexedCaffeineCache}), so a write adjusts or
+ * evicts the entries it affects without walking the cache.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    static final List<String> CACHE_NAMES = Arrays.asList(
+            "transactions",
+            "recentTransactions",
+            "accountBalances",
+            "transactionCounts",
+            "metadata"
+    );
+
+    static final List<String> PAGE_INDEXED_CACHE_NAMES = List.of(
+            TransactionCacheInvalidator.TRANSACTIONS,
+            TransactionCountCache.TRANSACTION_COUNTS
+    );
+
     @Bean
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(Arrays.asList(
-                "transactions",
-                "recentTransactions",
-                "accountBalances",
-                "metadata"
-        ));
+    @ConditionalOnProperty(prefix = "spring.cache", name = "type", havingValue = "caffeine", matchIfMissing = true)
+    public CacheManager cacheManager(CacheSpecProperties properties, TransactionCacheLoader cacheLoader) {
+        Map<String, TransactionPageKeyIndex> keyIndexes = new HashMap<>();
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                TransactionPageKeyIndex keyIndex = keyIndexes.get(name);
+                return keyIndex != null
+                        ? new PageIndexedCaffeineCache(name, cache, isAllowNullValues(), keyIndex)
+                        : super.adaptCaffeineCache(name, cache);
+            }
+        };
+        // Static manager: only the caches registered below exist, each with its own bounds
+        cacheManager.setCacheNames(Collections.emptyList());
+        for (String name : CACHE_NAMES) {
+            CacheSpecProperties.Spec spec = properties.getCaches().getOrDefault(name, new CacheSpecProperties.Spec());
+            Caffeine<Object, Object> builder = caffeine(spec);
+            if (PAGE_INDEXED_CACHE_NAMES.contains(name)) {
+                TransactionPageKeyIndex keyIndex = new TransactionPageKeyIndex();
+                keyIndexes.put(name, keyIndex);
+                // Runs inside the removal itself, so a concurrent put of the same key is indexed after it
+                builder = builder.evictionListener((key, value, cause) -> keyIndex.remove(key));
+            }
+            if (spec.getRefreshAfterWrite() != null) {
+                cacheManager.registerCustomCache(name, builder.build(cacheLoader));
+            } else {
+                cacheManager.registerCustomCache(name, builder.build());
+            }
+        }
         return cacheManager;
     }
+
+    static Caffeine<Object, Object> caffeine(CacheSpecProperties.Spec spec) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (spec.getMaximumWeight() != null) {
+            builder.maximumWeight(spec.getMaximumWeight()).weigher(new CacheEntryWeigher());
+        } else if (spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        if (spec.getRefreshAfterWrite() != null) {
+            builder.refreshAfterWrite(spec.getRefreshAfterWrite());
+        }
+        return builder;
+    }
 }
@@ -0,0 +1,81 @@
+package com.hsbc.transaction.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache bounds and expiry for the Caffeine cache manager, keyed by cache
+ * name under {@code transaction.cache.caches}.
+ */
+@ConfigurationProperties(prefix = "transaction.cache")
+public class CacheSpecProperties {
+
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    public Map<String, Spec> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, Spec> caches) {
+        this.caches = caches;
+    }
+
+    public static class Spec {
+
+        // Entry count bound; ignored when maximum-weight is set
+        private Long maximumSize;
+
+        // Weight bound, where a cached page or list weighs one unit per row
+        private Long maximumWeight;
+
+        private Duration expireAfterWrite;
+
+        private Duration expireAfterAccess;
+
+        // Entries older than this are reloaded in the background on their next read
+        private Duration refreshAfterWrite;
+
+        public Long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(Long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(Long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+
+        public Duration getExpireAfterAccess() {
+            return expireAfterAccess;
+        }
+
+        public void setExpireAfterAccess(Duration expireAfterAccess) {
+            this.expireAfterAccess = expireAfterAccess;
+        }
+
+        public Duration getRefreshAfterWrite() {
+            return refreshAfterWrite;
+        }
+
+        public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+            this.refreshAfterWrite = refreshAfterWrite;
+        }
+    }
+}
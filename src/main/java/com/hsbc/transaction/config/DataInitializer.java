@@ -3,21 +3,37 @@ package com.hsbc.transaction.config;
 import com.hsbc.transaction.model.Transaction;
 import com.hsbc.transaction.model.TransactionType;
 import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.service.AccountSummaryService;
+import com.hsbc.transaction.service.TransactionAggregateService;
+import com.hsbc.transaction.storage.TransactionLogStore;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Component
 public class DataInitializer implements CommandLineRunner {
 
     private final TransactionRepository transactionRepository;
+    private final AccountSummaryService accountSummaryService;
+    private final TransactionAggregateService aggregateService;
+    private final ObjectProvider<TransactionLogStore> logStore;
+    private final List<Transaction> sampleRows = new ArrayList<>();
 
     @Autowired
-    public DataInitializer(TransactionRepository transactionRepository) {
+    public DataInitializer(TransactionRepository transactionRepository,
+                           AccountSummaryService accountSummaryService,
+                           TransactionAggregateService aggregateService,
+                           ObjectProvider<TransactionLogStore> logStore) {
         this.transactionRepository = transactionRepository;
+        this.accountSummaryService = accountSummaryService;
+        this.aggregateService = aggregateService;
+        this.logStore = logStore;
     }
 
     @Override
@@ -25,6 +41,11 @@ public class DataInitializer implements CommandLineRunner {
         // Only initialize if no transactions exist
         if (transactionRepository.count() == 0) {
             initializeSampleData();
+            // Sample rows bypass the service layer, so derive the account summaries and rollups from them
+            accountSummaryService.rebuild();
+            aggregateService.rebuild();
+            // Nor do they reach the transaction log through change events
+            logStore.ifAvailable(store -> store.recordWritten(sampleRows));
         }
     }
 
@@ -68,6 +89,6 @@ public class DataInitializer implements CommandLineRunner {
     private void createTransaction(String reference, String accountNumber, BigDecimal amount, 
                                  TransactionType type, String description, LocalDateTime transactionDate) {
         Transaction transaction = new Transaction(reference, accountNumber, amount, type, description, transactionDate);
-        transactionRepository.save(transaction);
+        sampleRows.add(transactionRepository.save(transaction));
     }
 }
@@ -0,0 +1,45 @@
+package com.hsbc.transaction.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for the in-memory tier holding the latest transactions of each
+ * active account and of the whole table.
+ */
+@ConfigurationProperties(prefix = "transaction.hot-store")
+public class HotStoreProperties {
+
+    // Off: recent lists and first account pages go through the caches and the database
+    private boolean enabled = true;
+
+    // Latest transactions kept per account, and for the global recent list; the largest first page served
+    private int capacity = 20;
+
+    // Estimated footprint above which least recently used accounts are evicted
+    private DataSize maxMemory = DataSize.ofMegabytes(32);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public DataSize getMaxMemory() {
+        return maxMemory;
+    }
+
+    public void setMaxMemory(DataSize maxMemory) {
+        this.maxMemory = maxMemory;
+    }
+}
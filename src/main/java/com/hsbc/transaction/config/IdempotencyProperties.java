@@ -0,0 +1,57 @@
+package com.hsbc.transaction.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the in-memory store of {@code Idempotency-Key} outcomes used
+ * by the create endpoints.
+ */
+@ConfigurationProperties(prefix = "transaction.idempotency")
+public class IdempotencyProperties {
+
+    // How long a completed outcome is replayed from memory; older keys are answered from the database
+    private Duration ttl = Duration.ofHours(24);
+
+    // Completed outcomes kept in memory across all stripes
+    private int maximumSize = 100000;
+
+    // Independently locked segments of the key store
+    private int stripes = 64;
+
+    // How long a repeated request waits for the original still in flight before getting 409
+    private Duration waitTimeout = Duration.ofSeconds(30);
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    public Duration getWaitTimeout() {
+        return waitTimeout;
+    }
+
+    public void setWaitTimeout(Duration waitTimeout) {
+        this.waitTimeout = waitTimeout;
+    }
+}
@@ -0,0 +1,66 @@
+package com.hsbc.transaction.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings for bulk file imports run from the command line or the admin API.
+ */
+@ConfigurationProperties(prefix = "transaction.import")
+public class ImportProperties {
+
+    // The admin API only imports files under this directory; command-line imports may name any file
+    private String directory = "imports";
+
+    // Target size of the file ranges parsed in parallel; each is cut at the next line break
+    private DataSize chunkSize = DataSize.ofMegabytes(64);
+
+    // Number of chunks parsed and written concurrently
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // Rows per JDBC batch; the checkpoint advances once per committed batch
+    private int batchSize = 1000;
+
+    // Rejected rows listed individually in the report; the rest are only counted
+    private int maxReportedRejections = 100;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(DataSize chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public int getMaxReportedRejections() {
+        return maxReportedRejections;
+    }
+
+    public void setMaxReportedRejections(int maxReportedRejections) {
+        this.maxReportedRejections = maxReportedRejections;
+    }
+}
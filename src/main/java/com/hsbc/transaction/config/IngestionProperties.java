@@ -0,0 +1,83 @@
+package com.hsbc.transaction.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the optional write-behind ingestion mode used by
+ * {@code POST /api/v1/transactions}.
+ */
+@ConfigurationProperties(prefix = "transaction.ingestion")
+public class IngestionProperties {
+
+    public enum Mode {
+        SYNC,
+        ASYNC
+    }
+
+    // SYNC commits every create on the request thread; ASYNC queues it for background writers
+    private Mode mode = Mode.SYNC;
+
+    // Accepted transactions waiting to be written; requests beyond this are rejected with 429
+    private int queueCapacity = 10000;
+
+    private int writerThreads = 2;
+
+    // Maximum number of transactions committed together in one database transaction
+    private int maxGroupSize = 500;
+
+    // How long a writer waits for the first queued item before checking for shutdown
+    private Duration pollInterval = Duration.ofMillis(100);
+
+    // How long shutdown waits for the queue to be flushed
+    private Duration shutdownTimeout = Duration.ofSeconds(30);
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public int getWriterThreads() {
+        return writerThreads;
+    }
+
+    public void setWriterThreads(int writerThreads) {
+        this.writerThreads = writerThreads;
+    }
+
+    public int getMaxGroupSize() {
+        return maxGroupSize;
+    }
+
+    public void setMaxGroupSize(int maxGroupSize) {
+        this.maxGroupSize = maxGroupSize;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+}
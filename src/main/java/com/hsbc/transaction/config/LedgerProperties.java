@@ -0,0 +1,32 @@
+package com.hsbc.transaction.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the account summary ledger consistency job.
+ */
+@ConfigurationProperties(prefix = "transaction.ledger")
+public class LedgerProperties {
+
+    // Cron expression for the periodic verification; "-" disables it
+    private String verifyCron = "-";
+
+    // Rebuild the summaries automatically when verification finds drift
+    private boolean repairOnDrift = false;
+
+    public String getVerifyCron() {
+        return verifyCron;
+    }
+
+    public void setVerifyCron(String verifyCron) {
+        this.verifyCron = verifyCron;
+    }
+
+    public boolean isRepairOnDrift() {
+        return repairOnDrift;
+    }
+
+    public void setRepairOnDrift(boolean repairOnDrift) {
+        this.repairOnDrift = repairOnDrift;
+    }
+}
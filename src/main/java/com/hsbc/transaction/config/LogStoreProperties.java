@@ -0,0 +1,70 @@
+package com.hsbc.transaction.config;
+
+import com.hsbc.transaction.storage.FsyncPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Settings for the append-only transaction log that, under the
+ * {@code log-store} profile, keeps transactions across restarts.
+ */
+@ConfigurationProperties(prefix = "transaction.log-store")
+public class LogStoreProperties {
+
+    // Segment files are created here; a missing directory is created on startup
+    private String directory = "data/transaction-log";
+
+    // Each segment is preallocated and memory-mapped at this size; at most 1GB
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    // When appended records are forced to disk; see FsyncPolicy
+    private FsyncPolicy fsync = FsyncPolicy.ALWAYS;
+
+    // How often the INTERVAL policy forces what was appended since the last time
+    private Duration fsyncInterval = Duration.ofMillis(200);
+
+    // Segments replayed at once on startup; 0 uses one thread per available processor
+    private int replayThreads = 0;
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public DataSize getSegmentSize() {
+        return segmentSize;
+    }
+
+    public void setSegmentSize(DataSize segmentSize) {
+        this.segmentSize = segmentSize;
+    }
+
+    public FsyncPolicy getFsync() {
+        return fsync;
+    }
+
+    public void setFsync(FsyncPolicy fsync) {
+        this.fsync = fsync;
+    }
+
+    public Duration getFsyncInterval() {
+        return fsyncInterval;
+    }
+
+    public void setFsyncInterval(Duration fsyncInterval) {
+        this.fsyncInterval = fsyncInterval;
+    }
+
+    public int getReplayThreads() {
+        return replayThreads;
+    }
+
+    public void setReplayThreads(int replayThreads) {
+        this.replayThreads = replayThreads;
+    }
+}
@@ -0,0 +1,74 @@
+package com.hsbc.transaction.config;
+
+import com.hsbc.transaction.metrics.OutcomeRecordingCacheResolver;
+import com.hsbc.transaction.metrics.ServiceTimingInterceptor;
+import com.hsbc.transaction.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.HibernateQueryMetrics;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * Application metrics beyond what the actuator binds on its own (HTTP,
+ * JVM, Hikari, Caffeine caches and Hibernate session statistics):
+ * <ul>
+ *   <li>{@code transaction.service} timers around every {@link TransactionService} method,
+ *       tagged by cache hit or miss;</li>
+ *   <li>per-query Hibernate timings, tagged with the HQL, which separate count queries
+ *       from the page queries they accompany.</li>
+ * </ul>
+ */
+@Configuration
+public class MetricsConfig implements CachingConfigurer {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+
+    public MetricsConfig(ObjectProvider<CacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public CacheResolver cacheResolver() {
+        return new OutcomeRecordingCacheResolver(cacheManager);
+    }
+
+    /**
+     * Added to the same proxy as the caching and transaction interceptors,
+     * ahead of both, so timings include cache lookups and commits.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor transactionServiceTimingAdvisor(ObjectProvider<MeterRegistry> meterRegistry) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return TransactionService.class.isAssignableFrom(targetClass)
+                        && ReflectionUtils.findMethod(TransactionService.class, method.getName(), method.getParameterTypes()) != null;
+            }
+        }, new ServiceTimingInterceptor(meterRegistry));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Bean
+    public MeterBinder hibernateQueryMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateQueryMetrics(entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory", Tags.empty());
+    }
+}
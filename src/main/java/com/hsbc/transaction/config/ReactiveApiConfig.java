@@ -0,0 +1,51 @@
+package com.hsbc.transaction.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.reactive.ReactiveApiServer;
+import com.hsbc.transaction.reactive.ReactiveTransactionHandler;
+import com.hsbc.transaction.reactive.ReactiveTransactionRepository;
+import com.hsbc.transaction.reactive.ReactiveTransactionRouter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+/**
+ * Non-blocking read API on {@code transaction.reactive.port}. It reads the
+ * same database over R2DBC and renders with the application's
+ * {@link ObjectMapper}, so JSON matches the servlet API field for field.
+ * Disable with {@code transaction.reactive.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "transaction.reactive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveApiConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReactiveTransactionRepository reactiveTransactionRepository(DataSourceProperties dataSourceProperties,
+                                                                       ReactiveProperties properties) {
+        return new ReactiveTransactionRepository(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword(),
+                properties.getPoolSize());
+    }
+
+    @Bean
+    public ReactiveApiServer reactiveApiServer(ReactiveTransactionRepository repository,
+                                               ReactiveProperties properties,
+                                               ObjectMapper objectMapper) {
+        ReactiveTransactionHandler handler = new ReactiveTransactionHandler(repository, properties.getStreamBatchSize());
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        return new ReactiveApiServer(properties.getPort(),
+                RouterFunctions.toHttpHandler(ReactiveTransactionRouter.routes(handler), strategies));
+    }
+}
@@ -0,0 +1,54 @@
+package com.hsbc.transaction.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the non-blocking read API served by WebFlux on its own port,
+ * next to the servlet API on {@code server.port}.
+ */
+@ConfigurationProperties(prefix = "transaction.reactive")
+public class ReactiveProperties {
+
+    private boolean enabled = true;
+
+    // 0 picks a free port
+    private int port = 8081;
+
+    // R2DBC connections to the same database as spring.datasource.url
+    private int poolSize = 10;
+
+    // Rows requested from the database at a time while a streamed listing is written
+    private int streamBatchSize = 256;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getStreamBatchSize() {
+        return streamBatchSize;
+    }
+
+    public void setStreamBatchSize(int streamBatchSize) {
+        this.streamBatchSize = streamBatchSize;
+    }
+}
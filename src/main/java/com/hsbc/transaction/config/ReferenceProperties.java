@@ -0,0 +1,21 @@
+package com.hsbc.transaction.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for transaction reference generation.
+ */
+@ConfigurationProperties(prefix = "transaction.reference")
+public class ReferenceProperties {
+
+    // Node id (0-999) embedded in every reference; derived from the host name when not set
+    private Integer nodeId;
+
+    public Integer getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(Integer nodeId) {
+        this.nodeId = nodeId;
+    }
+}
@@ -0,0 +1,44 @@
+package com.hsbc.transaction.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.hsbc.transaction.codec.TransactionProtobufHttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Response formats besides JSON, picked by the request's {@code Accept}
+ * header: {@code application/cbor}, {@code application/x-jackson-smile} and
+ * {@code application/x-protobuf}. JSON stays first, so clients that accept
+ * anything keep getting it.
+ *
+ * <p>CBOR and Smile replace the converters Spring MVC registers for them by
+ * default, so they are built from Boot's {@link Jackson2ObjectMapperBuilder}
+ * and render the same fields and dates as the JSON responses.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Appended rather than declared as a bean, which would put it ahead of JSON for Accept: */*
+        converters.add(new TransactionProtobufHttpMessageConverter());
+    }
+}
@@ -0,0 +1,72 @@
+package com.hsbc.transaction.controller;
+
+import com.hsbc.transaction.dto.ImportReport;
+import com.hsbc.transaction.dto.LedgerVerificationResponse;
+import com.hsbc.transaction.importer.ImportFormat;
+import com.hsbc.transaction.importer.TransactionFileImporter;
+import com.hsbc.transaction.search.TransactionSearchIndex;
+import com.hsbc.transaction.service.AccountSummaryService;
+import com.hsbc.transaction.service.TransactionAggregateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+public class AdminController {
+
+    private final AccountSummaryService accountSummaryService;
+    private final TransactionAggregateService aggregateService;
+    private final TransactionSearchIndex searchIndex;
+    private final TransactionFileImporter fileImporter;
+
+    @Autowired
+    public AdminController(AccountSummaryService accountSummaryService,
+                           TransactionAggregateService aggregateService,
+                           TransactionSearchIndex searchIndex,
+                           TransactionFileImporter fileImporter) {
+        this.accountSummaryService = accountSummaryService;
+        this.aggregateService = aggregateService;
+        this.searchIndex = searchIndex;
+        this.fileImporter = fileImporter;
+    }
+
+    @PostMapping("/account-summaries/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildAccountSummaries() {
+        int rows = accountSummaryService.rebuild();
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+
+    @GetMapping("/account-summaries/verify")
+    public ResponseEntity<LedgerVerificationResponse> verifyAccountSummaries() {
+        return ResponseEntity.ok(accountSummaryService.verify());
+    }
+
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildRollups() {
+        int rows = aggregateService.rebuild();
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+
+    @PostMapping("/search-index/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildSearchIndex() {
+        int documents = searchIndex.rebuild();
+        return ResponseEntity.ok(Map.of("documents", documents));
+    }
+
+    @PostMapping("/imports")
+    public ResponseEntity<ImportReport> importTransactions(
+            @RequestParam String path,
+            @RequestParam(required = false) String format) {
+
+        // Relative to transaction.import.directory; the same path resumes an incomplete import
+        Path file = fileImporter.resolveImportFile(path);
+        ImportReport report = fileImporter.importFile(file, ImportFormat.fromParameter(format, file));
+        HttpStatus status = report.isCompleted() ? HttpStatus.OK : HttpStatus.INTERNAL_SERVER_ERROR;
+        return ResponseEntity.status(status).body(report);
+    }
+}
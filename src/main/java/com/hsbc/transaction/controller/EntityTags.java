@@ -0,0 +1,144 @@
+package com.hsbc.transaction.controller;
+
+import com.hsbc.transaction.codec.TransactionProtobufHttpMessageConverter;
+import com.hsbc.transaction.dto.TransactionResponse;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * ETag handling for the conditional requests of {@link TransactionController}.
+ * A single transaction is tagged with its reference and version column; the
+ * reference is unique across restarts of the in-memory database, where ids
+ * and versions start over. Derived reads use the tags of
+ * {@link com.hsbc.transaction.cache.TransactionChangeTracker}.
+ *
+ * <p>Every tag ends in the response format {@code Accept} selects, e.g.
+ * {@code "TXN...-3;protobuf"}, since each format is a representation of its
+ * own and a JSON tag must not revalidate a Protobuf copy; the responses
+ * carry {@code Vary: Accept}. Tags of the GET-only derived reads are weak:
+ * Tomcat never compresses a response with a strong tag, and the recent list
+ * is large enough to be worth compressing. A single transaction keeps a
+ * strong tag, which {@code If-Match} needs, and is too small to compress.
+ */
+final class EntityTags {
+
+    // Versions start at 0, so this never matches a row
+    private static final long NO_VERSION = -1L;
+    private static final String DEFAULT_VARIANT = "json";
+    // What the converters of WireFormatConfig write, in their order, and the tag suffix of each
+    private static final Map<MediaType, String> VARIANTS = new LinkedHashMap<>();
+
+    static {
+        VARIANTS.put(MediaType.APPLICATION_JSON, DEFAULT_VARIANT);
+        VARIANTS.put(MediaType.APPLICATION_CBOR, "cbor");
+        VARIANTS.put(new MediaType("application", "x-jackson-smile"), "smile");
+        VARIANTS.put(TransactionProtobufHttpMessageConverter.APPLICATION_PROTOBUF, "protobuf");
+    }
+
+    private EntityTags() {
+    }
+
+    static String of(TransactionResponse response, String variant) {
+        return "\"" + response.getReference() + "-" + response.getVersion() + ";" + variant + "\"";
+    }
+
+    /**
+     * The weak form of {@code tag} for the {@code variant} representation, or
+     * {@code null} for no tag.
+     */
+    static String weak(String tag, String variant) {
+        if (tag == null) {
+            return null;
+        }
+        return "W/" + tag.substring(0, tag.length() - 1) + ";" + variant + "\"";
+    }
+
+    /**
+     * The format Spring MVC will pick for {@code accept}, negotiated the same
+     * way: the most specific, then highest quality, of the formats the header
+     * allows, JSON first on a tie. Unknown or malformed headers give JSON,
+     * whose tag then simply never matches.
+     */
+    static String variant(String accept) {
+        List<MediaType> requested;
+        try {
+            requested = accept == null || accept.isBlank() ? List.of(MediaType.ALL) : MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            requested = List.of(MediaType.ALL);
+        }
+        List<MediaType> compatible = new ArrayList<>();
+        for (MediaType type : requested) {
+            for (MediaType producible : VARIANTS.keySet()) {
+                if (type.isCompatibleWith(producible)) {
+                    compatible.add(producible.copyQualityValue(type));
+                }
+            }
+        }
+        if (compatible.isEmpty()) {
+            return DEFAULT_VARIANT;
+        }
+        MimeTypeUtils.sortBySpecificity(compatible);
+        return VARIANTS.getOrDefault(compatible.get(0).removeQualityValue(), DEFAULT_VARIANT);
+    }
+
+    /**
+     * Whether {@code If-None-Match} names {@code etag}, compared weakly as
+     * RFC 9110 asks for GET.
+     */
+    static boolean noneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The version an {@code If-Match} header requires, or {@code null} when
+     * there is none or it is {@code *}. If-Match compares strongly, so weak,
+     * malformed or multiple tags, and tags of another row's reference, yield
+     * a version no row has. The reference is only looked up for a well-formed
+     * tag. Any format's tag will do: they all name the same row version.
+     */
+    static Long expectedVersion(String ifMatch, Supplier<String> reference) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            return NO_VERSION;
+        }
+        int variant = tag.lastIndexOf(';');
+        if (variant > tag.lastIndexOf('-')) {
+            tag = tag.substring(0, variant) + "\"";
+        }
+        // References may contain '-', versions never do
+        int separator = tag.lastIndexOf('-');
+        if (separator < 1) {
+            return NO_VERSION;
+        }
+        long version;
+        try {
+            version = Long.parseLong(tag.substring(separator + 1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_VERSION;
+        }
+        return tag.substring(1, separator).equals(reference.get()) ? version : NO_VERSION;
+    }
+}
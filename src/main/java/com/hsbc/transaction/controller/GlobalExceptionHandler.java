@@ -1,9 +1,15 @@
 package com.hsbc.transaction.controller;
 
 import com.hsbc.transaction.exception.DuplicateTransactionException;
+import com.hsbc.transaction.exception.IdempotencyKeyInProgressException;
+import com.hsbc.transaction.exception.IdempotencyKeyMismatchException;
+import com.hsbc.transaction.exception.IngestionQueueFullException;
 import com.hsbc.transaction.exception.TransactionException;
 import com.hsbc.transaction.exception.TransactionNotFoundException;
+import com.hsbc.transaction.exception.TransactionVersionMismatchException;
 import com.hsbc.transaction.exception.ValidationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -49,6 +55,85 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
     }
 
+    @ExceptionHandler(IngestionQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleIngestionQueueFullException(
+            IngestionQueueFullException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                LocalDateTime.now(),
+                request.getDescription(false)
+        );
+        
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyInProgressException(
+            IdempotencyKeyInProgressException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                HttpStatus.CONFLICT.value(),
+                LocalDateTime.now(),
+                request.getDescription(false)
+        );
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyMismatchException(
+            IdempotencyKeyMismatchException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                LocalDateTime.now(),
+                request.getDescription(false)
+        );
+        
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse);
+    }
+
+    @ExceptionHandler(TransactionVersionMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleTransactionVersionMismatchException(
+            TransactionVersionMismatchException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                HttpStatus.PRECONDITION_FAILED.value(),
+                LocalDateTime.now(),
+                request.getDescription(false)
+        );
+        
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(
+            OptimisticLockingFailureException ex, WebRequest request) {
+        
+        ErrorResponse errorResponse = new ErrorResponse(
+                "CONCURRENT_MODIFICATION",
+                "The transaction was changed by another request, fetch it again and retry",
+                HttpStatus.CONFLICT.value(),
+                LocalDateTime.now(),
+                request.getDescription(false)
+        );
+        
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<ErrorResponse> handleValidationException(
             ValidationException ex, WebRequest request) {
@@ -1,47 +1,114 @@
 package com.hsbc.transaction.controller;
 
+import com.hsbc.transaction.cache.TransactionChangeTracker;
+import com.hsbc.transaction.cache.TransactionLookupCache;
+import com.hsbc.transaction.cache.TransactionLookupKey;
+import com.hsbc.transaction.dto.BatchTransactionResponse;
+import com.hsbc.transaction.dto.CursorPageResponse;
 import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionAggregateResponse;
+import com.hsbc.transaction.dto.TransactionLookupRequest;
+import com.hsbc.transaction.dto.TransactionLookupResponse;
 import com.hsbc.transaction.dto.TransactionRequest;
 import com.hsbc.transaction.dto.TransactionResponse;
 import com.hsbc.transaction.dto.UpdateTransactionRequest;
+import com.hsbc.transaction.export.ExportFormat;
+import com.hsbc.transaction.model.AggregateGranularity;
 import com.hsbc.transaction.model.TransactionType;
+import com.hsbc.transaction.service.TransactionAggregateService;
+import com.hsbc.transaction.service.TransactionExportService;
+import com.hsbc.transaction.service.TransactionIngestionService;
 import com.hsbc.transaction.service.TransactionService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/v1/transactions")
 @CrossOrigin(origins = "*")
 public class TransactionController {
 
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private final TransactionService transactionService;
+    private final TransactionExportService exportService;
+    private final TransactionAggregateService aggregateService;
+    private final TransactionIngestionService ingestionService;
+    private final TransactionChangeTracker changeTracker;
+    private final TransactionLookupCache lookupCache;
 
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService,
+                                 TransactionExportService exportService,
+                                 TransactionAggregateService aggregateService,
+                                 ObjectProvider<TransactionIngestionService> ingestionService,
+                                 TransactionChangeTracker changeTracker,
+                                 TransactionLookupCache lookupCache) {
         this.transactionService = transactionService;
+        this.exportService = exportService;
+        this.aggregateService = aggregateService;
+        this.changeTracker = changeTracker;
+        this.lookupCache = lookupCache;
+        // Only present when transaction.ingestion.mode=async
+        this.ingestionService = ingestionService.getIfAvailable();
     }
 
     @PostMapping
-    public ResponseEntity<TransactionResponse> createTransaction(@Valid @RequestBody TransactionRequest request) {
-        TransactionResponse response = transactionService.createTransaction(request);
+    public ResponseEntity<TransactionResponse> createTransaction(
+            @Valid @RequestBody TransactionRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (ingestionService != null) {
+            TransactionResponse accepted = idempotencyKey != null
+                    ? ingestionService.submit(request, idempotencyKey)
+                    : ingestionService.submit(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(accepted);
+        }
+        TransactionResponse response = idempotencyKey != null
+                ? transactionService.createTransaction(request, idempotencyKey)
+                : transactionService.createTransaction(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<BatchTransactionResponse> createTransactions(
+            @RequestBody List<TransactionRequest> requests,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        BatchTransactionResponse response = idempotencyKey != null
+                ? transactionService.createTransactions(requests, idempotencyKey)
+                : transactionService.createTransactions(requests);
+        HttpStatus status = response.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(response);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<TransactionResponse> getTransactionById(@PathVariable Long id) {
-        TransactionResponse response = transactionService.getTransactionById(id);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<TransactionResponse> getTransactionById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        // The cached row is the tag source, so a current client gets 304 before any lookup; a miss reads the row
+        TransactionResponse cached = lookupCache.getIfPresent(TransactionLookupKey.byId(id));
+        TransactionResponse response = cached != null ? cached : transactionService.getTransactionById(id);
+        String etag = EntityTags.of(response, EntityTags.variant(accept));
+        if (EntityTags.noneMatch(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(response);
     }
 
     @GetMapping("/reference/{reference}")
@@ -50,13 +117,33 @@ public class TransactionController {
         return ResponseEntity.ok(response);
     }
 
-    @PutMapping("/{id}")
-    public ResponseEntity<TransactionResponse> updateTransaction(@PathVariable Long id, 
-                                                             @Valid @RequestBody UpdateTransactionRequest request) {
-        TransactionResponse response = transactionService.updateTransaction(id, request);
+    @GetMapping("/reference/{reference}/status")
+    public ResponseEntity<TransactionResponse> getTransactionStatus(@PathVariable String reference) {
+        TransactionResponse response = ingestionService != null
+                ? ingestionService.getStatus(reference)
+                : transactionService.getTransactionByReference(reference);
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/lookup")
+    public ResponseEntity<TransactionLookupResponse> lookupTransactions(@RequestBody TransactionLookupRequest request) {
+        TransactionLookupResponse response = transactionService.lookupTransactions(request.getIds(), request.getReferences());
+        return ResponseEntity.ok(response);
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<TransactionResponse> updateTransaction(
+            @PathVariable Long id,
+            @Valid @RequestBody UpdateTransactionRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Long expectedVersion = EntityTags.expectedVersion(ifMatch,
+                () -> transactionService.getTransactionById(id).getReference());
+        TransactionResponse response = transactionService.updateTransaction(id, request, expectedVersion);
+        return ResponseEntity.ok().eTag(EntityTags.of(response, EntityTags.variant(accept)))
+                .varyBy(HttpHeaders.ACCEPT).body(response);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTransaction(@PathVariable Long id) {
         transactionService.deleteTransaction(id);
@@ -68,13 +155,34 @@ public class TransactionController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "transactionDate") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDir) {
+            @RequestParam(defaultValue = "desc") String sortDir,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
         
         Sort sort = sortDir.equalsIgnoreCase("desc") ? 
             Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         
         Pageable pageable = PageRequest.of(page, size, sort);
-        PageResponse<TransactionResponse> response = transactionService.getAllTransactions(pageable);
+        PageResponse<TransactionResponse> response = transactionService.getAllTransactions(pageable, withTotal);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<TransactionResponse>> getTransactionsAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+
+        CursorPageResponse<TransactionResponse> response = transactionService.getTransactionsAfter(after, size);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/account/{accountNumber}/cursor")
+    public ResponseEntity<CursorPageResponse<TransactionResponse>> getTransactionsByAccountAfter(
+            @PathVariable String accountNumber,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int size) {
+
+        CursorPageResponse<TransactionResponse> response =
+                transactionService.getTransactionsByAccountAfter(accountNumber, after, size);
         return ResponseEntity.ok(response);
     }
 
@@ -82,10 +190,11 @@ public class TransactionController {
     public ResponseEntity<PageResponse<TransactionResponse>> getTransactionsByAccount(
             @PathVariable String accountNumber,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("transactionDate").descending());
-        PageResponse<TransactionResponse> response = transactionService.getTransactionsByAccount(accountNumber, pageable);
+        PageResponse<TransactionResponse> response = transactionService.getTransactionsByAccount(accountNumber, pageable, withTotal);
         return ResponseEntity.ok(response);
     }
 
@@ -93,11 +202,12 @@ public class TransactionController {
     public ResponseEntity<PageResponse<TransactionResponse>> getTransactionsByType(
             @PathVariable String type,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
         
         TransactionType transactionType = TransactionType.valueOf(type.toUpperCase());
         Pageable pageable = PageRequest.of(page, size, Sort.by("transactionDate").descending());
-        PageResponse<TransactionResponse> response = transactionService.getTransactionsByType(transactionType, pageable);
+        PageResponse<TransactionResponse> response = transactionService.getTransactionsByType(transactionType, pageable, withTotal);
         return ResponseEntity.ok(response);
     }
 
@@ -106,10 +216,11 @@ public class TransactionController {
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("transactionDate").descending());
-        PageResponse<TransactionResponse> response = transactionService.getTransactionsByDateRange(startDate, endDate, pageable);
+        PageResponse<TransactionResponse> response = transactionService.getTransactionsByDateRange(startDate, endDate, pageable, withTotal);
         return ResponseEntity.ok(response);
     }
 
@@ -118,10 +229,11 @@ public class TransactionController {
             @RequestParam BigDecimal minAmount,
             @RequestParam BigDecimal maxAmount,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("transactionDate").descending());
-        PageResponse<TransactionResponse> response = transactionService.getTransactionsByAmountRange(minAmount, maxAmount, pageable);
+        PageResponse<TransactionResponse> response = transactionService.getTransactionsByAmountRange(minAmount, maxAmount, pageable, withTotal);
         return ResponseEntity.ok(response);
     }
 
@@ -145,7 +257,8 @@ public class TransactionController {
             @RequestParam(required = false) BigDecimal minAmount,
             @RequestParam(required = false) BigDecimal maxAmount,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean withTotal) {
         
         TransactionType transactionType = null;
         if (type != null) {
@@ -154,40 +267,113 @@ public class TransactionController {
         
         Pageable pageable = PageRequest.of(page, size, Sort.by("transactionDate").descending());
         PageResponse<TransactionResponse> response = transactionService.getTransactionsByCriteria(
-                accountNumber, transactionType, startDate, endDate, minAmount, maxAmount, pageable);
+                accountNumber, transactionType, startDate, endDate, minAmount, maxAmount, pageable, withTotal);
         return ResponseEntity.ok(response);
     }
 
-    @GetMapping("/recent")
-    public ResponseEntity<List<TransactionResponse>> getRecentTransactions() {
-        List<TransactionResponse> response = transactionService.getRecentTransactions();
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) String accountNumber,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(defaultValue = "ndjson") String format) {
+
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        TransactionType transactionType = null;
+        if (type != null) {
+            transactionType = TransactionType.valueOf(type.toUpperCase());
+        }
+
+        // Rows are written from the database cursor on an async thread as they are read
+        TransactionType filterType = transactionType;
+        StreamingResponseBody body = out -> exportService.exportTransactionsByCriteria(
+                exportFormat, accountNumber, filterType, startDate, endDate, minAmount, maxAmount, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/aggregates")
+    public ResponseEntity<TransactionAggregateResponse> getAggregates(
+            @RequestParam String account,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "day") String granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        TransactionType transactionType = null;
+        if (type != null) {
+            transactionType = TransactionType.valueOf(type.toUpperCase());
+        }
+
+        TransactionAggregateResponse response = aggregateService.getAggregates(
+                account, transactionType, AggregateGranularity.fromParameter(granularity), from, to);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/recent")
+    public ResponseEntity<List<TransactionResponse>> getRecentTransactions(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return conditional(ifNoneMatch, accept, changeTracker::recentTag, transactionService::getRecentTransactions);
+    }
+
     @GetMapping("/account/{accountNumber}/count")
-    public ResponseEntity<Long> getTransactionCountByAccount(@PathVariable String accountNumber) {
-        long count = transactionService.getTransactionCountByAccount(accountNumber);
-        return ResponseEntity.ok(count);
+    public ResponseEntity<Long> getTransactionCountByAccount(
+            @PathVariable String accountNumber,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return conditional(ifNoneMatch, accept, () -> changeTracker.accountTag(accountNumber),
+                () -> transactionService.getTransactionCountByAccount(accountNumber));
     }
 
     @GetMapping("/account/{accountNumber}/balance")
-    public ResponseEntity<BigDecimal> getAccountBalance(@PathVariable String accountNumber) {
-        BigDecimal balance = transactionService.getAccountBalance(accountNumber);
-        return ResponseEntity.ok(balance);
+    public ResponseEntity<BigDecimal> getAccountBalance(
+            @PathVariable String accountNumber,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return conditional(ifNoneMatch, accept, () -> changeTracker.accountTag(accountNumber),
+                () -> transactionService.getAccountBalance(accountNumber));
     }
 
     @GetMapping("/account/{accountNumber}/balance/{type}")
     public ResponseEntity<BigDecimal> getAccountBalanceByType(
             @PathVariable String accountNumber,
-            @PathVariable String type) {
+            @PathVariable String type,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         
         TransactionType transactionType = TransactionType.valueOf(type.toUpperCase());
-        BigDecimal balance = transactionService.getAccountBalanceByType(accountNumber, transactionType);
-        return ResponseEntity.ok(balance);
+        return conditional(ifNoneMatch, accept, () -> changeTracker.accountTag(accountNumber),
+                () -> transactionService.getAccountBalanceByType(accountNumber, transactionType));
     }
 
     @GetMapping("/types")
     public ResponseEntity<TransactionType[]> getTransactionTypes() {
         return ResponseEntity.ok(TransactionType.values());
     }
+
+    /**
+     * Answers {@code 304} from the tag alone when the client is current.
+     * Otherwise the body is read and tagged only if the tag is unchanged
+     * afterwards, so a read overlapping a write goes out untagged. Tags are
+     * weak, so the body can still be compressed.
+     */
+    private <T> ResponseEntity<T> conditional(String ifNoneMatch, String accept, Supplier<String> tag, Supplier<T> body) {
+        String version = tag.get();
+        String etag = EntityTags.weak(version, EntityTags.variant(accept));
+        if (EntityTags.noneMatch(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        T value = body.get();
+        if (version == null || !version.equals(tag.get())) {
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(value);
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(value);
+    }
 }
@@ -0,0 +1,128 @@
+package com.hsbc.transaction.dto;
+
+import java.util.List;
+
+public class BatchTransactionResponse {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<ItemResult> results;
+
+    public BatchTransactionResponse() {}
+
+    public BatchTransactionResponse(List<ItemResult> results) {
+        this.results = results;
+        this.total = results.size();
+        this.succeeded = (int) results.stream().filter(ItemResult::isSuccess).count();
+        this.failed = this.total - this.succeeded;
+    }
+
+    // Getters and Setters
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<ItemResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<ItemResult> results) {
+        this.results = results;
+    }
+
+    public enum ItemStatus {
+        CREATED,
+        REJECTED,
+        FAILED
+    }
+
+    public static class ItemResult {
+        private int index;
+        private ItemStatus status;
+        private TransactionResponse transaction;
+        private String error;
+
+        public ItemResult() {}
+
+        public static ItemResult created(int index, TransactionResponse transaction) {
+            ItemResult result = new ItemResult();
+            result.index = index;
+            result.status = ItemStatus.CREATED;
+            result.transaction = transaction;
+            return result;
+        }
+
+        public static ItemResult rejected(int index, String error) {
+            ItemResult result = new ItemResult();
+            result.index = index;
+            result.status = ItemStatus.REJECTED;
+            result.error = error;
+            return result;
+        }
+
+        public static ItemResult failed(int index, String error) {
+            ItemResult result = new ItemResult();
+            result.index = index;
+            result.status = ItemStatus.FAILED;
+            result.error = error;
+            return result;
+        }
+
+        public boolean isSuccess() {
+            return status == ItemStatus.CREATED;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public void setIndex(int index) {
+            this.index = index;
+        }
+
+        public ItemStatus getStatus() {
+            return status;
+        }
+
+        public void setStatus(ItemStatus status) {
+            this.status = status;
+        }
+
+        public TransactionResponse getTransaction() {
+            return transaction;
+        }
+
+        public void setTransaction(TransactionResponse transaction) {
+            this.transaction = transaction;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
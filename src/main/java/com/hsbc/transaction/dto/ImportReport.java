@@ -0,0 +1,165 @@
+package com.hsbc.transaction.dto;
+
+import java.util.List;
+
+public class ImportReport {
+
+    private String importId;
+    private String file;
+    private String format;
+    private int chunks;
+    private boolean resumed;
+    private boolean completed;
+    private String failure;
+    private long rowsImported;
+    private long rowsRejected;
+    private long totalRowsImported;
+    private long totalRowsRejected;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private List<Rejection> rejections;
+
+    public ImportReport() {}
+
+    // Getters and Setters
+    public String getImportId() {
+        return importId;
+    }
+
+    public void setImportId(String importId) {
+        this.importId = importId;
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(int chunks) {
+        this.chunks = chunks;
+    }
+
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    public void setResumed(boolean resumed) {
+        this.resumed = resumed;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public String getFailure() {
+        return failure;
+    }
+
+    public void setFailure(String failure) {
+        this.failure = failure;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public void setRowsImported(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    public long getTotalRowsImported() {
+        return totalRowsImported;
+    }
+
+    public void setTotalRowsImported(long totalRowsImported) {
+        this.totalRowsImported = totalRowsImported;
+    }
+
+    public long getTotalRowsRejected() {
+        return totalRowsRejected;
+    }
+
+    public void setTotalRowsRejected(long totalRowsRejected) {
+        this.totalRowsRejected = totalRowsRejected;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    public void setRejections(List<Rejection> rejections) {
+        this.rejections = rejections;
+    }
+
+    public static class Rejection {
+        // Byte offset of the rejected line in the file
+        private long offset;
+        private String error;
+
+        public Rejection() {}
+
+        public Rejection(long offset, String error) {
+            this.offset = offset;
+            this.error = error;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public void setOffset(long offset) {
+            this.offset = offset;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
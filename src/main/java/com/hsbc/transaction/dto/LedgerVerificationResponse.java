@@ -0,0 +1,116 @@
+package com.hsbc.transaction.dto;
+
+import com.hsbc.transaction.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class LedgerVerificationResponse {
+
+    private int accountsChecked;
+    private boolean consistent;
+    private List<Discrepancy> discrepancies;
+
+    public LedgerVerificationResponse() {}
+
+    public LedgerVerificationResponse(int accountsChecked, List<Discrepancy> discrepancies) {
+        this.accountsChecked = accountsChecked;
+        this.discrepancies = discrepancies;
+        this.consistent = discrepancies.isEmpty();
+    }
+
+    // Getters and Setters
+    public int getAccountsChecked() {
+        return accountsChecked;
+    }
+
+    public void setAccountsChecked(int accountsChecked) {
+        this.accountsChecked = accountsChecked;
+    }
+
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    public void setConsistent(boolean consistent) {
+        this.consistent = consistent;
+    }
+
+    public List<Discrepancy> getDiscrepancies() {
+        return discrepancies;
+    }
+
+    public void setDiscrepancies(List<Discrepancy> discrepancies) {
+        this.discrepancies = discrepancies;
+    }
+
+    public static class Discrepancy {
+        private String accountNumber;
+        private TransactionType type;
+        private BigDecimal expectedAmount;
+        private BigDecimal recordedAmount;
+        private long expectedCount;
+        private long recordedCount;
+
+        public Discrepancy() {}
+
+        public Discrepancy(String accountNumber, TransactionType type,
+                           BigDecimal expectedAmount, BigDecimal recordedAmount,
+                           long expectedCount, long recordedCount) {
+            this.accountNumber = accountNumber;
+            this.type = type;
+            this.expectedAmount = expectedAmount;
+            this.recordedAmount = recordedAmount;
+            this.expectedCount = expectedCount;
+            this.recordedCount = recordedCount;
+        }
+
+        public String getAccountNumber() {
+            return accountNumber;
+        }
+
+        public void setAccountNumber(String accountNumber) {
+            this.accountNumber = accountNumber;
+        }
+
+        public TransactionType getType() {
+            return type;
+        }
+
+        public void setType(TransactionType type) {
+            this.type = type;
+        }
+
+        public BigDecimal getExpectedAmount() {
+            return expectedAmount;
+        }
+
+        public void setExpectedAmount(BigDecimal expectedAmount) {
+            this.expectedAmount = expectedAmount;
+        }
+
+        public BigDecimal getRecordedAmount() {
+            return recordedAmount;
+        }
+
+        public void setRecordedAmount(BigDecimal recordedAmount) {
+            this.recordedAmount = recordedAmount;
+        }
+
+        public long getExpectedCount() {
+            return expectedCount;
+        }
+
+        public void setExpectedCount(long expectedCount) {
+            this.expectedCount = expectedCount;
+        }
+
+        public long getRecordedCount() {
+            return recordedCount;
+        }
+
+        public void setRecordedCount(long recordedCount) {
+            this.recordedCount = recordedCount;
+        }
+    }
+}
@@ -1,16 +1,26 @@
 package com.hsbc.transaction.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
+/**
+ * One page of results. Pages requested with {@code withTotal=false} are
+ * slices: they are read without a count query, so {@code totalElements} and
+ * {@code totalPages} are left out and {@code hasNext} says whether to go on.
+ */
 public class PageResponse<T> {
 
     private List<T> content;
     private int pageNumber;
     private int pageSize;
-    private long totalElements;
-    private int totalPages;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalPages;
     private boolean first;
     private boolean last;
+    private boolean hasNext;
 
     public PageResponse() {}
 
@@ -23,6 +33,16 @@ public class PageResponse<T> {
         this.totalPages = totalPages;
         this.first = first;
         this.last = last;
+        this.hasNext = !last;
+    }
+
+    public PageResponse(List<T> content, int pageNumber, int pageSize, boolean first, boolean hasNext) {
+        this.content = content;
+        this.pageNumber = pageNumber;
+        this.pageSize = pageSize;
+        this.first = first;
+        this.last = !hasNext;
+        this.hasNext = hasNext;
     }
 
     // Getters and Setters
@@ -50,19 +70,19 @@ public class PageResponse<T> {
         this.pageSize = pageSize;
     }
 
-    public long getTotalElements() {
+    public Long getTotalElements() {
         return totalElements;
     }
 
-    public void setTotalElements(long totalElements) {
+    public void setTotalElements(Long totalElements) {
         this.totalElements = totalElements;
     }
 
-    public int getTotalPages() {
+    public Integer getTotalPages() {
         return totalPages;
     }
 
-    public void setTotalPages(int totalPages) {
+    public void setTotalPages(Integer totalPages) {
         this.totalPages = totalPages;
     }
 
@@ -81,4 +101,12 @@ public class PageResponse<T> {
     public void setLast(boolean last) {
         this.last = last;
     }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
 }
@@ -0,0 +1,146 @@
+package com.hsbc.transaction.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.hsbc.transaction.model.AggregateGranularity;
+import com.hsbc.transaction.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class TransactionAggregateResponse {
+
+    private String accountNumber;
+    // Absent when the totals are broken down by every type
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private TransactionType type;
+    private AggregateGranularity granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Bucket> buckets;
+
+    public TransactionAggregateResponse() {}
+
+    public TransactionAggregateResponse(String accountNumber, TransactionType type, AggregateGranularity granularity,
+                                        LocalDate from, LocalDate to, List<Bucket> buckets) {
+        this.accountNumber = accountNumber;
+        this.type = type;
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.buckets = buckets;
+    }
+
+    // Getters and Setters
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public void setAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public AggregateGranularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(AggregateGranularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<Bucket> buckets) {
+        this.buckets = buckets;
+    }
+
+    /**
+     * Totals of one type within one bucket. {@code start} and {@code end} are
+     * the first and last day covered, so the first and last buckets are cut
+     * to the requested range.
+     */
+    public static class Bucket {
+        private LocalDate start;
+        private LocalDate end;
+        private TransactionType type;
+        private BigDecimal totalAmount;
+        private long transactionCount;
+
+        public Bucket() {}
+
+        public Bucket(LocalDate start, LocalDate end, TransactionType type,
+                      BigDecimal totalAmount, long transactionCount) {
+            this.start = start;
+            this.end = end;
+            this.type = type;
+            this.totalAmount = totalAmount;
+            this.transactionCount = transactionCount;
+        }
+
+        public LocalDate getStart() {
+            return start;
+        }
+
+        public void setStart(LocalDate start) {
+            this.start = start;
+        }
+
+        public LocalDate getEnd() {
+            return end;
+        }
+
+        public void setEnd(LocalDate end) {
+            this.end = end;
+        }
+
+        public TransactionType getType() {
+            return type;
+        }
+
+        public void setType(TransactionType type) {
+            this.type = type;
+        }
+
+        public BigDecimal getTotalAmount() {
+            return totalAmount;
+        }
+
+        public void setTotalAmount(BigDecimal totalAmount) {
+            this.totalAmount = totalAmount;
+        }
+
+        public long getTransactionCount() {
+            return transactionCount;
+        }
+
+        public void setTransactionCount(long transactionCount) {
+            this.transactionCount = transactionCount;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.hsbc.transaction.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TransactionLookupRequest {
+
+    private List<Long> ids = new ArrayList<>();
+
+    private List<String> references = new ArrayList<>();
+
+    public TransactionLookupRequest() {}
+
+    public TransactionLookupRequest(List<Long> ids, List<String> references) {
+        this.ids = ids;
+        this.references = references;
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    public List<String> getReferences() {
+        return references;
+    }
+
+    public void setReferences(List<String> references) {
+        this.references = references;
+    }
+}
@@ -0,0 +1,59 @@
+package com.hsbc.transaction.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a multi-get. Found transactions are keyed by the id or reference
+ * they were asked for, in request order; the rest are listed as not found.
+ */
+public class TransactionLookupResponse {
+
+    private Map<Long, TransactionResponse> ids;
+    private Map<String, TransactionResponse> references;
+    private List<Long> notFoundIds;
+    private List<String> notFoundReferences;
+
+    public TransactionLookupResponse() {}
+
+    public TransactionLookupResponse(Map<Long, TransactionResponse> ids, Map<String, TransactionResponse> references,
+                                     List<Long> notFoundIds, List<String> notFoundReferences) {
+        this.ids = ids;
+        this.references = references;
+        this.notFoundIds = notFoundIds;
+        this.notFoundReferences = notFoundReferences;
+    }
+
+    // Getters and Setters
+    public Map<Long, TransactionResponse> getIds() {
+        return ids;
+    }
+
+    public void setIds(Map<Long, TransactionResponse> ids) {
+        this.ids = ids;
+    }
+
+    public Map<String, TransactionResponse> getReferences() {
+        return references;
+    }
+
+    public void setReferences(Map<String, TransactionResponse> references) {
+        this.references = references;
+    }
+
+    public List<Long> getNotFoundIds() {
+        return notFoundIds;
+    }
+
+    public void setNotFoundIds(List<Long> notFoundIds) {
+        this.notFoundIds = notFoundIds;
+    }
+
+    public List<String> getNotFoundReferences() {
+        return notFoundReferences;
+    }
+
+    public void setNotFoundReferences(List<String> notFoundReferences) {
+        this.notFoundReferences = notFoundReferences;
+    }
+}
@@ -20,10 +20,33 @@ public class TransactionResponse {
     private String notes;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     // Constructors
     public TransactionResponse() {}
 
+    /**
+     * Target of the repository's constructor expressions, which read rows
+     * straight into responses without loading entities.
+     */
+    public TransactionResponse(Long id, String reference, String accountNumber, BigDecimal amount,
+                               TransactionType type, String description, LocalDateTime transactionDate,
+                               TransactionStatus status, String notes,
+                               LocalDateTime createdAt, LocalDateTime updatedAt, Long version) {
+        this.id = id;
+        this.reference = reference;
+        this.accountNumber = accountNumber;
+        this.amount = amount;
+        this.type = type;
+        this.description = description;
+        this.transactionDate = transactionDate;
+        this.status = status;
+        this.notes = notes;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
+
     public TransactionResponse(Transaction transaction) {
         this.id = transaction.getId();
         this.reference = transaction.getReference();
@@ -36,6 +59,7 @@ public class TransactionResponse {
         this.notes = transaction.getNotes();
         this.createdAt = transaction.getCreatedAt();
         this.updatedAt = transaction.getUpdatedAt();
+        this.version = transaction.getVersion();
     }
 
     // Getters and Setters
@@ -126,4 +150,12 @@ public class TransactionResponse {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
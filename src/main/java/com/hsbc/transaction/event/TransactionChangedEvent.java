@@ -0,0 +1,48 @@
+package com.hsbc.transaction.event;
+
+import com.hsbc.transaction.model.Transaction;
+
+import java.util.List;
+
+/**
+ * Published by the write paths for every created, updated or deleted
+ * transaction. Listeners annotated with {@code @EventListener} run inside the
+ * publishing database transaction; {@code @TransactionalEventListener}s run
+ * once it has committed.
+ */
+public class TransactionChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final ChangeType changeType;
+    private final List<Transaction> transactions;
+
+    public TransactionChangedEvent(ChangeType changeType, List<Transaction> transactions) {
+        this.changeType = changeType;
+        this.transactions = List.copyOf(transactions);
+    }
+
+    public static TransactionChangedEvent created(List<Transaction> transactions) {
+        return new TransactionChangedEvent(ChangeType.CREATED, transactions);
+    }
+
+    public static TransactionChangedEvent updated(Transaction transaction) {
+        return new TransactionChangedEvent(ChangeType.UPDATED, List.of(transaction));
+    }
+
+    public static TransactionChangedEvent deleted(Transaction transaction) {
+        return new TransactionChangedEvent(ChangeType.DELETED, List.of(transaction));
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+}
@@ -0,0 +1,9 @@
+package com.hsbc.transaction.exception;
+
+public class IdempotencyKeyInProgressException extends TransactionException {
+
+    public IdempotencyKeyInProgressException(String key) {
+        super("A request with idempotency key " + key + " is still being processed, please retry later",
+                "IDEMPOTENCY_KEY_IN_PROGRESS");
+    }
+}
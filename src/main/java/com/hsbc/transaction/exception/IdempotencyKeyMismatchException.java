@@ -0,0 +1,9 @@
+package com.hsbc.transaction.exception;
+
+public class IdempotencyKeyMismatchException extends TransactionException {
+
+    public IdempotencyKeyMismatchException(String key) {
+        super("Idempotency key " + key + " was already used for a different request",
+                "IDEMPOTENCY_KEY_MISMATCH");
+    }
+}
@@ -0,0 +1,8 @@
+package com.hsbc.transaction.exception;
+
+public class IngestionQueueFullException extends TransactionException {
+
+    public IngestionQueueFullException(int capacity) {
+        super("Ingestion queue is full (capacity " + capacity + "), please retry later", "INGESTION_QUEUE_FULL");
+    }
+}
@@ -0,0 +1,9 @@
+package com.hsbc.transaction.exception;
+
+public class TransactionVersionMismatchException extends TransactionException {
+
+    public TransactionVersionMismatchException(Long id, Long expectedVersion) {
+        super("Transaction with id " + id + " is no longer at version " + expectedVersion
+                + ", fetch it again and retry", "TRANSACTION_VERSION_MISMATCH");
+    }
+}
@@ -0,0 +1,92 @@
+package com.hsbc.transaction.export;
+
+import com.hsbc.transaction.dto.TransactionResponse;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * RFC 4180 CSV with a header row. Dates are ISO-8601 and amounts are plain
+ * decimals, the same values the JSON endpoints return.
+ */
+class CsvRowWriter implements TransactionRowWriter {
+
+    static final String HEADER = "id,reference,accountNumber,amount,type,description,"
+            + "transactionDate,status,notes,createdAt,updatedAt";
+
+    private final Writer writer;
+
+    CsvRowWriter(Writer writer) throws IOException {
+        this.writer = writer;
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(TransactionResponse row) throws IOException {
+        writeField(row.getId());
+        writer.write(',');
+        writeField(row.getReference());
+        writer.write(',');
+        writeField(row.getAccountNumber());
+        writer.write(',');
+        writeField(row.getAmount() == null ? null : row.getAmount().toPlainString());
+        writer.write(',');
+        writeField(row.getType());
+        writer.write(',');
+        writeField(row.getDescription());
+        writer.write(',');
+        writeField(formatDate(row.getTransactionDate()));
+        writer.write(',');
+        writeField(row.getStatus());
+        writer.write(',');
+        writeField(row.getNotes());
+        writer.write(',');
+        writeField(formatDate(row.getCreatedAt()));
+        writer.write(',');
+        writeField(formatDate(row.getUpdatedAt()));
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.flush();
+    }
+
+    private void writeField(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (!needsQuoting(text)) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static String formatDate(LocalDateTime date) {
+        // Same pattern Jackson uses, which always prints seconds
+        return date == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(date);
+    }
+
+    private static boolean needsQuoting(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,54 @@
+package com.hsbc.transaction.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.exception.ValidationException;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Wire formats offered by the export endpoint. Both are line oriented, so a
+ * consumer can process rows as they arrive.
+ */
+public enum ExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        public TransactionRowWriter open(Writer writer, ObjectMapper objectMapper) throws IOException {
+            return new NdjsonRowWriter(writer, objectMapper);
+        }
+    },
+    CSV("text/csv", "csv") {
+        @Override
+        public TransactionRowWriter open(Writer writer, ObjectMapper objectMapper) throws IOException {
+            return new CsvRowWriter(writer);
+        }
+    };
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public abstract TransactionRowWriter open(Writer writer, ObjectMapper objectMapper) throws IOException;
+
+    public static ExportFormat fromParameter(String format) {
+        for (ExportFormat candidate : values()) {
+            if (candidate.fileExtension.equalsIgnoreCase(format)) {
+                return candidate;
+            }
+        }
+        throw new ValidationException("Unsupported export format: " + format + " (expected ndjson or csv)");
+    }
+}
@@ -0,0 +1,39 @@
+package com.hsbc.transaction.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.hsbc.transaction.dto.TransactionResponse;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * One JSON object per line, serialized with the application's ObjectMapper so
+ * each line matches the body of {@code GET /api/v1/transactions/{id}}.
+ */
+class NdjsonRowWriter implements TransactionRowWriter {
+
+    private final JsonGenerator generator;
+    private final ObjectWriter rowWriter;
+
+    NdjsonRowWriter(Writer writer, ObjectMapper objectMapper) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(writer);
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Let the generator's buffer fill instead of flushing the response after every row
+        this.rowWriter = objectMapper.writerFor(TransactionResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    @Override
+    public void write(TransactionResponse row) throws IOException {
+        rowWriter.writeValue(generator, row);
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
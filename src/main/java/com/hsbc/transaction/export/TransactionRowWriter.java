@@ -0,0 +1,16 @@
+package com.hsbc.transaction.export;
+
+import com.hsbc.transaction.dto.TransactionResponse;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Writes exported rows one at a time. Implementations buffer but never hold
+ * more than the current row, and {@link #close()} flushes without closing the
+ * underlying writer.
+ */
+public interface TransactionRowWriter extends Closeable {
+
+    void write(TransactionResponse row) throws IOException;
+}
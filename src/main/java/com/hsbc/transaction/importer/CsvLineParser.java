@@ -0,0 +1,115 @@
+package com.hsbc.transaction.importer;
+
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.exception.ValidationException;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 fields mapped by the header row, so column order is free and
+ * unknown columns (such as {@code id} or {@code status} in an export) are
+ * skipped. Quoted fields may contain commas and doubled quotes but not line
+ * breaks, since the file is split into records on line breaks.
+ */
+class CsvLineParser implements TransactionLineParser {
+
+    private final int reference;
+    private final int accountNumber;
+    private final int amount;
+    private final int type;
+    private final int description;
+    private final int transactionDate;
+    private final int notes;
+
+    CsvLineParser(String header) {
+        List<String> columns = split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        this.reference = indexOf(columns, "reference", false);
+        this.accountNumber = indexOf(columns, "accountNumber", true);
+        this.amount = indexOf(columns, "amount", true);
+        this.type = indexOf(columns, "type", true);
+        this.description = indexOf(columns, "description", true);
+        this.transactionDate = indexOf(columns, "transactionDate", false);
+        this.notes = indexOf(columns, "notes", false);
+    }
+
+    @Override
+    public TransactionRequest parse(String line) {
+        List<String> fields = split(line);
+        TransactionRequest request = new TransactionRequest();
+        request.setReference(field(fields, reference));
+        request.setAccountNumber(field(fields, accountNumber));
+        request.setType(field(fields, type));
+        request.setDescription(field(fields, description));
+        request.setNotes(field(fields, notes));
+
+        String amountText = field(fields, amount);
+        try {
+            request.setAmount(amountText == null ? null : new BigDecimal(amountText));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid amount: " + amountText);
+        }
+
+        String dateText = field(fields, transactionDate);
+        try {
+            request.setTransactionDate(dateText == null ? null : LocalDateTime.parse(dateText));
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("Invalid transaction date: " + dateText);
+        }
+        return request;
+    }
+
+    private static int indexOf(List<String> columns, String name, boolean required) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).trim().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        if (required) {
+            throw new ValidationException("CSV header is missing column " + name);
+        }
+        return -1;
+    }
+
+    private static String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index);
+        return value.isEmpty() ? null : value;
+    }
+
+    static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new ValidationException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,97 @@
+package com.hsbc.transaction.importer;
+
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.storage.TransactionLogStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inserts one batch of imported rows with a single JDBC batch statement and
+ * advances the chunk checkpoint in the same transaction. Rows bypass JPA and
+ * the change events; the importer rebuilds the derived state afterwards,
+ * and the transaction log, when enabled, is handed the rows directly.
+ */
+@Component
+class ImportBatchWriter {
+
+    // INCREMENT BY of transaction_seq, i.e. the entity's allocationSize
+    static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INSERT_SQL = "INSERT INTO transactions (id, reference, account_number, amount, type, "
+            + "description, transaction_date, status, notes, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ImportCheckpointStore checkpointStore;
+    private final ObjectProvider<TransactionLogStore> logStore;
+
+    @Autowired
+    ImportBatchWriter(JdbcTemplate jdbcTemplate, ImportCheckpointStore checkpointStore,
+                      ObjectProvider<TransactionLogStore> logStore) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.checkpointStore = checkpointStore;
+        this.logStore = logStore;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void write(String importId, long chunkStart, List<Transaction> rows,
+                      long committedOffset, int rejected) {
+        if (!rows.isEmpty()) {
+            assignIds(rows);
+            LocalDateTime now = LocalDateTime.now();
+            Timestamp timestamp = Timestamp.valueOf(now);
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+                ps.setLong(1, row.getId());
+                ps.setString(2, row.getReference());
+                ps.setString(3, row.getAccountNumber());
+                ps.setBigDecimal(4, row.getAmount());
+                ps.setString(5, row.getType().name());
+                ps.setString(6, row.getDescription());
+                ps.setTimestamp(7, Timestamp.valueOf(row.getTransactionDate()));
+                ps.setString(8, row.getStatus().name());
+                ps.setString(9, row.getNotes());
+                ps.setTimestamp(10, timestamp);
+                ps.setTimestamp(11, timestamp);
+            });
+            for (Transaction row : rows) {
+                row.setCreatedAt(now);
+                row.setUpdatedAt(now);
+                row.setVersion(0L);
+            }
+            logStore.ifAvailable(store -> store.recordWritten(rows));
+        }
+        checkpointStore.advance(importId, chunkStart, committedOffset, rows.size(), rejected);
+    }
+
+    /**
+     * Draw ids the way Hibernate's pooled optimizer does: a sequence value v
+     * reserves {@code (v - 50, v]}, so imports and JPA inserts never collide.
+     */
+    private void assignIds(List<Transaction> rows) {
+        long next = 0;
+        long blockEnd = -1;
+        for (Transaction row : rows) {
+            if (next > blockEnd) {
+                blockEnd = nextSequenceValue();
+                // The first value of a fresh sequence reserves nothing below it
+                while (blockEnd < ID_BLOCK_SIZE) {
+                    blockEnd = nextSequenceValue();
+                }
+                next = blockEnd - ID_BLOCK_SIZE + 1;
+            }
+            row.setId(next++);
+        }
+    }
+
+    private long nextSequenceValue() {
+        return jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR transaction_seq", Long.class);
+    }
+}
@@ -0,0 +1,17 @@
+package com.hsbc.transaction.importer;
+
+/**
+ * Progress of one chunk of an import file. Bytes in
+ * {@code [chunkStart, committedOffset)} are committed; the chunk is done when
+ * the committed offset reaches {@code chunkEnd}.
+ */
+record ImportCheckpoint(long chunkStart, long chunkEnd, long committedOffset, long rowsImported, long rowsRejected) {
+
+    static ImportCheckpoint start(long chunkStart, long chunkEnd) {
+        return new ImportCheckpoint(chunkStart, chunkEnd, chunkStart, 0, 0);
+    }
+
+    boolean isComplete() {
+        return committedOffset >= chunkEnd;
+    }
+}
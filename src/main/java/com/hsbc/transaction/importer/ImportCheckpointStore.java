@@ -0,0 +1,49 @@
+package com.hsbc.transaction.importer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Chunk progress in the {@code import_checkpoints} table. {@link #advance} is
+ * called inside the transaction that inserts the chunk's rows, so the stored
+ * offset never runs ahead of or behind the committed data.
+ */
+@Component
+class ImportCheckpointStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ImportCheckpointStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    List<ImportCheckpoint> load(String importId) {
+        return jdbcTemplate.query("SELECT chunk_start, chunk_end, committed_offset, rows_imported, rows_rejected "
+                        + "FROM import_checkpoints WHERE import_id = ? ORDER BY chunk_start",
+                (rs, rowNum) -> new ImportCheckpoint(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)),
+                importId);
+    }
+
+    void create(String importId, List<ImportCheckpoint> chunks) {
+        jdbcTemplate.batchUpdate("INSERT INTO import_checkpoints (import_id, chunk_start, chunk_end, committed_offset, "
+                        + "rows_imported, rows_rejected) VALUES (?, ?, ?, ?, ?, ?)",
+                chunks, chunks.size(), (ps, chunk) -> {
+                    ps.setString(1, importId);
+                    ps.setLong(2, chunk.chunkStart());
+                    ps.setLong(3, chunk.chunkEnd());
+                    ps.setLong(4, chunk.committedOffset());
+                    ps.setLong(5, chunk.rowsImported());
+                    ps.setLong(6, chunk.rowsRejected());
+                });
+    }
+
+    void advance(String importId, long chunkStart, long committedOffset, long imported, long rejected) {
+        jdbcTemplate.update("UPDATE import_checkpoints SET committed_offset = ?, rows_imported = rows_imported + ?, "
+                        + "rows_rejected = rows_rejected + ? WHERE import_id = ? AND chunk_start = ?",
+                committedOffset, imported, rejected, importId, chunkStart);
+    }
+}
@@ -0,0 +1,44 @@
+package com.hsbc.transaction.importer;
+
+import com.hsbc.transaction.exception.ValidationException;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Line-oriented formats accepted by the bulk importer. Both match what
+ * {@code GET /api/v1/transactions/export} produces, so an export can be
+ * loaded back as is.
+ */
+public enum ImportFormat {
+
+    // Header row naming the columns, then one record per line
+    CSV,
+
+    // One JSON object per line with the fields of TransactionRequest
+    NDJSON;
+
+    /**
+     * Resolve an explicit format, or infer it from the file extension when
+     * {@code format} is {@code null}.
+     */
+    public static ImportFormat fromParameter(String format, Path file) {
+        String name = format;
+        if (name == null) {
+            String fileName = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            if (fileName.endsWith(".csv")) {
+                return CSV;
+            }
+            if (fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+            throw new ValidationException("Cannot infer import format of " + file.getFileName() + "; pass csv or ndjson");
+        }
+        for (ImportFormat candidate : values()) {
+            if (candidate.name().equalsIgnoreCase(name)) {
+                return candidate;
+            }
+        }
+        throw new ValidationException("Unsupported import format: " + name + " (expected csv or ndjson)");
+    }
+}
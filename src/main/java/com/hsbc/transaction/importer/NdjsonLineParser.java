@@ -0,0 +1,28 @@
+package com.hsbc.transaction.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.exception.ValidationException;
+
+class NdjsonLineParser implements TransactionLineParser {
+
+    private final ObjectReader reader;
+
+    NdjsonLineParser(ObjectMapper objectMapper) {
+        // Exported lines also carry id, status and audit columns, which the importer ignores
+        this.reader = objectMapper.readerFor(TransactionRequest.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    @Override
+    public TransactionRequest parse(String line) {
+        try {
+            return reader.readValue(line);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+}
@@ -0,0 +1,461 @@
+package com.hsbc.transaction.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.cache.HotTransactionStore;
+import com.hsbc.transaction.cache.TransactionChangeTracker;
+import com.hsbc.transaction.config.ImportProperties;
+import com.hsbc.transaction.dto.ImportReport;
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.exception.TransactionException;
+import com.hsbc.transaction.exception.ValidationException;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.search.TransactionSearchIndex;
+import com.hsbc.transaction.service.AccountSummaryService;
+import com.hsbc.transaction.service.TransactionAggregateService;
+import com.hsbc.transaction.service.impl.TransactionFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Loads large CSV or NDJSON files of historical transactions. The file is
+ * split into chunks on line breaks, each chunk is memory-mapped and parsed on
+ * its own worker, and rows are validated by {@link TransactionFactory} and
+ * inserted in JDBC batches.
+ * <p>
+ * Every batch commits together with its chunk's checkpoint. Running the same
+ * (unchanged) file again continues each chunk after its last committed batch,
+ * so a failed import is resumed by simply re-running it.
+ */
+@Service
+public class TransactionFileImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionFileImporter.class);
+
+    // A mapped buffer is addressed by int, and a chunk may run one line past its target size
+    private static final long MAX_CHUNK_SIZE = 1L << 30;
+
+    private final TransactionFactory transactionFactory;
+    private final TransactionRepository transactionRepository;
+    private final ImportBatchWriter batchWriter;
+    private final ImportCheckpointStore checkpointStore;
+    private final AccountSummaryService accountSummaryService;
+    private final TransactionAggregateService aggregateService;
+    private final TransactionSearchIndex searchIndex;
+    private final HotTransactionStore hotStore;
+    private final TransactionChangeTracker changeTracker;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+    private final ImportProperties properties;
+    private final Counter duplicateRetries;
+
+    @Autowired
+    public TransactionFileImporter(TransactionFactory transactionFactory,
+                                   TransactionRepository transactionRepository,
+                                   ImportBatchWriter batchWriter,
+                                   ImportCheckpointStore checkpointStore,
+                                   AccountSummaryService accountSummaryService,
+                                   TransactionAggregateService aggregateService,
+                                   TransactionSearchIndex searchIndex,
+                                   HotTransactionStore hotStore,
+                                   TransactionChangeTracker changeTracker,
+                                   CacheManager cacheManager,
+                                   ObjectMapper objectMapper,
+                                   ImportProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.transactionFactory = transactionFactory;
+        this.transactionRepository = transactionRepository;
+        this.batchWriter = batchWriter;
+        this.checkpointStore = checkpointStore;
+        this.accountSummaryService = accountSummaryService;
+        this.aggregateService = aggregateService;
+        this.searchIndex = searchIndex;
+        this.hotStore = hotStore;
+        this.changeTracker = changeTracker;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.duplicateRetries = Counter.builder("transaction.import.duplicate.retries")
+                .description("Import batches written again without the rows whose reference already existed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@code path} resolved against the import directory, for imports named
+     * by API callers. Anything that leads outside it, through {@code ..}, an
+     * absolute path or a symbolic link, is rejected.
+     */
+    public Path resolveImportFile(String path) {
+        Path directory = Path.of(properties.getDirectory()).toAbsolutePath().normalize();
+        Path file;
+        try {
+            file = directory.resolve(path).normalize();
+        } catch (InvalidPathException e) {
+            throw new ValidationException("Invalid import path");
+        }
+        if (!file.startsWith(directory) || file.equals(directory)) {
+            throw new ValidationException("Import path must name a file inside the import directory");
+        }
+        try {
+            if (Files.exists(file) && !file.toRealPath().startsWith(directory.toRealPath())) {
+                throw new ValidationException("Import path must name a file inside the import directory");
+            }
+        } catch (IOException e) {
+            throw new ValidationException("Import file not found or not readable: " + path);
+        }
+        return file;
+    }
+
+    public ImportReport importFile(Path file, ImportFormat format) {
+        if (!Files.isRegularFile(file) || !Files.isReadable(file)) {
+            throw new ValidationException("Import file not found or not readable: " + file);
+        }
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            String importId = importId(file, size);
+
+            long dataStart = 0;
+            TransactionLineParser parser;
+            if (format == ImportFormat.CSV) {
+                dataStart = endOfLine(channel, 0);
+                parser = new CsvLineParser(readLine(channel, 0, dataStart));
+            } else {
+                parser = new NdjsonLineParser(objectMapper);
+            }
+
+            List<ImportCheckpoint> checkpoints = checkpointStore.load(importId);
+            boolean resumed = !checkpoints.isEmpty();
+            if (!resumed) {
+                long chunkSize = Math.max(1, Math.min(properties.getChunkSize().toBytes(), MAX_CHUNK_SIZE));
+                checkpoints = splitOnLines(channel, dataStart, size, chunkSize);
+                checkpointStore.create(importId, checkpoints);
+            }
+            List<ImportCheckpoint> pending = checkpoints.stream()
+                    .filter(checkpoint -> !checkpoint.isComplete())
+                    .collect(Collectors.toList());
+            log.info("Importing {} ({} bytes, {}) as {}: {} of {} chunks to do{}", file, size, format, importId,
+                    pending.size(), checkpoints.size(), resumed ? ", resuming from checkpoint" : "");
+
+            // Results are filled in as batches commit, so a failed chunk still reports its progress
+            List<ChunkResult> results = new ArrayList<>(pending.size());
+            List<String> failures = new ArrayList<>();
+            if (!pending.isEmpty()) {
+                ExecutorService workers = Executors.newFixedThreadPool(
+                        Math.max(1, Math.min(properties.getParallelism(), pending.size())));
+                try {
+                    List<Future<?>> futures = new ArrayList<>(pending.size());
+                    for (ImportCheckpoint checkpoint : pending) {
+                        ChunkResult result = new ChunkResult(properties.getMaxReportedRejections());
+                        results.add(result);
+                        futures.add(workers.submit(() -> importChunk(channel, importId, checkpoint, parser, result)));
+                    }
+                    for (int i = 0; i < futures.size(); i++) {
+                        try {
+                            futures.get(i).get();
+                        } catch (ExecutionException e) {
+                            log.error("Import chunk at offset {} failed", pending.get(i).chunkStart(), e.getCause());
+                            // The cause, e.g. a constraint violation, may quote row values; it is only logged
+                            failures.add("Chunk at offset " + pending.get(i).chunkStart() + " failed");
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new TransactionException("Import interrupted; re-run to resume", "IMPORT_FAILED", e);
+                } finally {
+                    workers.shutdownNow();
+                }
+            }
+
+            long imported = results.stream().mapToLong(ChunkResult::imported).sum();
+            if (imported > 0) {
+                refreshDerivedState();
+            }
+            return report(file, format, importId, resumed, checkpointStore.load(importId), results, failures,
+                    System.nanoTime() - started);
+        } catch (IOException e) {
+            throw new TransactionException("Failed to read import file " + file + ": " + e.getMessage(), "IMPORT_FAILED", e);
+        }
+    }
+
+    private Void importChunk(FileChannel channel, String importId, ImportCheckpoint checkpoint,
+                             TransactionLineParser parser, ChunkResult result) throws IOException {
+        long from = checkpoint.committedOffset();
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, checkpoint.chunkEnd() - from);
+        int length = buffer.limit();
+        int batchSize = Math.max(1, properties.getBatchSize());
+
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        int batchRejected = 0;
+        long committed = from;
+        byte[] scratch = new byte[512];
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            int contentLength = contentEnd - lineStart;
+            if (contentLength > 0) {
+                if (scratch.length < contentLength) {
+                    scratch = new byte[Math.max(contentLength, scratch.length * 2)];
+                }
+                buffer.get(lineStart, scratch, 0, contentLength);
+                String line = new String(scratch, 0, contentLength, StandardCharsets.UTF_8);
+                if (!line.isBlank()) {
+                    long offset = from + lineStart;
+                    try {
+                        batch.add(new PendingRow(offset, toTransaction(parser.parse(line))));
+                    } catch (ValidationException e) {
+                        batchRejected++;
+                        result.reject(offset, rejection(e));
+                    }
+                }
+            }
+            lineStart = lineEnd + 1;
+            if (batch.size() + batchRejected >= batchSize) {
+                committed = from + Math.min(lineStart, length);
+                writeBatch(importId, checkpoint.chunkStart(), batch, committed, batchRejected, result);
+                batch.clear();
+                batchRejected = 0;
+            }
+        }
+        if (!batch.isEmpty() || batchRejected > 0 || committed < checkpoint.chunkEnd()) {
+            writeBatch(importId, checkpoint.chunkStart(), batch, checkpoint.chunkEnd(), batchRejected, result);
+        }
+        return null;
+    }
+
+    private Transaction toTransaction(TransactionRequest request) {
+        transactionFactory.validateConstraints(request);
+        Transaction transaction = transactionFactory.create(request);
+        // Historical rows keep their original reference; rows without one get a generated reference
+        if (StringUtils.hasText(request.getReference())) {
+            transaction.setReference(request.getReference());
+        }
+        return transaction;
+    }
+
+    private void writeBatch(String importId, long chunkStart, List<PendingRow> batch, long committedOffset,
+                            int rejected, ChunkResult result) {
+        List<Transaction> rows = batch.stream().map(PendingRow::transaction).collect(Collectors.toList());
+        try {
+            batchWriter.write(importId, chunkStart, rows, committedOffset, rejected);
+            result.committed(rows.size(), rejected);
+        } catch (DataIntegrityViolationException e) {
+            // Usually a reference that already exists or repeats in the file; reject those rows and retry once
+            List<PendingRow> unique = withoutDuplicateReferences(batch, result);
+            if (unique.size() == batch.size()) {
+                throw e;
+            }
+            duplicateRetries.increment();
+            List<Transaction> retry = unique.stream().map(PendingRow::transaction).collect(Collectors.toList());
+            int totalRejected = rejected + batch.size() - unique.size();
+            batchWriter.write(importId, chunkStart, retry, committedOffset, totalRejected);
+            result.committed(retry.size(), totalRejected);
+        }
+    }
+
+    private List<PendingRow> withoutDuplicateReferences(List<PendingRow> batch, ChunkResult result) {
+        Set<String> taken = new HashSet<>(transactionRepository.findExistingReferences(
+                batch.stream().map(row -> row.transaction().getReference()).collect(Collectors.toList())));
+        List<PendingRow> unique = new ArrayList<>(batch.size());
+        for (PendingRow row : batch) {
+            if (taken.add(row.transaction().getReference())) {
+                unique.add(row);
+            } else {
+                result.reject(row.offset(), "Duplicate transaction reference");
+            }
+        }
+        return unique;
+    }
+
+    /**
+     * The reason a row was rejected, without the values it quotes: messages
+     * such as "Invalid transaction type: x" go back to API callers, and the
+     * offset already identifies the line.
+     */
+    private static String rejection(ValidationException e) {
+        String message = e.getMessage();
+        int detail = message.indexOf(": ");
+        return detail < 0 ? message : message.substring(0, detail);
+    }
+
+    private void refreshDerivedState() {
+        // Imported rows bypass the change events, so derive summaries, rollups, search index and caches from the table
+        accountSummaryService.rebuild();
+        aggregateService.rebuild();
+        searchIndex.rebuild();
+        hotStore.clear();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        // Last, so no new tag is handed out while the state above still changes
+        changeTracker.invalidateAll();
+    }
+
+    private ImportReport report(Path file, ImportFormat format, String importId, boolean resumed,
+                                List<ImportCheckpoint> checkpoints, List<ChunkResult> results,
+                                List<String> failures, long elapsedNanos) {
+        ImportReport report = new ImportReport();
+        report.setImportId(importId);
+        report.setFile(file.toString());
+        report.setFormat(format.name());
+        report.setChunks(checkpoints.size());
+        report.setResumed(resumed);
+        report.setCompleted(failures.isEmpty() && checkpoints.stream().allMatch(ImportCheckpoint::isComplete));
+        report.setFailure(failures.isEmpty() ? null : String.join("; ", failures) + "; re-run the import to resume");
+        report.setRowsImported(results.stream().mapToLong(ChunkResult::imported).sum());
+        report.setRowsRejected(results.stream().mapToLong(ChunkResult::rejected).sum());
+        report.setTotalRowsImported(checkpoints.stream().mapToLong(ImportCheckpoint::rowsImported).sum());
+        report.setTotalRowsRejected(checkpoints.stream().mapToLong(ImportCheckpoint::rowsRejected).sum());
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0 : report.getRowsImported() * 1_000_000_000.0 / elapsedNanos);
+        report.setRejections(results.stream()
+                .flatMap(result -> result.rejections.stream())
+                .sorted(Comparator.comparingLong(ImportReport.Rejection::getOffset))
+                .limit(properties.getMaxReportedRejections())
+                .collect(Collectors.toList()));
+        log.info("Import {} {}: {} rows imported, {} rejected in {} ms ({} rows/s)", importId,
+                report.isCompleted() ? "completed" : "incomplete", report.getRowsImported(), report.getRowsRejected(),
+                report.getElapsedMillis(), Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    /**
+     * Cut {@code [from, size)} into ranges of about {@code chunkSize} bytes,
+     * each ending just after a line break (or at the end of the file).
+     */
+    static List<ImportCheckpoint> splitOnLines(FileChannel channel, long from, long size, long chunkSize) throws IOException {
+        List<ImportCheckpoint> chunks = new ArrayList<>();
+        long start = from;
+        while (start < size) {
+            long end = size - start <= chunkSize ? size : nextLineStart(channel, start + chunkSize);
+            chunks.add(ImportCheckpoint.start(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Offset of the first line starting at or after {@code position}.
+     */
+    static long nextLineStart(FileChannel channel, long position) throws IOException {
+        return position == 0 ? 0 : endOfLine(channel, position - 1);
+    }
+
+    /**
+     * Offset just past the first line break at or after {@code position}, or
+     * the file size if there is none.
+     */
+    private static long endOfLine(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long offset = position;
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+    }
+
+    private static String readLine(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        channel.read(buffer, start);
+        String line = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        return line.strip();
+    }
+
+    /**
+     * Stable id for a file version: the same path, size and modification time
+     * resume the same checkpoints; any change starts a new import.
+     */
+    private static String importId(Path file, long size) {
+        try {
+            String identity = file.toAbsolutePath().normalize() + "|" + size + "|" + Files.getLastModifiedTime(file).toMillis();
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(identity.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record PendingRow(long offset, Transaction transaction) {}
+
+    private static final class ChunkResult {
+
+        private final int maxRejections;
+        private final List<ImportReport.Rejection> rejections = new ArrayList<>();
+        private long imported;
+        private long rejected;
+
+        ChunkResult(int maxRejections) {
+            this.maxRejections = maxRejections;
+        }
+
+        // Counts only move once a batch commits; rejection details are kept as they are found
+        void committed(int imported, int rejected) {
+            this.imported += imported;
+            this.rejected += rejected;
+        }
+
+        void reject(long offset, String error) {
+            if (rejections.size() < maxRejections) {
+                rejections.add(new ImportReport.Rejection(offset, error));
+            }
+        }
+
+        long imported() {
+            return imported;
+        }
+
+        long rejected() {
+            return rejected;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.hsbc.transaction.importer;
+
+import com.hsbc.transaction.dto.TransactionRequest;
+
+/**
+ * Turns one line of an import file into a request. Implementations are
+ * shared by the chunk workers and must be thread-safe.
+ */
+interface TransactionLineParser {
+
+    /**
+     * @throws com.hsbc.transaction.exception.ValidationException if the line is malformed
+     */
+    TransactionRequest parse(String line);
+}
@@ -0,0 +1,53 @@
+package com.hsbc.transaction.metrics;
+
+/**
+ * Whether a timed service call was answered from a cache. Recorded per thread
+ * by {@link OutcomeRecordingCache} while {@link ServiceTimingInterceptor} has a
+ * call open, then used as the {@code cache} tag of that call's timer.
+ */
+public enum CacheOutcome {
+
+    // The method has no cache, or never looked one up
+    NONE("none"),
+    HIT("hit"),
+    MISS("miss");
+
+    private static final ThreadLocal<CacheOutcome> CURRENT = new ThreadLocal<>();
+
+    private final String tag;
+
+    CacheOutcome(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    /**
+     * Opens a timed call on this thread and returns the enclosing call's
+     * outcome (or {@code null}), to be handed back to {@link #end}.
+     */
+    static CacheOutcome begin() {
+        CacheOutcome enclosing = CURRENT.get();
+        CURRENT.set(NONE);
+        return enclosing;
+    }
+
+    static CacheOutcome end(CacheOutcome enclosing) {
+        CacheOutcome outcome = CURRENT.get();
+        if (enclosing == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(enclosing);
+        }
+        return outcome != null ? outcome : NONE;
+    }
+
+    static void record(CacheOutcome outcome) {
+        // Lookups outside a timed call, e.g. from the invalidator, are not attributed to anything
+        if (CURRENT.get() != null) {
+            CURRENT.set(outcome);
+        }
+    }
+}
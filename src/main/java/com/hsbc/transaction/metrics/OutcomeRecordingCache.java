@@ -0,0 +1,85 @@
+package com.hsbc.transaction.metrics;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Passes every operation through to the real cache and notes whether the
+ * lookup of a timed service call was a hit or a miss. The cache manager still
+ * holds the undecorated cache, so Boot's cache metrics bind to it as before.
+ */
+class OutcomeRecordingCache implements Cache {
+
+    private final Cache delegate;
+    // Lookups on a loading cache load absent keys, so presence is checked first (through the
+    // map view, which leaves Caffeine's hit and miss statistics alone)
+    private final LoadingCache<Object, Object> loadingCache;
+
+    @SuppressWarnings("unchecked")
+    OutcomeRecordingCache(Cache delegate) {
+        this.delegate = delegate;
+        this.loadingCache = delegate.getNativeCache() instanceof LoadingCache<?, ?> loading
+                ? (LoadingCache<Object, Object>) loading
+                : null;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        boolean present = loadingCache != null && loadingCache.asMap().containsKey(key);
+        ValueWrapper value = delegate.get(key);
+        CacheOutcome.record(value != null && (loadingCache == null || present) ? CacheOutcome.HIT : CacheOutcome.MISS);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
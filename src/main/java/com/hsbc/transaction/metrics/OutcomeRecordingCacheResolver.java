@@ -0,0 +1,44 @@
+package com.hsbc.transaction.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves caches by name like Spring's default resolver, but hands the
+ * caching aspect {@link OutcomeRecordingCache} wrappers so service timers can
+ * be tagged by hit or miss. The cache manager is looked up lazily because
+ * the caching infrastructure asks for the resolver before it exists.
+ */
+public class OutcomeRecordingCacheResolver implements CacheResolver {
+
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final Map<Cache, Cache> wrappers = new ConcurrentHashMap<>();
+
+    public OutcomeRecordingCacheResolver(ObjectProvider<CacheManager> cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+        Collection<String> names = context.getOperation().getCacheNames();
+        List<Cache> caches = new ArrayList<>(names.size());
+        CacheManager manager = cacheManager.getObject();
+        for (String name : names) {
+            Cache cache = manager.getCache(name);
+            if (cache == null) {
+                throw new IllegalArgumentException("Cannot find cache named '" + name + "' for " + context.getOperation());
+            }
+            caches.add(wrappers.computeIfAbsent(cache, OutcomeRecordingCache::new));
+        }
+        return caches;
+    }
+}
@@ -0,0 +1,85 @@
+package com.hsbc.transaction.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times each service call as {@code transaction.service}, tagged with the
+ * method, whether its cache answered ({@code cache=hit|miss|none}) and the
+ * exception thrown, if any. Runs outside the caching and transaction
+ * interceptors, so a miss includes the database round trip and commit.
+ */
+public class ServiceTimingInterceptor implements MethodInterceptor {
+
+    static final String METRIC_NAME = "transaction.service";
+
+    private static final CacheOutcome[] OUTCOMES = CacheOutcome.values();
+
+    // Resolved on first use: advisors are created before the registry may be
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    // One timer per cache outcome for successful calls, the hot path
+    private final Map<Method, Timer[]> successTimers = new ConcurrentHashMap<>();
+    private final Map<FailureKey, Timer> failureTimers = new ConcurrentHashMap<>();
+
+    public ServiceTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        CacheOutcome enclosing = CacheOutcome.begin();
+        long started = System.nanoTime();
+        Throwable failure = null;
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            CacheOutcome outcome = CacheOutcome.end(enclosing);
+            Method method = invocation.getMethod();
+            Timer timer = failure == null
+                    ? successTimers.computeIfAbsent(method, this::successTimers)[outcome.ordinal()]
+                    : failureTimers.computeIfAbsent(new FailureKey(method, outcome, failure.getClass()), this::failureTimer);
+            timer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer[] successTimers(Method method) {
+        Timer[] timers = new Timer[OUTCOMES.length];
+        for (CacheOutcome outcome : OUTCOMES) {
+            timers[outcome.ordinal()] = timer(method, outcome, "none");
+        }
+        return timers;
+    }
+
+    private Timer failureTimer(FailureKey key) {
+        return timer(key.method(), key.outcome(), key.exception().getSimpleName());
+    }
+
+    private Timer timer(Method method, CacheOutcome outcome, String exception) {
+        return Timer.builder(METRIC_NAME)
+                .description("TransactionService call latency by method and cache outcome")
+                .tag("method", method.getName())
+                .tag("cache", outcome.tag())
+                .tag("exception", exception)
+                // Histogram buckets let Prometheus aggregate p99 across instances
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(500))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry.getObject());
+    }
+
+    private record FailureKey(Method method, CacheOutcome outcome, Class<?> exception) {
+    }
+}
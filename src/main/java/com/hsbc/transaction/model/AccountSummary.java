@@ -0,0 +1,108 @@
+package com.hsbc.transaction.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Running totals per account and transaction type, maintained in the same
+ * database transaction as every insert and delete on {@code transactions}.
+ */
+@Entity
+@Table(name = "account_summaries")
+@IdClass(AccountSummary.Key.class)
+public class AccountSummary {
+
+    @Id
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long transactionCount;
+
+    // Constructors
+    public AccountSummary() {}
+
+    public AccountSummary(String accountNumber, TransactionType type, BigDecimal totalAmount, long transactionCount) {
+        this.accountNumber = accountNumber;
+        this.type = type;
+        this.totalAmount = totalAmount;
+        this.transactionCount = transactionCount;
+    }
+
+    // Getters and Setters
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public void setAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public static class Key implements Serializable {
+        private String accountNumber;
+        private TransactionType type;
+
+        public Key() {}
+
+        public Key(String accountNumber, TransactionType type) {
+            this.accountNumber = accountNumber;
+            this.type = type;
+        }
+
+        public String getAccountNumber() {
+            return accountNumber;
+        }
+
+        public TransactionType getType() {
+            return type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(accountNumber, key.accountNumber) && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountNumber, type);
+        }
+    }
+}
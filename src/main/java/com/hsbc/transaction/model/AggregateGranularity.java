@@ -0,0 +1,65 @@
+package com.hsbc.transaction.model;
+
+import com.hsbc.transaction.exception.ValidationException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Bucket sizes offered by the aggregates endpoint. Rollups are stored per
+ * day; coarser buckets are combined from the days they contain.
+ */
+public enum AggregateGranularity {
+
+    DAY {
+        @Override
+        public LocalDate bucketStart(LocalDate date) {
+            return date;
+        }
+
+        @Override
+        public LocalDate nextBucketStart(LocalDate start) {
+            return start.plusDays(1);
+        }
+    },
+    // ISO weeks, starting on Monday
+    WEEK {
+        @Override
+        public LocalDate bucketStart(LocalDate date) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        @Override
+        public LocalDate nextBucketStart(LocalDate start) {
+            return start.plusWeeks(1);
+        }
+    },
+    MONTH {
+        @Override
+        public LocalDate bucketStart(LocalDate date) {
+            return date.withDayOfMonth(1);
+        }
+
+        @Override
+        public LocalDate nextBucketStart(LocalDate start) {
+            return start.plusMonths(1);
+        }
+    };
+
+    /**
+     * First day of the bucket that contains {@code date}.
+     */
+    public abstract LocalDate bucketStart(LocalDate date);
+
+    public abstract LocalDate nextBucketStart(LocalDate start);
+
+    public static AggregateGranularity fromParameter(String granularity) {
+        for (AggregateGranularity candidate : values()) {
+            if (candidate.name().equalsIgnoreCase(granularity)) {
+                return candidate;
+            }
+        }
+        throw new ValidationException("Unsupported granularity: " + granularity + " (expected day, week or month)");
+    }
+}
@@ -0,0 +1,132 @@
+package com.hsbc.transaction.model;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Totals of one account and transaction type on one day, maintained in the
+ * same database transaction as every insert and delete on
+ * {@code transactions}.
+ */
+@Entity
+@Table(name = "transaction_daily_rollups")
+@IdClass(DailyRollup.Key.class)
+public class DailyRollup {
+
+    @Id
+    @Column(nullable = false)
+    private String accountNumber;
+
+    @Id
+    @Column(nullable = false)
+    private LocalDate bucketDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TransactionType type;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long transactionCount;
+
+    // Constructors
+    public DailyRollup() {}
+
+    public DailyRollup(String accountNumber, LocalDate bucketDate, TransactionType type,
+                       BigDecimal totalAmount, long transactionCount) {
+        this.accountNumber = accountNumber;
+        this.bucketDate = bucketDate;
+        this.type = type;
+        this.totalAmount = totalAmount;
+        this.transactionCount = transactionCount;
+    }
+
+    // Getters and Setters
+    public String getAccountNumber() {
+        return accountNumber;
+    }
+
+    public void setAccountNumber(String accountNumber) {
+        this.accountNumber = accountNumber;
+    }
+
+    public LocalDate getBucketDate() {
+        return bucketDate;
+    }
+
+    public void setBucketDate(LocalDate bucketDate) {
+        this.bucketDate = bucketDate;
+    }
+
+    public TransactionType getType() {
+        return type;
+    }
+
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public static class Key implements Serializable {
+        private String accountNumber;
+        private LocalDate bucketDate;
+        private TransactionType type;
+
+        public Key() {}
+
+        public Key(String accountNumber, LocalDate bucketDate, TransactionType type) {
+            this.accountNumber = accountNumber;
+            this.bucketDate = bucketDate;
+            this.type = type;
+        }
+
+        public String getAccountNumber() {
+            return accountNumber;
+        }
+
+        public LocalDate getBucketDate() {
+            return bucketDate;
+        }
+
+        public TransactionType getType() {
+            return type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return Objects.equals(accountNumber, key.accountNumber)
+                    && Objects.equals(bucketDate, key.bucketDate)
+                    && type == key.type;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(accountNumber, bucketDate, type);
+        }
+    }
+}
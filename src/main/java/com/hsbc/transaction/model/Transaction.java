@@ -10,12 +10,14 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+// Schema and indexes are owned by the Flyway migrations in db/migration
 @Table(name = "transactions")
 @EntityListeners(AuditingEntityListener.class)
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_seq")
+    @SequenceGenerator(name = "transaction_seq", sequenceName = "transaction_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Transaction reference is required")
@@ -51,6 +53,14 @@ public class Transaction {
     @Column(length = 1000)
     private String notes;
 
+    // Set only by keyed creates; unique, so a retried create cannot write a second row
+    @Column(unique = true, updatable = false)
+    private String idempotencyKey;
+
+    // Of the request that used the key; a repeat with another body is rejected
+    @Column(length = 64, updatable = false)
+    private String idempotencyFingerprint;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -59,6 +69,11 @@ public class Transaction {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Bumped on every update; a flush against a row changed since it was read fails
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Constructors
     public Transaction() {}
 
@@ -145,6 +160,22 @@ public class Transaction {
         this.notes = notes;
     }
 
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getIdempotencyFingerprint() {
+        return idempotencyFingerprint;
+    }
+
+    public void setIdempotencyFingerprint(String idempotencyFingerprint) {
+        this.idempotencyFingerprint = idempotencyFingerprint;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -161,6 +192,14 @@ public class Transaction {
         this.updatedAt = updatedAt;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public String toString() {
         return "Transaction{" +
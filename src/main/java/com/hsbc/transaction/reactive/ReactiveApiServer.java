@@ -0,0 +1,68 @@
+package com.hsbc.transaction.reactive;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.Shutdown;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.server.reactive.HttpHandler;
+
+/**
+ * Runs the reactive API on its own Netty server. The application stays a
+ * servlet application, so WebFlux is not auto-configured; this lifecycle
+ * starts and stops the second server with the context.
+ */
+public class ReactiveApiServer implements SmartLifecycle {
+
+    private final NettyReactiveWebServerFactory serverFactory;
+    private final HttpHandler httpHandler;
+    private volatile WebServer webServer;
+
+    public ReactiveApiServer(int port, HttpHandler httpHandler) {
+        this.serverFactory = new NettyReactiveWebServerFactory(port);
+        // In-flight streams finish before the server stops, like server.shutdown=graceful for Tomcat
+        this.serverFactory.setShutdown(Shutdown.GRACEFUL);
+        this.httpHandler = httpHandler;
+    }
+
+    @Override
+    public void start() {
+        WebServer server = serverFactory.getWebServer(httpHandler);
+        server.start();
+        webServer = server;
+    }
+
+    @Override
+    public void stop() {
+        WebServer server = webServer;
+        if (server != null) {
+            server.stop();
+            webServer = null;
+        }
+    }
+
+    @Override
+    public void stop(Runnable callback) {
+        WebServer server = webServer;
+        if (server == null) {
+            callback.run();
+            return;
+        }
+        server.shutDownGracefully(result -> {
+            stop();
+            callback.run();
+        });
+    }
+
+    @Override
+    public boolean isRunning() {
+        return webServer != null;
+    }
+
+    /**
+     * The bound port, which differs from the configured one when that is 0.
+     */
+    public int getPort() {
+        WebServer server = webServer;
+        return server != null ? server.getPort() : -1;
+    }
+}
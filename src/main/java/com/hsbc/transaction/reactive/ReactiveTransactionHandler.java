@@ -0,0 +1,202 @@
+package com.hsbc.transaction.reactive;
+
+import com.hsbc.transaction.controller.GlobalExceptionHandler;
+import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.exception.TransactionException;
+import com.hsbc.transaction.exception.TransactionNotFoundException;
+import com.hsbc.transaction.exception.ValidationException;
+import com.hsbc.transaction.model.TransactionType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Handler functions behind {@link ReactiveTransactionRouter}. Responses use
+ * the same DTOs and error body as {@code TransactionController}, but reads go
+ * straight to the database rather than through the servlet API's caches.
+ * Handlers that parse request input do so inside {@link Mono#defer}, so a
+ * {@link ValidationException} reaches the router's error handler as a 400.
+ */
+public class ReactiveTransactionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveTransactionHandler.class);
+
+    private static final int RECENT_LIMIT = 10;
+
+    private final ReactiveTransactionRepository repository;
+    private final int streamBatchSize;
+
+    public ReactiveTransactionHandler(ReactiveTransactionRepository repository, int streamBatchSize) {
+        this.repository = repository;
+        this.streamBatchSize = streamBatchSize;
+    }
+
+    public Mono<ServerResponse> getTransactionById(ServerRequest request) {
+        return Mono.defer(() -> {
+            Long id = parse(request.pathVariable("id"), Long::valueOf, "id");
+            return repository.findById(id)
+                    .switchIfEmpty(Mono.error(() -> new TransactionNotFoundException(id)))
+                    .flatMap(transaction -> ServerResponse.ok().bodyValue(transaction));
+        });
+    }
+
+    public Mono<ServerResponse> getTransactionByReference(ServerRequest request) {
+        String reference = request.pathVariable("reference");
+        return repository.findByReference(reference)
+                .switchIfEmpty(Mono.error(() -> new TransactionNotFoundException(reference)))
+                .flatMap(transaction -> ServerResponse.ok().bodyValue(transaction));
+    }
+
+    public Mono<ServerResponse> getTransactionsByAccount(ServerRequest request) {
+        return Mono.defer(() -> {
+            String accountNumber = request.pathVariable("accountNumber");
+            PageRequest pageable = pageRequest(request);
+            return page(repository.findByAccount(accountNumber, pageable.getOffset(), pageable.getPageSize()),
+                    repository.countByAccount(accountNumber), pageable);
+        });
+    }
+
+    /**
+     * All of an account's transactions as newline-delimited JSON, newest
+     * first. Each row is written as soon as it is read, and rows are only
+     * read as fast as the client consumes them.
+     */
+    public Mono<ServerResponse> streamTransactionsByAccount(ServerRequest request) {
+        Flux<TransactionResponse> rows = repository.streamByAccount(request.pathVariable("accountNumber"))
+                .limitRate(streamBatchSize);
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(rows, TransactionResponse.class);
+    }
+
+    public Mono<ServerResponse> getTransactionsByCriteria(ServerRequest request) {
+        return Mono.defer(() -> {
+            ReactiveTransactionRepository.Criteria criteria = ReactiveTransactionRepository.Criteria.of(
+                    request.queryParam("accountNumber").orElse(null),
+                    optionalParam(request, "type", ReactiveTransactionHandler::parseType),
+                    optionalParam(request, "startDate", LocalDateTime::parse),
+                    optionalParam(request, "endDate", LocalDateTime::parse),
+                    optionalParam(request, "minAmount", BigDecimal::new),
+                    optionalParam(request, "maxAmount", BigDecimal::new));
+            PageRequest pageable = pageRequest(request);
+            return page(repository.findByCriteria(criteria, pageable.getOffset(), pageable.getPageSize()),
+                    repository.countByCriteria(criteria), pageable);
+        });
+    }
+
+    public Mono<ServerResponse> getRecentTransactions(ServerRequest request) {
+        return ServerResponse.ok().body(repository.findRecent(RECENT_LIMIT), TransactionResponse.class);
+    }
+
+    public Mono<ServerResponse> getAccountBalance(ServerRequest request) {
+        return repository.findTotalsByAccount(request.pathVariable("accountNumber"))
+                .map(totals -> total(totals, TransactionType.DEPOSIT).subtract(total(totals, TransactionType.WITHDRAWAL)))
+                .flatMap(balance -> ServerResponse.ok().bodyValue(balance));
+    }
+
+    public Mono<ServerResponse> getAccountBalanceByType(ServerRequest request) {
+        return Mono.defer(() -> {
+            TransactionType type = parseType(request.pathVariable("type"));
+            return repository.findTotalsByAccount(request.pathVariable("accountNumber"))
+                    .map(totals -> total(totals, type))
+                    .flatMap(balance -> ServerResponse.ok().bodyValue(balance));
+        });
+    }
+
+    /**
+     * Maps errors to the status codes and body that {@code GlobalExceptionHandler}
+     * produces for the servlet API.
+     */
+    public Mono<ServerResponse> handleError(Throwable error, ServerRequest request) {
+        HttpStatus status;
+        String errorCode;
+        String message;
+        if (error instanceof TransactionException transactionError) {
+            if (error instanceof TransactionNotFoundException) {
+                status = HttpStatus.NOT_FOUND;
+            } else if (error instanceof ValidationException) {
+                status = HttpStatus.BAD_REQUEST;
+            } else {
+                status = HttpStatus.INTERNAL_SERVER_ERROR;
+            }
+            errorCode = transactionError.getErrorCode();
+            message = error.getMessage();
+        } else {
+            log.error("Reactive request {} failed", request.path(), error);
+            status = HttpStatus.INTERNAL_SERVER_ERROR;
+            errorCode = "INTERNAL_ERROR";
+            message = "An unexpected error occurred";
+        }
+        GlobalExceptionHandler.ErrorResponse body = new GlobalExceptionHandler.ErrorResponse(
+                errorCode, message, status.value(), LocalDateTime.now(), "uri=" + request.path());
+        return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(body);
+    }
+
+    private static Mono<ServerResponse> page(Flux<TransactionResponse> rows, Mono<Long> total, PageRequest pageable) {
+        return Mono.zip(rows.collectList(), total)
+                .map(result -> toPageResponse(new PageImpl<>(result.getT1(), pageable, result.getT2())))
+                .flatMap(response -> ServerResponse.ok().bodyValue(response));
+    }
+
+    private static PageResponse<TransactionResponse> toPageResponse(Page<TransactionResponse> page) {
+        return new PageResponse<>(
+                page.getContent(),
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages(),
+                page.isFirst(),
+                page.isLast()
+        );
+    }
+
+    private static PageRequest pageRequest(ServerRequest request) {
+        int page = request.queryParam("page").map(value -> parse(value, Integer::valueOf, "page")).orElse(0);
+        int size = request.queryParam("size").map(value -> parse(value, Integer::valueOf, "size")).orElse(20);
+        if (page < 0 || size < 1) {
+            throw new ValidationException("Page must not be negative and size must be at least 1");
+        }
+        return PageRequest.of(page, size);
+    }
+
+    private static BigDecimal total(Map<TransactionType, BigDecimal> totals, TransactionType type) {
+        return totals.getOrDefault(type, BigDecimal.ZERO);
+    }
+
+    private static TransactionType parseType(String type) {
+        try {
+            return TransactionType.valueOf(type.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid transaction type: " + type);
+        }
+    }
+
+    private static <T> T optionalParam(ServerRequest request, String name, Function<String, T> parser) {
+        return request.queryParam(name)
+                .map(value -> parse(value, parser, name))
+                .orElse(null);
+    }
+
+    private static <T> T parse(String value, Function<String, T> parser, String name) {
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new ValidationException("Invalid value for " + name + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.hsbc.transaction.reactive;
+
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.model.TransactionStatus;
+import com.hsbc.transaction.model.TransactionType;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Row;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only queries for the reactive API, issued through R2DBC against the
+ * same tables and indexes that JPA uses. Rows are mapped straight to
+ * {@link TransactionResponse} without going through the entity.
+ *
+ * <p>The connection pool is deliberately not a {@code ConnectionFactory}
+ * bean: Spring Boot would then stop configuring the JDBC {@code DataSource}
+ * that JPA and Flyway depend on.
+ */
+public class ReactiveTransactionRepository {
+
+    private static final String COLUMNS = "id, reference, account_number, amount, type, description, "
+            + "transaction_date, status, notes, created_at, updated_at, version";
+
+    // Matches idx_transactions_account_date_id and idx_transactions_date_id, so pages are read in index order
+    private static final String NEWEST_FIRST = " ORDER BY transaction_date DESC, id DESC";
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+
+    public ReactiveTransactionRepository(String jdbcUrl, String username, String password, int poolSize) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith("jdbc:h2:")) {
+            throw new IllegalStateException("Reactive API supports H2 only, got datasource URL " + jdbcUrl);
+        }
+        // Same URL without the jdbc:h2: prefix, so an in-memory database is shared with the JDBC pool
+        H2ConnectionConfiguration configuration = H2ConnectionConfiguration.builder()
+                .url(jdbcUrl.substring("jdbc:h2:".length()))
+                .username(username)
+                .password(password != null ? password : "")
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(new H2ConnectionFactory(configuration))
+                .initialSize(0)
+                .maxSize(poolSize)
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+    }
+
+    public Mono<TransactionResponse> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM transactions WHERE id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> toResponse(row))
+                .one();
+    }
+
+    public Mono<TransactionResponse> findByReference(String reference) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM transactions WHERE reference = :reference")
+                .bind("reference", reference)
+                .map((row, metadata) -> toResponse(row))
+                .one();
+    }
+
+    /**
+     * Every row for the account, newest first. Rows are pulled from the
+     * database only as fast as the subscriber requests them.
+     */
+    public Flux<TransactionResponse> streamByAccount(String accountNumber) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM transactions WHERE account_number = :accountNumber" + NEWEST_FIRST)
+                .bind("accountNumber", accountNumber)
+                .map((row, metadata) -> toResponse(row))
+                .all();
+    }
+
+    public Flux<TransactionResponse> findByAccount(String accountNumber, long offset, int limit) {
+        return findByCriteria(Criteria.account(accountNumber), offset, limit);
+    }
+
+    public Mono<Long> countByAccount(String accountNumber) {
+        return countByCriteria(Criteria.account(accountNumber));
+    }
+
+    public Flux<TransactionResponse> findByCriteria(Criteria criteria, long offset, int limit) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("SELECT " + COLUMNS + " FROM transactions"
+                + criteria.where() + NEWEST_FIRST + " LIMIT :limit OFFSET :offset");
+        return bind(spec, criteria)
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map((row, metadata) -> toResponse(row))
+                .all();
+    }
+
+    public Mono<Long> countByCriteria(Criteria criteria) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("SELECT COUNT(*) AS total FROM transactions" + criteria.where());
+        return bind(spec, criteria)
+                .map((row, metadata) -> row.get("total", Long.class))
+                .one();
+    }
+
+    public Flux<TransactionResponse> findRecent(int limit) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM transactions" + NEWEST_FIRST + " LIMIT :limit")
+                .bind("limit", limit)
+                .map((row, metadata) -> toResponse(row))
+                .all();
+    }
+
+    /**
+     * Per-type totals from the account summary ledger, the same rows the
+     * servlet API reads balances from.
+     */
+    public Mono<Map<TransactionType, BigDecimal>> findTotalsByAccount(String accountNumber) {
+        return databaseClient.sql("SELECT type, total_amount FROM account_summaries WHERE account_number = :accountNumber")
+                .bind("accountNumber", accountNumber)
+                .map((row, metadata) -> Map.entry(
+                        TransactionType.valueOf(row.get("type", String.class)),
+                        row.get("total_amount", BigDecimal.class)))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    public void close() {
+        connectionPool.dispose();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, Criteria criteria) {
+        for (Map.Entry<String, Object> parameter : criteria.parameters().entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        return spec;
+    }
+
+    private static TransactionResponse toResponse(Row row) {
+        TransactionResponse response = new TransactionResponse();
+        response.setId(row.get("id", Long.class));
+        response.setReference(row.get("reference", String.class));
+        response.setAccountNumber(row.get("account_number", String.class));
+        response.setAmount(row.get("amount", BigDecimal.class));
+        response.setType(TransactionType.valueOf(row.get("type", String.class)));
+        response.setDescription(row.get("description", String.class));
+        response.setTransactionDate(row.get("transaction_date", LocalDateTime.class));
+        response.setStatus(TransactionStatus.valueOf(row.get("status", String.class)));
+        response.setNotes(row.get("notes", String.class));
+        response.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        response.setUpdatedAt(row.get("updated_at", LocalDateTime.class));
+        response.setVersion(row.get("version", Long.class));
+        return response;
+    }
+
+    /**
+     * Optional filters for criteria listings. Only the filters that are set
+     * become predicates, so the planner sees a plain conjunction it can match
+     * to an index instead of {@code (:x IS NULL OR ...)} branches.
+     */
+    public static final class Criteria {
+
+        private final List<String> predicates = new ArrayList<>();
+        private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+        public static Criteria account(String accountNumber) {
+            return new Criteria().with("account_number = :accountNumber", "accountNumber", accountNumber);
+        }
+
+        public static Criteria of(String accountNumber, TransactionType type,
+                                  LocalDateTime startDate, LocalDateTime endDate,
+                                  BigDecimal minAmount, BigDecimal maxAmount) {
+            return new Criteria()
+                    .with("account_number = :accountNumber", "accountNumber", accountNumber)
+                    .with("type = :type", "type", type != null ? type.name() : null)
+                    .with("transaction_date >= :startDate", "startDate", startDate)
+                    .with("transaction_date <= :endDate", "endDate", endDate)
+                    .with("amount >= :minAmount", "minAmount", minAmount)
+                    .with("amount <= :maxAmount", "maxAmount", maxAmount);
+        }
+
+        private Criteria with(String predicate, String name, Object value) {
+            if (value != null) {
+                predicates.add(predicate);
+                parameters.put(name, value);
+            }
+            return this;
+        }
+
+        String where() {
+            return predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+        }
+
+        Map<String, Object> parameters() {
+            return parameters;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.hsbc.transaction.reactive;
+
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Read endpoints of {@code TransactionController} under the same paths, plus
+ * {@code /account/{accountNumber}/stream} for backpressured account listings.
+ */
+public final class ReactiveTransactionRouter {
+
+    private ReactiveTransactionRouter() {}
+
+    public static RouterFunction<ServerResponse> routes(ReactiveTransactionHandler handler) {
+        return route()
+                .path("/api/v1/transactions", builder -> builder
+                        // Literal segments first, so "recent" and "reference" are never read as an id
+                        .GET("/recent", handler::getRecentTransactions)
+                        .GET("/criteria", handler::getTransactionsByCriteria)
+                        .GET("/reference/{reference}", handler::getTransactionByReference)
+                        .GET("/account/{accountNumber}/stream", handler::streamTransactionsByAccount)
+                        .GET("/account/{accountNumber}/balance/{type}", handler::getAccountBalanceByType)
+                        .GET("/account/{accountNumber}/balance", handler::getAccountBalance)
+                        .GET("/account/{accountNumber}", handler::getTransactionsByAccount)
+                        .route(GET("/{id}"), handler::getTransactionById))
+                .onError(Throwable.class, handler::handleError)
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.model.AccountSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface AccountSummaryRepository extends JpaRepository<AccountSummary, AccountSummary.Key> {
+
+    List<AccountSummary> findByAccountNumber(String accountNumber);
+
+    /**
+     * Add a delta to the running totals of one account/type, creating the row on first use.
+     */
+    @Modifying
+    @Query(value = "MERGE INTO account_summaries s " +
+                   "USING (VALUES (CAST(:accountNumber AS VARCHAR(255)), CAST(:type AS VARCHAR(255)), " +
+                   "CAST(:amount AS DECIMAL(19, 2)), CAST(:count AS BIGINT))) AS d(account_number, type, amount, cnt) " +
+                   "ON s.account_number = d.account_number AND s.type = d.type " +
+                   "WHEN MATCHED THEN UPDATE SET total_amount = s.total_amount + d.amount, " +
+                   "transaction_count = s.transaction_count + d.cnt " +
+                   "WHEN NOT MATCHED THEN INSERT (account_number, type, total_amount, transaction_count) " +
+                   "VALUES (d.account_number, d.type, d.amount, d.cnt)",
+           nativeQuery = true)
+    int applyDelta(@Param("accountNumber") String accountNumber,
+                   @Param("type") String type,
+                   @Param("amount") BigDecimal amount,
+                   @Param("count") long count);
+
+    @Modifying
+    @Query(value = "INSERT INTO account_summaries (account_number, type, total_amount, transaction_count) " +
+                   "SELECT account_number, type, SUM(amount), COUNT(*) FROM transactions " +
+                   "GROUP BY account_number, type",
+           nativeQuery = true)
+    int rebuildFromTransactions();
+}
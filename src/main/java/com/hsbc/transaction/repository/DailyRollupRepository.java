@@ -0,0 +1,60 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.model.DailyRollup;
+import com.hsbc.transaction.model.TransactionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailyRollupRepository extends JpaRepository<DailyRollup, DailyRollup.Key> {
+
+    // Days emptied by deletes keep a zero row until the next rebuild; they are not buckets
+    @Query("SELECT r FROM DailyRollup r WHERE r.accountNumber = :accountNumber " +
+           "AND r.bucketDate BETWEEN :from AND :to AND r.transactionCount <> 0 " +
+           "ORDER BY r.bucketDate, r.type")
+    List<DailyRollup> findDays(@Param("accountNumber") String accountNumber,
+                               @Param("from") LocalDate from,
+                               @Param("to") LocalDate to);
+
+    @Query("SELECT r FROM DailyRollup r WHERE r.accountNumber = :accountNumber AND r.type = :type " +
+           "AND r.bucketDate BETWEEN :from AND :to AND r.transactionCount <> 0 " +
+           "ORDER BY r.bucketDate")
+    List<DailyRollup> findDaysByType(@Param("accountNumber") String accountNumber,
+                                     @Param("type") TransactionType type,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+
+    /**
+     * Add a delta to the totals of one account, day and type, creating the row on first use.
+     */
+    @Modifying
+    @Query(value = "MERGE INTO transaction_daily_rollups r " +
+                   "USING (VALUES (CAST(:accountNumber AS VARCHAR(255)), CAST(:bucketDate AS DATE), " +
+                   "CAST(:type AS VARCHAR(255)), CAST(:amount AS DECIMAL(19, 2)), CAST(:count AS BIGINT))) " +
+                   "AS d(account_number, bucket_date, type, amount, cnt) " +
+                   "ON r.account_number = d.account_number AND r.bucket_date = d.bucket_date AND r.type = d.type " +
+                   "WHEN MATCHED THEN UPDATE SET total_amount = r.total_amount + d.amount, " +
+                   "transaction_count = r.transaction_count + d.cnt " +
+                   "WHEN NOT MATCHED THEN INSERT (account_number, bucket_date, type, total_amount, transaction_count) " +
+                   "VALUES (d.account_number, d.bucket_date, d.type, d.amount, d.cnt)",
+           nativeQuery = true)
+    int applyDelta(@Param("accountNumber") String accountNumber,
+                   @Param("bucketDate") LocalDate bucketDate,
+                   @Param("type") String type,
+                   @Param("amount") BigDecimal amount,
+                   @Param("count") long count);
+
+    @Modifying
+    @Query(value = "INSERT INTO transaction_daily_rollups (account_number, bucket_date, type, total_amount, transaction_count) " +
+                   "SELECT account_number, CAST(transaction_date AS DATE), type, SUM(amount), COUNT(*) FROM transactions " +
+                   "GROUP BY account_number, CAST(transaction_date AS DATE), type",
+           nativeQuery = true)
+    int rebuildFromTransactions();
+}
@@ -0,0 +1,85 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.model.TransactionType;
+import jakarta.persistence.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The optional filters of a criteria query. {@link #mask()} says which of
+ * them are set, one bit per {@link Filter}, and is what query shapes are
+ * cached by; the values themselves are only bound as parameters.
+ */
+record TransactionCriteria(String accountNumber,
+                           TransactionType type,
+                           LocalDateTime startDate,
+                           LocalDateTime endDate,
+                           BigDecimal minAmount,
+                           BigDecimal maxAmount) {
+
+    /**
+     * In the order predicates are written: equality filters first, then the
+     * ranges, matching the leading columns of the composite indexes.
+     */
+    enum Filter {
+        ACCOUNT_NUMBER("t.accountNumber = :accountNumber", "accountNumber"),
+        TYPE("t.type = :type", "type"),
+        START_DATE("t.transactionDate >= :startDate", "startDate"),
+        END_DATE("t.transactionDate <= :endDate", "endDate"),
+        MIN_AMOUNT("t.amount >= :minAmount", "minAmount"),
+        MAX_AMOUNT("t.amount <= :maxAmount", "maxAmount");
+
+        static final int COMBINATIONS = 1 << values().length;
+
+        private final String predicate;
+        private final String parameter;
+
+        Filter(String predicate, String parameter) {
+            this.predicate = predicate;
+            this.parameter = parameter;
+        }
+
+        int bit() {
+            return 1 << ordinal();
+        }
+
+        String predicate() {
+            return predicate;
+        }
+
+        String parameter() {
+            return parameter;
+        }
+    }
+
+    int mask() {
+        int mask = 0;
+        for (Filter filter : Filter.values()) {
+            if (value(filter) != null) {
+                mask |= filter.bit();
+            }
+        }
+        return mask;
+    }
+
+    void bind(Query query) {
+        for (Filter filter : Filter.values()) {
+            Object value = value(filter);
+            if (value != null) {
+                query.setParameter(filter.parameter(), value);
+            }
+        }
+    }
+
+    private Object value(Filter filter) {
+        return switch (filter) {
+            case ACCOUNT_NUMBER -> accountNumber;
+            case TYPE -> type;
+            case START_DATE -> startDate;
+            case END_DATE -> endDate;
+            case MIN_AMOUNT -> minAmount;
+            case MAX_AMOUNT -> maxAmount;
+        };
+    }
+}
@@ -0,0 +1,59 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Criteria queries where every filter is optional. Only the filters that are
+ * given become predicates, so each combination gets a plain conjunction the
+ * database can answer from an index.
+ */
+public interface TransactionCriteriaRepository {
+
+    Page<Transaction> findByCriteria(String accountNumber,
+                                     TransactionType type,
+                                     LocalDateTime startDate,
+                                     LocalDateTime endDate,
+                                     BigDecimal minAmount,
+                                     BigDecimal maxAmount,
+                                     Pageable pageable);
+
+    /**
+     * The page without its count, projected straight into responses. One
+     * extra row is read to tell whether another page follows.
+     */
+    Slice<TransactionResponse> findSliceByCriteria(String accountNumber,
+                                                   TransactionType type,
+                                                   LocalDateTime startDate,
+                                                   LocalDateTime endDate,
+                                                   BigDecimal minAmount,
+                                                   BigDecimal maxAmount,
+                                                   Pageable pageable);
+
+    long countByCriteria(String accountNumber,
+                         TransactionType type,
+                         LocalDateTime startDate,
+                         LocalDateTime endDate,
+                         BigDecimal minAmount,
+                         BigDecimal maxAmount);
+
+    /**
+     * Forward-only cursor over the matching rows, newest first, for exports.
+     * Rows arrive in fetch-size round trips; the stream must be consumed and
+     * closed inside a transaction.
+     */
+    Stream<Transaction> streamByCriteria(String accountNumber,
+                                         TransactionType type,
+                                         LocalDateTime startDate,
+                                         LocalDateTime endDate,
+                                         BigDecimal minAmount,
+                                         BigDecimal maxAmount);
+}
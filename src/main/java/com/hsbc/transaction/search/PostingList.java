@@ -0,0 +1,60 @@
+package com.hsbc.transaction.search;
+
+import java.util.Arrays;
+
+/**
+ * Ordinals of the documents containing one term, kept sorted in a primitive
+ * array with the term frequency alongside. New documents usually get the
+ * next ordinal and append at the end; an ordinal freed by a delete and handed
+ * out again is inserted in place.
+ */
+final class PostingList {
+
+    private int[] ordinals = new int[4];
+    private int[] frequencies = new int[4];
+    private int size;
+
+    void add(int ordinal, int frequency) {
+        int index = size == 0 || ordinal > ordinals[size - 1]
+                ? -(size + 1)
+                : Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (index >= 0) {
+            frequencies[index] = frequency;
+            return;
+        }
+        int insertAt = -(index + 1);
+        if (size == ordinals.length) {
+            int capacity = size + (size >> 1) + 1;
+            ordinals = Arrays.copyOf(ordinals, capacity);
+            frequencies = Arrays.copyOf(frequencies, capacity);
+        }
+        System.arraycopy(ordinals, insertAt, ordinals, insertAt + 1, size - insertAt);
+        System.arraycopy(frequencies, insertAt, frequencies, insertAt + 1, size - insertAt);
+        ordinals[insertAt] = ordinal;
+        frequencies[insertAt] = frequency;
+        size++;
+    }
+
+    boolean remove(int ordinal) {
+        int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+        System.arraycopy(frequencies, index + 1, frequencies, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    int ordinalAt(int index) {
+        return ordinals[index];
+    }
+
+    int frequencyAt(int index) {
+        return frequencies[index];
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,101 @@
+package com.hsbc.transaction.search;
+
+import java.util.Arrays;
+
+/**
+ * Scoring state of one search, kept only for its candidate documents: an
+ * open-addressing table from ordinal to slot, with the per-document columns
+ * alongside. Only documents of the most selective term can match every term,
+ * so the table is sized to that term's postings and a query allocates in
+ * proportion to its candidates instead of to the whole index.
+ */
+final class ScoreAccumulator {
+
+    private static final int FREE = -1;
+
+    private final int[] ordinals;
+    // Query terms the document has matched so far
+    private final int[] matched;
+    private final float[] scores;
+    // Score of the best word of the current term, for prefixes that match several
+    private final float[] termBest;
+    private final int mask;
+
+    ScoreAccumulator(int candidates) {
+        // At most half full, so probes stay short
+        int capacity = Integer.highestOneBit(Math.max(1, candidates) * 2 - 1) << 1;
+        ordinals = new int[capacity];
+        Arrays.fill(ordinals, FREE);
+        matched = new int[capacity];
+        scores = new float[capacity];
+        termBest = new float[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * The slot of {@code ordinal}, claimed if it has none yet.
+     */
+    int claim(int ordinal) {
+        int slot = probe(ordinal);
+        ordinals[slot] = ordinal;
+        return slot;
+    }
+
+    /**
+     * The slot of {@code ordinal}, or -1 when it is not a candidate.
+     */
+    int find(int ordinal) {
+        int slot = probe(ordinal);
+        return ordinals[slot] == FREE ? -1 : slot;
+    }
+
+    int capacity() {
+        return ordinals.length;
+    }
+
+    int ordinal(int slot) {
+        return ordinals[slot];
+    }
+
+    int matched(int slot) {
+        return matched[slot];
+    }
+
+    float score(int slot) {
+        return scores[slot];
+    }
+
+    /**
+     * Counts the first word of term {@code term} a document matches, or
+     * replaces that term's contribution if a later word scores higher.
+     */
+    void accumulate(int slot, int term, float score) {
+        if (matched[slot] == term) {
+            matched[slot] = term + 1;
+            scores[slot] += score;
+            termBest[slot] = score;
+        } else if (matched[slot] == term + 1 && score > termBest[slot]) {
+            scores[slot] += score - termBest[slot];
+            termBest[slot] = score;
+        }
+    }
+
+    /**
+     * Adds a reference match for term {@code term}, on top of any description
+     * match of the same term.
+     */
+    void boost(int slot, int term, float boost) {
+        if (matched[slot] == term || matched[slot] == term + 1) {
+            matched[slot] = term + 1;
+            scores[slot] += boost;
+        }
+    }
+
+    private int probe(int ordinal) {
+        int slot = (ordinal * 0x9E3779B9) >>> 1 & mask;
+        while (ordinals[slot] != FREE && ordinals[slot] != ordinal) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+}
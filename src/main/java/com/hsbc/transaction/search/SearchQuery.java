@@ -0,0 +1,79 @@
+package com.hsbc.transaction.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A parsed keyword search. The text is split into lower-case terms and every
+ * term must match (AND): either as a prefix of a description word or as a
+ * prefix of the transaction reference.
+ */
+public final class SearchQuery {
+
+    private final List<String> terms;
+
+    private SearchQuery(List<String> terms) {
+        this.terms = terms;
+    }
+
+    public static SearchQuery parse(String text) {
+        // Repeated terms add nothing to an AND query
+        Set<String> distinct = new LinkedHashSet<>(tokenize(text));
+        return new SearchQuery(List.copyOf(distinct));
+    }
+
+    /**
+     * Split text into lower-case runs of letters and digits.
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    public static String normalizeReference(String reference) {
+        return reference == null ? "" : reference.toLowerCase(Locale.ROOT);
+    }
+
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    public boolean isEmpty() {
+        return terms.isEmpty();
+    }
+
+    /**
+     * Whether a transaction with this description and reference satisfies the
+     * query. Gives the same answer as a lookup in {@link TransactionSearchIndex}.
+     */
+    public boolean matches(String description, String reference) {
+        if (terms.isEmpty()) {
+            return false;
+        }
+        String normalizedReference = normalizeReference(reference);
+        List<String> words = tokenize(description);
+        for (String term : terms) {
+            if (!normalizedReference.startsWith(term) && words.stream().noneMatch(word -> word.startsWith(term))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
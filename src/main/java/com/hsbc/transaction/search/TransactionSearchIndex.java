@@ -0,0 +1,393 @@
+package com.hsbc.transaction.search;
+
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over transaction descriptions and references.
+ *
+ * <p>Description words map to {@link PostingList}s in a sorted term dictionary,
+ * so a prefix query is a range scan over the dictionary. References are kept
+ * in their own sorted map and match by prefix as well. Results are ranked by
+ * BM25 over the description, with a fixed boost for reference matches.
+ *
+ * <p>The index is rebuilt from the database once the application is ready and
+ * then kept current by committed {@link TransactionChangedEvent}s. Until the
+ * first build completes {@link #isReady()} is false and callers fall back to
+ * the database.
+ */
+@Component
+public class TransactionSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionSearchIndex.class);
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final float REFERENCE_BOOST = 10f;
+    private static final int REBUILD_BATCH_SIZE = 5000;
+
+    private final TransactionRepository transactionRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Serializes rebuilds; not synchronized, which would pin a virtual thread through the database reads
+    private final Lock rebuildLock = new ReentrantLock();
+    private final TreeMap<String, PostingList> terms = new TreeMap<>();
+    private final TreeMap<String, Integer> references = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Set<Long> deletedDuringRebuild = new HashSet<>();
+
+    // Per-ordinal columns; postings refer to documents by ordinal so scoring
+    // never has to go through the id map
+    private long[] ordinalIds = new long[1024];
+    private int[] ordinalLengths = new int[1024];
+    private String[] ordinalReferences = new String[1024];
+    private int nextOrdinal;
+    // Ordinals of deleted documents, handed out again before nextOrdinal grows
+    private int[] freeOrdinals = new int[16];
+    private int freeCount;
+
+    private long totalLength;
+    private boolean rebuilding;
+    private volatile boolean ready;
+
+    public record Hits(List<Long> ids, long total) {
+
+        static final Hits EMPTY = new Hits(Collections.emptyList(), 0);
+    }
+
+    private record Document(int ordinal, String[] terms) {}
+
+    @Autowired
+    public TransactionSearchIndex(TransactionRepository transactionRepository) {
+        this.transactionRepository = transactionRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Re-read every transaction in id order and index it. Searches keep being
+     * served from the database while this runs; changes committed meanwhile
+     * are applied as usual and take precedence over the rows read here.
+     */
+    public int rebuild() {
+        rebuildLock.lock();
+        try {
+            return rebuildIndex();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private int rebuildIndex() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            rebuilding = true;
+            terms.clear();
+            references.clear();
+            documents.clear();
+            deletedDuringRebuild.clear();
+            ordinalIds = new long[1024];
+            ordinalLengths = new int[1024];
+            ordinalReferences = new String[1024];
+            nextOrdinal = 0;
+            freeOrdinals = new int[16];
+            freeCount = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        int indexed = 0;
+        long lastId = 0;
+        List<Transaction> batch;
+        do {
+            batch = transactionRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(REBUILD_BATCH_SIZE));
+            lock.writeLock().lock();
+            try {
+                for (Transaction transaction : batch) {
+                    // Anything already present was indexed from a newer committed change
+                    if (!documents.containsKey(transaction.getId()) && !deletedDuringRebuild.contains(transaction.getId())) {
+                        add(transaction);
+                        indexed++;
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            rebuilding = false;
+            deletedDuringRebuild.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Search index rebuilt with {} transactions and {} terms in {} ms",
+                indexed, terms.size(), System.currentTimeMillis() - started);
+        return indexed;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Transaction transaction : event.getTransactions()) {
+                if (event.getChangeType() == TransactionChangedEvent.ChangeType.DELETED) {
+                    remove(transaction.getId());
+                    if (rebuilding) {
+                        deletedDuringRebuild.add(transaction.getId());
+                    }
+                } else {
+                    add(transaction);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rank the transactions matching every term of {@code text} and return
+     * one page of ids, best first, together with the total number of matches.
+     */
+    public Hits search(String text, int offset, int limit) {
+        SearchQuery query = SearchQuery.parse(text);
+        if (query.isEmpty()) {
+            return Hits.EMPTY;
+        }
+        lock.readLock().lock();
+        try {
+            List<TermMatch> matches = new ArrayList<>();
+            for (String term : query.getTerms()) {
+                TermMatch match = new TermMatch(term, prefixRange(terms, term), prefixRange(references, term));
+                if (match.estimate() == 0) {
+                    return Hits.EMPTY;
+                }
+                matches.add(match);
+            }
+            // Start from the most selective term; only its documents can match every term
+            matches.sort(Comparator.comparingLong(TermMatch::estimate));
+            return score(matches, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record TermMatch(String term, SortedMap<String, PostingList> words, SortedMap<String, Integer> references) {
+
+        long estimate() {
+            long postings = references.size();
+            for (PostingList list : words.values()) {
+                postings += list.size();
+            }
+            return postings;
+        }
+    }
+
+    /**
+     * Term-at-a-time AND scoring over the candidates of the first, most
+     * selective term. A posting of a later term only contributes when its
+     * document matched every earlier term. Several words can share a prefix,
+     * in which case the best scoring one counts for that term.
+     */
+    private Hits score(List<TermMatch> matches, int offset, int limit) {
+        float averageLength = documents.isEmpty() ? 1 : (float) totalLength / documents.size();
+        ScoreAccumulator accumulator = new ScoreAccumulator((int) Math.min(matches.get(0).estimate(), documents.size()));
+
+        for (int t = 0; t < matches.size(); t++) {
+            TermMatch match = matches.get(t);
+            for (PostingList postings : match.words().values()) {
+                float idf = idf(postings.size());
+                for (int i = 0; i < postings.size(); i++) {
+                    int ordinal = postings.ordinalAt(i);
+                    int slot = t == 0 ? accumulator.claim(ordinal) : accumulator.find(ordinal);
+                    if (slot >= 0) {
+                        accumulator.accumulate(slot, t,
+                                bm25(idf, postings.frequencyAt(i), ordinalLengths[ordinal], averageLength));
+                    }
+                }
+            }
+            for (int ordinal : match.references().values()) {
+                int slot = t == 0 ? accumulator.claim(ordinal) : accumulator.find(ordinal);
+                if (slot >= 0) {
+                    accumulator.boost(slot, t, REFERENCE_BOOST);
+                }
+            }
+        }
+
+        int required = matches.size();
+        int total = 0;
+        int wanted = offset + limit;
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, wanted + 1), ranking(accumulator));
+        for (int slot = 0; slot < accumulator.capacity(); slot++) {
+            if (accumulator.matched(slot) != required) {
+                continue;
+            }
+            total++;
+            if (wanted > 0) {
+                heap.offer(slot);
+                if (heap.size() > wanted) {
+                    heap.poll();
+                }
+            }
+        }
+
+        List<Long> ranked = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            ranked.add(ordinalIds[accumulator.ordinal(heap.poll())]);
+        }
+        Collections.reverse(ranked);
+        return new Hits(offset >= ranked.size() ? Collections.emptyList() : ranked.subList(offset, ranked.size()), total);
+    }
+
+    private Comparator<Integer> ranking(ScoreAccumulator accumulator) {
+        // Lowest first so the heap evicts it; newer (larger) ids win ties
+        return (a, b) -> {
+            int byScore = Float.compare(accumulator.score(a), accumulator.score(b));
+            return byScore != 0 ? byScore
+                    : Long.compare(ordinalIds[accumulator.ordinal(a)], ordinalIds[accumulator.ordinal(b)]);
+        };
+    }
+
+    private float idf(int documentFrequency) {
+        int total = documents.size();
+        return (float) Math.log(1 + (total - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static float bm25(float idf, int frequency, int length, float averageLength) {
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private static <V> SortedMap<String, V> prefixRange(TreeMap<String, V> map, String prefix) {
+        return map.subMap(prefix, prefix + Character.MAX_VALUE);
+    }
+
+    private void add(Transaction transaction) {
+        Document previous = documents.get(transaction.getId());
+        int ordinal;
+        if (previous != null) {
+            // Re-indexing keeps the ordinal so postings stay in order
+            ordinal = previous.ordinal();
+            unlink(previous);
+        } else {
+            ordinal = allocateOrdinal(transaction.getId());
+        }
+
+        List<String> words = SearchQuery.tokenize(transaction.getDescription());
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String word : words) {
+            frequencies.merge(word, 1, Integer::sum);
+        }
+        String[] distinct = new String[frequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            PostingList postings = terms.get(entry.getKey());
+            if (postings == null) {
+                postings = new PostingList();
+                terms.put(entry.getKey(), postings);
+            }
+            postings.add(ordinal, entry.getValue());
+            // Reuse the dictionary's copy of the word instead of holding another per document
+            distinct[i++] = terms.ceilingKey(entry.getKey());
+        }
+
+        String reference = SearchQuery.normalizeReference(transaction.getReference());
+        references.put(reference, ordinal);
+        ordinalReferences[ordinal] = reference;
+        ordinalLengths[ordinal] = words.size();
+        totalLength += words.size();
+        documents.put(transaction.getId(), new Document(ordinal, distinct));
+    }
+
+    private void remove(Long id) {
+        Document document = documents.remove(id);
+        if (document != null) {
+            unlink(document);
+            ordinalIds[document.ordinal()] = -1;
+            if (freeCount == freeOrdinals.length) {
+                freeOrdinals = Arrays.copyOf(freeOrdinals, freeCount * 2);
+            }
+            freeOrdinals[freeCount++] = document.ordinal();
+        }
+    }
+
+    private void unlink(Document document) {
+        int ordinal = document.ordinal();
+        for (String term : document.terms()) {
+            PostingList postings = terms.get(term);
+            if (postings != null && postings.remove(ordinal) && postings.size() == 0) {
+                terms.remove(term);
+            }
+        }
+        references.remove(ordinalReferences[ordinal]);
+        ordinalReferences[ordinal] = null;
+        totalLength -= ordinalLengths[ordinal];
+        ordinalLengths[ordinal] = 0;
+    }
+
+    private int allocateOrdinal(long id) {
+        if (freeCount > 0) {
+            int ordinal = freeOrdinals[--freeCount];
+            ordinalIds[ordinal] = id;
+            return ordinal;
+        }
+        if (nextOrdinal == ordinalIds.length) {
+            int capacity = nextOrdinal + (nextOrdinal >> 1);
+            ordinalIds = Arrays.copyOf(ordinalIds, capacity);
+            ordinalLengths = Arrays.copyOf(ordinalLengths, capacity);
+            ordinalReferences = Arrays.copyOf(ordinalReferences, capacity);
+        }
+        ordinalIds[nextOrdinal] = id;
+        return nextOrdinal++;
+    }
+}
@@ -0,0 +1,34 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.dto.LedgerVerificationResponse;
+import com.hsbc.transaction.model.TransactionType;
+
+import java.math.BigDecimal;
+
+/**
+ * Per-account running totals kept alongside the transactions table so
+ * balances and counts can be read without aggregating over all rows.
+ */
+public interface AccountSummaryService {
+
+    /**
+     * Deposits minus withdrawals for the account.
+     */
+    BigDecimal getBalance(String accountNumber);
+
+    BigDecimal getBalanceByType(String accountNumber, TransactionType type);
+
+    long getTransactionCount(String accountNumber);
+
+    /**
+     * Recompute every summary row from the transactions table.
+     *
+     * @return number of summary rows written
+     */
+    int rebuild();
+
+    /**
+     * Compare the summaries against a fresh aggregation of the transactions table.
+     */
+    LedgerVerificationResponse verify();
+}
@@ -0,0 +1,11 @@
+package com.hsbc.transaction.service;
+
+/**
+ * Produces transaction references in the {@code TXN...} format.
+ * Implementations must be thread-safe and must never hand out the same
+ * reference twice, so callers do not need to check the database first.
+ */
+public interface ReferenceGenerator {
+
+    String nextReference();
+}
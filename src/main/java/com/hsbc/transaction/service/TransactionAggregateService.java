@@ -0,0 +1,29 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.dto.TransactionAggregateResponse;
+import com.hsbc.transaction.model.AggregateGranularity;
+import com.hsbc.transaction.model.TransactionType;
+
+import java.time.LocalDate;
+
+/**
+ * Day, week and month totals per account and transaction type, read from
+ * daily rollups kept alongside the transactions table rather than from the
+ * transactions themselves.
+ */
+public interface TransactionAggregateService {
+
+    /**
+     * Totals per bucket and type for the days {@code from} to {@code to},
+     * both inclusive. A {@code null} type breaks every bucket down by type.
+     */
+    TransactionAggregateResponse getAggregates(String accountNumber, TransactionType type,
+                                               AggregateGranularity granularity, LocalDate from, LocalDate to);
+
+    /**
+     * Recompute every rollup row from the transactions table.
+     *
+     * @return number of rollup rows written
+     */
+    int rebuild();
+}
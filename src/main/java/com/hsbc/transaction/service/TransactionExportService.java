@@ -0,0 +1,28 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.export.ExportFormat;
+import com.hsbc.transaction.model.TransactionType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Streams every transaction matching a filter, newest first, straight from a
+ * database cursor. Memory use does not grow with the number of rows.
+ */
+public interface TransactionExportService {
+
+    /**
+     * Write matching transactions to {@code out}. Filters behave as in
+     * {@link TransactionService#getTransactionsByCriteria}; {@code null} means
+     * no restriction. The stream is flushed but not closed.
+     *
+     * @return number of rows written
+     */
+    long exportTransactionsByCriteria(ExportFormat format, String accountNumber, TransactionType type,
+                                      LocalDateTime startDate, LocalDateTime endDate,
+                                      BigDecimal minAmount, BigDecimal maxAmount,
+                                      OutputStream out) throws IOException;
+}
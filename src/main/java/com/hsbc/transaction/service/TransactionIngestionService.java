@@ -0,0 +1,32 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.dto.TransactionResponse;
+
+/**
+ * Write-behind creation path: requests are validated and queued, and the
+ * caller gets the assigned reference back before the row is committed.
+ */
+public interface TransactionIngestionService {
+
+    /**
+     * Validate and enqueue a transaction. The returned response carries the
+     * assigned reference and {@code PENDING} status; it has no id yet.
+     */
+    TransactionResponse submit(TransactionRequest request);
+
+    /**
+     * Keyed form of {@link #submit(TransactionRequest)}: a repeated key gets
+     * the response of the first submission, or the stored transaction once
+     * it has been written, and is not queued again.
+     */
+    TransactionResponse submit(TransactionRequest request, String idempotencyKey);
+
+    /**
+     * Look up a submitted transaction: {@code PENDING} while queued,
+     * {@code FAILED} if its write failed, otherwise the stored transaction.
+     */
+    TransactionResponse getStatus(String reference);
+
+    int getQueueDepth();
+}
@@ -1,5 +1,8 @@
 package com.hsbc.transaction.service;
+import com.hsbc.transaction.dto.BatchTransactionResponse;
+import com.hsbc.transaction.dto.CursorPageResponse;
 import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionLookupResponse;
 import com.hsbc.transaction.dto.TransactionRequest;
 import com.hsbc.transaction.dto.UpdateTransactionRequest;
 import com.hsbc.transaction.dto.TransactionResponse;
@@ -13,31 +16,85 @@ import java.util.List;
 public interface TransactionService {
 
     TransactionResponse createTransaction(TransactionRequest request);
+
+    /**
+     * Create a transaction at most once per idempotency key. A repeated key
+     * returns the response of the first request without writing; a repeat
+     * that arrives while the first is still in flight waits for it.
+     */
+    TransactionResponse createTransaction(TransactionRequest request, String idempotencyKey);
+
+    /**
+     * Create many transactions at once. The batch is validated up front and
+     * written in chunks; each item reports whether it was created, rejected
+     * by validation or lost to a failed chunk.
+     */
+    BatchTransactionResponse createTransactions(List<TransactionRequest> requests);
+
+    /**
+     * Keyed form of {@link #createTransactions(List)}. Each item is recorded
+     * under {@code <key>:<index>}, so a retry only writes the items that an
+     * earlier attempt did not commit.
+     */
+    BatchTransactionResponse createTransactions(List<TransactionRequest> requests, String idempotencyKey);
     
     TransactionResponse getTransactionById(Long id);
     
     TransactionResponse getTransactionByReference(String reference);
+
+    /**
+     * Resolve many ids and references at once. Cached lookups are answered
+     * from the cache; the rest are fetched with chunked {@code IN} queries
+     * and cached on the way out.
+     */
+    TransactionLookupResponse lookupTransactions(List<Long> ids, List<String> references);
     
     TransactionResponse updateTransaction(Long id, UpdateTransactionRequest request);
+
+    /**
+     * Update only if the transaction is still at {@code expectedVersion},
+     * as sent in {@code If-Match}; {@code null} skips the check. Concurrent
+     * updates are caught by the version column rather than a row lock.
+     *
+     * @throws com.hsbc.transaction.exception.TransactionVersionMismatchException
+     *         if another update got there first
+     */
+    TransactionResponse updateTransaction(Long id, UpdateTransactionRequest request, Long expectedVersion);
     
     void deleteTransaction(Long id);
     
-    PageResponse<TransactionResponse> getAllTransactions(Pageable pageable);
+    /**
+     * Paged listings take {@code withTotal}. With {@code true} the total comes
+     * from a count cached per set of filters, so a page costs one query once
+     * that count is known; with {@code false} no total is produced and the
+     * response is a slice that only reports whether a next page exists.
+     */
+    PageResponse<TransactionResponse> getAllTransactions(Pageable pageable, boolean withTotal);
     
-    PageResponse<TransactionResponse> getTransactionsByAccount(String accountNumber, Pageable pageable);
+    PageResponse<TransactionResponse> getTransactionsByAccount(String accountNumber, Pageable pageable, boolean withTotal);
+
+    /**
+     * Keyset-paginated listing, newest first. {@code after} is the
+     * {@code nextCursor} of the previous slice, or {@code null} for the first.
+     */
+    CursorPageResponse<TransactionResponse> getTransactionsAfter(String after, int size);
+
+    CursorPageResponse<TransactionResponse> getTransactionsByAccountAfter(String accountNumber, String after, int size);
     
-    PageResponse<TransactionResponse> getTransactionsByType(TransactionType type, Pageable pageable);
+    PageResponse<TransactionResponse> getTransactionsByType(TransactionType type, Pageable pageable, boolean withTotal);
     
-    PageResponse<TransactionResponse> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable);
+    PageResponse<TransactionResponse> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                                                 Pageable pageable, boolean withTotal);
     
-    PageResponse<TransactionResponse> getTransactionsByAmountRange(BigDecimal minAmount, BigDecimal maxAmount, Pageable pageable);
+    PageResponse<TransactionResponse> getTransactionsByAmountRange(BigDecimal minAmount, BigDecimal maxAmount,
+                                                                   Pageable pageable, boolean withTotal);
     
     PageResponse<TransactionResponse> searchTransactions(String keyword, Pageable pageable);
     
     PageResponse<TransactionResponse> getTransactionsByCriteria(String accountNumber, TransactionType type, 
                                                              LocalDateTime startDate, LocalDateTime endDate,
                                                              BigDecimal minAmount, BigDecimal maxAmount, 
-                                                             Pageable pageable);
+                                                             Pageable pageable, boolean withTotal);
     
     List<TransactionResponse> getRecentTransactions();
     
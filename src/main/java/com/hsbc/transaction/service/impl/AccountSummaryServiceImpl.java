@@ -0,0 +1,165 @@
+package com.hsbc.transaction.service.impl;
+
+import com.hsbc.transaction.cache.TransactionChangeTracker;
+import com.hsbc.transaction.config.LedgerProperties;
+import com.hsbc.transaction.dto.LedgerVerificationResponse;
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.AccountSummary;
+import com.hsbc.transaction.model.TransactionType;
+import com.hsbc.transaction.repository.AccountSummaryRepository;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.service.AccountSummaryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+@Transactional
+public class AccountSummaryServiceImpl implements AccountSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountSummaryServiceImpl.class);
+
+    // The order summary rows are locked in, the same for every writer
+    private static final Comparator<AccountSummary.Key> LOCK_ORDER = Comparator
+            .comparing(AccountSummary.Key::getAccountNumber)
+            .thenComparing(AccountSummary.Key::getType);
+
+    private final AccountSummaryRepository accountSummaryRepository;
+    private final TransactionRepository transactionRepository;
+    private final LedgerProperties ledgerProperties;
+    private final TransactionChangeTracker changeTracker;
+    // This bean's proxy, so the scheduled repair runs rebuild() with its cache eviction
+    private final ObjectProvider<AccountSummaryService> self;
+
+    @Autowired
+    public AccountSummaryServiceImpl(AccountSummaryRepository accountSummaryRepository,
+                                     TransactionRepository transactionRepository,
+                                     LedgerProperties ledgerProperties,
+                                     TransactionChangeTracker changeTracker,
+                                     ObjectProvider<AccountSummaryService> self) {
+        this.accountSummaryRepository = accountSummaryRepository;
+        this.transactionRepository = transactionRepository;
+        this.ledgerProperties = ledgerProperties;
+        this.changeTracker = changeTracker;
+        this.self = self;
+    }
+
+    /**
+     * Moves the account's per-type totals inside the publishing transaction,
+     * so a balance read after the commit already includes the change.
+     */
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        OrderedDeltas.apply(event, transaction -> new AccountSummary.Key(transaction.getAccountNumber(), transaction.getType()),
+                LOCK_ORDER, (key, amount, count) ->
+                        accountSummaryRepository.applyDelta(key.getAccountNumber(), key.getType().name(), amount, count));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(String accountNumber) {
+        BigDecimal deposits = BigDecimal.ZERO;
+        BigDecimal withdrawals = BigDecimal.ZERO;
+        for (AccountSummary summary : accountSummaryRepository.findByAccountNumber(accountNumber)) {
+            if (summary.getType() == TransactionType.DEPOSIT) {
+                deposits = summary.getTotalAmount();
+            } else if (summary.getType() == TransactionType.WITHDRAWAL) {
+                withdrawals = summary.getTotalAmount();
+            }
+        }
+        return deposits.subtract(withdrawals);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceByType(String accountNumber, TransactionType type) {
+        return accountSummaryRepository.findById(new AccountSummary.Key(accountNumber, type))
+                .map(AccountSummary::getTotalAmount)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long getTransactionCount(String accountNumber) {
+        return accountSummaryRepository.findByAccountNumber(accountNumber).stream()
+                .mapToLong(AccountSummary::getTransactionCount)
+                .sum();
+    }
+
+    /**
+     * Serializable so no insert or delete can slip in between clearing and
+     * re-aggregating the table. Balances may change without a change event,
+     * so every balance and count tag is retired too.
+     */
+    @Override
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @CacheEvict(value = "accountBalances", allEntries = true)
+    public int rebuild() {
+        changeTracker.invalidateAll();
+        accountSummaryRepository.deleteAllInBatch();
+        int rows = accountSummaryRepository.rebuildFromTransactions();
+        log.info("Rebuilt {} account summary rows from transactions", rows);
+        return rows;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LedgerVerificationResponse verify() {
+        Map<AccountSummary.Key, AccountSummary> recorded = new HashMap<>();
+        for (AccountSummary summary : accountSummaryRepository.findAll()) {
+            recorded.put(new AccountSummary.Key(summary.getAccountNumber(), summary.getType()), summary);
+        }
+
+        List<LedgerVerificationResponse.Discrepancy> discrepancies = new ArrayList<>();
+        Set<String> accounts = new HashSet<>();
+        for (AccountSummary expected : transactionRepository.summarizeByAccountAndType()) {
+            accounts.add(expected.getAccountNumber());
+            AccountSummary actual = recorded.remove(new AccountSummary.Key(expected.getAccountNumber(), expected.getType()));
+            BigDecimal actualAmount = actual != null ? actual.getTotalAmount() : BigDecimal.ZERO;
+            long actualCount = actual != null ? actual.getTransactionCount() : 0;
+            if (expected.getTotalAmount().compareTo(actualAmount) != 0 || expected.getTransactionCount() != actualCount) {
+                discrepancies.add(new LedgerVerificationResponse.Discrepancy(expected.getAccountNumber(), expected.getType(),
+                        expected.getTotalAmount(), actualAmount, expected.getTransactionCount(), actualCount));
+            }
+        }
+        // Summary rows left over have no transactions behind them; only non-empty ones are drift
+        for (AccountSummary orphan : recorded.values()) {
+            accounts.add(orphan.getAccountNumber());
+            if (orphan.getTransactionCount() != 0 || orphan.getTotalAmount().signum() != 0) {
+                discrepancies.add(new LedgerVerificationResponse.Discrepancy(orphan.getAccountNumber(), orphan.getType(),
+                        BigDecimal.ZERO, orphan.getTotalAmount(), 0, orphan.getTransactionCount()));
+            }
+        }
+        return new LedgerVerificationResponse(accounts.size(), discrepancies);
+    }
+
+    @Scheduled(cron = "${transaction.ledger.verify-cron:-}")
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public void scheduledVerification() {
+        LedgerVerificationResponse result = verify();
+        if (result.isConsistent()) {
+            log.debug("Account summary ledger verified for {} accounts", result.getAccountsChecked());
+            return;
+        }
+        log.warn("Account summary ledger drift detected for {} account/type pairs", result.getDiscrepancies().size());
+        if (ledgerProperties.isRepairOnDrift()) {
+            self.getObject().rebuild();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.hsbc.transaction.service.impl;
+
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Turns a change event into one signed amount and count per key of a running
+ * total table, and applies them in a fixed key order.
+ *
+ * <p>Each applied delta is a MERGE that locks its row until the publishing
+ * transaction commits. Two events touching the same rows in different orders
+ * would lock them in different orders and could deadlock; sorting the keys
+ * first makes every writer take the locks in the same order.
+ */
+final class OrderedDeltas {
+
+    @FunctionalInterface
+    interface Writer<K> {
+        void apply(K key, BigDecimal amount, long count);
+    }
+
+    private OrderedDeltas() {
+    }
+
+    /**
+     * Creates add to the totals and deletes subtract from them. Updates are
+     * skipped: amount, type, account and date cannot change.
+     */
+    static <K> void apply(TransactionChangedEvent event, Function<Transaction, K> keyOf,
+                          Comparator<? super K> lockOrder, Writer<K> writer) {
+        int sign;
+        switch (event.getChangeType()) {
+            case CREATED -> sign = 1;
+            case DELETED -> sign = -1;
+            default -> {
+                return;
+            }
+        }
+
+        Map<K, Delta> deltas = new TreeMap<>(lockOrder);
+        for (Transaction transaction : event.getTransactions()) {
+            Delta delta = deltas.computeIfAbsent(keyOf.apply(transaction), key -> new Delta());
+            delta.amount = delta.amount.add(transaction.getAmount());
+            delta.count++;
+        }
+
+        for (Map.Entry<K, Delta> delta : deltas.entrySet()) {
+            BigDecimal amount = delta.getValue().amount;
+            writer.apply(delta.getKey(), sign > 0 ? amount : amount.negate(), sign * delta.getValue().count);
+        }
+    }
+
+    private static final class Delta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+    }
+}
@@ -0,0 +1,188 @@
+package com.hsbc.transaction.service.impl;
+
+import com.hsbc.transaction.config.ReferenceProperties;
+import com.hsbc.transaction.service.ReferenceGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates references as {@code TXN + yyyyMMddHHmmssSSS + node(3) + sequence(4)},
+ * with the timestamp in UTC whatever the clock's zone: a local time repeats
+ * an hour when daylight saving ends, and would repeat references with it.
+ *
+ * <p>The millisecond and the per-millisecond sequence are packed into a single
+ * {@link AtomicLong} and advanced with compare-and-set, so no locks are taken.
+ * When the 10,000 sequence values of a millisecond are used up, the generator
+ * borrows the next millisecond instead of waiting, and it never moves backwards
+ * if the wall clock does. Uniqueness across replicas comes from the node id.
+ */
+@Component
+public class TimeBasedReferenceGenerator implements ReferenceGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(TimeBasedReferenceGenerator.class);
+
+    static final int MAX_NODE_ID = 999;
+    private static final long SEQUENCE_RANGE = 10000;
+    private static final Pattern HOST_ORDINAL = Pattern.compile("-(\\d+)$");
+    private static final String PREFIX = "TXN";
+    private static final int LENGTH = PREFIX.length() + 14 + 3 + 3 + 4;
+
+    private final int nodeId;
+    private final Clock clock;
+    private final AtomicLong state = new AtomicLong();
+    private final AtomicReference<SecondDigits> secondDigits = new AtomicReference<>(new SecondDigits(Long.MIN_VALUE, null));
+    private final Counter contentionRetries;
+    private final Counter sequenceExhausted;
+
+    @Autowired
+    public TimeBasedReferenceGenerator(ReferenceProperties properties, MeterRegistry meterRegistry) {
+        this(resolveNodeId(properties.getNodeId()), Clock.systemUTC(), meterRegistry);
+    }
+
+    public TimeBasedReferenceGenerator(int nodeId, Clock clock, MeterRegistry meterRegistry) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.contentionRetries = contentionCounter("contention", meterRegistry);
+        this.sequenceExhausted = contentionCounter("sequence_exhausted", meterRegistry);
+    }
+
+    @Override
+    public String nextReference() {
+        long next;
+        long current;
+        int attempts = 0;
+        boolean borrowed;
+        do {
+            attempts++;
+            current = state.get();
+            long now = clock.millis();
+            long lastMillis = current / SEQUENCE_RANGE;
+            long sequence = current % SEQUENCE_RANGE;
+            borrowed = false;
+            if (now > lastMillis) {
+                next = now * SEQUENCE_RANGE;
+            } else if (sequence < SEQUENCE_RANGE - 1) {
+                next = current + 1;
+            } else {
+                next = (lastMillis + 1) * SEQUENCE_RANGE;
+                borrowed = true;
+            }
+        } while (!state.compareAndSet(current, next));
+
+        // Counted once per call, off the compare-and-set loop
+        if (attempts > 1) {
+            contentionRetries.increment(attempts - 1);
+        }
+        if (borrowed) {
+            sequenceExhausted.increment();
+        }
+
+        return format(next / SEQUENCE_RANGE, (int) (next % SEQUENCE_RANGE));
+    }
+
+    public int getNodeId() {
+        return nodeId;
+    }
+
+    private String format(long millis, int sequence) {
+        char[] chars = new char[LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        int pos = PREFIX.length();
+
+        long epochSecond = Math.floorDiv(millis, 1000);
+        System.arraycopy(digitsForSecond(epochSecond), 0, chars, pos, 14);
+        pos += 14;
+        pos = writeDigits(chars, pos, (int) Math.floorMod(millis, 1000), 3);
+        pos = writeDigits(chars, pos, nodeId, 3);
+        writeDigits(chars, pos, sequence, 4);
+        return new String(chars);
+    }
+
+    private char[] digitsForSecond(long epochSecond) {
+        SecondDigits cached = secondDigits.get();
+        if (cached.epochSecond == epochSecond) {
+            return cached.digits;
+        }
+        LocalDateTime time = LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+        char[] digits = new char[14];
+        int pos = writeDigits(digits, 0, time.getYear(), 4);
+        pos = writeDigits(digits, pos, time.getMonthValue(), 2);
+        pos = writeDigits(digits, pos, time.getDayOfMonth(), 2);
+        pos = writeDigits(digits, pos, time.getHour(), 2);
+        pos = writeDigits(digits, pos, time.getMinute(), 2);
+        writeDigits(digits, pos, time.getSecond(), 2);
+        secondDigits.set(new SecondDigits(epochSecond, digits));
+        return digits;
+    }
+
+    private static int writeDigits(char[] target, int pos, int value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            target[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    static Counter contentionCounter(String cause, MeterRegistry meterRegistry) {
+        return Counter.builder("transaction.reference.contention")
+                .description("Compare-and-set attempts lost to another thread, and milliseconds borrowed "
+                        + "after a millisecond's sequence values ran out")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+
+    static int resolveNodeId(Integer configured) {
+        if (configured != null) {
+            return configured;
+        }
+        String hostName = hostName();
+        // StatefulSet pods are named <name>-<ordinal>, which gives each replica a stable, distinct id
+        Matcher matcher = HOST_ORDINAL.matcher(hostName);
+        if (matcher.find() && matcher.group(1).length() <= 3) {
+            return Integer.parseInt(matcher.group(1));
+        }
+        int derived = Math.floorMod(hostName.hashCode(), MAX_NODE_ID + 1);
+        log.warn("No transaction.reference.node-id configured and host name '{}' has no ordinal; using hashed node id {}",
+                hostName, derived);
+        return derived;
+    }
+
+    private static String hostName() {
+        String fromEnv = System.getenv("HOSTNAME");
+        if (fromEnv != null && !fromEnv.isBlank()) {
+            return fromEnv;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+
+    private static final class SecondDigits {
+        private final long epochSecond;
+        private final char[] digits;
+
+        private SecondDigits(long epochSecond, char[] digits) {
+            this.epochSecond = epochSecond;
+            this.digits = digits;
+        }
+    }
+}
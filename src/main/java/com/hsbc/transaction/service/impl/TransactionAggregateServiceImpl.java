@@ -0,0 +1,117 @@
+package com.hsbc.transaction.service.impl;
+
+import com.hsbc.transaction.dto.TransactionAggregateResponse;
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.exception.ValidationException;
+import com.hsbc.transaction.model.AggregateGranularity;
+import com.hsbc.transaction.model.DailyRollup;
+import com.hsbc.transaction.model.TransactionType;
+import com.hsbc.transaction.repository.DailyRollupRepository;
+import com.hsbc.transaction.service.TransactionAggregateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+@Transactional
+public class TransactionAggregateServiceImpl implements TransactionAggregateService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionAggregateServiceImpl.class);
+
+    // The order rollup rows are locked in, the same for every writer
+    private static final Comparator<DailyRollup.Key> LOCK_ORDER = Comparator
+            .comparing(DailyRollup.Key::getAccountNumber)
+            .thenComparing(DailyRollup.Key::getBucketDate)
+            .thenComparing(DailyRollup.Key::getType);
+
+    private final DailyRollupRepository dailyRollupRepository;
+
+    @Autowired
+    public TransactionAggregateServiceImpl(DailyRollupRepository dailyRollupRepository) {
+        this.dailyRollupRepository = dailyRollupRepository;
+    }
+
+    /**
+     * Moves the day's bucket for each account and type of the event. A write
+     * that rolls back takes its bucket changes with it.
+     */
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        OrderedDeltas.apply(event, transaction -> new DailyRollup.Key(transaction.getAccountNumber(),
+                        transaction.getTransactionDate().toLocalDate(), transaction.getType()),
+                LOCK_ORDER, (key, amount, count) -> dailyRollupRepository.applyDelta(key.getAccountNumber(),
+                        key.getBucketDate(), key.getType().name(), amount, count));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionAggregateResponse getAggregates(String accountNumber, TransactionType type,
+                                                      AggregateGranularity granularity, LocalDate from, LocalDate to) {
+        if (!StringUtils.hasText(accountNumber)) {
+            throw new ValidationException("Account number is required");
+        }
+        if (granularity == null) {
+            throw new ValidationException("Granularity is required");
+        }
+        if (from == null || to == null) {
+            throw new ValidationException("Both from and to dates are required");
+        }
+        if (from.isAfter(to)) {
+            throw new ValidationException("From date must not be after to date");
+        }
+
+        List<DailyRollup> days = type != null
+                ? dailyRollupRepository.findDaysByType(accountNumber, type, from, to)
+                : dailyRollupRepository.findDays(accountNumber, from, to);
+
+        // Buckets in date order, and types within a bucket in declaration order
+        Map<LocalDate, Map<TransactionType, DailyRollup>> buckets = new TreeMap<>();
+        for (DailyRollup day : days) {
+            DailyRollup total = buckets
+                    .computeIfAbsent(granularity.bucketStart(day.getBucketDate()), start -> new EnumMap<>(TransactionType.class))
+                    .computeIfAbsent(day.getType(), t -> new DailyRollup(accountNumber, day.getBucketDate(), t, BigDecimal.ZERO, 0));
+            total.setTotalAmount(total.getTotalAmount().add(day.getTotalAmount()));
+            total.setTransactionCount(total.getTransactionCount() + day.getTransactionCount());
+        }
+
+        List<TransactionAggregateResponse.Bucket> result = new ArrayList<>();
+        for (Map.Entry<LocalDate, Map<TransactionType, DailyRollup>> bucket : buckets.entrySet()) {
+            LocalDate start = bucket.getKey().isBefore(from) ? from : bucket.getKey();
+            LocalDate last = granularity.nextBucketStart(bucket.getKey()).minusDays(1);
+            LocalDate end = last.isAfter(to) ? to : last;
+            for (DailyRollup total : bucket.getValue().values()) {
+                result.add(new TransactionAggregateResponse.Bucket(start, end, total.getType(),
+                        total.getTotalAmount(), total.getTransactionCount()));
+            }
+        }
+        return new TransactionAggregateResponse(accountNumber, type, granularity, from, to, result);
+    }
+
+    /**
+     * Re-derives every daily bucket from the transactions table. Serializable,
+     * so a transaction written during the rebuild lands either in the
+     * re-aggregated buckets or in a delta applied after them, never both.
+     */
+    @Override
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    public int rebuild() {
+        dailyRollupRepository.deleteAllInBatch();
+        int rows = dailyRollupRepository.rebuildFromTransactions();
+        log.info("Rebuilt {} daily rollup rows from transactions", rows);
+        return rows;
+    }
+}
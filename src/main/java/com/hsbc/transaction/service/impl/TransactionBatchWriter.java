@@ -0,0 +1,38 @@
+package com.hsbc.transaction.service.impl;
+
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Persists a chunk of prepared transactions in its own database transaction.
+ * Ids come from the pooled {@code transaction_seq} sequence, so Hibernate can
+ * group the inserts into JDBC batches when the chunk is flushed on commit.
+ */
+@Component
+public class TransactionBatchWriter {
+
+    private final TransactionRepository transactionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public TransactionBatchWriter(TransactionRepository transactionRepository,
+                                  ApplicationEventPublisher eventPublisher) {
+        this.transactionRepository = transactionRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<Transaction> writeChunk(List<Transaction> chunk) {
+        List<Transaction> saved = transactionRepository.saveAll(chunk);
+        eventPublisher.publishEvent(TransactionChangedEvent.created(saved));
+        return saved;
+    }
+}
@@ -0,0 +1,41 @@
+package com.hsbc.transaction.service.impl;
+
+import com.hsbc.transaction.exception.ValidationException;
+import com.hsbc.transaction.dto.TransactionResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by {@code transactionDate desc, id desc}.
+ * Clients only ever see the encoded form, an opaque URL-safe token.
+ */
+public record TransactionCursor(LocalDateTime transactionDate, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public static TransactionCursor of(TransactionResponse transaction) {
+        return new TransactionCursor(transaction.getTransactionDate(), transaction.getId());
+    }
+
+    public String encode() {
+        String raw = transactionDate.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new ValidationException("Invalid cursor: " + cursor);
+            }
+            return new TransactionCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ValidationException("Invalid cursor: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.hsbc.transaction.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.export.ExportFormat;
+import com.hsbc.transaction.export.TransactionRowWriter;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.service.TransactionExportService;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class TransactionExportServiceImpl implements TransactionExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionExportServiceImpl.class);
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionRepository transactionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TransactionExportServiceImpl(TransactionRepository transactionRepository,
+                                        EntityManager entityManager,
+                                        ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    // The cursor only stays open while the transaction holds the connection
+    @Transactional(readOnly = true)
+    public long exportTransactionsByCriteria(ExportFormat format, String accountNumber, TransactionType type,
+                                             LocalDateTime startDate, LocalDateTime endDate,
+                                             BigDecimal minAmount, BigDecimal maxAmount,
+                                             OutputStream out) throws IOException {
+        long written = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        try (Stream<Transaction> rows = transactionRepository.streamByCriteria(
+                     accountNumber, type, startDate, endDate, minAmount, maxAmount);
+             TransactionRowWriter rowWriter = format.open(writer, objectMapper)) {
+            Iterator<Transaction> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Transaction row = iterator.next();
+                rowWriter.write(new TransactionResponse(row));
+                // Drop the row from the persistence context so it can be collected
+                entityManager.detach(row);
+                written++;
+            }
+        }
+        writer.flush();
+        log.debug("Exported {} transactions as {}", written, format);
+        return written;
+    }
+}
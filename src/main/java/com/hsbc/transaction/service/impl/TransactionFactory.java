@@ -0,0 +1,139 @@
+package com.hsbc.transaction.service.impl;
+
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.exception.ValidationException;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import com.hsbc.transaction.service.ReferenceGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Validates incoming {@link TransactionRequest}s and turns them into new,
+ * not yet persisted {@link Transaction} entities with a generated reference.
+ * Shared by the synchronous, batch and write-behind creation paths so they
+ * all apply the same rules.
+ */
+@Component
+public class TransactionFactory {
+
+    private final ReferenceGenerator referenceGenerator;
+    private final Validator validator;
+    private final Timer constraintsTimer;
+    private final Timer validationTimer;
+    private final Timer referenceTimer;
+
+    @Autowired
+    public TransactionFactory(ReferenceGenerator referenceGenerator, Validator validator, MeterRegistry meterRegistry) {
+        this.referenceGenerator = referenceGenerator;
+        this.validator = validator;
+        this.constraintsTimer = stageTimer("constraints", meterRegistry);
+        this.validationTimer = stageTimer("validate", meterRegistry);
+        this.referenceTimer = stageTimer("reference", meterRegistry);
+    }
+
+    public Transaction create(TransactionRequest request) {
+        long started = System.nanoTime();
+        validateTransactionRequest(request);
+
+        TransactionType type = parseTransactionType(request.getType());
+        long validated = System.nanoTime();
+        validationTimer.record(validated - started, TimeUnit.NANOSECONDS);
+
+        // Auto-generate transaction reference (number); the generator guarantees uniqueness
+        String reference = referenceGenerator.nextReference();
+        referenceTimer.record(System.nanoTime() - validated, TimeUnit.NANOSECONDS);
+
+        // Default transaction date to now if not provided
+        LocalDateTime transactionDate = request.getTransactionDate() != null
+                ? request.getTransactionDate()
+                : LocalDateTime.now();
+
+        Transaction transaction = new Transaction(
+                reference,
+                request.getAccountNumber(),
+                request.getAmount(),
+                type,
+                request.getDescription(),
+                transactionDate
+        );
+        transaction.setNotes(request.getNotes());
+        return transaction;
+    }
+
+    /**
+     * Apply the bean validation constraints declared on the DTO. Needed for
+     * requests that do not pass through {@code @Valid} on the controller.
+     */
+    public void validateConstraints(TransactionRequest request) {
+        if (request == null) {
+            throw new ValidationException("Transaction request cannot be null");
+        }
+        long started = System.nanoTime();
+        Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+        constraintsTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+            throw new ValidationException(message);
+        }
+    }
+
+    public void validateTransactionRequest(TransactionRequest request) {
+        if (request == null) {
+            throw new ValidationException("Transaction request cannot be null");
+        }
+
+        if (!StringUtils.hasText(request.getAccountNumber())) {
+            throw new ValidationException("Account number is required");
+        }
+
+        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new ValidationException("Amount must be greater than zero");
+        }
+
+        if (!StringUtils.hasText(request.getType())) {
+            throw new ValidationException("Transaction type is required");
+        }
+
+        if (!StringUtils.hasText(request.getDescription())) {
+            throw new ValidationException("Description is required");
+        }
+
+        if (request.getTransactionDate() != null && request.getTransactionDate().isAfter(LocalDateTime.now())) {
+            throw new ValidationException("Transaction date cannot be in the future");
+        }
+    }
+
+    public TransactionType parseTransactionType(String typeString) {
+        try {
+            return TransactionType.valueOf(typeString.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid transaction type: " + typeString);
+        }
+    }
+
+    private static Timer stageTimer(String stage, MeterRegistry meterRegistry) {
+        return Timer.builder("transaction.create.stage")
+                .description("Time spent in each step of building a new transaction")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .maximumExpectedValue(Duration.ofMillis(100))
+                .register(meterRegistry);
+    }
+}
@@ -1,93 +1,309 @@
 package com.hsbc.transaction.service.impl;
 
+import com.hsbc.transaction.cache.HotTransactionStore;
+import com.hsbc.transaction.cache.IdempotencyKeyStore;
+import com.hsbc.transaction.cache.RequestFingerprint;
+import com.hsbc.transaction.cache.TransactionCountCache;
+import com.hsbc.transaction.cache.TransactionLookupCache;
+import com.hsbc.transaction.cache.TransactionLookupKey;
+import com.hsbc.transaction.cache.TransactionPageKey;
+import com.hsbc.transaction.config.BatchProperties;
+import com.hsbc.transaction.dto.BatchTransactionResponse;
+import com.hsbc.transaction.dto.CursorPageResponse;
 import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionLookupResponse;
 import com.hsbc.transaction.dto.TransactionRequest;
 import com.hsbc.transaction.dto.TransactionResponse;
 import com.hsbc.transaction.dto.UpdateTransactionRequest;
+import com.hsbc.transaction.event.TransactionChangedEvent;
 import com.hsbc.transaction.exception.TransactionNotFoundException;
+import com.hsbc.transaction.exception.TransactionVersionMismatchException;
 import com.hsbc.transaction.exception.ValidationException;
 import com.hsbc.transaction.model.Transaction;
 import com.hsbc.transaction.model.TransactionType;
 import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.search.TransactionSearchIndex;
+import com.hsbc.transaction.service.AccountSummaryService;
 import com.hsbc.transaction.service.TransactionService;
+import com.hsbc.transaction.storage.TransactionLog;
+import com.hsbc.transaction.storage.TransactionLogStore;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class TransactionServiceImpl implements TransactionService {
 
+    static final int MAX_CURSOR_PAGE_SIZE = 1000;
+    static final int MAX_LOOKUP_SIZE = 5000;
+    // Bound on the IN list of one lookup query
+    static final int LOOKUP_CHUNK_SIZE = 500;
+    static final int RECENT_LIMIT = 10;
+
     private final TransactionRepository transactionRepository;
+    private final TransactionBatchWriter batchWriter;
+    private final TransactionFactory transactionFactory;
+    private final AccountSummaryService accountSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionSearchIndex searchIndex;
+    private final BatchProperties batchProperties;
+    private final TransactionCountCache countCache;
+    private final TransactionLookupCache lookupCache;
+    private final HotTransactionStore hotStore;
+    private final IdempotencyKeyStore idempotencyKeys;
+    // Present under the log-store profile, whose log indexes serve reads by id, reference and account
+    private final TransactionLogStore logStore;
 
     @Autowired
-    public TransactionServiceImpl(TransactionRepository transactionRepository) {
+    public TransactionServiceImpl(TransactionRepository transactionRepository,
+                                  TransactionBatchWriter batchWriter,
+                                  TransactionFactory transactionFactory,
+                                  AccountSummaryService accountSummaryService,
+                                  ApplicationEventPublisher eventPublisher,
+                                  TransactionSearchIndex searchIndex,
+                                  BatchProperties batchProperties,
+                                  TransactionCountCache countCache,
+                                  TransactionLookupCache lookupCache,
+                                  HotTransactionStore hotStore,
+                                  IdempotencyKeyStore idempotencyKeys,
+                                  ObjectProvider<TransactionLogStore> logStore) {
         this.transactionRepository = transactionRepository;
+        this.batchWriter = batchWriter;
+        this.transactionFactory = transactionFactory;
+        this.accountSummaryService = accountSummaryService;
+        this.eventPublisher = eventPublisher;
+        this.searchIndex = searchIndex;
+        this.batchProperties = batchProperties;
+        this.countCache = countCache;
+        this.lookupCache = lookupCache;
+        this.hotStore = hotStore;
+        this.idempotencyKeys = idempotencyKeys;
+        this.logStore = logStore.getIfAvailable();
     }
 
     @Override
-    @CacheEvict(value = {"transactions", "recentTransactions", "accountBalances"}, allEntries = true)
     public TransactionResponse createTransaction(TransactionRequest request) {
-        validateTransactionRequest(request);
+        Transaction transaction = transactionFactory.create(request);
+        Transaction savedTransaction = transactionRepository.save(transaction);
+        eventPublisher.publishEvent(TransactionChangedEvent.created(List.of(savedTransaction)));
+        return new TransactionResponse(savedTransaction);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public TransactionResponse createTransaction(TransactionRequest request, String idempotencyKey) {
+        // Outside a database transaction: a repeated key may wait here for the original to commit
+        String fingerprint = RequestFingerprint.of(request);
+        return idempotencyKeys.execute(idempotencyKey, fingerprint, TransactionResponse.class,
+                () -> transactionRepository.findByIdempotencyKey(idempotencyKey).map(recorded -> {
+                    IdempotencyKeyStore.verify(idempotencyKey, fingerprint, recorded.getIdempotencyFingerprint());
+                    return new TransactionResponse(recorded);
+                }),
+                () -> {
+                    Transaction transaction = transactionFactory.create(request);
+                    transaction.setIdempotencyKey(idempotencyKey);
+                    transaction.setIdempotencyFingerprint(fingerprint);
+                    return new TransactionResponse(batchWriter.writeChunk(List.of(transaction)).get(0));
+                });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchTransactionResponse createTransactions(List<TransactionRequest> requests) {
+        return createBatch(requests, null, null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchTransactionResponse createTransactions(List<TransactionRequest> requests, String idempotencyKey) {
+        // Nothing is recorded for the batch as a whole; a replay after the key left memory rebuilds it per item.
+        // Outcomes with failed chunks are not replayed, so a retry writes the missing items.
+        String fingerprint = RequestFingerprint.of(requests);
+        return idempotencyKeys.execute(idempotencyKey, fingerprint, BatchTransactionResponse.class,
+                () -> recordedBatch(requests, idempotencyKey, fingerprint),
+                () -> createBatch(requests, idempotencyKey, fingerprint),
+                response -> response.getResults().stream()
+                        .noneMatch(result -> result.getStatus() == BatchTransactionResponse.ItemStatus.FAILED));
+    }
 
-        TransactionType type = parseTransactionType(request.getType());
+    private BatchTransactionResponse createBatch(List<TransactionRequest> requests, String idempotencyKey,
+                                                 String fingerprint) {
+        if (requests == null || requests.isEmpty()) {
+            throw new ValidationException("Batch must contain at least one transaction");
+        }
+        if (requests.size() > batchProperties.getMaxSize()) {
+            throw new ValidationException("Batch size cannot exceed " + batchProperties.getMaxSize());
+        }
 
-        // Auto-generate transaction reference (number)
-        String generatedReference = generateTransactionNumber();
-        while (transactionRepository.existsByReference(generatedReference)) {
-            generatedReference = generateTransactionNumber();
+        // Validate the whole batch before anything is written
+        BatchTransactionResponse.ItemResult[] results = new BatchTransactionResponse.ItemResult[requests.size()];
+        List<Integer> acceptedIndexes = new ArrayList<>(requests.size());
+        List<Transaction> accepted = new ArrayList<>(requests.size());
+        Map<String, Transaction> recorded = idempotencyKey != null ? recordedItems(idempotencyKey, fingerprint) : Map.of();
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequest request = requests.get(i);
+            String itemKey = idempotencyKey != null ? IdempotencyKeyStore.itemKey(idempotencyKey, i) : null;
+            Transaction written = itemKey != null ? recorded.get(itemKey) : null;
+            if (written != null) {
+                // Committed by an earlier attempt with the same key
+                results[i] = BatchTransactionResponse.ItemResult.created(i, new TransactionResponse(written));
+                continue;
+            }
+            try {
+                transactionFactory.validateConstraints(request);
+                Transaction transaction = transactionFactory.create(request);
+                transaction.setIdempotencyKey(itemKey);
+                transaction.setIdempotencyFingerprint(fingerprint);
+                accepted.add(transaction);
+                acceptedIndexes.add(i);
+            } catch (ValidationException e) {
+                results[i] = BatchTransactionResponse.ItemResult.rejected(i, e.getMessage());
+            }
         }
 
-        // Default transaction date to now if not provided
-        LocalDateTime transactionDate = request.getTransactionDate() != null
-                ? request.getTransactionDate()
-                : LocalDateTime.now();
-
-        Transaction transaction = new Transaction(
-                generatedReference,
-                request.getAccountNumber(),
-                request.getAmount(),
-                type,
-                request.getDescription(),
-                transactionDate
-        );
-        
-        transaction.setNotes(request.getNotes());
-        
-        Transaction savedTransaction = transactionRepository.save(transaction);
-        return new TransactionResponse(savedTransaction);
+        // Write accepted items in chunks, each chunk in its own transaction
+        int chunkSize = Math.max(1, batchProperties.getChunkSize());
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, accepted.size());
+            List<Transaction> chunk = accepted.subList(from, to);
+            try {
+                List<Transaction> saved = batchWriter.writeChunk(chunk);
+                for (int j = 0; j < saved.size(); j++) {
+                    int index = acceptedIndexes.get(from + j);
+                    results[index] = BatchTransactionResponse.ItemResult.created(index, new TransactionResponse(saved.get(j)));
+                }
+            } catch (RuntimeException e) {
+                for (int j = from; j < to; j++) {
+                    int index = acceptedIndexes.get(j);
+                    results[index] = BatchTransactionResponse.ItemResult.failed(index, "Failed to persist transaction: " + e.getMessage());
+                }
+            }
+        }
+
+        return new BatchTransactionResponse(Arrays.asList(results));
     }
 
     @Override
-    @Cacheable(value = "transactions", key = "#id")
+    @Transactional(readOnly = true)
+    @Cacheable(value = "transactions", key = "T(com.hsbc.transaction.cache.TransactionLookupKey).byId(#id)")
     public TransactionResponse getTransactionById(Long id) {
-        Transaction transaction = transactionRepository.findById(id)
+        if (logOpen()) {
+            Optional<Transaction> logged = logStore.find(id);
+            if (logged.isPresent()) {
+                return new TransactionResponse(logged.get());
+            }
+            // Not logged yet only while its commit is still appending; the database has it by then
+        }
+        return transactionRepository.findResponseById(id)
                 .orElseThrow(() -> new TransactionNotFoundException(id));
-        return new TransactionResponse(transaction);
     }
 
     @Override
-    @Cacheable(value = "transactions", key = "#reference")
+    @Transactional(readOnly = true)
+    @Cacheable(value = "transactions", key = "T(com.hsbc.transaction.cache.TransactionLookupKey).byReference(#reference)")
     public TransactionResponse getTransactionByReference(String reference) {
-        Transaction transaction = transactionRepository.findByReference(reference)
+        if (logOpen()) {
+            Optional<Transaction> logged = logStore.findByReference(reference);
+            if (logged.isPresent()) {
+                return new TransactionResponse(logged.get());
+            }
+        }
+        return transactionRepository.findResponseByReference(reference)
                 .orElseThrow(() -> new TransactionNotFoundException(reference));
-        return new TransactionResponse(transaction);
     }
 
     @Override
-    @CacheEvict(value = {"transactions", "recentTransactions", "accountBalances"}, allEntries = true)
+    @Transactional(readOnly = true)
+    public TransactionLookupResponse lookupTransactions(List<Long> ids, List<String> references) {
+        Set<Long> requestedIds = distinct(ids, "ids");
+        Set<String> requestedReferences = distinct(references, "references");
+        if (requestedIds.isEmpty() && requestedReferences.isEmpty()) {
+            throw new ValidationException("Lookup must contain at least one id or reference");
+        }
+        if (requestedIds.size() + requestedReferences.size() > MAX_LOOKUP_SIZE) {
+            throw new ValidationException("Lookup cannot exceed " + MAX_LOOKUP_SIZE + " ids and references");
+        }
+
+        List<TransactionLookupKey> keys = new ArrayList<>(requestedIds.size() + requestedReferences.size());
+        requestedIds.forEach(id -> keys.add(TransactionLookupKey.byId(id)));
+        requestedReferences.forEach(reference -> keys.add(TransactionLookupKey.byReference(reference)));
+        Map<TransactionLookupKey, TransactionResponse> found = new HashMap<>(lookupCache.getAllPresent(keys));
+
+        List<Long> missingIds = requestedIds.stream()
+                .filter(id -> !found.containsKey(TransactionLookupKey.byId(id)))
+                .collect(Collectors.toList());
+        for (int from = 0; from < missingIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = missingIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, missingIds.size()));
+            transactionRepository.findResponsesByIdIn(chunk).forEach(response -> cacheFetched(response, found));
+        }
+        // Rows fetched by id above may already answer some references
+        List<String> missingReferences = requestedReferences.stream()
+                .filter(reference -> !found.containsKey(TransactionLookupKey.byReference(reference)))
+                .collect(Collectors.toList());
+        for (int from = 0; from < missingReferences.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<String> chunk = missingReferences.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, missingReferences.size()));
+            transactionRepository.findResponsesByReferenceIn(chunk).forEach(response -> cacheFetched(response, found));
+        }
+
+        Map<Long, TransactionResponse> byId = new LinkedHashMap<>();
+        List<Long> notFoundIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            TransactionResponse response = found.get(TransactionLookupKey.byId(id));
+            if (response != null) {
+                byId.put(id, response);
+            } else {
+                notFoundIds.add(id);
+            }
+        }
+        Map<String, TransactionResponse> byReference = new LinkedHashMap<>();
+        List<String> notFoundReferences = new ArrayList<>();
+        for (String reference : requestedReferences) {
+            TransactionResponse response = found.get(TransactionLookupKey.byReference(reference));
+            if (response != null) {
+                byReference.put(reference, response);
+            } else {
+                notFoundReferences.add(reference);
+            }
+        }
+        return new TransactionLookupResponse(byId, byReference, notFoundIds, notFoundReferences);
+    }
+
+    @Override
     public TransactionResponse updateTransaction(Long id, UpdateTransactionRequest request) {
+        return updateTransaction(id, request, null);
+    }
+
+    @Override
+    public TransactionResponse updateTransaction(Long id, UpdateTransactionRequest request, Long expectedVersion) {
         if (request == null) {
             throw new ValidationException("Transaction request cannot be null");
         }
@@ -97,109 +313,185 @@ public class TransactionServiceImpl implements TransactionService {
         
         Transaction existingTransaction = transactionRepository.findById(id)
                 .orElseThrow(() -> new TransactionNotFoundException(id));
+        if (expectedVersion != null && !expectedVersion.equals(existingTransaction.getVersion())) {
+            throw new TransactionVersionMismatchException(id, expectedVersion);
+        }
         
         // Immutable fields: reference, accountNumber, amount, type, transactionDate
         existingTransaction.setDescription(request.getDescription());
         existingTransaction.setNotes(request.getNotes());
         
         Transaction updatedTransaction = transactionRepository.save(existingTransaction);
+        try {
+            // Flushed here so the response carries the new version and updatedAt
+            transactionRepository.flush();
+        } catch (OptimisticLockingFailureException e) {
+            // Changed by another update since it was read above
+            if (expectedVersion != null) {
+                throw new TransactionVersionMismatchException(id, expectedVersion);
+            }
+            throw e;
+        }
+        eventPublisher.publishEvent(TransactionChangedEvent.updated(updatedTransaction));
         return new TransactionResponse(updatedTransaction);
     }
 
     @Override
-    @CacheEvict(value = {"transactions", "recentTransactions", "accountBalances"}, allEntries = true)
     public void deleteTransaction(Long id) {
-        if (!transactionRepository.existsById(id)) {
-            throw new TransactionNotFoundException(id);
+        // Load the row so listeners know which account totals to reverse
+        Transaction transaction = transactionRepository.findById(id)
+                .orElseThrow(() -> new TransactionNotFoundException(id));
+        transactionRepository.delete(transaction);
+        eventPublisher.publishEvent(TransactionChangedEvent.deleted(transaction));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "transactions", key = "T(com.hsbc.transaction.cache.TransactionPageKey).all(#pageable).withTotal(#withTotal)")
+    public PageResponse<TransactionResponse> getAllTransactions(Pageable pageable, boolean withTotal) {
+        return findPage(TransactionPageKey.all(pageable).withTotal(withTotal), pageable);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "transactions", key = "T(com.hsbc.transaction.cache.TransactionPageKey).account(#accountNumber, #pageable).withTotal(#withTotal)",
+               condition = "!@hotTransactionStore.covers(#pageable)")
+    public PageResponse<TransactionResponse> getTransactionsByAccount(String accountNumber, Pageable pageable, boolean withTotal) {
+        if (hotStore.covers(pageable)) {
+            // First page, newest first: served from the account's in-memory buffer
+            HotTransactionStore.AccountWindow window = hotStore.accountWindow(accountNumber, pageable.getPageSize());
+            if (withTotal) {
+                return createProjectedPageResponse(new PageImpl<>(window.rows(), pageable, window.total()));
+            }
+            return new PageResponse<>(window.rows(), 0, pageable.getPageSize(), true, window.total() > window.rows().size());
+        }
+        if (logOpen() && isNewestFirst(pageable.getSort())) {
+            Optional<TransactionLog.AccountPage> logged =
+                    logStore.findByAccountNumber(accountNumber, pageable.getOffset(), pageable.getPageSize());
+            if (logged.isPresent()) {
+                return logPage(logged.get(), pageable, withTotal);
+            }
+            // A write to the account is still appending; the database has its committed rows
         }
-        transactionRepository.deleteById(id);
+        return findPage(TransactionPageKey.account(accountNumber, pageable).withTotal(withTotal), pageable);
     }
 
     @Override
-    @Cacheable(value = "transactions", key = "'all_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    public PageResponse<TransactionResponse> getAllTransactions(Pageable pageable) {
-        Page<Transaction> transactionPage = transactionRepository.findAll(pageable);
-        return createPageResponse(transactionPage);
+    @Transactional(readOnly = true)
+    public CursorPageResponse<TransactionResponse> getTransactionsAfter(String after, int size) {
+        validateCursorPageSize(size);
+        // One extra row tells whether another slice follows, without a COUNT query
+        Limit limit = Limit.of(size + 1);
+        List<TransactionResponse> rows;
+        if (after == null) {
+            rows = transactionRepository.findAllByOrderByTransactionDateDescIdDesc(limit);
+        } else {
+            TransactionCursor cursor = TransactionCursor.decode(after);
+            rows = transactionRepository.findAllAfter(cursor.transactionDate(), cursor.id(), limit);
+        }
+        return createCursorPageResponse(rows, size);
     }
 
     @Override
-    @Cacheable(value = "transactions", key = "'account_' + #accountNumber + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    public PageResponse<TransactionResponse> getTransactionsByAccount(String accountNumber, Pageable pageable) {
-        Page<Transaction> transactionPage = transactionRepository.findByAccountNumber(accountNumber, pageable);
-        return createPageResponse(transactionPage);
+    @Transactional(readOnly = true)
+    public CursorPageResponse<TransactionResponse> getTransactionsByAccountAfter(String accountNumber, String after, int size) {
+        validateCursorPageSize(size);
+        Limit limit = Limit.of(size + 1);
+        List<TransactionResponse> rows;
+        if (after == null) {
+            rows = transactionRepository.findByAccountNumberOrderByTransactionDateDescIdDesc(accountNumber, limit);
+        } else {
+            TransactionCursor cursor = TransactionCursor.decode(after);
+            rows = transactionRepository.findByAccountNumberAfter(accountNumber, cursor.transactionDate(), cursor.id(), limit);
+        }
+        return createCursorPageResponse(rows, size);
     }
 
     @Override
-    @Cacheable(value = "transactions", key = "'type_' + #type + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    public PageResponse<TransactionResponse> getTransactionsByType(TransactionType type, Pageable pageable) {
-        Page<Transaction> transactionPage = transactionRepository.findByType(type, pageable);
-        return createPageResponse(transactionPage);
+    @Transactional(readOnly = true)
+    @Cacheable(value = "transactions", key = "T(com.hsbc.transaction.cache.TransactionPageKey).type(#type, #pageable).withTotal(#withTotal)")
+    public PageResponse<TransactionResponse> getTransactionsByType(TransactionType type, Pageable pageable, boolean withTotal) {
+        return findPage(TransactionPageKey.type(type, pageable).withTotal(withTotal), pageable);
     }
 
     @Override
-    @Cacheable(value = "transactions", key = "'dateRange_' + #startDate + '_' + #endDate + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    public PageResponse<TransactionResponse> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate, Pageable pageable) {
-        Page<Transaction> transactionPage = transactionRepository.findByTransactionDateBetween(startDate, endDate, pageable);
-        return createPageResponse(transactionPage);
+    @Transactional(readOnly = true)
+    @Cacheable(value = "transactions", key = "T(com.hsbc.transaction.cache.TransactionPageKey).dateRange(#startDate, #endDate, #pageable).withTotal(#withTotal)")
+    public PageResponse<TransactionResponse> getTransactionsByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+                                                                        Pageable pageable, boolean withTotal) {
+        return findPage(TransactionPageKey.dateRange(startDate, endDate, pageable).withTotal(withTotal), pageable);
     }
 
     @Override
-    @Cacheable(value = "transactions", key = "'amountRange_' + #minAmount + '_' + #maxAmount + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
-    public PageResponse<TransactionResponse> getTransactionsByAmountRange(BigDecimal minAmount, BigDecimal maxAmount, Pageable pageable) {
-        Page<Transaction> transactionPage = transactionRepository.findByAmountBetween(minAmount, maxAmount, pageable);
-        return createPageResponse(transactionPage);
+    @Transactional(readOnly = true)
+    @Cacheable(value = "transactions", key = "T(com.hsbc.transaction.cache.TransactionPageKey).amountRange(#minAmount, #maxAmount, #pageable).withTotal(#withTotal)")
+    public PageResponse<TransactionResponse> getTransactionsByAmountRange(BigDecimal minAmount, BigDecimal maxAmount,
+                                                                          Pageable pageable, boolean withTotal) {
+        return findPage(TransactionPageKey.amountRange(minAmount, maxAmount, pageable).withTotal(withTotal), pageable);
     }
 
     @Override
-    @Cacheable(value = "transactions", key = "'search_' + #keyword + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    @Transactional(readOnly = true)
+    @Cacheable(value = "transactions", key = "T(com.hsbc.transaction.cache.TransactionPageKey).search(#keyword, #pageable)")
     public PageResponse<TransactionResponse> searchTransactions(String keyword, Pageable pageable) {
-        Page<Transaction> transactionPage = transactionRepository.searchByKeyword(keyword, pageable);
-        return createPageResponse(transactionPage);
+        if (!searchIndex.isReady()) {
+            // Index still building after startup; the LIKE scan gives correct, unranked results
+            return createProjectedPageResponse(transactionRepository.searchByKeyword(keyword, pageable));
+        }
+        // Results come back ranked by relevance, so the requested sort does not apply
+        TransactionSearchIndex.Hits hits = searchIndex.search(keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        Map<Long, TransactionResponse> rows = transactionRepository.findResponsesByIdIn(hits.ids()).stream()
+                .collect(Collectors.toMap(TransactionResponse::getId, Function.identity()));
+        List<TransactionResponse> ranked = hits.ids().stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return createProjectedPageResponse(new PageImpl<>(ranked, pageable, hits.total()));
     }
 
     @Override
-    @Cacheable(value = "transactions", key = "'criteria_' + #accountNumber + '_' + #type + '_' + #startDate + '_' + #endDate + '_' + #minAmount + '_' + #maxAmount + '_' + #pageable.pageNumber + '_' + #pageable.pageSize")
+    @Transactional(readOnly = true)
+    @Cacheable(value = "transactions", key = "T(com.hsbc.transaction.cache.TransactionPageKey).criteria(#accountNumber, #type, #startDate, #endDate, #minAmount, #maxAmount, #pageable).withTotal(#withTotal)")
     public PageResponse<TransactionResponse> getTransactionsByCriteria(String accountNumber, TransactionType type,
                                                                    LocalDateTime startDate, LocalDateTime endDate,
                                                                    BigDecimal minAmount, BigDecimal maxAmount,
-                                                                   Pageable pageable) {
-        Page<Transaction> transactionPage = transactionRepository.findByCriteria(
-                accountNumber, type, startDate, endDate, minAmount, maxAmount, pageable);
-        return createPageResponse(transactionPage);
+                                                                   Pageable pageable, boolean withTotal) {
+        return findPage(TransactionPageKey.criteria(accountNumber, type, startDate, endDate, minAmount, maxAmount, pageable)
+                .withTotal(withTotal), pageable);
     }
 
     @Override
-    @Cacheable(value = "recentTransactions")
+    @Transactional(readOnly = true)
+    @Cacheable(value = "recentTransactions", key = "T(com.hsbc.transaction.cache.TransactionCacheInvalidator).RECENT_KEY",
+            condition = "!@hotTransactionStore.enabled")
     public List<TransactionResponse> getRecentTransactions() {
-        List<Transaction> recentTransactions = transactionRepository.findTop10ByOrderByTransactionDateDesc();
-        return recentTransactions.stream()
-                .map(TransactionResponse::new)
-                .collect(Collectors.toList());
+        // The store falls back to the query itself when disabled
+        return hotStore.recent(RECENT_LIMIT);
     }
 
     @Override
-    @Cacheable(value = "accountBalances", key = "#accountNumber + '_count'")
+    @Transactional(readOnly = true)
+    @Cacheable(value = "accountBalances", key = "T(com.hsbc.transaction.cache.AccountBalanceKey).count(#accountNumber)")
     public long getTransactionCountByAccount(String accountNumber) {
-        return transactionRepository.countByAccountNumber(accountNumber);
+        return accountSummaryService.getTransactionCount(accountNumber);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(value = "accountBalances", key = "T(com.hsbc.transaction.cache.AccountBalanceKey).balance(#accountNumber)")
     public BigDecimal getAccountBalance(String accountNumber) {
-        BigDecimal deposits = transactionRepository.sumByAccountNumberAndType(accountNumber, TransactionType.DEPOSIT);
-        BigDecimal withdrawals = transactionRepository.sumByAccountNumberAndType(accountNumber, TransactionType.WITHDRAWAL);
-        
-        deposits = deposits != null ? deposits : BigDecimal.ZERO;
-        withdrawals = withdrawals != null ? withdrawals : BigDecimal.ZERO;
-        
-        return deposits.subtract(withdrawals);
+        return accountSummaryService.getBalance(accountNumber);
     }
 
     @Override
-    @Cacheable(value = "accountBalances", key = "#accountNumber + '_' + #type + '_balance'")
+    @Transactional(readOnly = true)
+    @Cacheable(value = "accountBalances", key = "T(com.hsbc.transaction.cache.AccountBalanceKey).balance(#accountNumber, #type)")
     public BigDecimal getAccountBalanceByType(String accountNumber, TransactionType type) {
-        BigDecimal balance = transactionRepository.sumByAccountNumberAndType(accountNumber, type);
-        return balance != null ? balance : BigDecimal.ZERO;
+        return accountSummaryService.getBalanceByType(accountNumber, type);
     }
 
     @Override
+    @Transactional(readOnly = true)
     @Cacheable(value = "metadata", key = "'transactionTypes'")
     public List<String> getTransactionTypes() {
         return Arrays.stream(TransactionType.values())
@@ -207,49 +499,126 @@ public class TransactionServiceImpl implements TransactionService {
                 .collect(Collectors.toList());
     }
 
-    private void validateTransactionRequest(TransactionRequest request) {
-        if (request == null) {
-            throw new ValidationException("Transaction request cannot be null");
+    /**
+     * Every paged listing is a criteria query with some filters unset. The
+     * page is read as a slice; a total, when wanted, is taken from the last
+     * page itself or else from the count cache, which only counts on a miss.
+     */
+    private PageResponse<TransactionResponse> findPage(TransactionPageKey query, Pageable pageable) {
+        Slice<TransactionResponse> slice = transactionRepository.findSliceByCriteria(query.accountNumber(), query.type(),
+                query.startDate(), query.endDate(), query.minAmount(), query.maxAmount(), pageable);
+        if (!query.withTotal()) {
+            return createSliceResponse(slice);
         }
-        
-        if (!StringUtils.hasText(request.getAccountNumber())) {
-            throw new ValidationException("Account number is required");
+        long total;
+        if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+            total = pageable.getOffset() + slice.getNumberOfElements();
+        } else {
+            total = countCache.total(query, () -> transactionRepository.countByCriteria(query.accountNumber(),
+                    query.type(), query.startDate(), query.endDate(), query.minAmount(), query.maxAmount()));
         }
-        
-        if (request.getAmount() == null || request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new ValidationException("Amount must be greater than zero");
+        return createProjectedPageResponse(new PageImpl<>(slice.getContent(), pageable, total));
+    }
+
+    private boolean logOpen() {
+        return logStore != null && logStore.isRunning();
+    }
+
+    private static boolean isNewestFirst(Sort sort) {
+        return sort.isUnsorted() || sort.equals(Sort.by(Sort.Direction.DESC, "transactionDate"))
+                || sort.equals(Sort.by(Sort.Direction.DESC, "transactionDate", "id"));
+    }
+
+    // A window of an account's logged rows, already newest first
+    private static PageResponse<TransactionResponse> logPage(TransactionLog.AccountPage page, Pageable pageable,
+                                                             boolean withTotal) {
+        List<TransactionResponse> content = page.rows().stream().map(TransactionResponse::new).toList();
+        if (!withTotal) {
+            return createSliceResponse(new SliceImpl<>(content, pageable,
+                    pageable.getOffset() + content.size() < page.total()));
         }
-        
-        if (!StringUtils.hasText(request.getType())) {
-            throw new ValidationException("Transaction type is required");
+        return createProjectedPageResponse(new PageImpl<>(content, pageable, page.total()));
+    }
+
+    // The whole outcome once every item is written; otherwise createBatch writes the rest
+    private Optional<BatchTransactionResponse> recordedBatch(List<TransactionRequest> requests, String idempotencyKey,
+                                                             String fingerprint) {
+        if (requests == null || requests.isEmpty()) {
+            return Optional.empty();
         }
-        
-        if (!StringUtils.hasText(request.getDescription())) {
-            throw new ValidationException("Description is required");
+        Map<String, Transaction> recorded = recordedItems(idempotencyKey, fingerprint);
+        List<BatchTransactionResponse.ItemResult> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            Transaction written = recorded.get(IdempotencyKeyStore.itemKey(idempotencyKey, i));
+            if (written == null) {
+                return Optional.empty();
+            }
+            results.add(BatchTransactionResponse.ItemResult.created(i, new TransactionResponse(written)));
         }
-        
-        if (request.getTransactionDate() != null && request.getTransactionDate().isAfter(LocalDateTime.now())) {
-            throw new ValidationException("Transaction date cannot be in the future");
+        return Optional.of(new BatchTransactionResponse(results));
+    }
+
+    private Map<String, Transaction> recordedItems(String idempotencyKey, String fingerprint) {
+        Map<String, Transaction> recorded = transactionRepository
+                .findByIdempotencyKeyStartingWith(IdempotencyKeyStore.itemKeyPrefix(idempotencyKey)).stream()
+                .collect(Collectors.toMap(Transaction::getIdempotencyKey, Function.identity()));
+        for (Transaction written : recorded.values()) {
+            IdempotencyKeyStore.verify(idempotencyKey, fingerprint, written.getIdempotencyFingerprint());
         }
+        return recorded;
     }
 
-    private TransactionType parseTransactionType(String typeString) {
-        try {
-            return TransactionType.valueOf(typeString.toUpperCase());
-        } catch (IllegalArgumentException e) {
-            throw new ValidationException("Invalid transaction type: " + typeString);
+    private void cacheFetched(TransactionResponse response, Map<TransactionLookupKey, TransactionResponse> found) {
+        lookupCache.put(response);
+        found.put(TransactionLookupKey.byId(response.getId()), response);
+        found.put(TransactionLookupKey.byReference(response.getReference()), response);
+    }
+
+    private static <T> Set<T> distinct(List<T> values, String name) {
+        if (values == null) {
+            return Set.of();
+        }
+        Set<T> distinct = new LinkedHashSet<>(values.size());
+        for (T value : values) {
+            if (value == null || value instanceof String text && text.isBlank()) {
+                throw new ValidationException("Lookup " + name + " must not contain empty values");
+            }
+            distinct.add(value);
+        }
+        return distinct;
+    }
+
+    private void validateCursorPageSize(int size) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
         }
     }
 
-    private String generateTransactionNumber() {
-        // Format: TXNyyyyMMddHHmmssSSS + 4-digit random
-        LocalDateTime now = LocalDateTime.now();
-        String timestamp = String.format("%1$tY%1$tm%1$td%1$tH%1$tM%1$tS%1$tL", now);
-        int random = (int)(Math.random() * 10000);
-        return "TXN" + timestamp + String.format("%04d", random);
+    private CursorPageResponse<TransactionResponse> createCursorPageResponse(List<TransactionResponse> rows, int size) {
+        boolean hasNext = rows.size() > size;
+        List<TransactionResponse> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? TransactionCursor.of(content.get(content.size() - 1)).encode() : null;
+        return new CursorPageResponse<>(new ArrayList<>(content), content.size(), nextCursor);
+    }
+
+    static PageResponse<TransactionResponse> createSliceResponse(Slice<TransactionResponse> slice) {
+        return new PageResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.isFirst(), slice.hasNext());
+    }
+
+    // Pages already projected by the query need no mapping
+    static PageResponse<TransactionResponse> createProjectedPageResponse(Page<TransactionResponse> page) {
+        return new PageResponse<>(
+                page.getContent(),
+                page.getNumber(),
+                page.getSize(),
+                page.getTotalElements(),
+                page.getTotalPages(),
+                page.isFirst(),
+                page.isLast()
+        );
     }
 
-    private PageResponse<TransactionResponse> createPageResponse(Page<Transaction> transactionPage) {
+    static PageResponse<TransactionResponse> createPageResponse(Page<Transaction> transactionPage) {
         List<TransactionResponse> content = transactionPage.getContent().stream()
                 .map(TransactionResponse::new)
                 .collect(Collectors.toList());
@@ -0,0 +1,289 @@
+package com.hsbc.transaction.service.impl;
+
+import com.hsbc.transaction.cache.IdempotencyKeyStore;
+import com.hsbc.transaction.cache.RequestFingerprint;
+import com.hsbc.transaction.config.IngestionProperties;
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.exception.IngestionQueueFullException;
+import com.hsbc.transaction.exception.TransactionException;
+import com.hsbc.transaction.exception.TransactionNotFoundException;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionStatus;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.service.TransactionIngestionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind ingestion enabled with {@code transaction.ingestion.mode=async}.
+ *
+ * <p>Accepted transactions go into a bounded queue. A small pool of writer
+ * threads drains it and commits up to {@code max-group-size} rows per database
+ * transaction through {@link TransactionBatchWriter}. If a group fails, its rows
+ * are retried one by one so a single bad row cannot sink the whole group. On
+ * shutdown the service stops accepting work and flushes what is queued; rows
+ * still queued when the shutdown timeout expires are reported as failed.
+ */
+@Service
+@ConditionalOnProperty(prefix = "transaction.ingestion", name = "mode", havingValue = "async")
+public class WriteBehindIngestionService implements TransactionIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindIngestionService.class);
+
+    private final TransactionFactory transactionFactory;
+    private final TransactionBatchWriter batchWriter;
+    private final TransactionRepository transactionRepository;
+    private final IdempotencyKeyStore idempotencyKeys;
+    private final IngestionProperties properties;
+
+    private final BlockingQueue<Transaction> queue;
+    private final Map<String, Transaction> pending = new ConcurrentHashMap<>();
+    private final Map<String, Transaction> failed = new ConcurrentHashMap<>();
+    private final Queue<String> failedOrder = new ConcurrentLinkedQueue<>();
+    private final ExecutorService writers;
+    // Submitters share the read side so the stopping check and the offer are one
+    // step that stop() cannot fall between
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean stopping;
+
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter failedCounter;
+    private final Timer commitTimer;
+    private final DistributionSummary groupSizeSummary;
+
+    @Autowired
+    public WriteBehindIngestionService(TransactionFactory transactionFactory,
+                                       TransactionBatchWriter batchWriter,
+                                       TransactionRepository transactionRepository,
+                                       IdempotencyKeyStore idempotencyKeys,
+                                       IngestionProperties properties,
+                                       MeterRegistry meterRegistry) {
+        this.transactionFactory = transactionFactory;
+        this.batchWriter = batchWriter;
+        this.transactionRepository = transactionRepository;
+        this.idempotencyKeys = idempotencyKeys;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(Math.max(1, properties.getWriterThreads()),
+                runnable -> new Thread(runnable, "ingestion-writer-" + threadIndex.incrementAndGet()));
+
+        Gauge.builder("transaction.ingestion.queue.depth", queue, BlockingQueue::size)
+                .description("Transactions accepted but not yet committed")
+                .register(meterRegistry);
+        this.acceptedCounter = Counter.builder("transaction.ingestion.accepted")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("transaction.ingestion.rejected")
+                .tag("reason", "queue_full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("transaction.ingestion.failed")
+                .register(meterRegistry);
+        this.commitTimer = Timer.builder("transaction.ingestion.commit.latency")
+                .description("Time to commit one group of queued transactions")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.groupSizeSummary = DistributionSummary.builder("transaction.ingestion.group.size")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < Math.max(1, properties.getWriterThreads()); i++) {
+            writers.execute(this::drainLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        acceptLock.writeLock().lock();
+        try {
+            stopping = true;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        writers.shutdown();
+        try {
+            if (!writers.awaitTermination(properties.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Ingestion queue not flushed within {}; {} transactions left unwritten",
+                        properties.getShutdownTimeout(), queue.size());
+                writers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writers.shutdownNow();
+        }
+        failUnwritten();
+    }
+
+    @Override
+    public TransactionResponse submit(TransactionRequest request) {
+        return enqueue(request, null, null);
+    }
+
+    @Override
+    public TransactionResponse submit(TransactionRequest request, String idempotencyKey) {
+        String fingerprint = RequestFingerprint.of(request);
+        return idempotencyKeys.execute(idempotencyKey, fingerprint, TransactionResponse.class,
+                () -> transactionRepository.findByIdempotencyKey(idempotencyKey).map(recorded -> {
+                    IdempotencyKeyStore.verify(idempotencyKey, fingerprint, recorded.getIdempotencyFingerprint());
+                    return new TransactionResponse(recorded);
+                }),
+                () -> enqueue(request, idempotencyKey, fingerprint));
+    }
+
+    private TransactionResponse enqueue(TransactionRequest request, String idempotencyKey, String fingerprint) {
+        Transaction transaction = transactionFactory.create(request);
+        transaction.setIdempotencyKey(idempotencyKey);
+        transaction.setIdempotencyFingerprint(fingerprint);
+        TransactionResponse accepted = snapshot(transaction, TransactionStatus.PENDING);
+
+        acceptLock.readLock().lock();
+        try {
+            if (stopping) {
+                throw new TransactionException("Ingestion is shutting down", "INGESTION_UNAVAILABLE");
+            }
+            // Register before enqueueing so a writer can never finish before the entry exists
+            pending.put(transaction.getReference(), transaction);
+            if (!queue.offer(transaction)) {
+                pending.remove(transaction.getReference());
+                rejectedCounter.increment();
+                throw new IngestionQueueFullException(properties.getQueueCapacity());
+            }
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        acceptedCounter.increment();
+        return accepted;
+    }
+
+    @Override
+    public TransactionResponse getStatus(String reference) {
+        Transaction queued = pending.get(reference);
+        if (queued != null) {
+            return snapshot(queued, TransactionStatus.PENDING);
+        }
+        Transaction failedTransaction = failed.get(reference);
+        if (failedTransaction != null) {
+            return snapshot(failedTransaction, TransactionStatus.FAILED);
+        }
+        return transactionRepository.findByReference(reference)
+                .map(TransactionResponse::new)
+                .orElseThrow(() -> new TransactionNotFoundException(reference));
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    private void drainLoop() {
+        List<Transaction> group = new ArrayList<>(properties.getMaxGroupSize());
+        long pollMillis = properties.getPollInterval().toMillis();
+        while (!stopping || !queue.isEmpty()) {
+            try {
+                Transaction first = queue.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, properties.getMaxGroupSize() - 1);
+                commitGroup(group);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in ingestion writer", e);
+            } finally {
+                group.clear();
+            }
+        }
+    }
+
+    private void commitGroup(List<Transaction> group) {
+        groupSizeSummary.record(group.size());
+        try {
+            commitTimer.record(() -> batchWriter.writeChunk(group));
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} transactions failed, retrying individually: {}", group.size(), e.getMessage());
+            for (Transaction transaction : group) {
+                commitSingle(transaction);
+            }
+        }
+        for (Transaction transaction : group) {
+            pending.remove(transaction.getReference());
+        }
+    }
+
+    private void commitSingle(Transaction transaction) {
+        // Ids and versions assigned during the failed attempt were rolled back with it
+        transaction.setId(null);
+        transaction.setVersion(null);
+        try {
+            commitTimer.record(() -> batchWriter.writeChunk(List.of(transaction)));
+        } catch (RuntimeException e) {
+            log.error("Failed to write transaction {}", transaction.getReference(), e);
+            failedCounter.increment();
+            recordFailure(transaction);
+        }
+    }
+
+    /**
+     * Fails whatever the writers left queued, so no accepted transaction stays
+     * PENDING after shutdown.
+     */
+    private void failUnwritten() {
+        List<Transaction> unwritten = new ArrayList<>();
+        queue.drainTo(unwritten);
+        for (Transaction transaction : unwritten) {
+            pending.remove(transaction.getReference());
+            failedCounter.increment();
+            recordFailure(transaction);
+        }
+    }
+
+    private void recordFailure(Transaction transaction) {
+        failed.put(transaction.getReference(), transaction);
+        failedOrder.add(transaction.getReference());
+        // Keep the failure log bounded; the oldest outcomes are dropped first
+        while (failedOrder.size() > properties.getQueueCapacity()) {
+            String oldest = failedOrder.poll();
+            if (oldest != null) {
+                failed.remove(oldest);
+            }
+        }
+    }
+
+    private TransactionResponse snapshot(Transaction transaction, TransactionStatus status) {
+        TransactionResponse response = new TransactionResponse(transaction);
+        response.setStatus(status);
+        return response;
+    }
+}
@@ -0,0 +1,25 @@
+package com.hsbc.transaction.storage;
+
+/**
+ * When records appended to the {@link TransactionLog} are forced from the
+ * page cache to disk. Records live in memory-mapped files, so every policy
+ * survives the process crashing; they differ in what a power loss or
+ * kernel crash can take with it.
+ */
+public enum FsyncPolicy {
+
+    /**
+     * Force each append before it returns, so nothing acknowledged is lost.
+     */
+    ALWAYS,
+
+    /**
+     * Force on a timer, losing at most the last interval of appends.
+     */
+    INTERVAL,
+
+    /**
+     * Leave write-back to the operating system.
+     */
+    NEVER
+}
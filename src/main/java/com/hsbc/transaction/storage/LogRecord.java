@@ -0,0 +1,294 @@
+package com.hsbc.transaction.storage;
+
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionStatus;
+import com.hsbc.transaction.model.TransactionType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.CRC32C;
+
+/**
+ * Layout of one record in a {@link LogSegment}. Every record starts with the
+ * same 72 bytes, numbers at fixed offsets, followed by its strings as UTF-8
+ * in a fixed order and zero padding to a multiple of 8 bytes:
+ *
+ * <pre>
+ *  0  int       body length: bytes after the first 8; 0 marks the end of the segment
+ *  4  int       CRC32C of the body
+ *  8  byte      kind: 1 put (the whole row), 2 delete
+ *  9  byte      type ordinal + 1
+ * 10  byte      status ordinal + 1
+ * 11  byte      amount scale
+ * 12  short[6]  string lengths in bytes, 0xFFFF for null: reference, account
+ *               number, description, notes, idempotency key, request fingerprint
+ * 24  long      id
+ * 32  long      version
+ * 40  long      amount, unscaled
+ * 48  long      transaction date, microseconds since the epoch (UTC)
+ * 56  long      created at
+ * 64  long      updated at
+ * 72            strings
+ * </pre>
+ *
+ * A delete carries the id alone. The fingerprint's length was padding in
+ * records written before it was added, so in those it reads as empty and
+ * decodes as null. Records are only ever appended, so the
+ * latest state of a row is its put with the highest version, unless a
+ * delete for the id exists.
+ */
+final class LogRecord {
+
+    static final byte PUT = 1;
+    static final byte DELETE = 2;
+
+    static final int PREFIX_SIZE = 8;
+    static final int FIXED_SIZE = 72;
+    // Columns are VARCHAR(255), notes VARCHAR(1000) and the fingerprint 64 hex digits, at most 4 bytes a character
+    static final int MAX_SIZE = FIXED_SIZE + 4 * (4 * 255 + 1000) + 64 + 8;
+
+    private static final int LENGTH = 0;
+    private static final int CRC = 4;
+    private static final int KIND = 8;
+    private static final int TYPE = 9;
+    private static final int STATUS = 10;
+    private static final int SCALE = 11;
+    private static final int STRING_LENGTHS = 12;
+    private static final int ID = 24;
+    private static final int VERSION = 32;
+    private static final int AMOUNT = 40;
+    private static final int TRANSACTION_DATE = 48;
+    private static final int CREATED_AT = 56;
+    private static final int UPDATED_AT = 64;
+
+    private static final int STRINGS = 6;
+    private static final int REFERENCE = 0;
+    private static final int ACCOUNT_NUMBER = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int NOTES = 3;
+    private static final int IDEMPOTENCY_KEY = 4;
+    private static final int IDEMPOTENCY_FINGERPRINT = 5;
+    private static final int NULL_STRING = 0xFFFF;
+    private static final long NULL_TIME = Long.MIN_VALUE;
+    private static final long FNV_OFFSET = 0xCBF29CE484222325L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final BigInteger MIN_UNSCALED = BigInteger.valueOf(Long.MIN_VALUE);
+    private static final BigInteger MAX_UNSCALED = BigInteger.valueOf(Long.MAX_VALUE);
+
+    private LogRecord() {}
+
+    /**
+     * The whole row as a put record, ready to be copied into a segment.
+     */
+    static byte[] put(Transaction transaction) {
+        if (transaction.getId() == null || transaction.getAmount() == null
+                || transaction.getType() == null || transaction.getStatus() == null) {
+            throw new IllegalArgumentException("Transaction " + transaction.getId() + " is not a complete row");
+        }
+        BigInteger unscaled = transaction.getAmount().unscaledValue();
+        int scale = transaction.getAmount().scale();
+        if (unscaled.compareTo(MIN_UNSCALED) < 0 || unscaled.compareTo(MAX_UNSCALED) > 0 || scale < 0 || scale > 127) {
+            throw new IllegalArgumentException("Amount " + transaction.getAmount() + " does not fit a log record");
+        }
+
+        byte[][] strings = {
+                utf8(transaction.getReference()),
+                utf8(transaction.getAccountNumber()),
+                utf8(transaction.getDescription()),
+                utf8(transaction.getNotes()),
+                utf8(transaction.getIdempotencyKey()),
+                utf8(transaction.getIdempotencyFingerprint())};
+        int size = FIXED_SIZE;
+        for (byte[] string : strings) {
+            if (string != null) {
+                if (string.length >= NULL_STRING) {
+                    throw new IllegalArgumentException("Field of transaction " + transaction.getId() + " is too long");
+                }
+                size += string.length;
+            }
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(padded(size));
+        record.put(KIND, PUT)
+                .put(TYPE, (byte) (transaction.getType().ordinal() + 1))
+                .put(STATUS, (byte) (transaction.getStatus().ordinal() + 1))
+                .put(SCALE, (byte) scale)
+                .putLong(ID, transaction.getId())
+                .putLong(VERSION, transaction.getVersion() != null ? transaction.getVersion() : 0L)
+                .putLong(AMOUNT, unscaled.longValue())
+                .putLong(TRANSACTION_DATE, micros(transaction.getTransactionDate()))
+                .putLong(CREATED_AT, micros(transaction.getCreatedAt()))
+                .putLong(UPDATED_AT, micros(transaction.getUpdatedAt()));
+        int position = FIXED_SIZE;
+        for (int i = 0; i < STRINGS; i++) {
+            byte[] string = strings[i];
+            record.putShort(STRING_LENGTHS + 2 * i, (short) (string != null ? string.length : NULL_STRING));
+            if (string != null) {
+                record.put(position, string);
+                position += string.length;
+            }
+        }
+        return seal(record);
+    }
+
+    /**
+     * A delete record for the row with this id.
+     */
+    static byte[] delete(long id) {
+        ByteBuffer record = ByteBuffer.allocate(FIXED_SIZE);
+        record.put(KIND, DELETE).putLong(ID, id);
+        for (int i = 0; i < STRINGS; i++) {
+            record.putShort(STRING_LENGTHS + 2 * i, (short) NULL_STRING);
+        }
+        return seal(record);
+    }
+
+    /**
+     * The size of the intact record at {@code offset}, 0 where no record was
+     * ever written, or -1 for a record cut short or failing its checksum,
+     * as a write interrupted by a crash leaves it.
+     */
+    static int check(ByteBuffer segment, int offset) {
+        if (segment.limit() - offset < FIXED_SIZE) {
+            return segment.limit() - offset < PREFIX_SIZE || segment.getInt(offset + LENGTH) == 0 ? 0 : -1;
+        }
+        int length = segment.getInt(offset + LENGTH);
+        if (length == 0) {
+            return 0;
+        }
+        if (length < FIXED_SIZE - PREFIX_SIZE || length > segment.limit() - offset - PREFIX_SIZE || length % 8 != 0) {
+            return -1;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(segment.slice(offset + PREFIX_SIZE, length));
+        return (int) crc.getValue() == segment.getInt(offset + CRC) ? PREFIX_SIZE + length : -1;
+    }
+
+    static byte kind(ByteBuffer segment, int offset) {
+        return segment.get(offset + KIND);
+    }
+
+    static long id(ByteBuffer segment, int offset) {
+        return segment.getLong(offset + ID);
+    }
+
+    static long version(ByteBuffer segment, int offset) {
+        return segment.getLong(offset + VERSION);
+    }
+
+    static String reference(ByteBuffer segment, int offset) {
+        return string(segment, offset, REFERENCE);
+    }
+
+    /**
+     * {@link #hash(String)} of the record's reference, read without decoding it.
+     */
+    static long referenceHash(ByteBuffer segment, int offset) {
+        int length = byteLength(segment, offset, REFERENCE);
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < length; i++) {
+            hash = (hash ^ (segment.get(offset + FIXED_SIZE + i) & 0xFF)) * FNV_PRIME;
+        }
+        return hash != 0 ? hash : 1;
+    }
+
+    /**
+     * A 64-bit FNV-1a hash of the string's UTF-8 bytes, never 0, keying the
+     * reference index.
+     */
+    static long hash(String value) {
+        long hash = FNV_OFFSET;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        return hash != 0 ? hash : 1;
+    }
+
+    static String accountNumber(ByteBuffer segment, int offset) {
+        return string(segment, offset, ACCOUNT_NUMBER);
+    }
+
+    /**
+     * The transaction date as stored, in {@link #micros(LocalDateTime)} form.
+     */
+    static long transactionDate(ByteBuffer segment, int offset) {
+        return segment.getLong(offset + TRANSACTION_DATE);
+    }
+
+    /**
+     * The row a put record holds.
+     */
+    static Transaction decode(ByteBuffer segment, int offset) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id(segment, offset));
+        transaction.setVersion(version(segment, offset));
+        transaction.setType(TransactionType.values()[segment.get(offset + TYPE) - 1]);
+        transaction.setStatus(TransactionStatus.values()[segment.get(offset + STATUS) - 1]);
+        transaction.setAmount(BigDecimal.valueOf(segment.getLong(offset + AMOUNT), segment.get(offset + SCALE)));
+        transaction.setTransactionDate(time(segment.getLong(offset + TRANSACTION_DATE)));
+        transaction.setCreatedAt(time(segment.getLong(offset + CREATED_AT)));
+        transaction.setUpdatedAt(time(segment.getLong(offset + UPDATED_AT)));
+        transaction.setReference(string(segment, offset, REFERENCE));
+        transaction.setAccountNumber(string(segment, offset, ACCOUNT_NUMBER));
+        transaction.setDescription(string(segment, offset, DESCRIPTION));
+        transaction.setNotes(string(segment, offset, NOTES));
+        transaction.setIdempotencyKey(string(segment, offset, IDEMPOTENCY_KEY));
+        String fingerprint = string(segment, offset, IDEMPOTENCY_FINGERPRINT);
+        transaction.setIdempotencyFingerprint(fingerprint != null && !fingerprint.isEmpty() ? fingerprint : null);
+        return transaction;
+    }
+
+    private static byte[] seal(ByteBuffer record) {
+        int length = record.capacity() - PREFIX_SIZE;
+        CRC32C crc = new CRC32C();
+        crc.update(record.slice(PREFIX_SIZE, length));
+        record.putInt(LENGTH, length).putInt(CRC, (int) crc.getValue());
+        return record.array();
+    }
+
+    private static String string(ByteBuffer segment, int offset, int index) {
+        int position = offset + FIXED_SIZE;
+        for (int i = 0; i < index; i++) {
+            position += byteLength(segment, offset, i);
+        }
+        int length = segment.getShort(offset + STRING_LENGTHS + 2 * index) & 0xFFFF;
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        segment.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int byteLength(ByteBuffer segment, int offset, int index) {
+        int length = segment.getShort(offset + STRING_LENGTHS + 2 * index) & 0xFFFF;
+        return length == NULL_STRING ? 0 : length;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int padded(int size) {
+        return (size + 7) & ~7;
+    }
+
+    static long micros(LocalDateTime time) {
+        if (time == null) {
+            return NULL_TIME;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime time(long micros) {
+        if (micros == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,124 @@
+package com.hsbc.transaction.storage;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One preallocated, memory-mapped file of the {@link TransactionLog}. Records
+ * are written with absolute puts into the mapping, so appending is a memory
+ * copy; the file channel is closed once mapped, and the mapping stays valid
+ * until it is garbage collected.
+ */
+final class LogSegment {
+
+    private static final String SUFFIX = ".log";
+
+    private final long number;
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    // End of the last record; written under the log's lock
+    private int end;
+    // Start of the records not yet forced to disk
+    private int forcedTo;
+
+    private LogSegment(long number, Path file, MappedByteBuffer buffer) {
+        this.number = number;
+        this.file = file;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Map a new segment, or an existing one at its current size.
+     */
+    static LogSegment open(Path directory, long number, int size) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", number, SUFFIX));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            long length = channel.size();
+            // Mapping past the end grows the file, zero-filled
+            return new LogSegment(number, file, channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    length > 0 ? length : size));
+        }
+    }
+
+    /**
+     * The segment number encoded in a file name, or -1 for other files.
+     */
+    static long number(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    long number() {
+        return number;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    MappedByteBuffer buffer() {
+        return buffer;
+    }
+
+    int end() {
+        return end;
+    }
+
+    int remaining() {
+        return buffer.capacity() - end;
+    }
+
+    /**
+     * Place the append position after replay. Anything past it is left over
+     * from a write a crash interrupted and is zeroed, so a later scan stops
+     * at the last record appended rather than at stale bytes.
+     */
+    void recover(int end, boolean torn) {
+        if (torn) {
+            byte[] zeros = new byte[8192];
+            for (int position = end; position < buffer.capacity(); position += zeros.length) {
+                buffer.put(position, zeros, 0, Math.min(zeros.length, buffer.capacity() - position));
+            }
+            buffer.force(end, buffer.capacity() - end);
+        }
+        this.end = end;
+        this.forcedTo = end;
+    }
+
+    /**
+     * Copy a record in at the append position and return its offset.
+     */
+    int append(byte[] record) {
+        int offset = end;
+        buffer.put(offset, record);
+        end = offset + record.length;
+        return offset;
+    }
+
+    /**
+     * The range appended since the last call, as {@code {from, to}}, for
+     * forcing outside the log's lock.
+     */
+    int[] takeUnforced() {
+        int[] range = {forcedTo, end};
+        forcedTo = end;
+        return range;
+    }
+
+    void force(int from, int to) {
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+    }
+}
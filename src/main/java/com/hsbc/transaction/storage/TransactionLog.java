@@ -0,0 +1,593 @@
+package com.hsbc.transaction.storage;
+
+import com.hsbc.transaction.model.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only store of transaction rows: a directory of fixed-size,
+ * memory-mapped segments holding {@link LogRecord}s, with in-memory indexes
+ * by id, reference and account number. Every create and update appends the
+ * whole row and every delete appends a tombstone; nothing is rewritten.
+ *
+ * <p>{@link #open} rebuilds the indexes by scanning all segments in parallel,
+ * checking each record's CRC, and merging the scans in segment order. A
+ * record cut short by a crash can only be at the end of the last segment
+ * and is dropped there; anywhere else it means the log is damaged, and
+ * opening fails. Rows resolve to their highest version, and a tombstone
+ * outranks any put, so the outcome does not depend on the order in which
+ * concurrent commits reached the log.
+ */
+public final class TransactionLog {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionLog.class);
+
+    static final int MIN_SEGMENT_SIZE = 64 * 1024;
+    static final int MAX_SEGMENT_SIZE = 1 << 30;
+
+    // Index value of a deleted id; addresses are segment index << 32 | offset, never negative
+    private static final long TOMBSTONE = -1;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+
+    // Writers append and index under the write lock; reads decode under the read lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<LogSegment> segments = new ArrayList<>();
+    private final LongLongMap byId;
+    // FNV-1a hash of the reference to the id; the rare colliding reference is kept by name
+    private final LongLongMap byReference;
+    private final Map<String, Long> collidingReferences = new HashMap<>();
+    private final Map<String, AccountIndex> byAccount = new HashMap<>();
+    private long liveRows;
+    private long maxId;
+
+    private TransactionLog(Path directory, int segmentSize, FsyncPolicy fsyncPolicy, int expectedRows) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.byId = new LongLongMap(expectedRows);
+        this.byReference = new LongLongMap(expectedRows);
+    }
+
+    /**
+     * Open the log in {@code directory}, creating it if needed, and rebuild
+     * the indexes from its segments with up to {@code replayThreads} threads.
+     */
+    public static TransactionLog open(Path directory, long segmentSize, FsyncPolicy fsyncPolicy,
+                                      int replayThreads) throws IOException {
+        if (segmentSize < MIN_SEGMENT_SIZE || segmentSize > MAX_SEGMENT_SIZE) {
+            throw new IllegalArgumentException("Segment size must be between 64KB and 1GB, was " + segmentSize);
+        }
+        // Records are 8-byte aligned
+        int size = (int) segmentSize & ~7;
+        Files.createDirectories(directory);
+        List<LogSegment> existing = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(file -> LogSegment.number(file) >= 0)
+                    .sorted((a, b) -> Long.compare(LogSegment.number(a), LogSegment.number(b)))
+                    .toList()) {
+                existing.add(LogSegment.open(directory, LogSegment.number(file), size));
+            }
+        }
+
+        long started = System.nanoTime();
+        List<SegmentScan> scans = scan(existing, replayThreads);
+        long records = scans.stream().mapToLong(scan -> scan.count).sum();
+        // Records average well over 100 bytes, so this sizes the indexes close to their final size
+        long expected = Math.min(records, existing.stream().mapToLong(s -> s.buffer().capacity() / 128L).sum());
+        TransactionLog transactionLog = new TransactionLog(directory, size, fsyncPolicy,
+                (int) Math.min(expected, 1 << 28));
+        for (int i = 0; i < existing.size(); i++) {
+            LogSegment segment = existing.get(i);
+            SegmentScan scan = scans.get(i);
+            if (scan.torn) {
+                log.warn("Dropping a partly written record at offset {} of {}", scan.end, segment.file());
+            }
+            segment.recover(scan.end, scan.torn);
+            transactionLog.segments.add(segment);
+            transactionLog.merge(i, scan);
+        }
+        if (existing.isEmpty()) {
+            transactionLog.segments.add(LogSegment.open(directory, 0, size));
+        }
+        log.info("Replayed {} log records from {} segments in {} ms: {} live transactions",
+                records, existing.size(), (System.nanoTime() - started) / 1_000_000, transactionLog.liveRows);
+        return transactionLog;
+    }
+
+    /**
+     * Append the current state of these rows, as of their last flush.
+     */
+    public void write(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        // Encoding and checksums happen before taking the lock
+        byte[][] records = new byte[transactions.size()][];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = LogRecord.put(transactions.get(i));
+        }
+        List<Range> unforced;
+        lock.writeLock().lock();
+        try {
+            int firstSegment = segments.size() - 1;
+            for (int i = 0; i < records.length; i++) {
+                Transaction transaction = transactions.get(i);
+                long address = append(records[i]);
+                applyPut(transaction.getId(), versionOf(transaction), address,
+                        LogRecord.hash(transaction.getReference()), transaction.getAccountNumber(),
+                        LogRecord.micros(transaction.getTransactionDate()));
+            }
+            unforced = fsyncPolicy == FsyncPolicy.ALWAYS ? takeUnforced(firstSegment) : List.of();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        force(unforced);
+    }
+
+    /**
+     * Append tombstones for these ids.
+     */
+    public void delete(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Range> unforced;
+        lock.writeLock().lock();
+        try {
+            int firstSegment = segments.size() - 1;
+            for (Long id : ids) {
+                append(LogRecord.delete(id));
+                applyDelete(id);
+            }
+            unforced = fsyncPolicy == FsyncPolicy.ALWAYS ? takeUnforced(firstSegment) : List.of();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        force(unforced);
+    }
+
+    /**
+     * Force everything appended so far to disk, whatever the policy.
+     */
+    public void flush() {
+        List<Range> unforced;
+        lock.writeLock().lock();
+        try {
+            unforced = takeUnforced(0);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        force(unforced);
+    }
+
+    public Optional<Transaction> find(long id) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(decode(byId.get(id)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Transaction> findByReference(String reference) {
+        lock.readLock().lock();
+        try {
+            Long colliding = collidingReferences.get(reference);
+            long id = colliding != null ? colliding : byReference.get(LogRecord.hash(reference));
+            Transaction transaction = id != LongLongMap.MISSING ? decode(byId.get(id)) : null;
+            return transaction != null && reference.equals(transaction.getReference())
+                    ? Optional.of(transaction) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} of the account's live rows, newest first by
+     * transaction date and then id, skipping the first {@code offset}. Only
+     * the rows returned are decoded.
+     */
+    public AccountPage findByAccountNumber(String accountNumber, long offset, int limit) {
+        lock.readLock().lock();
+        try {
+            AccountIndex index = byAccount.get(accountNumber);
+            if (index == null) {
+                return new AccountPage(List.of(), 0);
+            }
+            // The index is oldest first, so the newest rows are at its end
+            int from = index.size - 1 - (int) Math.min(offset, index.size);
+            int to = Math.max(from - limit, -1);
+            List<Transaction> rows = new ArrayList<>(Math.max(0, from - to));
+            for (int i = from; i > to; i--) {
+                rows.add(decode(byId.get(index.ids[i])));
+            }
+            return new AccountPage(rows, index.size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit every live row, reading the segments front to back. Rows written
+     * while the visit runs may or may not be included.
+     */
+    public void forEach(Consumer<Transaction> action) {
+        long[] addresses;
+        List<LogSegment> segmentsRead;
+        lock.readLock().lock();
+        try {
+            segmentsRead = List.copyOf(segments);
+            long[] live = new long[(int) liveRows];
+            int[] count = {0};
+            byId.forEach((id, address) -> {
+                if (address != TOMBSTONE) {
+                    live[count[0]++] = address;
+                }
+            });
+            addresses = live;
+        } finally {
+            lock.readLock().unlock();
+        }
+        // Written records never change, so they can be decoded without the lock
+        Arrays.sort(addresses);
+        for (long address : addresses) {
+            action.accept(LogRecord.decode(segmentsRead.get((int) (address >>> 32)).buffer(), offset(address)));
+        }
+    }
+
+    /**
+     * Rows that currently exist, not counting deleted ones.
+     */
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return liveRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The highest id ever written, deleted or not, or 0 for an empty log.
+     */
+    public long maxId() {
+        lock.readLock().lock();
+        try {
+            return maxId;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int segmentCount() {
+        lock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes of records written, not counting the unused tail of each segment.
+     */
+    public long usedBytes() {
+        lock.readLock().lock();
+        try {
+            long used = 0;
+            for (LogSegment segment : segments) {
+                used += segment.end();
+            }
+            return used;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    private long append(byte[] record) {
+        LogSegment segment = segments.get(segments.size() - 1);
+        if (segment.remaining() < record.length) {
+            try {
+                segment = LogSegment.open(directory, segment.number() + 1, segmentSize);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to create a transaction log segment in " + directory, e);
+            }
+            segment.recover(0, false);
+            segments.add(segment);
+        }
+        return address(segments.size() - 1, segment.append(record));
+    }
+
+    /**
+     * What was appended to segments from {@code firstSegment} on since it was
+     * last taken, to be forced once the lock is released.
+     */
+    private List<Range> takeUnforced(int firstSegment) {
+        List<Range> unforced = new ArrayList<>(1);
+        for (int i = firstSegment; i < segments.size(); i++) {
+            LogSegment segment = segments.get(i);
+            int[] range = segment.takeUnforced();
+            if (range[1] > range[0]) {
+                unforced.add(new Range(segment, range[0], range[1]));
+            }
+        }
+        return unforced;
+    }
+
+    private static void force(List<Range> unforced) {
+        for (Range range : unforced) {
+            range.segment().force(range.from(), range.to());
+        }
+    }
+
+    private void merge(int segmentIndex, SegmentScan scan) {
+        for (int i = 0; i < scan.count; i++) {
+            long id = scan.ids[i];
+            if (scan.kinds[i] == LogRecord.DELETE) {
+                applyDelete(id);
+            } else {
+                applyPut(id, scan.versions[i], address(segmentIndex, scan.offsets[i]),
+                        scan.referenceHashes[i], scan.accountNumbers[i], scan.dates[i]);
+            }
+        }
+    }
+
+    private void applyPut(long id, long version, long address, long referenceHash, String accountNumber,
+                          long transactionDate) {
+        maxId = Math.max(maxId, id);
+        long current = byId.get(id);
+        if (current == TOMBSTONE) {
+            return;
+        }
+        if (current != LongLongMap.MISSING) {
+            if (version > LogRecord.version(segment(current).buffer(), offset(current))) {
+                byId.put(id, address);
+            }
+            return;
+        }
+        byId.put(id, address);
+        liveRows++;
+        indexReference(id, referenceHash, address);
+        // Updates never change the account or date, so the first put places the row for good
+        byAccount.computeIfAbsent(accountNumber, account -> new AccountIndex()).add(transactionDate, id);
+    }
+
+    private void indexReference(long id, long referenceHash, long address) {
+        long indexed = byReference.get(referenceHash);
+        if (indexed != LongLongMap.MISSING && indexed != id) {
+            long indexedAddress = byId.get(indexed);
+            if (indexedAddress != TOMBSTONE && indexedAddress != LongLongMap.MISSING) {
+                String reference = LogRecord.reference(segment(address).buffer(), offset(address));
+                if (!reference.equals(LogRecord.reference(segment(indexedAddress).buffer(), offset(indexedAddress)))) {
+                    collidingReferences.put(reference, id);
+                    return;
+                }
+            }
+        }
+        byReference.put(referenceHash, id);
+    }
+
+    private void applyDelete(long id) {
+        maxId = Math.max(maxId, id);
+        long current = byId.get(id);
+        if (current == TOMBSTONE) {
+            return;
+        }
+        if (current != LongLongMap.MISSING) {
+            liveRows--;
+            ByteBuffer buffer = segment(current).buffer();
+            String accountNumber = LogRecord.accountNumber(buffer, offset(current));
+            AccountIndex index = byAccount.get(accountNumber);
+            if (index != null && index.remove(LogRecord.transactionDate(buffer, offset(current)), id)
+                    && index.size == 0) {
+                byAccount.remove(accountNumber);
+            }
+        }
+        byId.put(id, TOMBSTONE);
+    }
+
+    private Transaction decode(long address) {
+        if (address == TOMBSTONE || address == LongLongMap.MISSING) {
+            return null;
+        }
+        return LogRecord.decode(segment(address).buffer(), offset(address));
+    }
+
+    private LogSegment segment(long address) {
+        return segments.get((int) (address >>> 32));
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+    private static long address(int segmentIndex, int offset) {
+        return (long) segmentIndex << 32 | offset;
+    }
+
+    private static long versionOf(Transaction transaction) {
+        return transaction.getVersion() != null ? transaction.getVersion() : 0L;
+    }
+
+    private static List<SegmentScan> scan(List<LogSegment> segments, int replayThreads) throws IOException {
+        if (segments.isEmpty()) {
+            return List.of();
+        }
+        int threads = Math.min(segments.size(),
+                replayThreads > 0 ? replayThreads : Runtime.getRuntime().availableProcessors());
+        try (ExecutorService pool = Executors.newFixedThreadPool(threads)) {
+            List<Future<SegmentScan>> futures = new ArrayList<>(segments.size());
+            for (LogSegment segment : segments) {
+                futures.add(pool.submit(() -> SegmentScan.of(segment.buffer())));
+            }
+            List<SegmentScan> scans = new ArrayList<>(segments.size());
+            for (int i = 0; i < futures.size(); i++) {
+                SegmentScan scan = futures.get(i).get();
+                if (scan.torn && i < futures.size() - 1) {
+                    throw new IOException("Transaction log segment " + segments.get(i).file()
+                            + " is damaged at offset " + scan.end + "; later segments depend on it");
+                }
+                scans.add(scan);
+            }
+            return scans;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while replaying the transaction log", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to replay the transaction log: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private record Range(LogSegment segment, int from, int to) {}
+
+    /**
+     * One window of an account's rows and how many live rows it has in all.
+     */
+    public record AccountPage(List<Transaction> rows, int total) {}
+
+    /**
+     * What replaying one segment found, record by record, for merging into the
+     * indexes on the opening thread. Checksums and string decoding happen here,
+     * on the replay threads.
+     */
+    private static final class SegmentScan {
+
+        private int count;
+        private long[] ids = new long[1024];
+        private long[] versions = new long[1024];
+        private long[] referenceHashes = new long[1024];
+        private int[] offsets = new int[1024];
+        private byte[] kinds = new byte[1024];
+        private String[] accountNumbers = new String[1024];
+        private long[] dates = new long[1024];
+        // Where the intact records end, and whether a damaged one follows
+        private int end;
+        private boolean torn;
+
+        static SegmentScan of(MappedByteBuffer segment) {
+            SegmentScan scan = new SegmentScan();
+            int offset = 0;
+            int size;
+            while ((size = LogRecord.check(segment, offset)) > 0) {
+                scan.add(segment, offset);
+                offset += size;
+            }
+            scan.end = offset;
+            scan.torn = size < 0;
+            return scan;
+        }
+
+        private void add(MappedByteBuffer segment, int offset) {
+            if (count == ids.length) {
+                int capacity = count * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                versions = Arrays.copyOf(versions, capacity);
+                referenceHashes = Arrays.copyOf(referenceHashes, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                kinds = Arrays.copyOf(kinds, capacity);
+                accountNumbers = Arrays.copyOf(accountNumbers, capacity);
+                dates = Arrays.copyOf(dates, capacity);
+            }
+            byte kind = LogRecord.kind(segment, offset);
+            ids[count] = LogRecord.id(segment, offset);
+            kinds[count] = kind;
+            offsets[count] = offset;
+            if (kind == LogRecord.PUT) {
+                versions[count] = LogRecord.version(segment, offset);
+                referenceHashes[count] = LogRecord.referenceHash(segment, offset);
+                accountNumbers[count] = LogRecord.accountNumber(segment, offset);
+                dates[count] = LogRecord.transactionDate(segment, offset);
+            }
+            count++;
+        }
+    }
+
+    /**
+     * Live ids of one account sorted by transaction date, then id, oldest
+     * first: new rows are usually the newest and land at the end, and pages
+     * are read from the end backwards.
+     */
+    private static final class AccountIndex {
+
+        private long[] dates = new long[4];
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long date, long id) {
+            int at = search(date, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                dates = Arrays.copyOf(dates, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(dates, at, dates, at + 1, size - at);
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            dates[at] = date;
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(long date, long id) {
+            int at = search(date, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(dates, at + 1, dates, at, size - at - 1);
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        private int search(long date, long id) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int order = dates[mid] != date ? Long.compare(dates[mid], date) : Long.compare(ids[mid], id);
+                if (order < 0) {
+                    low = mid + 1;
+                } else if (order > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.hsbc.transaction.storage;
+
+import com.hsbc.transaction.config.LogStoreProperties;
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.service.AccountSummaryService;
+import com.hsbc.transaction.service.TransactionAggregateService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps transactions across restarts under the {@code log-store} profile.
+ * H2 stays the query engine, in memory as before, and every committed
+ * create, update and delete is also appended to a {@link TransactionLog} on
+ * disk. On startup the log is replayed into the empty database before the
+ * web servers accept requests.
+ *
+ * <p>Appends run after the commit but before the request returns, so with
+ * {@link FsyncPolicy#ALWAYS} a write is on disk before it is acknowledged,
+ * and a failed append fails the request. A process that dies between commit
+ * and append loses only a write nobody was told about, since the database
+ * it went into was in memory too. Writes that bypass the change events,
+ * such as bulk imports and sample data, report their rows through
+ * {@link #recordWritten}.
+ *
+ * <p>The log's own indexes serve the single-row reads by id and reference
+ * and the account listing; H2 answers every other query.
+ */
+@Component
+@Profile(TransactionLogStore.PROFILE)
+public class TransactionLogStore implements SmartLifecycle {
+
+    public static final String PROFILE = "log-store";
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionLogStore.class);
+
+    // Before the web servers start, and so stopped after they have drained
+    private static final int PHASE = 0;
+    private static final int LOAD_BATCH_SIZE = 1000;
+    // INCREMENT BY of transaction_seq, i.e. the entity's allocationSize
+    private static final int ID_BLOCK_SIZE = 50;
+
+    private static final String INSERT_SQL = "INSERT INTO transactions (id, reference, account_number, amount, type, "
+            + "description, transaction_date, status, notes, idempotency_key, idempotency_fingerprint, created_at, "
+            + "updated_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final LogStoreProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountSummaryService accountSummaryService;
+    private final TransactionAggregateService aggregateService;
+
+    // Accounts with writes published but not yet appended, by how many such writes each has
+    private final Map<String, Integer> appending = new ConcurrentHashMap<>();
+
+    private volatile TransactionLog transactionLog;
+    private volatile boolean running;
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public TransactionLogStore(LogStoreProperties properties,
+                               JdbcTemplate jdbcTemplate,
+                               AccountSummaryService accountSummaryService,
+                               TransactionAggregateService aggregateService,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountSummaryService = accountSummaryService;
+        this.aggregateService = aggregateService;
+
+        gauge(meterRegistry, "transaction.log.rows", "Live transactions in the transaction log", null,
+                TransactionLog::size);
+        gauge(meterRegistry, "transaction.log.bytes", "Bytes of records in the transaction log", "bytes",
+                TransactionLog::usedBytes);
+        gauge(meterRegistry, "transaction.log.segments", "Segment files of the transaction log", null,
+                TransactionLog::segmentCount);
+    }
+
+    @Override
+    public void start() {
+        long started = System.nanoTime();
+        TransactionLog opened;
+        try {
+            opened = TransactionLog.open(Path.of(properties.getDirectory()), properties.getSegmentSize().toBytes(),
+                    properties.getFsync(), properties.getReplayThreads());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the transaction log in " + properties.getDirectory(), e);
+        }
+        long loaded = load(opened);
+        if (loaded > 0) {
+            // Loaded rows bypass the change events; caches are still empty, and the search index builds once ready
+            accountSummaryService.rebuild();
+            aggregateService.rebuild();
+        }
+        transactionLog = opened;
+
+        if (properties.getFsync() == FsyncPolicy.INTERVAL) {
+            long interval = Math.max(1, properties.getFsyncInterval().toMillis());
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "transaction-log-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+        running = true;
+        log.info("Recovered {} transactions from {} in {} ms (fsync {})", loaded, opened.getDirectory().toAbsolutePath(),
+                (System.nanoTime() - started) / 1_000_000, properties.getFsync());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.shutdown();
+            flusher = null;
+        }
+        TransactionLog current = transactionLog;
+        if (current != null) {
+            // Appends from later shutdown work still land in the mapped files, left to the OS to write back
+            current.flush();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Append each committed change once its transaction has committed.
+     */
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        List<Transaction> rows = event.getTransactions();
+        if (event.getChangeType() == TransactionChangedEvent.ChangeType.DELETED) {
+            List<Long> ids = rows.stream().map(Transaction::getId).toList();
+            afterCommit(rows, () -> transactionLog().delete(ids));
+        } else {
+            // Encoded after the commit, once the flush has set versions and timestamps
+            afterCommit(rows, () -> transactionLog().write(rows));
+        }
+    }
+
+    /**
+     * Append rows inserted without change events, once the current
+     * transaction commits, or right away outside one.
+     */
+    public void recordWritten(List<Transaction> rows) {
+        List<Transaction> written = List.copyOf(rows);
+        afterCommit(written, () -> transactionLog().write(written));
+    }
+
+    public Optional<Transaction> find(long id) {
+        return transactionLog().find(id);
+    }
+
+    public Optional<Transaction> findByReference(String reference) {
+        return transactionLog().findByReference(reference);
+    }
+
+    /**
+     * A window of the account's rows, newest first, or empty while a write to
+     * the account is between its publish and its append: from its commit on
+     * the database has rows the log does not yet.
+     */
+    public Optional<TransactionLog.AccountPage> findByAccountNumber(String accountNumber, long offset, int limit) {
+        if (appending.containsKey(accountNumber)) {
+            return Optional.empty();
+        }
+        return Optional.of(transactionLog().findByAccountNumber(accountNumber, offset, limit));
+    }
+
+    public TransactionLog transactionLog() {
+        TransactionLog current = transactionLog;
+        if (current == null) {
+            throw new IllegalStateException("The transaction log has not been opened");
+        }
+        return current;
+    }
+
+    private long load(TransactionLog opened) {
+        List<Transaction> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        opened.forEach(row -> {
+            batch.add(row);
+            if (batch.size() == LOAD_BATCH_SIZE) {
+                insert(batch);
+                batch.clear();
+            }
+        });
+        insert(batch);
+        long maxId = opened.maxId();
+        if (maxId > 0) {
+            // Hibernate's pooled optimizer takes a value v to reserve (v - 50, v], so restart clear of every logged id
+            jdbcTemplate.execute("ALTER SEQUENCE transaction_seq RESTART WITH " + (maxId + ID_BLOCK_SIZE + 1));
+        }
+        return opened.size();
+    }
+
+    private void insert(List<Transaction> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getId());
+            ps.setString(2, row.getReference());
+            ps.setString(3, row.getAccountNumber());
+            ps.setBigDecimal(4, row.getAmount());
+            ps.setString(5, row.getType().name());
+            ps.setString(6, row.getDescription());
+            ps.setTimestamp(7, Timestamp.valueOf(row.getTransactionDate()));
+            ps.setString(8, row.getStatus().name());
+            ps.setString(9, row.getNotes());
+            ps.setString(10, row.getIdempotencyKey());
+            ps.setString(11, row.getIdempotencyFingerprint());
+            ps.setTimestamp(12, Timestamp.valueOf(row.getCreatedAt()));
+            ps.setTimestamp(13, Timestamp.valueOf(row.getUpdatedAt()));
+            ps.setLong(14, row.getVersion());
+        });
+    }
+
+    private void afterCommit(List<Transaction> rows, Runnable append) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append.run();
+            return;
+        }
+        Set<String> accounts = rows.stream().map(Transaction::getAccountNumber).collect(Collectors.toSet());
+        accounts.forEach(account -> appending.merge(account, 1, Integer::sum));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // Unlike afterCompletion, an exception here reaches the caller
+                append.run();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                // Runs after every afterCommit, so the rows are appended by now, or were rolled back
+                accounts.forEach(account -> appending.computeIfPresent(account, (key, count) -> count > 1 ? count - 1 : null));
+            }
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            transactionLog().flush();
+        } catch (RuntimeException e) {
+            log.warn("Failed to force the transaction log to disk: {}", e.getMessage());
+        }
+    }
+
+    private void gauge(MeterRegistry meterRegistry, String name, String description, String baseUnit,
+                       ToDoubleFunction<TransactionLog> value) {
+        Gauge.builder(name, this, store -> {
+                    TransactionLog current = store.transactionLog;
+                    return current != null ? value.applyAsDouble(current) : 0;
+                })
+                .description(description)
+                .baseUnit(baseUnit)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+-- Baseline schema, equivalent to what Hibernate generated from the entities
+-- before schema management moved to Flyway.
+
+CREATE SEQUENCE transaction_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE transactions (
+    id               BIGINT         NOT NULL,
+    reference        VARCHAR(255)   NOT NULL,
+    account_number   VARCHAR(255)   NOT NULL,
+    amount           NUMERIC(19, 2) NOT NULL,
+    type             VARCHAR(255)   NOT NULL,
+    description      VARCHAR(255)   NOT NULL,
+    transaction_date TIMESTAMP(6)   NOT NULL,
+    status           VARCHAR(255)   NOT NULL,
+    notes            VARCHAR(1000),
+    created_at       TIMESTAMP(6)   NOT NULL,
+    updated_at       TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT pk_transactions PRIMARY KEY (id),
+    CONSTRAINT uk_transactions_reference UNIQUE (reference),
+    CONSTRAINT ck_transactions_type CHECK (type IN
+        ('DEPOSIT', 'WITHDRAWAL', 'TRANSFER', 'PAYMENT', 'REFUND', 'FEE', 'INTEREST', 'EXCHANGE')),
+    CONSTRAINT ck_transactions_status CHECK (status IN
+        ('PENDING', 'COMPLETED', 'FAILED', 'CANCELLED', 'PROCESSING'))
+);
+
+CREATE TABLE account_summaries (
+    account_number    VARCHAR(255)   NOT NULL,
+    type              VARCHAR(255)   NOT NULL,
+    total_amount      NUMERIC(19, 2) NOT NULL,
+    transaction_count BIGINT         NOT NULL,
+    CONSTRAINT pk_account_summaries PRIMARY KEY (account_number, type),
+    CONSTRAINT ck_account_summaries_type CHECK (type IN
+        ('DEPOSIT', 'WITHDRAWAL', 'TRANSFER', 'PAYMENT', 'REFUND', 'FEE', 'INTEREST', 'EXCHANGE'))
+);
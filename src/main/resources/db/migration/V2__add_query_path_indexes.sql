@@ -0,0 +1,15 @@
+-- One index per access path in TransactionRepository. The id column trails the
+-- date columns so keyset pagination can seek on (transaction_date, id) and read
+-- rows in ORDER BY order without a sort step.
+
+-- findByAccountNumber*, countByAccountNumber, sumByAccountNumberAndType, account cursor pages
+CREATE INDEX idx_transactions_account_date_id ON transactions (account_number, transaction_date DESC, id DESC);
+
+-- findByType, filtered by type and ordered or bounded by date
+CREATE INDEX idx_transactions_type_date ON transactions (type, transaction_date);
+
+-- findByTransactionDateBetween, recent transactions, unfiltered cursor pages
+CREATE INDEX idx_transactions_date_id ON transactions (transaction_date DESC, id DESC);
+
+-- findByAmountBetween
+CREATE INDEX idx_transactions_amount ON transactions (amount);
@@ -0,0 +1,13 @@
+-- Progress of bulk file imports. A file is split into chunks on line breaks;
+-- each chunk row records how far it has been committed, and is updated in the
+-- same transaction as the rows it covers so a failed import resumes exactly.
+
+CREATE TABLE import_checkpoints (
+    import_id        VARCHAR(64)  NOT NULL,
+    chunk_start      BIGINT       NOT NULL,
+    chunk_end        BIGINT       NOT NULL,
+    committed_offset BIGINT       NOT NULL,
+    rows_imported    BIGINT       NOT NULL,
+    rows_rejected    BIGINT       NOT NULL,
+    CONSTRAINT pk_import_checkpoints PRIMARY KEY (import_id, chunk_start)
+);
@@ -0,0 +1,6 @@
+-- Criteria queries write only the filters that are present and always order by
+-- (transaction_date DESC, id DESC). Matching that order after the type column lets
+-- a type-filtered page come straight off the index, like the account index does.
+DROP INDEX idx_transactions_type_date;
+
+CREATE INDEX idx_transactions_type_date_id ON transactions (type, transaction_date DESC, id DESC);
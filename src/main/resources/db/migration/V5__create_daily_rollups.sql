@@ -0,0 +1,20 @@
+-- Daily totals per account and transaction type, maintained in the same
+-- database transaction as every insert and delete on transactions. Weekly and
+-- monthly figures are combined from these rows when they are read.
+
+CREATE TABLE transaction_daily_rollups (
+    account_number    VARCHAR(255)   NOT NULL,
+    bucket_date       DATE           NOT NULL,
+    type              VARCHAR(255)   NOT NULL,
+    total_amount      NUMERIC(19, 2) NOT NULL,
+    transaction_count BIGINT         NOT NULL,
+    -- Account first, then date, so a range of days for one account is a single seek
+    CONSTRAINT pk_transaction_daily_rollups PRIMARY KEY (account_number, bucket_date, type),
+    CONSTRAINT ck_transaction_daily_rollups_type CHECK (type IN
+        ('DEPOSIT', 'WITHDRAWAL', 'TRANSFER', 'PAYMENT', 'REFUND', 'FEE', 'INTEREST', 'EXCHANGE'))
+);
+
+INSERT INTO transaction_daily_rollups (account_number, bucket_date, type, total_amount, transaction_count)
+SELECT account_number, CAST(transaction_date AS DATE), type, SUM(amount), COUNT(*)
+FROM transactions
+GROUP BY account_number, CAST(transaction_date AS DATE), type;
@@ -0,0 +1,7 @@
+-- Client-supplied Idempotency-Key of the create that wrote the row; batch items
+-- carry "<key>:<index>". NULL for rows created without a key, which the unique
+-- index does not compare.
+ALTER TABLE transactions ADD COLUMN idempotency_key VARCHAR(255);
+
+-- findResponseByIdempotencyKey, and batch replays by key prefix
+CREATE UNIQUE INDEX uk_transactions_idempotency_key ON transactions (idempotency_key);
@@ -0,0 +1,4 @@
+-- Optimistic locking: Hibernate bumps the version on every update and rejects a
+-- flush whose row changed since it was read. The version also forms the ETag
+-- of GET /api/v1/transactions/{id}. Existing and bulk-imported rows start at 0.
+ALTER TABLE transactions ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,6 @@
+-- SHA-256 (hex) of the canonical request that first used the row's
+-- Idempotency-Key; every item of a keyed batch carries the batch's. A retry
+-- with the same key but a different body is rejected instead of replayed.
+-- NULL for rows created without a key, or before this column existed, which
+-- are replayed without comparison.
+ALTER TABLE transactions ADD COLUMN idempotency_fingerprint VARCHAR(64);
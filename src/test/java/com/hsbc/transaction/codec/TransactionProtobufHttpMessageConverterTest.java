@@ -0,0 +1,173 @@
+package com.hsbc.transaction.codec;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
+import com.hsbc.transaction.controller.GlobalExceptionHandler;
+import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionAggregateResponse;
+import com.hsbc.transaction.dto.TransactionLookupResponse;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.model.TransactionStatus;
+import com.hsbc.transaction.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionProtobufHttpMessageConverterTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_000);
+
+    private final TransactionProtobufHttpMessageConverter converter = new TransactionProtobufHttpMessageConverter();
+
+    @Test
+    void canWrite_OnlyTypesWithASchema() {
+        assertTrue(canWrite(new ParameterizedTypeReference<PageResponse<TransactionResponse>>() {}));
+        assertTrue(canWrite(new ParameterizedTypeReference<List<TransactionResponse>>() {}));
+        assertTrue(canWrite(new ParameterizedTypeReference<TransactionResponse>() {}));
+        assertTrue(canWrite(new ParameterizedTypeReference<BigDecimal>() {}));
+        assertFalse(canWrite(new ParameterizedTypeReference<PageResponse<String>>() {}));
+        assertTrue(canWrite(new ParameterizedTypeReference<TransactionAggregateResponse>() {}));
+        assertTrue(canWrite(new ParameterizedTypeReference<GlobalExceptionHandler.ErrorResponse>() {}));
+        assertFalse(canWrite(new ParameterizedTypeReference<List<String>>() {}));
+        assertFalse(converter.canRead(TransactionResponse.class, TransactionProtobufHttpMessageConverter.APPLICATION_PROTOBUF));
+    }
+
+    @Test
+    void page_IsEncodedPerSchemaWithExactLength() throws Exception {
+        PageResponse<TransactionResponse> page = new PageResponse<>(
+                List.of(transaction(7L, new BigDecimal("1234.50")), transaction(8L, new BigDecimal("-0.01"))),
+                2, 20, 42L, 3, false, false);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        converter.write(page, new ParameterizedTypeReference<PageResponse<TransactionResponse>>() {}.getType(),
+                TransactionProtobufHttpMessageConverter.APPLICATION_PROTOBUF, output);
+
+        byte[] body = output.getBodyAsBytes();
+        assertEquals(body.length, output.getHeaders().getContentLength());
+        CodedInputStream input = CodedInputStream.newInstance(body);
+        List<byte[]> rows = new ArrayList<>();
+        long totalElements = -1;
+        boolean hasNext = false;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> rows.add(input.readByteArray());
+                case 4 -> totalElements = input.readInt64();
+                case 8 -> hasNext = input.readBool();
+                default -> input.skipField(tag);
+            }
+        }
+        assertEquals(2, rows.size());
+        assertEquals(42L, totalElements);
+        assertTrue(hasNext);
+
+        CodedInputStream row = CodedInputStream.newInstance(rows.get(1));
+        while ((tag = row.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> assertEquals(8L, row.readInt64());
+                case 2 -> assertEquals("TXN8", row.readString());
+                case 4 -> assertDecimal(row.readByteArray(), -1L, 2);
+                case 5 -> assertEquals(TransactionType.WITHDRAWAL.ordinal() + 1, row.readEnum());
+                case 7 -> assertEquals(DATE.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + 123_456, row.readSInt64());
+                case 8 -> assertEquals(TransactionStatus.COMPLETED.ordinal() + 1, row.readEnum());
+                default -> row.skipField(tag);
+            }
+        }
+    }
+
+    @Test
+    void lookup_EncodesMapsAndPackedMissingIds() throws Exception {
+        Map<Long, TransactionResponse> ids = new LinkedHashMap<>();
+        ids.put(7L, transaction(7L, new BigDecimal("1.00")));
+        TransactionLookupResponse lookup = new TransactionLookupResponse(ids, Map.of(), List.of(300L, 5L), List.of("TXN9"));
+
+        byte[] body = TransactionProtobufHttpMessageConverter.encode(lookup);
+
+        CodedInputStream input = CodedInputStream.newInstance(body);
+        List<Long> notFoundIds = new ArrayList<>();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> {
+                    CodedInputStream entry = CodedInputStream.newInstance(input.readByteArray());
+                    assertEquals(1, WireFormat.getTagFieldNumber(entry.readTag()));
+                    assertEquals(7L, entry.readInt64());
+                    assertEquals(2, WireFormat.getTagFieldNumber(entry.readTag()));
+                    entry.readByteArray();
+                    assertTrue(entry.isAtEnd());
+                }
+                case 3 -> {
+                    int limit = input.pushLimit(input.readRawVarint32());
+                    while (input.getBytesUntilLimit() > 0) {
+                        notFoundIds.add(input.readInt64());
+                    }
+                    input.popLimit(limit);
+                }
+                case 4 -> assertEquals("TXN9", input.readString());
+                default -> fail("Unexpected field " + WireFormat.getTagFieldNumber(tag));
+            }
+        }
+        assertEquals(List.of(300L, 5L), notFoundIds);
+    }
+
+    @Test
+    void errorBody_IsEncodedWithDetails() throws Exception {
+        GlobalExceptionHandler.ErrorResponse error = new GlobalExceptionHandler.ErrorResponse(
+                "VALIDATION_ERROR", "Validation failed", 400, DATE, "uri=/api/v1/transactions");
+        error.setDetails(Map.of("amount", "must be positive"));
+
+        byte[] body = TransactionProtobufHttpMessageConverter.encode(error);
+
+        CodedInputStream input = CodedInputStream.newInstance(body);
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            switch (WireFormat.getTagFieldNumber(tag)) {
+                case 1 -> assertEquals("VALIDATION_ERROR", input.readString());
+                case 3 -> assertEquals(400, input.readInt32());
+                case 6 -> {
+                    CodedInputStream entry = CodedInputStream.newInstance(input.readByteArray());
+                    entry.readTag();
+                    assertEquals("amount", entry.readString());
+                    entry.readTag();
+                    assertEquals("must be positive", entry.readString());
+                }
+                default -> input.skipField(tag);
+            }
+        }
+    }
+
+    @Test
+    void unsupportedListElements_AreRejected() {
+        assertThrows(HttpMessageNotWritableException.class,
+                () -> TransactionProtobufHttpMessageConverter.encode(List.of("not a transaction")));
+    }
+
+    private boolean canWrite(ParameterizedTypeReference<?> type) {
+        return converter.canWrite(type.getType(), null, TransactionProtobufHttpMessageConverter.APPLICATION_PROTOBUF);
+    }
+
+    private static void assertDecimal(byte[] message, long unscaled, int scale) throws Exception {
+        CodedInputStream input = CodedInputStream.newInstance(message);
+        assertEquals(1, WireFormat.getTagFieldNumber(input.readTag()));
+        assertEquals(unscaled, input.readSInt64());
+        assertEquals(2, WireFormat.getTagFieldNumber(input.readTag()));
+        assertEquals(scale, input.readInt32());
+        assertTrue(input.isAtEnd());
+    }
+
+    private static TransactionResponse transaction(Long id, BigDecimal amount) {
+        return new TransactionResponse(id, "TXN" + id, "12345678", amount, TransactionType.WITHDRAWAL,
+                "Protobuf test " + id, DATE, TransactionStatus.COMPLETED, null, DATE, DATE, 0L);
+    }
+}
@@ -0,0 +1,70 @@
+package com.hsbc.transaction.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.hsbc.transaction.cache.TransactionCacheLoader;
+import com.hsbc.transaction.dto.PageResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CacheConfigTest {
+
+    @Test
+    void cacheManager_AppliesPerCacheSpec() {
+        CacheSpecProperties properties = new CacheSpecProperties();
+        CacheSpecProperties.Spec transactions = new CacheSpecProperties.Spec();
+        transactions.setMaximumWeight(1000L);
+        transactions.setExpireAfterWrite(Duration.ofMinutes(10));
+        transactions.setExpireAfterAccess(Duration.ofMinutes(5));
+        properties.getCaches().put("transactions", transactions);
+        CacheSpecProperties.Spec balances = new CacheSpecProperties.Spec();
+        balances.setMaximumSize(50L);
+        balances.setRefreshAfterWrite(Duration.ofMinutes(1));
+        properties.getCaches().put("accountBalances", balances);
+
+        CacheManager cacheManager = new CacheConfig().cacheManager(properties, mock(TransactionCacheLoader.class));
+
+        assertEquals(CacheConfig.CACHE_NAMES.size(), cacheManager.getCacheNames().size());
+        assertNull(cacheManager.getCache("unknown"));
+
+        Cache<Object, Object> transactionCache = nativeCache(cacheManager, "transactions");
+        assertTrue(transactionCache.policy().eviction().orElseThrow().isWeighted());
+        assertEquals(1000L, transactionCache.policy().eviction().orElseThrow().getMaximum());
+        assertEquals(Duration.ofMinutes(10), transactionCache.policy().expireAfterWrite().orElseThrow().getExpiresAfter());
+        assertEquals(Duration.ofMinutes(5), transactionCache.policy().expireAfterAccess().orElseThrow().getExpiresAfter());
+        assertTrue(transactionCache.policy().isRecordingStats());
+        assertFalse(transactionCache instanceof LoadingCache);
+
+        Cache<Object, Object> balanceCache = nativeCache(cacheManager, "accountBalances");
+        assertEquals(50L, balanceCache.policy().eviction().orElseThrow().getMaximum());
+        assertTrue(balanceCache.policy().refreshAfterWrite().isPresent());
+        assertTrue(balanceCache instanceof LoadingCache);
+    }
+
+    @Test
+    void weightBound_CountsRowsInCachedPages() {
+        CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec();
+        spec.setMaximumWeight(100L);
+        Cache<Object, Object> cache = CacheConfig.caffeine(spec).executor(Runnable::run).build();
+
+        for (int i = 0; i < 20; i++) {
+            cache.put(i, new PageResponse<>(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9), 0, 9, 9, 1, true, true));
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.policy().eviction().orElseThrow().weightedSize().orElseThrow() <= 100L);
+        assertTrue(cache.estimatedSize() <= 10);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cache<Object, Object> nativeCache(CacheManager cacheManager, String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+}
@@ -0,0 +1,63 @@
+package com.hsbc.transaction.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.dto.TransactionResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "transaction.ingestion.mode=async")
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+class AsyncIngestionIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void createTransaction_AsyncMode_AcceptedThenCompleted() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        TransactionRequest request = new TransactionRequest();
+        request.setAccountNumber("12345678");
+        request.setAmount(new BigDecimal("100.00"));
+        request.setType("DEPOSIT");
+        request.setDescription("Async transaction");
+
+        String body = mockMvc.perform(post("/api/v1/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.reference").isString())
+                .andExpect(jsonPath("$.status").value("PENDING"))
+                .andReturn().getResponse().getContentAsString();
+        String reference = objectMapper.readValue(body, TransactionResponse.class).getReference();
+
+        String status = "PENDING";
+        for (int i = 0; i < 50 && "PENDING".equals(status); i++) {
+            Thread.sleep(100);
+            String statusBody = mockMvc.perform(get("/api/v1/transactions/reference/" + reference + "/status"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            status = objectMapper.readValue(statusBody, TransactionResponse.class).getStatus().name();
+        }
+        assertEquals("COMPLETED", status);
+    }
+}
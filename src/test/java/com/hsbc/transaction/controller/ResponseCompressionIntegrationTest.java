@@ -0,0 +1,82 @@
+package com.hsbc.transaction.controller;
+
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compression is applied by Tomcat, which MockMvc bypasses, so these
+ * requests go over HTTP to a running server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ResponseCompressionIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void recentTransactions_TaggedAndGzipped() throws Exception {
+        List<TransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            TransactionRequest request = new TransactionRequest();
+            request.setAccountNumber("55443322");
+            request.setAmount(new BigDecimal("12.50"));
+            request.setType("DEPOSIT");
+            request.setDescription("Compression test row " + i + " with a description long enough to pass 2 KB");
+            requests.add(request);
+        }
+        transactionService.createTransactions(requests);
+
+        HttpResponse<byte[]> json = get("application/json");
+        assertEquals(200, json.statusCode());
+        assertEquals("gzip", json.headers().firstValue("Content-Encoding").orElse(null));
+        String etag = json.headers().firstValue("ETag").orElseThrow();
+        assertTrue(etag.startsWith("W/\"") && etag.endsWith(";json\""), etag);
+        assertTrue(json.headers().allValues("Vary").stream()
+                .flatMap(vary -> Arrays.stream(vary.split(",")))
+                .anyMatch(header -> header.trim().equalsIgnoreCase("Accept")));
+        assertTrue(gunzip(json.body()).startsWith("[{"));
+
+        HttpResponse<byte[]> cbor = get("application/cbor");
+        assertEquals(200, cbor.statusCode());
+        assertNotEquals(etag, cbor.headers().firstValue("ETag").orElse(null));
+    }
+
+    private HttpResponse<byte[]> get(String accept) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/transactions/recent"))
+                .header("Accept", accept)
+                .header("Accept-Encoding", "gzip")
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes());
+        }
+    }
+}
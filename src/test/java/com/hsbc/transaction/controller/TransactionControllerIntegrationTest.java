@@ -1,5 +1,9 @@
 package com.hsbc.transaction.controller;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.WireFormat;
 import com.hsbc.transaction.dto.TransactionRequest;
 import org.junit.jupiter.api.Test;
 import com.hsbc.transaction.dto.TransactionResponse;
@@ -9,13 +13,23 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -67,6 +81,40 @@ class TransactionControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createTransaction_RepeatedIdempotencyKey_ReturnsOriginal() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        TransactionRequest request = createValidTransactionRequest();
+        request.setAccountNumber("77889900");
+        String requestJson = objectMapper.writeValueAsString(request);
+
+        String first = mockMvc.perform(post("/api/v1/transactions")
+                .header("Idempotency-Key", "controller-retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestJson))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String reference = objectMapper.readTree(first).get("reference").asText();
+
+        mockMvc.perform(post("/api/v1/transactions")
+                .header("Idempotency-Key", "controller-retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(requestJson))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.reference").value(reference));
+        request.setAmount(request.getAmount().add(BigDecimal.ONE));
+        mockMvc.perform(post("/api/v1/transactions")
+                .header("Idempotency-Key", "controller-retry-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.errorCode").value("IDEMPOTENCY_KEY_MISMATCH"));
+        mockMvc.perform(get("/api/v1/transactions/account/77889900/count"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1"));
+    }
+
     @Test
     void getAllTransactions_ReturnsOk() throws Exception {
         mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
@@ -188,6 +236,343 @@ class TransactionControllerIntegrationTest {
                 .andExpect(jsonPath("$.type").value("DEPOSIT"));
     }
 
+    @Test
+    void getTransactionById_ETagRevalidatesAndIfMatchGuardsUpdates() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        String responseBody = mockMvc.perform(post("/api/v1/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidTransactionRequest())))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        TransactionResponse created = objectMapper.readValue(responseBody, TransactionResponse.class);
+        String url = "/api/v1/transactions/" + created.getId();
+
+        String etag = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + created.getReference() + "-0;json\""))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get(url).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        // Each format is its own representation; the JSON tag does not revalidate Protobuf
+        mockMvc.perform(get(url).header("If-None-Match", etag).accept("application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + created.getReference() + "-0;protobuf\""));
+        // Same id and version, as a restarted in-memory database would give, but another row
+        mockMvc.perform(get(url).header("If-None-Match", "\"TXNOTHER-0\""))
+                .andExpect(status().isOk());
+        mockMvc.perform(put(url).header("If-Match", "\"TXNOTHER-0\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\":\"Someone else's\"}"))
+                .andExpect(status().isPreconditionFailed());
+
+        String update = "{\"description\":\"Reconciled\"}";
+        mockMvc.perform(put(url).header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(update))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + created.getReference() + "-1;json\""))
+                .andExpect(jsonPath("$.version").value(1));
+
+        // A second writer still holding the old tag loses instead of overwriting
+        mockMvc.perform(put(url).header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"description\":\"Overwritten\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.errorCode").value("TRANSACTION_VERSION_MISMATCH"));
+        mockMvc.perform(get(url).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Reconciled"));
+    }
+
+    @Test
+    void getAccountBalance_ETagChangesOnlyWhenTheAccountIsWritten() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        TransactionRequest request = createValidTransactionRequest();
+        request.setAccountNumber("77001122");
+        mockMvc.perform(post("/api/v1/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        String etag = mockMvc.perform(get("/api/v1/transactions/account/77001122/balance"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"")))
+                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/v1/transactions/account/77001122/balance").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/transactions/account/77001122/balance").header("If-None-Match", etag)
+                .accept("application/cbor"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/v1/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/v1/transactions/account/77001122/balance").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").value(200.00));
+    }
+
+    @Test
+    void getTransactionById_NegotiatesBinaryFormats() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        String responseBody = mockMvc.perform(post("/api/v1/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidTransactionRequest())))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        TransactionResponse created = objectMapper.readValue(responseBody, TransactionResponse.class);
+        String url = "/api/v1/transactions/" + created.getId();
+
+        byte[] cbor = mockMvc.perform(get(url).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode decoded = new CBORMapper().readTree(cbor);
+        assertEquals(created.getReference(), decoded.get("reference").asText());
+
+        byte[] protobuf = mockMvc.perform(get(url).accept("application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-protobuf"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertTrue(protobuf.length < responseBody.length());
+
+        // Clients accepting anything still get JSON
+        mockMvc.perform(get(url).accept(MediaType.ALL))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void listsAndPages_AreNegotiatedAsProtobuf() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        mockMvc.perform(post("/api/v1/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(createValidTransactionRequest())))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/transactions/recent").accept("application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-protobuf"));
+        mockMvc.perform(get("/api/v1/transactions").param("size", "5").accept("application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-protobuf"));
+    }
+
+    @Test
+    void errors_AreNegotiatedAsProtobuf() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        byte[] notFound = mockMvc.perform(get("/api/v1/transactions/999999").accept("application/x-protobuf"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentType("application/x-protobuf"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("TRANSACTION_NOT_FOUND", protobufString(notFound, 1));
+
+        byte[] badRequest = mockMvc.perform(get("/api/v1/transactions/aggregates")
+                        .param("account", "12345678")
+                        .param("granularity", "fortnight")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-31")
+                        .accept("application/x-protobuf"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType("application/x-protobuf"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals("VALIDATION_ERROR", protobufString(badRequest, 1));
+
+        mockMvc.perform(get("/api/v1/transactions/aggregates")
+                        .param("account", "12345678")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-31")
+                        .accept("application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-protobuf"));
+    }
+
+    @Test
+    void createTransactions_Batch_ReturnsPerItemResults() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        String batchJson = objectMapper.writeValueAsString(List.of(
+                createValidTransactionRequest(),
+                createValidTransactionRequest(),
+                createInvalidTransactionRequest()));
+
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(batchJson))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].transaction.id").isNumber())
+                .andExpect(jsonPath("$.results[2].status").value("REJECTED"));
+    }
+
+    @Test
+    void getTransactionsByAccount_WithoutTotal_ReturnsSliceAndCachedTotalFollowsWrites() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        List<TransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TransactionRequest request = createValidTransactionRequest();
+            request.setAccountNumber("55667799");
+            requests.add(request);
+        }
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/transactions/account/55667799").param("size", "2").param("withTotal", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").doesNotExist());
+        mockMvc.perform(get("/api/v1/transactions/account/55667799").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andExpect(jsonPath("$.totalPages").value(2));
+
+        // The cached count is adjusted by the insert rather than counted again
+        TransactionRequest another = createValidTransactionRequest();
+        another.setAccountNumber("55667799");
+        mockMvc.perform(post("/api/v1/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(another)))
+                .andExpect(status().isCreated());
+        mockMvc.perform(get("/api/v1/transactions/account/55667799").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(4))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    void getTransactionsByAccountCursor_WalksAllRowsOnceIncludingTies() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        // Same timestamp on every row, so only the id tie-breaker orders them
+        LocalDateTime sameTime = LocalDateTime.now().minusDays(1).withNano(0);
+        List<TransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            TransactionRequest request = createValidTransactionRequest();
+            request.setAccountNumber("44556677");
+            request.setTransactionDate(sameTime);
+            requests.add(request);
+        }
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isCreated());
+
+        Set<Long> seen = new HashSet<>();
+        List<Long> order = new ArrayList<>();
+        String after = null;
+        int slices = 0;
+        do {
+            var requestBuilder = get("/api/v1/transactions/account/44556677/cursor").param("size", "2");
+            if (after != null) {
+                requestBuilder.param("after", after);
+            }
+            String body = mockMvc.perform(requestBuilder)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode page = objectMapper.readTree(body);
+            for (JsonNode row : page.get("content")) {
+                assertTrue(seen.add(row.get("id").asLong()), "Row returned twice");
+                order.add(row.get("id").asLong());
+            }
+            after = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            slices++;
+        } while (after != null);
+
+        assertEquals(5, seen.size());
+        assertEquals(3, slices);
+        List<Long> descending = new ArrayList<>(order);
+        descending.sort(Comparator.reverseOrder());
+        assertEquals(descending, order);
+    }
+
+    @Test
+    void getTransactionsCursor_InvalidCursor_ReturnsBadRequest() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        mockMvc.perform(get("/api/v1/transactions/cursor").param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"));
+    }
+
+    @Test
+    void exportTransactions_StreamsNdjsonAndCsvNewestFirst() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        List<TransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            TransactionRequest request = createValidTransactionRequest();
+            request.setAccountNumber("55667788");
+            request.setDescription("Export, \"quoted\" " + i);
+            request.setTransactionDate(LocalDateTime.now().minusHours(3 - i).withNano(0));
+            requests.add(request);
+        }
+        mockMvc.perform(post("/api/v1/transactions/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isCreated());
+
+        MvcResult ndjson = mockMvc.perform(get("/api/v1/transactions/export").param("accountNumber", "55667788"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] lines = mockMvc.perform(asyncDispatch(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("Export, \"quoted\" 2", objectMapper.readTree(lines[0]).get("description").asText());
+        assertEquals("Export, \"quoted\" 0", objectMapper.readTree(lines[2]).get("description").asText());
+
+        MvcResult csv = mockMvc.perform(get("/api/v1/transactions/export")
+                        .param("accountNumber", "55667788")
+                        .param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String[] rows = mockMvc.perform(asyncDispatch(csv))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString().split("\r\n");
+        assertEquals(4, rows.length);
+        assertTrue(rows[0].startsWith("id,reference,accountNumber,amount,type,description"));
+        assertTrue(rows[1].contains(",55667788,100.00,DEPOSIT,\"Export, \"\"quoted\"\" 2\","));
+    }
+
+    @Test
+    void exportTransactions_UnknownFormat_ReturnsBadRequest() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+
+        mockMvc.perform(get("/api/v1/transactions/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value("VALIDATION_ERROR"));
+    }
+
+    private static String protobufString(byte[] message, int field) throws Exception {
+        CodedInputStream input = CodedInputStream.newInstance(message);
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (WireFormat.getTagFieldNumber(tag) == field) {
+                return input.readString();
+            }
+            input.skipField(tag);
+        }
+        return null;
+    }
+
     private TransactionRequest createValidTransactionRequest() {
         TransactionRequest request = new TransactionRequest();
         request.setReference(null); // reference auto-generated by backend
@@ -0,0 +1,187 @@
+package com.hsbc.transaction.importer;
+
+import com.hsbc.transaction.config.ImportProperties;
+import com.hsbc.transaction.dto.ImportReport;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.exception.ValidationException;
+import com.hsbc.transaction.service.AccountSummaryService;
+import com.hsbc.transaction.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Small chunks and batches so a handful of rows spans several of each; one worker keeps duplicate handling deterministic
+@SpringBootTest(properties = {
+        "transaction.import.chunk-size=256B",
+        "transaction.import.batch-size=2",
+        "transaction.import.parallelism=1"
+})
+@ActiveProfiles("test")
+class TransactionFileImporterTest {
+
+    private static final String HEADER = "reference,accountNumber,amount,type,description,transactionDate,notes\n";
+
+    @Autowired
+    private TransactionFileImporter fileImporter;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountSummaryService accountSummaryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ImportProperties importProperties;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void importCsv_ValidatesRowsAcrossChunksAndRefreshesLedger() throws Exception {
+        StringBuilder content = new StringBuilder(HEADER);
+        for (int i = 1; i <= 8; i++) {
+            content.append(csvRow("IMPORT-CSV-" + i, "77700001", "10.00", "DEPOSIT", "Imported, row " + i));
+        }
+        content.append(csvRow("IMPORT-CSV-BAD", "77700001", "-5.00", "DEPOSIT", "Negative amount"));
+        content.append(csvRow("IMPORT-CSV-1", "77700001", "10.00", "DEPOSIT", "Repeats the first reference"));
+        content.append("IMPORT-CSV-ODD,77700001,ten,DEPOSIT,Unparseable amount,,\n");
+        Path file = write("transactions.csv", content.toString());
+
+        ImportReport report = fileImporter.importFile(file, ImportFormat.CSV);
+
+        assertTrue(report.isCompleted());
+        assertTrue(report.getChunks() > 1, "expected the file to be split into several chunks");
+        assertEquals(8, report.getRowsImported());
+        assertEquals(3, report.getRowsRejected());
+        assertEquals(3, report.getRejections().size());
+        assertTrue(report.getRejections().stream().anyMatch(r -> r.getError().equals("Duplicate transaction reference")));
+        assertTrue(report.getRejections().stream().anyMatch(r -> r.getError().equals("Invalid amount")));
+        // Reasons never quote the line's values
+        assertTrue(report.getRejections().stream().noneMatch(r -> r.getError().contains("ten") || r.getError().contains("IMPORT-")));
+        assertEquals(8, countByReferencePrefix("IMPORT-CSV-"));
+
+        TransactionResponse imported = transactionService.getTransactionByReference("IMPORT-CSV-3");
+        assertEquals("Imported, row 3", imported.getDescription());
+        assertEquals(0, new BigDecimal("80.00").compareTo(transactionService.getAccountBalance("77700001")));
+        assertTrue(accountSummaryService.verify().isConsistent());
+
+        // The same file again is recognised as done
+        ImportReport again = fileImporter.importFile(file, ImportFormat.CSV);
+        assertTrue(again.isResumed());
+        assertEquals(0, again.getRowsImported());
+        assertEquals(8, again.getTotalRowsImported());
+        assertEquals(8, countByReferencePrefix("IMPORT-CSV-"));
+    }
+
+    @Test
+    void importCsv_ResumesChunkFromCommittedOffset() throws Exception {
+        String first = csvRow("IMPORT-RESUME-1", "77700002", "1.00", "DEPOSIT", "Resume row 1");
+        StringBuilder content = new StringBuilder(HEADER).append(first);
+        for (int i = 2; i <= 6; i++) {
+            content.append(csvRow("IMPORT-RESUME-" + i, "77700002", "1.00", "DEPOSIT", "Resume row " + i));
+        }
+        Path file = write("resume.csv", content.toString());
+        ImportReport report = fileImporter.importFile(file, ImportFormat.CSV);
+        assertEquals(6, report.getRowsImported());
+
+        // Pretend the import died after committing only the first row of the first chunk
+        long chunkStart = HEADER.length();
+        List<String> chunkReferences = jdbcTemplate.queryForList(
+                "SELECT reference FROM transactions WHERE reference LIKE 'IMPORT-RESUME-%' ORDER BY reference", String.class);
+        jdbcTemplate.update("UPDATE import_checkpoints SET committed_offset = ?, rows_imported = 1 "
+                + "WHERE import_id = ? AND chunk_start = ?", chunkStart + first.length(), report.getImportId(), chunkStart);
+        long chunkEnd = jdbcTemplate.queryForObject("SELECT chunk_end FROM import_checkpoints WHERE import_id = ? "
+                + "AND chunk_start = ?", Long.class, report.getImportId(), chunkStart);
+        int rowsInChunk = countLines(content.substring((int) chunkStart, (int) chunkEnd));
+        jdbcTemplate.update("DELETE FROM transactions WHERE reference IN ("
+                + String.join(",", chunkReferences.subList(1, rowsInChunk).stream().map(r -> "'" + r + "'").toList()) + ")");
+
+        ImportReport resumed = fileImporter.importFile(file, ImportFormat.CSV);
+
+        assertTrue(resumed.isResumed());
+        assertTrue(resumed.isCompleted());
+        assertEquals(rowsInChunk - 1, resumed.getRowsImported());
+        assertEquals(0, resumed.getRowsRejected());
+        assertEquals(6, countByReferencePrefix("IMPORT-RESUME-"));
+    }
+
+    @Test
+    void importNdjson_AcceptsExportedLines() throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            // Export lines carry extra fields such as id and status, which are ignored
+            lines.add("{\"id\":" + i + ",\"accountNumber\":\"77700003\",\"amount\":25.50,\"type\":\"PAYMENT\","
+                    + "\"description\":\"Ndjson row " + i + "\",\"status\":\"COMPLETED\",\"transactionDate\":\"2024-02-0" + i + "T08:30:00\"}");
+        }
+        lines.add("{not json");
+        Path file = write("transactions.ndjson", String.join("\r\n", lines));
+
+        ImportReport report = fileImporter.importFile(file, ImportFormat.fromParameter(null, file));
+
+        assertTrue(report.isCompleted());
+        assertEquals("NDJSON", report.getFormat());
+        assertEquals(5, report.getRowsImported());
+        assertEquals(1, report.getRowsRejected());
+        assertEquals(5, transactionService.getTransactionCountByAccount("77700003"));
+    }
+
+    @Test
+    void resolveImportFile_StaysInsideTheImportDirectory() throws Exception {
+        String directory = importProperties.getDirectory();
+        importProperties.setDirectory(tempDir.resolve("imports").toString());
+        try {
+            Path imports = Files.createDirectories(tempDir.resolve("imports"));
+            Path nested = Files.createDirectories(imports.resolve("2024"));
+            assertEquals(nested.resolve("march.csv"), fileImporter.resolveImportFile("2024/march.csv"));
+            assertEquals(imports.resolve("march.csv"), fileImporter.resolveImportFile("2024/../march.csv"));
+
+            Path outside = write("outside.csv", HEADER);
+            assertThrows(ValidationException.class, () -> fileImporter.resolveImportFile("../outside.csv"));
+            assertThrows(ValidationException.class, () -> fileImporter.resolveImportFile(outside.toString()));
+            assertThrows(ValidationException.class, () -> fileImporter.resolveImportFile("."));
+
+            Path link = imports.resolve("link.csv");
+            try {
+                Files.createSymbolicLink(link, outside);
+            } catch (UnsupportedOperationException | IOException e) {
+                return;
+            }
+            assertThrows(ValidationException.class, () -> fileImporter.resolveImportFile("link.csv"));
+        } finally {
+            importProperties.setDirectory(directory);
+        }
+    }
+
+    private static String csvRow(String reference, String account, String amount, String type, String description) {
+        return reference + "," + account + "," + amount + "," + type + ",\"" + description + "\",2024-01-15T10:00:00,\n";
+    }
+
+    private static int countLines(String text) {
+        return (int) text.chars().filter(c -> c == '\n').count();
+    }
+
+    private Path write(String name, String content) throws Exception {
+        return Files.writeString(tempDir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+
+    private int countByReferencePrefix(String prefix) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions WHERE reference LIKE ?",
+                Integer.class, prefix + "%");
+    }
+}
@@ -0,0 +1,110 @@
+package com.hsbc.transaction.metrics;
+
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.exception.TransactionNotFoundException;
+import com.hsbc.transaction.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class TransactionServiceMetricsTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void serviceTimers_TagCacheMissThenHit() {
+        TransactionResponse created = transactionService.createTransaction(request());
+        long misses = count("getTransactionById", "miss");
+        long hits = count("getTransactionById", "hit");
+
+        transactionService.getTransactionById(created.getId());
+        transactionService.getTransactionById(created.getId());
+
+        assertEquals(misses + 1, count("getTransactionById", "miss"));
+        assertEquals(hits + 1, count("getTransactionById", "hit"));
+        assertTrue(count("createTransaction", "none") >= 1);
+    }
+
+    @Test
+    void serviceTimers_TagFailuresWithException() {
+        assertThrows(TransactionNotFoundException.class, () -> transactionService.getTransactionById(Long.MAX_VALUE));
+
+        Timer failed = meterRegistry.find(ServiceTimingInterceptor.METRIC_NAME)
+                .tags("method", "getTransactionById", "exception", "TransactionNotFoundException")
+                .timer();
+        assertNotNull(failed);
+        assertTrue(failed.count() >= 1);
+    }
+
+    @Test
+    void creationStagesAndHibernateStatistics_AreRecorded() {
+        transactionService.createTransaction(request());
+
+        for (String stage : new String[]{"validate", "reference"}) {
+            Timer timer = meterRegistry.find("transaction.create.stage").tag("stage", stage).timer();
+            assertNotNull(timer, stage);
+            assertTrue(timer.count() >= 1, stage);
+        }
+        assertNotNull(meterRegistry.find("transaction.reference.contention").tag("cause", "contention").counter());
+        assertNotNull(meterRegistry.find("hibernate.flushes").functionCounter());
+        assertNotNull(meterRegistry.find("hibernate.query.executions").functionCounter());
+    }
+
+    @Test
+    void prometheusEndpoint_ExposesHistogramBuckets() throws Exception {
+        TransactionResponse created = transactionService.createTransaction(request());
+        transactionService.getTransactionById(created.getId());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("transaction_service_seconds_bucket{")))
+                .andExpect(content().string(containsString("cache=\"miss\"")))
+                .andExpect(content().string(containsString("transaction_create_stage_seconds_bucket{")))
+                .andExpect(content().string(containsString("cache_gets_total{")));
+    }
+
+    private long count(String method, String cache) {
+        Timer timer = meterRegistry.find(ServiceTimingInterceptor.METRIC_NAME)
+                .tags("method", method, "cache", cache, "exception", "none")
+                .timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private TransactionRequest request() {
+        TransactionRequest request = new TransactionRequest();
+        request.setAccountNumber("55501234");
+        request.setAmount(new BigDecimal("42.00"));
+        request.setType("DEPOSIT");
+        request.setDescription("Metrics test deposit");
+        return request;
+    }
+}
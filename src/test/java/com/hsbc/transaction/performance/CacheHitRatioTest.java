@@ -0,0 +1,135 @@
+package com.hsbc.transaction.performance;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.dto.UpdateTransactionRequest;
+import com.hsbc.transaction.service.TransactionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replays the same mixed read/write workload twice: once with the targeted
+ * invalidation the service uses, and once clearing every cache after each
+ * write the way the old {@code allEntries} eviction did.
+ */
+// The hot store would answer first account pages and the recent list before the caches see them
+@SpringBootTest(properties = "transaction.hot-store.enabled=false")
+@ActiveProfiles("test")
+class CacheHitRatioTest {
+
+    private static final int ACCOUNTS = 20;
+    private static final int OPERATIONS = 4000;
+    private static final String[] CACHES = {"transactions", "recentTransactions", "accountBalances"};
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void mixedWorkload_TargetedInvalidationKeepsCachesWarm() {
+        List<Long> ids = seed();
+
+        double targeted = runWorkload(ids, false);
+        double clearAll = runWorkload(ids, true);
+
+        System.out.println("Cache hit ratio (90% reads / 10% writes):");
+        System.out.println("Targeted invalidation: " + String.format("%.3f", targeted));
+        System.out.println("Clear all on write: " + String.format("%.3f", clearAll));
+
+        assertTrue(targeted > 0.75, "Targeted invalidation hit ratio too low: " + targeted);
+        assertTrue(targeted > clearAll + 0.25, "Targeted " + targeted + " vs clear-all " + clearAll);
+
+        // Caffeine statistics are bound to actuator metrics for every cache
+        for (String name : CACHES) {
+            assertNotNull(meterRegistry.find("cache.gets").tag("cache", name).tag("result", "hit").meter(),
+                    "No cache.gets metric for " + name);
+        }
+        assertNotNull(meterRegistry.find("cache.evictions").tag("cache", "transactions").meter());
+    }
+
+    private List<Long> seed() {
+        List<Long> ids = new ArrayList<>();
+        for (int account = 0; account < ACCOUNTS; account++) {
+            for (int i = 0; i < 5; i++) {
+                ids.add(transactionService.createTransaction(request(account)).getId());
+            }
+        }
+        return ids;
+    }
+
+    private double runWorkload(List<Long> ids, boolean clearAllOnWrite) {
+        clearCaches();
+        CacheStats before = stats();
+
+        Random random = new Random(42);
+        for (int op = 0; op < OPERATIONS; op++) {
+            int account = random.nextInt(ACCOUNTS);
+            int roll = random.nextInt(100);
+            if (roll < 5) {
+                transactionService.createTransaction(request(account));
+            } else if (roll < 10) {
+                UpdateTransactionRequest update = new UpdateTransactionRequest();
+                update.setDescription("Updated " + op);
+                transactionService.updateTransaction(ids.get(random.nextInt(ids.size())), update);
+            } else if (roll < 40) {
+                transactionService.getTransactionsByAccount(accountNumber(account), PageRequest.of(0, 20), true);
+            } else if (roll < 60) {
+                transactionService.getAccountBalance(accountNumber(account));
+            } else if (roll < 70) {
+                transactionService.getTransactionCountByAccount(accountNumber(account));
+            } else {
+                transactionService.getTransactionById(ids.get(random.nextInt(ids.size())));
+            }
+            if (roll < 10 && clearAllOnWrite) {
+                clearCaches();
+            }
+        }
+        return stats().minus(before).hitRate();
+    }
+
+    private CacheStats stats() {
+        CacheStats total = CacheStats.empty();
+        for (String name : CACHES) {
+            CaffeineCache cache = (CaffeineCache) cacheManager.getCache(name);
+            total = total.plus(cache.getNativeCache().stats());
+        }
+        return total;
+    }
+
+    private void clearCaches() {
+        for (String name : CACHES) {
+            cacheManager.getCache(name).clear();
+        }
+    }
+
+    private static String accountNumber(int account) {
+        return String.format("7700%04d", account);
+    }
+
+    private static TransactionRequest request(int account) {
+        TransactionRequest request = new TransactionRequest();
+        request.setAccountNumber(accountNumber(account));
+        request.setAmount(new BigDecimal("10.00"));
+        request.setType("DEPOSIT");
+        request.setDescription("Hit ratio workload");
+        return request;
+    }
+}
@@ -0,0 +1,118 @@
+package com.hsbc.transaction.performance;
+
+import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.search.TransactionSearchIndex;
+import com.hsbc.transaction.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the inverted index with the LIKE scan it replaces at 1M rows.
+ * Run with {@code mvn test -Dtest=SearchIndexBenchmarkTest -Dbenchmark=true -DargLine=-Xmx3g};
+ * the in-memory H2 database alone needs well over the default heap at this size.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SearchIndexBenchmarkTest {
+
+    private static final int ROWS = 1_000_000;
+    private static final long FIRST_ID = 100_000_000L;
+    private static final String[] WORDS = {
+            "coffee", "grocery", "salary", "rent", "utilities", "transfer", "savings", "insurance",
+            "restaurant", "fuel", "pharmacy", "subscription", "refund", "interest", "payroll", "bonus",
+            "market", "online", "store", "monthly", "annual", "travel", "hotel", "airline", "taxi"};
+    private static final String[] QUERIES = {"coffee", "sub", "monthly salary", "hotel travel online", "TXNBENCH0000500"};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionSearchIndex searchIndex;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void searchAtOneMillionRows_IndexVersusLikeScan() {
+        insertRows();
+
+        long rebuildStart = System.currentTimeMillis();
+        int indexed = searchIndex.rebuild();
+        long rebuildMillis = System.currentTimeMillis() - rebuildStart;
+        assertTrue(indexed >= ROWS);
+
+        // Warm up both paths so JIT compilation is not measured
+        for (int run = 0; run < 3; run++) {
+            for (String query : QUERIES) {
+                transactionRepository.searchByKeyword(query, PageRequest.of(0, 20));
+                searchIndex.search(query, 0, 20);
+            }
+        }
+
+        System.out.println("Search Benchmark (" + ROWS + " rows, first page of 20, average of 5 runs):");
+        System.out.println("Index rebuild: " + rebuildMillis + " ms");
+        for (String query : QUERIES) {
+            long likeNanos = 0;
+            long indexNanos = 0;
+            PageResponse<TransactionResponse> ranked = null;
+            for (int run = 0; run < 5; run++) {
+                long start = System.nanoTime();
+                transactionRepository.searchByKeyword(query, PageRequest.of(0, 20));
+                likeNanos += System.nanoTime() - start;
+
+                cacheManager.getCache("transactions").clear();
+                start = System.nanoTime();
+                ranked = transactionService.searchTransactions(query, PageRequest.of(0, 20));
+                indexNanos += System.nanoTime() - start;
+            }
+            System.out.println(String.format("%-22s LIKE: %8.2f ms   index: %7.2f ms   matches: %d",
+                    "\"" + query + "\"", likeNanos / 5 / 1e6, indexNanos / 5 / 1e6, ranked.getTotalElements()));
+        }
+    }
+
+    private void insertRows() {
+        Random random = new Random(7);
+        LocalDateTime base = LocalDateTime.now().minusYears(1);
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < ROWS; i++) {
+            String description = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]
+                    + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            Timestamp when = Timestamp.valueOf(base.plusSeconds(i * 30L));
+            batch.add(new Object[]{FIRST_ID + i, String.format("TXNBENCH%010d", i), String.format("%08d", i % 5000),
+                    "10.00", "PAYMENT", description, when, "COMPLETED", when, when});
+            if (batch.size() == 10_000) {
+                flush(batch);
+            }
+        }
+        flush(batch);
+    }
+
+    private void flush(List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (id, reference, account_number, amount, type, description, " +
+                "transaction_date, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        batch.clear();
+    }
+}
@@ -1,10 +1,14 @@
 package com.hsbc.transaction.performance;
 
+import com.hsbc.transaction.dto.CursorPageResponse;
 import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.dto.TransactionResponse;
 import com.hsbc.transaction.service.TransactionService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
@@ -88,7 +92,7 @@ class TransactionPerformanceTest {
         
         for (int i = 0; i < 10; i++) {
             transactionService.getAllTransactions(
-                org.springframework.data.domain.PageRequest.of(i, 10)
+                org.springframework.data.domain.PageRequest.of(i, 10), true
             );
         }
         
@@ -154,6 +158,50 @@ class TransactionPerformanceTest {
         assertTrue(totalTime < 1000, "Cached operations should be very fast");
     }
 
+    @Test
+    void testDeepPaginationOffsetVersusCursor() throws Exception {
+        String account = "66000000";
+        int rows = 20000;
+        int size = 20;
+        List<TransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            TransactionRequest request = createTransactionRequest(0, i);
+            request.setAccountNumber(account);
+            requests.add(request);
+        }
+        transactionService.createTransactions(requests);
+
+        // Walk to the last slice with cursors, timing the first and the deepest seek
+        long firstSliceNanos = 0;
+        long deepestSliceNanos = 0;
+        int seen = 0;
+        String after = null;
+        do {
+            long start = System.nanoTime();
+            CursorPageResponse<TransactionResponse> slice =
+                    transactionService.getTransactionsByAccountAfter(account, after, size);
+            long elapsed = System.nanoTime() - start;
+            if (after == null) {
+                firstSliceNanos = elapsed;
+            }
+            deepestSliceNanos = elapsed;
+            seen += slice.getContent().size();
+            after = slice.getNextCursor();
+        } while (after != null);
+
+        long start = System.nanoTime();
+        transactionService.getTransactionsByAccount(account,
+                PageRequest.of(rows / size - 1, size, Sort.by("transactionDate").descending()), true);
+        long deepOffsetNanos = System.nanoTime() - start;
+
+        System.out.println("Deep Pagination Performance (" + rows + " rows, page size " + size + "):");
+        System.out.println("Cursor first slice: " + firstSliceNanos / 1_000 + " us");
+        System.out.println("Cursor last slice: " + deepestSliceNanos / 1_000 + " us");
+        System.out.println("Offset last page (OFFSET + COUNT): " + deepOffsetNanos / 1_000 + " us");
+
+        assertEquals(rows, seen, "Cursor walk should return every row exactly once");
+    }
+
     private TransactionRequest createTransactionRequest(int threadId, int transactionId) {
         TransactionRequest request = new TransactionRequest();
         request.setReference(null);
@@ -0,0 +1,208 @@
+package com.hsbc.transaction.reactive;
+
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReactiveTransactionApiTest {
+
+    @Autowired
+    private ReactiveApiServer reactiveApiServer;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    private WebTestClient webTestClient;
+    private String accountNumber;
+    private TransactionResponse oldest;
+    private TransactionResponse newest;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + reactiveApiServer.getPort() + "/api/v1/transactions")
+                .build();
+
+        // Fresh account per test so listings and balances only see this test's rows
+        accountNumber = String.valueOf(ThreadLocalRandom.current().nextLong(10_000_000_000L, 99_999_999_999L));
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        oldest = transactionService.createTransaction(request("DEPOSIT", "500.00", now.minusDays(2)));
+        transactionService.createTransaction(request("WITHDRAWAL", "120.00", now.minusDays(1)));
+        newest = transactionService.createTransaction(request("DEPOSIT", "80.00", now));
+    }
+
+    @Test
+    void getById_AndByReference_MatchServletResponse() {
+        TransactionResponse expected = transactionService.getTransactionById(newest.getId());
+
+        TransactionResponse byId = webTestClient.get().uri("/{id}", newest.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TransactionResponse.class)
+                .returnResult().getResponseBody();
+        assertNotNull(byId);
+        assertEquals(expected.getReference(), byId.getReference());
+        assertEquals(0, expected.getAmount().compareTo(byId.getAmount()));
+        assertEquals(expected.getType(), byId.getType());
+        assertEquals(expected.getTransactionDate(), byId.getTransactionDate());
+        assertEquals(expected.getStatus(), byId.getStatus());
+
+        webTestClient.get().uri("/reference/{reference}", newest.getReference())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(newest.getId())
+                .jsonPath("$.accountNumber").isEqualTo(accountNumber);
+    }
+
+    @Test
+    void getById_Unknown_ReturnsNotFoundErrorBody() {
+        webTestClient.get().uri("/{id}", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("TRANSACTION_NOT_FOUND")
+                .jsonPath("$.status").isEqualTo(404);
+    }
+
+    @Test
+    void getByAccount_ReturnsNewestFirstPage() {
+        webTestClient.get().uri(uri -> uri.path("/account/{accountNumber}")
+                        .queryParam("page", 0)
+                        .queryParam("size", 2)
+                        .build(accountNumber))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content.length()").isEqualTo(2)
+                .jsonPath("$.content[0].id").isEqualTo(newest.getId())
+                .jsonPath("$.totalElements").isEqualTo(3)
+                .jsonPath("$.totalPages").isEqualTo(2)
+                .jsonPath("$.first").isEqualTo(true)
+                .jsonPath("$.last").isEqualTo(false);
+    }
+
+    @Test
+    void streamByAccount_EmitsEveryRowAsNdjson() {
+        List<TransactionResponse> rows = webTestClient.get().uri("/account/{accountNumber}/stream", accountNumber)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(TransactionResponse.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertNotNull(rows);
+        assertEquals(3, rows.size());
+        assertEquals(newest.getId(), rows.get(0).getId());
+        assertEquals(oldest.getId(), rows.get(2).getId());
+    }
+
+    @Test
+    void getByCriteria_AppliesOnlyGivenFilters() {
+        webTestClient.get().uri(uri -> uri.path("/criteria")
+                        .queryParam("accountNumber", accountNumber)
+                        .queryParam("type", "deposit")
+                        .queryParam("minAmount", "100")
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(1)
+                .jsonPath("$.content[0].id").isEqualTo(oldest.getId());
+
+        webTestClient.get().uri(uri -> uri.path("/criteria").queryParam("type", "unknown").build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("VALIDATION_ERROR");
+    }
+
+    @Test
+    void malformedInput_ReturnsBadRequestErrorBody() {
+        webTestClient.get().uri("/not-a-number")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("VALIDATION_ERROR");
+
+        webTestClient.get().uri(uri -> uri.path("/account/{accountNumber}").queryParam("size", "x").build(accountNumber))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.get().uri(uri -> uri.path("/account/{accountNumber}").queryParam("page", "-1").build(accountNumber))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.get().uri("/account/{accountNumber}/balance/{type}", accountNumber, "unknown")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errorCode").isEqualTo("VALIDATION_ERROR");
+    }
+
+    @Test
+    void getBalance_MatchesLedger() {
+        BigDecimal balance = webTestClient.get().uri("/account/{accountNumber}/balance", accountNumber)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BigDecimal.class)
+                .returnResult().getResponseBody();
+        assertNotNull(balance);
+        assertEquals(0, transactionService.getAccountBalance(accountNumber).compareTo(balance));
+        assertEquals(0, new BigDecimal("460.00").compareTo(balance));
+
+        BigDecimal withdrawals = webTestClient.get().uri("/account/{accountNumber}/balance/{type}", accountNumber, "withdrawal")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BigDecimal.class)
+                .returnResult().getResponseBody();
+        assertNotNull(withdrawals);
+        assertEquals(0, new BigDecimal("120.00").compareTo(withdrawals));
+    }
+
+    @Test
+    void getRecent_ReturnsAtMostTenNewestFirst() {
+        webTestClient.get().uri("/recent")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TransactionResponse.class)
+                .value(recent -> {
+                    assertTrue(!recent.isEmpty() && recent.size() <= 10);
+                    for (int i = 1; i < recent.size(); i++) {
+                        assertFalse(recent.get(i).getTransactionDate().isAfter(recent.get(i - 1).getTransactionDate()));
+                    }
+                });
+    }
+
+    private TransactionRequest request(String type, String amount, LocalDateTime transactionDate) {
+        TransactionRequest request = new TransactionRequest();
+        request.setAccountNumber(accountNumber);
+        request.setAmount(new BigDecimal(amount));
+        request.setType(type);
+        request.setDescription("Reactive API " + type.toLowerCase());
+        request.setTransactionDate(transactionDate);
+        return request;
+    }
+}
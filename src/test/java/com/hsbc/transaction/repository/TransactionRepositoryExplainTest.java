@@ -0,0 +1,233 @@
+package com.hsbc.transaction.repository;
+
+import com.hsbc.transaction.model.TransactionType;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every {@link TransactionRepository} query, captures the SQL Hibernate
+ * sends and asks H2 for its plan, so a query that loses its index shows up as
+ * a test failure rather than as a slow endpoint.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.hsbc.transaction.repository.TransactionRepositoryExplainTest$CapturingInspector")
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TransactionRepositoryExplainTest {
+
+    private static final int ROWS = 5000;
+    private static final String ACCOUNT = "10000007";
+    private static final LocalDateTime BASE_DATE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final Pattern INDEX_SEEK = Pattern.compile("/\\* PUBLIC\\.\\w+: ");
+    private static final Pageable BY_DATE = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "transactionDate"));
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Timestamp date = Timestamp.valueOf(BASE_DATE.plusMinutes(i));
+            rows.add(new Object[]{1_000_000L + i, "EXPLAIN" + i, String.valueOf(10_000_000 + i % 200),
+                    BigDecimal.valueOf(1 + i % 1000), TransactionType.values()[i % TransactionType.values().length].name(),
+                    "Explain seed " + i, date, "COMPLETED", date, date});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO transactions (id, reference, account_number, amount, type, description, "
+                + "transaction_date, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        // Refresh selectivity statistics so the optimizer sees the seeded distribution
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void lookupsByKey_UseIndexes() throws Exception {
+        assertSeeks("findById", () -> transactionRepository.findById(1_000_010L));
+        assertSeeks("findAllById", () -> transactionRepository.findAllById(List.of(1_000_010L, 1_000_020L)));
+        assertSeeks("findByReference", () -> transactionRepository.findByReference("EXPLAIN10"));
+        assertSeeks("existsByReference", () -> transactionRepository.existsByReference("EXPLAIN10"));
+        assertSeeks("findExistingReferences",
+                () -> transactionRepository.findExistingReferences(List.of("EXPLAIN10", "EXPLAIN20")));
+        assertSeeks("findResponseById", () -> transactionRepository.findResponseById(1_000_010L));
+        assertSeeks("findResponseByReference", () -> transactionRepository.findResponseByReference("EXPLAIN10"));
+        assertSeeks("findResponsesByIdIn",
+                () -> transactionRepository.findResponsesByIdIn(List.of(1_000_010L, 1_000_020L)));
+        assertSeeks("findResponsesByReferenceIn",
+                () -> transactionRepository.findResponsesByReferenceIn(List.of("EXPLAIN10", "EXPLAIN20")));
+        assertSeeks("findByIdGreaterThanOrderByIdAsc",
+                () -> transactionRepository.findByIdGreaterThanOrderByIdAsc(1_000_100L, Limit.of(100)));
+    }
+
+    @Test
+    void filteredPages_UseIndexes() throws Exception {
+        assertSeeks("findByAccountNumber", () -> transactionRepository.findByAccountNumber(ACCOUNT, BY_DATE));
+        assertSeeks("findByType", () -> transactionRepository.findByType(TransactionType.FEE, BY_DATE));
+        assertSeeks("findByTransactionDateBetween", () -> transactionRepository.findByTransactionDateBetween(
+                BASE_DATE.plusDays(1), BASE_DATE.plusDays(2), BY_DATE));
+        assertSeeks("findByAmountBetween", () -> transactionRepository.findByAmountBetween(
+                new BigDecimal("10.00"), new BigDecimal("20.00"), BY_DATE));
+    }
+
+    @Test
+    void optionalFilters_EveryCombinationUsesAnIndex() throws Exception {
+        for (int mask = 0; mask < TransactionCriteria.Filter.COMBINATIONS; mask++) {
+            TransactionCriteria criteria = criteria(mask);
+            assertSeeksOrIndexOrdered("findByCriteria" + criteria, () -> transactionRepository.findByCriteria(criteria.accountNumber(),
+                    criteria.type(), criteria.startDate(), criteria.endDate(), criteria.minAmount(), criteria.maxAmount(),
+                    BY_DATE));
+            // Stream queries hold their cursor open, so they only run inside a transaction
+            assertSeeksOrIndexOrdered("streamByCriteria" + criteria, () -> transactionTemplate.executeWithoutResult(status -> {
+                try (var rows = transactionRepository.streamByCriteria(criteria.accountNumber(), criteria.type(),
+                        criteria.startDate(), criteria.endDate(), criteria.minAmount(), criteria.maxAmount())) {
+                    rows.count();
+                }
+            }));
+        }
+    }
+
+    @Test
+    void accountAggregates_UseIndexes() throws Exception {
+        assertSeeks("countByAccountNumber", () -> transactionRepository.countByAccountNumber(ACCOUNT));
+        assertSeeks("sumByAccountNumberAndType",
+                () -> transactionRepository.sumByAccountNumberAndType(ACCOUNT, TransactionType.DEPOSIT));
+    }
+
+    @Test
+    void dateOrderedReads_UseIndexes() throws Exception {
+        LocalDateTime seek = BASE_DATE.plusMinutes(ROWS / 2);
+        assertIndexOrdered("findAll", () -> transactionRepository.findAll(BY_DATE));
+        assertIndexOrdered("findRecentResponses", () -> transactionRepository.findRecentResponses(Limit.of(10)));
+        assertIndexOrdered("findAllByOrderByTransactionDateDescIdDesc",
+                () -> transactionRepository.findAllByOrderByTransactionDateDescIdDesc(Limit.of(20)));
+        assertSeeks("findAllAfter", () -> transactionRepository.findAllAfter(seek, 1_002_500L, Limit.of(20)));
+        assertSeeks("findByAccountNumberOrderByTransactionDateDescIdDesc",
+                () -> transactionRepository.findByAccountNumberOrderByTransactionDateDescIdDesc(ACCOUNT, Limit.of(20)));
+        assertSeeks("findByAccountNumberAfter",
+                () -> transactionRepository.findByAccountNumberAfter(ACCOUNT, seek, 1_002_500L, Limit.of(20)));
+    }
+
+    @Test
+    void fullScans_AreLimitedToKnownQueries() throws Exception {
+        // The ledger check aggregates every row by design and only runs from the scheduled verifier
+        assertScans("summarizeByAccountAndType", () -> transactionRepository.summarizeByAccountAndType());
+        // A leading wildcard cannot use a B-tree; searches go through the in-memory index and this is the fallback
+        assertScans("searchByKeyword", () -> transactionRepository.searchByKeyword("seed 42", BY_DATE));
+    }
+
+    /**
+     * Every statement starts from an index condition, which H2 prints as
+     * {@code PUBLIC.IDX_TRANSACTIONS_AMOUNT: AMOUNT >= ?1} inside the plan.
+     */
+    private void assertSeeks(String query, Runnable invocation) throws Exception {
+        for (String plan : explain(invocation)) {
+            assertFalse(plan.contains("tableScan"), query + " scans the table:\n" + plan);
+            assertTrue(INDEX_SEEK.matcher(plan).find() || plan.contains("direct lookup"),
+                    query + " does not seek on an index:\n" + plan);
+        }
+    }
+
+    /**
+     * Unfiltered statements may read a whole index, but only one that already
+     * delivers rows in ORDER BY order so the read stops after the page.
+     */
+    private void assertIndexOrdered(String query, Runnable invocation) throws Exception {
+        for (String plan : explain(invocation)) {
+            assertFalse(plan.contains("tableScan"), query + " scans the table:\n" + plan);
+            assertTrue(plan.contains("index sorted") || plan.contains("direct lookup"),
+                    query + " sorts instead of reading an index in order:\n" + plan);
+        }
+    }
+
+    /**
+     * Filtered statements seek; with no filter left the page is read off an
+     * index in ORDER BY order. Either way nothing scans or sorts the table.
+     */
+    private void assertSeeksOrIndexOrdered(String query, Runnable invocation) throws Exception {
+        for (String plan : explain(invocation)) {
+            assertFalse(plan.contains("tableScan"), query + " scans the table:\n" + plan);
+            assertTrue(INDEX_SEEK.matcher(plan).find() || plan.contains("index sorted") || plan.contains("direct lookup"),
+                    query + " neither seeks nor reads an index in order:\n" + plan);
+        }
+    }
+
+    private static TransactionCriteria criteria(int mask) {
+        return new TransactionCriteria(
+                (mask & TransactionCriteria.Filter.ACCOUNT_NUMBER.bit()) != 0 ? ACCOUNT : null,
+                (mask & TransactionCriteria.Filter.TYPE.bit()) != 0 ? TransactionType.FEE : null,
+                (mask & TransactionCriteria.Filter.START_DATE.bit()) != 0 ? BASE_DATE : null,
+                (mask & TransactionCriteria.Filter.END_DATE.bit()) != 0 ? BASE_DATE.plusDays(3) : null,
+                (mask & TransactionCriteria.Filter.MIN_AMOUNT.bit()) != 0 ? new BigDecimal("500.00") : null,
+                (mask & TransactionCriteria.Filter.MAX_AMOUNT.bit()) != 0 ? new BigDecimal("510.00") : null);
+    }
+
+    private void assertScans(String query, Runnable invocation) throws Exception {
+        assertTrue(explain(invocation).stream().anyMatch(plan -> plan.contains("tableScan")),
+                query + " was expected to scan; move it to assertSeeks once it has an index");
+    }
+
+    private List<String> explain(Runnable invocation) throws Exception {
+        CapturingInspector.STATEMENTS.clear();
+        invocation.run();
+        List<String> statements = List.copyOf(CapturingInspector.STATEMENTS);
+        assertFalse(statements.isEmpty(), "No SQL captured");
+
+        List<String> plans = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection()) {
+            for (String sql : statements) {
+                // H2 plans a statement without needing its parameter values
+                try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql);
+                     ResultSet plan = explain.executeQuery()) {
+                    assertTrue(plan.next());
+                    plans.add(plan.getString(1));
+                }
+            }
+        }
+        return plans;
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.trim().toLowerCase().startsWith("select")) {
+                STATEMENTS.add(sql);
+            }
+            return sql;
+        }
+    }
+}
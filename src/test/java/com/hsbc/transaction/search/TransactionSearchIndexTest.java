@@ -0,0 +1,147 @@
+package com.hsbc.transaction.search;
+
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import com.hsbc.transaction.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionSearchIndexTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        searchIndex = new TransactionSearchIndex(transactionRepository);
+    }
+
+    private int indexSampleRows() {
+        when(transactionRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(List.of(
+                transaction(1L, "TXN20250101000000000010001", "Coffee shop purchase"),
+                transaction(2L, "TXN20250101000000000010002", "Coffee coffee coffee beans"),
+                transaction(3L, "TXN20250102000000000010001", "Monthly salary payment"),
+                transaction(4L, "TXN20250103000000000010001", "Grocery shopping at market")));
+        return searchIndex.rebuild();
+    }
+
+    @Test
+    void rebuild_IndexesExistingRowsAndMarksReady() {
+        assertFalse(searchIndex.isReady());
+
+        assertEquals(4, indexSampleRows());
+
+        assertTrue(searchIndex.isReady());
+        assertEquals(4, searchIndex.size());
+    }
+
+    @Test
+    void search_RanksByTermFrequency() {
+        indexSampleRows();
+
+        TransactionSearchIndex.Hits hits = searchIndex.search("coffee", 0, 10);
+
+        assertEquals(2, hits.total());
+        assertEquals(List.of(2L, 1L), hits.ids());
+    }
+
+    @Test
+    void search_MultipleTermsMustAllMatch() {
+        indexSampleRows();
+
+        assertEquals(List.of(1L), searchIndex.search("coffee shop", 0, 10).ids());
+        assertEquals(0, searchIndex.search("coffee salary", 0, 10).total());
+    }
+
+    @Test
+    void search_MatchesWordAndReferencePrefixes() {
+        indexSampleRows();
+
+        // "shop" is a prefix of both "shop" and "shopping"
+        assertEquals(2, searchIndex.search("shop", 0, 10).total());
+        assertEquals(List.of(3L), searchIndex.search("sal PAY", 0, 10).ids());
+        assertEquals(2, searchIndex.search("txn20250101", 0, 10).total());
+        assertEquals(List.of(4L), searchIndex.search("TXN20250103000000000010001", 0, 10).ids());
+    }
+
+    @Test
+    void search_PagesThroughRankedResults() {
+        indexSampleRows();
+
+        TransactionSearchIndex.Hits secondPage = searchIndex.search("txn2025", 2, 2);
+
+        assertEquals(4, secondPage.total());
+        assertEquals(2, secondPage.ids().size());
+        assertTrue(searchIndex.search("txn2025", 4, 2).ids().isEmpty());
+    }
+
+    @Test
+    void changeEvents_UpdateIndexIncrementally() {
+        indexSampleRows();
+
+        Transaction created = transaction(5L, "TXN20250104000000000010001", "Coffee subscription");
+        searchIndex.onTransactionChanged(TransactionChangedEvent.created(List.of(created)));
+        assertEquals(3, searchIndex.search("coffee", 0, 10).total());
+
+        Transaction updated = transaction(1L, "TXN20250101000000000010001", "Bakery purchase");
+        searchIndex.onTransactionChanged(TransactionChangedEvent.updated(updated));
+        assertEquals(List.of(5L, 2L), searchIndex.search("coffee", 0, 10).ids().stream().sorted((a, b) -> Long.compare(b, a)).toList());
+        assertEquals(List.of(1L), searchIndex.search("bakery", 0, 10).ids());
+
+        searchIndex.onTransactionChanged(TransactionChangedEvent.deleted(created));
+        assertEquals(0, searchIndex.search("subscription", 0, 10).total());
+        assertEquals(4, searchIndex.size());
+    }
+
+    @Test
+    void delete_ReusesTheOrdinalForTheNextDocument() {
+        indexSampleRows();
+
+        searchIndex.onTransactionChanged(TransactionChangedEvent.deleted(
+                transaction(1L, "TXN20250101000000000010001", "Coffee shop purchase")));
+        // Takes the freed first ordinal, ahead of documents indexed after it
+        searchIndex.onTransactionChanged(TransactionChangedEvent.created(List.of(
+                transaction(6L, "TXN20250105000000000010001", "Coffee shop refill"))));
+
+        assertEquals(List.of(6L), searchIndex.search("coffee shop", 0, 10).ids());
+        assertEquals(List.of(2L, 6L), searchIndex.search("coffee", 0, 10).ids());
+        assertEquals(List.of(6L), searchIndex.search("txn20250105", 0, 10).ids());
+        assertEquals(0, searchIndex.search("purchase", 0, 10).total());
+        assertEquals(4, searchIndex.size());
+    }
+
+    @Test
+    void searchQuery_AgreesWithIndex() {
+        SearchQuery query = SearchQuery.parse("Coffee  SHOP!");
+
+        assertEquals(List.of("coffee", "shop"), query.getTerms());
+        assertTrue(query.matches("Coffee shopping trip", "TXN1"));
+        assertFalse(query.matches("Coffee beans", "TXN1"));
+        assertTrue(SearchQuery.parse("txn1").matches("Anything", "TXN123"));
+        assertFalse(SearchQuery.parse("  ").matches("Anything", "TXN123"));
+    }
+
+    private static Transaction transaction(Long id, String reference, String description) {
+        Transaction transaction = new Transaction(reference, "12345678", new BigDecimal("10.00"),
+                TransactionType.PAYMENT, description, LocalDateTime.now());
+        transaction.setId(id);
+        return transaction;
+    }
+}
@@ -0,0 +1,163 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.cache.TransactionChangeTracker;
+import com.hsbc.transaction.config.LedgerProperties;
+import com.hsbc.transaction.dto.BatchTransactionResponse;
+import com.hsbc.transaction.dto.LedgerVerificationResponse;
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.model.AccountSummary;
+import com.hsbc.transaction.model.TransactionType;
+import com.hsbc.transaction.repository.AccountSummaryRepository;
+import com.hsbc.transaction.service.impl.AccountSummaryServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AccountSummaryLedgerTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private AccountSummaryService accountSummaryService;
+
+    @Autowired
+    private AccountSummaryRepository accountSummaryRepository;
+
+    @Autowired
+    private TransactionChangeTracker changeTracker;
+
+    @Autowired
+    private AccountSummaryServiceImpl accountSummaryServiceImpl;
+
+    @Autowired
+    private LedgerProperties ledgerProperties;
+
+    @Test
+    void createAndDelete_KeepRunningTotalsInStep() {
+        String account = "55500001";
+
+        TransactionResponse deposit = transactionService.createTransaction(request(account, "DEPOSIT", "300.00"));
+        transactionService.createTransaction(request(account, "WITHDRAWAL", "120.50"));
+        transactionService.createTransactions(List.of(
+                request(account, "DEPOSIT", "50.00"),
+                request(account, "FEE", "2.25")));
+
+        assertEquals(0, new BigDecimal("229.50").compareTo(transactionService.getAccountBalance(account)));
+        assertEquals(0, new BigDecimal("350.00").compareTo(transactionService.getAccountBalanceByType(account, TransactionType.DEPOSIT)));
+        assertEquals(4, transactionService.getTransactionCountByAccount(account));
+
+        transactionService.deleteTransaction(deposit.getId());
+
+        assertEquals(0, new BigDecimal("-70.50").compareTo(transactionService.getAccountBalance(account)));
+        assertEquals(3, transactionService.getTransactionCountByAccount(account));
+        assertTrue(accountSummaryService.verify().isConsistent());
+    }
+
+    @Test
+    void verifyAndRebuild_RepairDrift() {
+        String account = "55500002";
+        transactionService.createTransaction(request(account, "DEPOSIT", "10.00"));
+
+        accountSummaryRepository.save(new AccountSummary(account, TransactionType.DEPOSIT, new BigDecimal("999.00"), 7));
+
+        LedgerVerificationResponse drifted = accountSummaryService.verify();
+        assertFalse(drifted.isConsistent());
+        assertTrue(drifted.getDiscrepancies().stream().anyMatch(d -> d.getAccountNumber().equals(account)));
+
+        String tag = changeTracker.accountTag(account);
+        accountSummaryService.rebuild();
+
+        // The drifted balance may have been served under this tag
+        assertNotEquals(tag, changeTracker.accountTag(account));
+        assertTrue(accountSummaryService.verify().isConsistent());
+        assertEquals(0, new BigDecimal("10.00").compareTo(accountSummaryService.getBalance(account)));
+    }
+
+    @Test
+    void scheduledRepair_EvictsCachedBalances() {
+        String account = "55500004";
+        transactionService.createTransaction(request(account, "DEPOSIT", "10.00"));
+        accountSummaryRepository.save(new AccountSummary(account, TransactionType.DEPOSIT, new BigDecimal("999.00"), 7));
+        assertEquals(0, new BigDecimal("999.00").compareTo(transactionService.getAccountBalance(account)));
+
+        ledgerProperties.setRepairOnDrift(true);
+        try {
+            accountSummaryServiceImpl.scheduledVerification();
+        } finally {
+            ledgerProperties.setRepairOnDrift(false);
+        }
+
+        assertEquals(0, new BigDecimal("10.00").compareTo(transactionService.getAccountBalance(account)));
+        assertEquals(1, transactionService.getTransactionCountByAccount(account));
+    }
+
+    @Test
+    void batchCreate_UpdatesSummaryOncePerAccountAndType() {
+        String account = "55500003";
+        BatchTransactionResponse response = transactionService.createTransactions(List.of(
+                request(account, "DEPOSIT", "1.00"),
+                request(account, "DEPOSIT", "2.00"),
+                request(account, "DEPOSIT", "3.00")));
+
+        assertEquals(3, response.getSucceeded());
+        AccountSummary summary = accountSummaryRepository.findById(new AccountSummary.Key(account, TransactionType.DEPOSIT)).orElseThrow();
+        assertEquals(0, new BigDecimal("6.00").compareTo(summary.getTotalAmount()));
+        assertEquals(3, summary.getTransactionCount());
+    }
+
+    @Test
+    void concurrentBatches_TouchingTheSameAccountsInOppositeOrder_BothCommit() throws Exception {
+        String first = "55500005";
+        String second = "55500006";
+        // Both summary rows exist up front, so every MERGE below updates and locks a row
+        transactionService.createTransactions(List.of(request(first, "DEPOSIT", "1.00"), request(second, "DEPOSIT", "1.00")));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<BatchTransactionResponse> forward = executor.submit(() -> {
+                    start.await();
+                    return transactionService.createTransactions(List.of(
+                            request(first, "DEPOSIT", "1.00"), request(second, "DEPOSIT", "1.00")));
+                });
+                Future<BatchTransactionResponse> backward = executor.submit(() -> {
+                    start.await();
+                    return transactionService.createTransactions(List.of(
+                            request(second, "DEPOSIT", "1.00"), request(first, "DEPOSIT", "1.00")));
+                });
+                assertEquals(2, forward.get(30, TimeUnit.SECONDS).getSucceeded());
+                assertEquals(2, backward.get(30, TimeUnit.SECONDS).getSucceeded());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(0, new BigDecimal("41.00").compareTo(accountSummaryService.getBalance(first)));
+        assertEquals(0, new BigDecimal("41.00").compareTo(accountSummaryService.getBalance(second)));
+        assertTrue(accountSummaryService.verify().isConsistent());
+    }
+
+    private TransactionRequest request(String account, String type, String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setAccountNumber(account);
+        request.setAmount(new BigDecimal(amount));
+        request.setType(type);
+        request.setDescription("Ledger test " + type.toLowerCase());
+        return request;
+    }
+}
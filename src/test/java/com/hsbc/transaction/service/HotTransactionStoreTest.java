@@ -0,0 +1,203 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.cache.HotTransactionStore;
+import com.hsbc.transaction.config.HotStoreProperties;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import com.hsbc.transaction.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class HotTransactionStoreTest {
+
+    private static final LocalDateTime BASE_DATE = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private TransactionRepository transactionRepository;
+    private AccountSummaryService accountSummaryService;
+    private SimpleMeterRegistry meterRegistry;
+    private HotStoreProperties properties;
+    private HotTransactionStore store;
+
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        accountSummaryService = mock(AccountSummaryService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new HotStoreProperties();
+        properties.setCapacity(3);
+        store = new HotTransactionStore(properties, transactionRepository, accountSummaryService, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void covers_OnlyFirstPagesNewestFirstWithinCapacity() {
+        assertTrue(store.covers(PageRequest.of(0, 3, Sort.by("transactionDate").descending())));
+        assertTrue(store.covers(PageRequest.of(0, 2)));
+        assertFalse(store.covers(PageRequest.of(1, 3, Sort.by("transactionDate").descending())));
+        assertFalse(store.covers(PageRequest.of(0, 4, Sort.by("transactionDate").descending())));
+        assertFalse(store.covers(PageRequest.of(0, 3, Sort.by("amount").descending())));
+        assertFalse(store.covers(PageRequest.of(0, 3, Sort.by("transactionDate").ascending())));
+    }
+
+    @Test
+    void accountWindow_LoadsOnceThenServesFromMemory() {
+        stubAccount("11110000", 5, transaction(3L, "11110000", 3), transaction(2L, "11110000", 2),
+                transaction(1L, "11110000", 1));
+
+        HotTransactionStore.AccountWindow first = store.accountWindow("11110000", 2);
+        HotTransactionStore.AccountWindow second = store.accountWindow("11110000", 2);
+
+        assertEquals(List.of(3L, 2L), ids(first.rows()));
+        assertEquals(List.of(3L, 2L), ids(second.rows()));
+        assertEquals(5, second.total());
+        assertEquals(new BigDecimal("10.00"), second.rows().get(0).getAmount());
+        verify(transactionRepository, times(1)).findByAccountNumberOrderByTransactionDateDescIdDesc(eq("11110000"), any(Limit.class));
+        assertEquals(1.0, meterRegistry.get("transaction.hotstore.reads").tag("outcome", "hit").counter().count());
+    }
+
+    @Test
+    void committedWrites_AreAppliedWithoutQuerying() {
+        stubAccount("11110000", 2, transaction(2L, "11110000", 2), transaction(1L, "11110000", 1));
+        store.accountWindow("11110000", 3);
+
+        store.onTransactionChanged(TransactionChangedEvent.created(List.of(transaction(4L, "11110000", 4))));
+        Transaction updated = transaction(2L, "11110000", 2);
+        updated.setDescription("Corrected");
+        store.onTransactionChanged(TransactionChangedEvent.updated(updated));
+        store.onTransactionChanged(TransactionChangedEvent.deleted(transaction(1L, "11110000", 1)));
+
+        HotTransactionStore.AccountWindow window = store.accountWindow("11110000", 3);
+        assertEquals(List.of(4L, 2L), ids(window.rows()));
+        assertEquals("Corrected", window.rows().get(1).getDescription());
+        assertEquals(2, window.total());
+        verify(transactionRepository, times(1)).findByAccountNumberOrderByTransactionDateDescIdDesc(eq("11110000"), any(Limit.class));
+    }
+
+    @Test
+    void loadDuringMatchingWrite_IsNotInstalled() {
+        stubAccount("11110000", 1, transaction(1L, "11110000", 1));
+
+        TransactionSynchronizationManager.initSynchronization();
+        store.onTransactionChanged(TransactionChangedEvent.created(List.of(transaction(2L, "11110000", 2))));
+        // Whether the load saw the uncommitted row depends on timing, so it is not kept
+        assertEquals(List.of(1L), ids(store.accountWindow("11110000", 3).rows()));
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        stubAccount("11110000", 2, transaction(2L, "11110000", 2), transaction(1L, "11110000", 1));
+        assertEquals(List.of(2L, 1L), ids(store.accountWindow("11110000", 3).rows()));
+        verify(transactionRepository, times(2)).findByAccountNumberOrderByTransactionDateDescIdDesc(eq("11110000"), any(Limit.class));
+    }
+
+    @Test
+    void writeCommittedWhileLoading_IsNotLost() {
+        when(accountSummaryService.getTransactionCount("11110000")).thenReturn(1L);
+        when(transactionRepository.findByAccountNumberOrderByTransactionDateDescIdDesc(eq("11110000"), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    // Commits after the query read, before the load installs what it read
+                    store.onTransactionChanged(TransactionChangedEvent.created(List.of(transaction(2L, "11110000", 2))));
+                    return List.of(response(transaction(1L, "11110000", 1)));
+                })
+                .thenReturn(List.of(response(transaction(2L, "11110000", 2)), response(transaction(1L, "11110000", 1))));
+        // Another account's buffer is unaffected by the write
+        stubAccount("22220000", 1, transaction(3L, "22220000", 3));
+        store.accountWindow("22220000", 3);
+
+        assertEquals(List.of(1L), ids(store.accountWindow("11110000", 3).rows()));
+        assertEquals(List.of(2L, 1L), ids(store.accountWindow("11110000", 3).rows()));
+        assertEquals(List.of(3L), ids(store.accountWindow("22220000", 3).rows()));
+        verify(transactionRepository, times(2)).findByAccountNumberOrderByTransactionDateDescIdDesc(eq("11110000"), any(Limit.class));
+        verify(transactionRepository, times(1)).findByAccountNumberOrderByTransactionDateDescIdDesc(eq("22220000"), any(Limit.class));
+    }
+
+    @Test
+    void recent_OlderCreateIsSkippedAndDeleteShrinksTheList() {
+        when(transactionRepository.findRecentResponses(any(Limit.class))).thenReturn(List.of(
+                response(transaction(6L, "11110000", 6)), response(transaction(5L, "22220000", 5)),
+                response(transaction(4L, "33330000", 4))));
+
+        assertEquals(List.of(6L, 5L), ids(store.recent(2)));
+        // Older than everything held: rows between it and the buffer may exist, so it is not added
+        store.onTransactionChanged(TransactionChangedEvent.created(List.of(transaction(1L, "11110000", 1))));
+        store.onTransactionChanged(TransactionChangedEvent.deleted(transaction(6L, "11110000", 6)));
+
+        assertEquals(List.of(5L, 4L), ids(store.recent(2)));
+        verify(transactionRepository, times(1)).findRecentResponses(any(Limit.class));
+    }
+
+    @Test
+    void memoryCap_EvictsLeastRecentlyReadAccount() {
+        properties.setMaxMemory(DataSize.ofBytes(1000));
+        stubAccount("11110000", 1, transaction(1L, "11110000", 1));
+        stubAccount("22220000", 1, transaction(2L, "22220000", 2));
+
+        store.accountWindow("11110000", 1);
+        store.accountWindow("22220000", 1);
+        store.accountWindow("22220000", 1);
+        store.accountWindow("11110000", 1);
+
+        assertEquals(1.0, meterRegistry.get("transaction.hotstore.accounts").gauge().value());
+        assertTrue(meterRegistry.get("transaction.hotstore.bytes").gauge().value() <= 1000);
+        verify(transactionRepository, times(2)).findByAccountNumberOrderByTransactionDateDescIdDesc(eq("11110000"), any(Limit.class));
+        verify(transactionRepository, times(1)).findByAccountNumberOrderByTransactionDateDescIdDesc(eq("22220000"), any(Limit.class));
+    }
+
+    private void stubAccount(String accountNumber, long total, Transaction... newestFirst) {
+        List<TransactionResponse> rows = java.util.Arrays.stream(newestFirst).map(this::response).toList();
+        when(transactionRepository.findByAccountNumberOrderByTransactionDateDescIdDesc(eq(accountNumber), any(Limit.class)))
+                .thenReturn(rows);
+        when(accountSummaryService.getTransactionCount(accountNumber)).thenReturn(total);
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static List<Long> ids(List<TransactionResponse> rows) {
+        return rows.stream().map(TransactionResponse::getId).toList();
+    }
+
+    private TransactionResponse response(Transaction transaction) {
+        return new TransactionResponse(transaction);
+    }
+
+    private Transaction transaction(Long id, String accountNumber, int minutes) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setReference("TXN" + id);
+        transaction.setAccountNumber(accountNumber);
+        transaction.setAmount(new BigDecimal("10.00"));
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setDescription("Hot store test " + id);
+        transaction.setTransactionDate(BASE_DATE.plusMinutes(minutes));
+        transaction.setCreatedAt(BASE_DATE);
+        transaction.setUpdatedAt(BASE_DATE);
+        return transaction;
+    }
+}
@@ -0,0 +1,196 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.cache.IdempotencyKeyStore;
+import com.hsbc.transaction.config.IdempotencyProperties;
+import com.hsbc.transaction.exception.IdempotencyKeyInProgressException;
+import com.hsbc.transaction.exception.IdempotencyKeyMismatchException;
+import com.hsbc.transaction.exception.ValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyKeyStoreTest {
+
+    private static final String FINGERPRINT = "fingerprint-1";
+
+    private IdempotencyProperties properties;
+    private MutableClock clock;
+    private IdempotencyKeyStore store;
+    private ExecutorService executor;
+    private AtomicInteger writes;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IdempotencyProperties();
+        properties.setTtl(Duration.ofMinutes(10));
+        properties.setWaitTimeout(Duration.ofSeconds(5));
+        clock = new MutableClock();
+        store = new IdempotencyKeyStore(properties, new SimpleMeterRegistry(), clock);
+        executor = Executors.newFixedThreadPool(4);
+        writes = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentDuplicate_WaitsForTheRequestInFlight() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> first = executor.submit(() -> store.execute("key-1", FINGERPRINT, String.class, Optional::empty, () -> {
+            writing.countDown();
+            await(release);
+            return "TXN" + writes.incrementAndGet();
+        }));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        Future<String> duplicate = executor.submit(() -> store.execute("key-1", FINGERPRINT, String.class, Optional::empty,
+                () -> "TXN" + writes.incrementAndGet()));
+
+        Thread.sleep(50);
+        assertFalse(duplicate.isDone());
+        release.countDown();
+
+        assertEquals("TXN1", first.get(5, TimeUnit.SECONDS));
+        assertEquals("TXN1", duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void failedAttempt_IsNotRemembered() {
+        assertThrows(IllegalStateException.class, () -> store.execute("key-2", FINGERPRINT, String.class, Optional::empty, () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("TXN1", store.execute("key-2", FINGERPRINT, String.class, Optional::empty, () -> "TXN" + writes.incrementAndGet()));
+    }
+
+    @Test
+    void failedWrite_ReturnsRowRecordedByAnotherInstance() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        String outcome = store.execute("key-3", FINGERPRINT, String.class,
+                () -> lookups.incrementAndGet() == 1 ? Optional.empty() : Optional.of("TXNOTHER"),
+                () -> {
+                    throw new IllegalStateException("unique key violated");
+                });
+
+        assertEquals("TXNOTHER", outcome);
+    }
+
+    @Test
+    void expiredKey_IsAnsweredByTheRecordedLookup() {
+        store.execute("key-4", FINGERPRINT, String.class, Optional::empty, () -> "TXN" + writes.incrementAndGet());
+        clock.advance(Duration.ofMinutes(11));
+
+        assertEquals("TXNSTORED", store.execute("key-4", FINGERPRINT, String.class, () -> Optional.of("TXNSTORED"),
+                () -> "TXN" + writes.incrementAndGet()));
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void slowOriginal_DuplicateGetsInProgress() throws Exception {
+        properties.setWaitTimeout(Duration.ofMillis(50));
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> store.execute("key-5", FINGERPRINT, String.class, Optional::empty, () -> {
+            writing.countDown();
+            await(release);
+            return "TXN1";
+        }));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> store.execute("key-5", FINGERPRINT, String.class, Optional::empty, () -> "TXN2"));
+        release.countDown();
+    }
+
+    @Test
+    void reusedKeyWithAnotherRequest_IsRejected() {
+        store.execute("key-6", FINGERPRINT, String.class, Optional::empty, () -> "TXN" + writes.incrementAndGet());
+
+        assertThrows(IdempotencyKeyMismatchException.class, () -> store.execute("key-6", "fingerprint-2", String.class,
+                Optional::empty, () -> "TXN" + writes.incrementAndGet()));
+        assertEquals("TXN1", store.execute("key-6", FINGERPRINT, String.class, Optional::empty,
+                () -> "TXN" + writes.incrementAndGet()));
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    void recordedRowOfAnotherRequest_IsRejectedAndKeyReleased() {
+        assertThrows(IdempotencyKeyMismatchException.class, () -> store.execute("key-7", FINGERPRINT, String.class,
+                () -> {
+                    IdempotencyKeyStore.verify("key-7", FINGERPRINT, "fingerprint-2");
+                    return Optional.of("TXNOTHER");
+                },
+                () -> "TXN" + writes.incrementAndGet()));
+
+        // Not held in memory, so a request matching the row is still answered from it
+        assertEquals("TXNOTHER", store.execute("key-7", "fingerprint-2", String.class, () -> Optional.of("TXNOTHER"),
+                () -> "TXN" + writes.incrementAndGet()));
+        assertEquals(0, writes.get());
+    }
+
+    @Test
+    void invalidKey_IsRejected() {
+        assertThrows(ValidationException.class, () -> store.execute("", FINGERPRINT, String.class, Optional::empty, () -> "TXN1"));
+        assertThrows(ValidationException.class, () -> store.execute("a:b", FINGERPRINT, String.class, Optional::empty, () -> "TXN1"));
+        assertThrows(ValidationException.class, () -> store.execute("x".repeat(201), FINGERPRINT, String.class, Optional::empty, () -> "TXN1"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private final AtomicLong millis = new AtomicLong(Instant.parse("2024-01-01T00:00:00Z").toEpochMilli());
+
+        void advance(Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.service.impl.TimeBasedReferenceGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeBasedReferenceGeneratorTest {
+
+    @Test
+    void nextReference_KeepsTxnTimestampFormat() {
+        LocalDateTime time = LocalDateTime.of(2025, 9, 1, 13, 45, 30, 123_000_000);
+        Clock clock = Clock.fixed(time.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        ReferenceGenerator generator = new TimeBasedReferenceGenerator(7, clock, new SimpleMeterRegistry());
+
+        assertEquals("TXN202509011345301230070000", generator.nextReference());
+        assertEquals("TXN202509011345301230070001", generator.nextReference());
+    }
+
+    @Test
+    void nextReference_SequenceExhausted_BorrowsNextMillisecond() {
+        Clock clock = Clock.fixed(Instant.parse("2025-09-01T00:00:00.000Z"), ZoneOffset.UTC);
+        ReferenceGenerator generator = new TimeBasedReferenceGenerator(0, clock, new SimpleMeterRegistry());
+
+        Set<String> references = new HashSet<>();
+        for (int i = 0; i < 25_000; i++) {
+            assertTrue(references.add(generator.nextReference()));
+        }
+        // 10,000 ids per millisecond: the 25,001st id lands in the third millisecond
+        assertEquals("TXN202509010000000020005000", generator.nextReference());
+    }
+
+    @Test
+    void nextReference_ClockMovesBackwards_StaysUnique() {
+        AtomicLong millis = new AtomicLong(1_000_000L);
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(millis.get());
+            }
+        };
+        ReferenceGenerator generator = new TimeBasedReferenceGenerator(3, clock, new SimpleMeterRegistry());
+
+        Set<String> references = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            assertTrue(references.add(generator.nextReference()));
+        }
+        millis.addAndGet(-500);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(references.add(generator.nextReference()));
+        }
+    }
+
+    @Test
+    void nextReference_DaylightSavingEnds_StaysUnique() {
+        // London falls back from 02:00 BST to 01:00 GMT, so 01:30 local happens twice
+        AtomicLong millis = new AtomicLong(Instant.parse("2024-10-27T00:30:00.000Z").toEpochMilli());
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneId.of("Europe/London");
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(millis.get());
+            }
+        };
+        ReferenceGenerator generator = new TimeBasedReferenceGenerator(5, clock, new SimpleMeterRegistry());
+
+        String beforeFallBack = generator.nextReference();
+        millis.addAndGet(TimeUnit.HOURS.toMillis(1));
+        String afterFallBack = generator.nextReference();
+
+        assertEquals("TXN202410270030000000050000", beforeFallBack);
+        assertEquals("TXN202410270130000000050000", afterFallBack);
+    }
+
+    @Test
+    void nextReference_DifferentNodesNeverCollide() {
+        Clock clock = Clock.fixed(Instant.parse("2025-09-01T00:00:00.000Z"), ZoneOffset.UTC);
+        ReferenceGenerator first = new TimeBasedReferenceGenerator(0, clock, new SimpleMeterRegistry());
+        ReferenceGenerator second = new TimeBasedReferenceGenerator(1, clock, new SimpleMeterRegistry());
+        ReferenceGenerator third = new TimeBasedReferenceGenerator(2, clock, new SimpleMeterRegistry());
+
+        Set<String> references = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(references.add(first.nextReference()));
+            assertTrue(references.add(second.nextReference()));
+            assertTrue(references.add(third.nextReference()));
+        }
+    }
+
+    @Test
+    void invalidNodeId_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> new TimeBasedReferenceGenerator(1000, Clock.systemUTC(), new SimpleMeterRegistry()));
+        assertThrows(IllegalArgumentException.class, () -> new TimeBasedReferenceGenerator(-1, Clock.systemUTC(), new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void nextReference_ConcurrentThroughput_NoDuplicates() throws Exception {
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        int perThread = 250_000;
+        ReferenceGenerator generator = new TimeBasedReferenceGenerator(1, Clock.systemDefaultZone(), new SimpleMeterRegistry());
+        Set<String> references = ConcurrentHashMap.newKeySet(threads * perThread);
+
+        // Warm up so the JIT has compiled the hot path before timing
+        for (int i = 0; i < 200_000; i++) {
+            generator.nextReference();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                String[] generated = new String[perThread];
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    generated[i] = generator.nextReference();
+                }
+                return generated;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        List<String[]> results = new ArrayList<>();
+        for (Future<String[]> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        for (String[] generated : results) {
+            for (String reference : generated) {
+                assertTrue(references.add(reference), "Duplicate reference " + reference);
+            }
+        }
+
+        long total = (long) threads * perThread;
+        double perSecond = total / (elapsedNanos / 1_000_000_000.0);
+        System.out.println("Reference generator: " + total + " ids from " + threads + " threads in "
+                + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms (" + (long) perSecond + " ids/s)");
+
+        assertEquals(total, references.size());
+        assertTrue(perSecond > 1_000_000, "Generator should sustain millions of ids per second, got " + (long) perSecond);
+    }
+}
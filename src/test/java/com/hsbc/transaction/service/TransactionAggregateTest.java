@@ -0,0 +1,166 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.dto.BatchTransactionResponse;
+import com.hsbc.transaction.dto.TransactionAggregateResponse;
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.exception.ValidationException;
+import com.hsbc.transaction.model.AggregateGranularity;
+import com.hsbc.transaction.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TransactionAggregateTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionAggregateService aggregateService;
+
+    @Test
+    void createAndDelete_KeepDailyRollupsInStep() {
+        String account = "55600001";
+        transactionService.createTransaction(request(account, "DEPOSIT", "100.00", LocalDateTime.of(2024, 1, 30, 9, 0)));
+        transactionService.createTransaction(request(account, "DEPOSIT", "50.00", LocalDateTime.of(2024, 1, 31, 9, 0)));
+        transactionService.createTransactions(List.of(
+                request(account, "DEPOSIT", "25.00", LocalDateTime.of(2024, 2, 1, 9, 0)),
+                request(account, "FEE", "2.00", LocalDateTime.of(2024, 2, 1, 23, 59))));
+        TransactionResponse withdrawal = transactionService.createTransaction(
+                request(account, "WITHDRAWAL", "40.00", LocalDateTime.of(2024, 2, 6, 9, 0)));
+
+        List<TransactionAggregateResponse.Bucket> days = aggregate(account, null, AggregateGranularity.DAY).getBuckets();
+        assertEquals(5, days.size());
+        assertBucket(days.get(2), "2024-02-01", "2024-02-01", TransactionType.DEPOSIT, "25.00", 1);
+        assertBucket(days.get(3), "2024-02-01", "2024-02-01", TransactionType.FEE, "2.00", 1);
+
+        transactionService.deleteTransaction(withdrawal.getId());
+
+        List<TransactionAggregateResponse.Bucket> months = aggregate(account, null, AggregateGranularity.MONTH).getBuckets();
+        assertEquals(3, months.size());
+        assertBucket(months.get(0), "2024-01-01", "2024-01-31", TransactionType.DEPOSIT, "150.00", 2);
+        assertBucket(months.get(1), "2024-02-01", "2024-02-29", TransactionType.DEPOSIT, "25.00", 1);
+        assertBucket(months.get(2), "2024-02-01", "2024-02-29", TransactionType.FEE, "2.00", 1);
+    }
+
+    @Test
+    void weeksAndTypeFilter_CombineDaysAndClipToRange() {
+        String account = "55600002";
+        transactionService.createTransactions(List.of(
+                request(account, "DEPOSIT", "100.00", LocalDateTime.of(2024, 1, 30, 9, 0)),
+                request(account, "DEPOSIT", "50.00", LocalDateTime.of(2024, 1, 31, 9, 0)),
+                request(account, "DEPOSIT", "25.00", LocalDateTime.of(2024, 2, 1, 9, 0)),
+                request(account, "FEE", "2.00", LocalDateTime.of(2024, 2, 1, 9, 0)),
+                request(account, "DEPOSIT", "10.00", LocalDateTime.of(2024, 2, 6, 9, 0))));
+
+        // ISO weeks start on Monday 2024-01-29 and 2024-02-05; the first is cut to the requested range
+        TransactionAggregateResponse weeks = aggregateService.getAggregates(account, TransactionType.DEPOSIT,
+                AggregateGranularity.WEEK, LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 7));
+        assertEquals(2, weeks.getBuckets().size());
+        assertBucket(weeks.getBuckets().get(0), "2024-01-31", "2024-02-04", TransactionType.DEPOSIT, "75.00", 2);
+        assertBucket(weeks.getBuckets().get(1), "2024-02-05", "2024-02-07", TransactionType.DEPOSIT, "10.00", 1);
+    }
+
+    @Test
+    void rebuild_MatchesIncrementalRollups() {
+        String account = "55600003";
+        transactionService.createTransactions(List.of(
+                request(account, "DEPOSIT", "1.00", LocalDateTime.of(2024, 3, 1, 9, 0)),
+                request(account, "PAYMENT", "2.00", LocalDateTime.of(2024, 3, 15, 9, 0)),
+                request(account, "DEPOSIT", "3.00", LocalDateTime.of(2024, 4, 2, 9, 0))));
+        List<TransactionAggregateResponse.Bucket> incremental = aggregate(account, null, AggregateGranularity.DAY).getBuckets();
+
+        aggregateService.rebuild();
+
+        List<TransactionAggregateResponse.Bucket> rebuilt = aggregate(account, null, AggregateGranularity.DAY).getBuckets();
+        assertEquals(incremental.size(), rebuilt.size());
+        for (int i = 0; i < incremental.size(); i++) {
+            TransactionAggregateResponse.Bucket expected = incremental.get(i);
+            assertBucket(rebuilt.get(i), expected.getStart().toString(), expected.getEnd().toString(), expected.getType(),
+                    expected.getTotalAmount().toPlainString(), expected.getTransactionCount());
+        }
+    }
+
+    @Test
+    void invalidRange_ThrowsException() {
+        assertThrows(ValidationException.class, () -> aggregateService.getAggregates("55600004", null,
+                AggregateGranularity.DAY, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)));
+        assertThrows(ValidationException.class, () -> AggregateGranularity.fromParameter("hourly"));
+    }
+
+    @Test
+    void concurrentBatches_TouchingTheSameDaysInOppositeOrder_BothCommit() throws Exception {
+        String account = "55600004";
+        LocalDateTime first = LocalDateTime.of(2024, 4, 1, 9, 0);
+        LocalDateTime second = LocalDateTime.of(2024, 4, 2, 9, 0);
+        // Both rollup rows exist up front, so every MERGE below updates and locks a row
+        transactionService.createTransactions(List.of(
+                request(account, "DEPOSIT", "1.00", first), request(account, "DEPOSIT", "1.00", second)));
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<BatchTransactionResponse> forward = executor.submit(() -> {
+                    start.await();
+                    return transactionService.createTransactions(List.of(
+                            request(account, "DEPOSIT", "1.00", first), request(account, "DEPOSIT", "1.00", second)));
+                });
+                Future<BatchTransactionResponse> backward = executor.submit(() -> {
+                    start.await();
+                    return transactionService.createTransactions(List.of(
+                            request(account, "DEPOSIT", "1.00", second), request(account, "DEPOSIT", "1.00", first)));
+                });
+                assertEquals(2, forward.get(30, TimeUnit.SECONDS).getSucceeded());
+                assertEquals(2, backward.get(30, TimeUnit.SECONDS).getSucceeded());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<TransactionAggregateResponse.Bucket> days = aggregate(account, null, AggregateGranularity.DAY).getBuckets();
+        assertBucket(days.get(0), "2024-04-01", "2024-04-01", TransactionType.DEPOSIT, "41.00", 41);
+        assertBucket(days.get(1), "2024-04-02", "2024-04-02", TransactionType.DEPOSIT, "41.00", 41);
+    }
+
+    private TransactionAggregateResponse aggregate(String account, TransactionType type, AggregateGranularity granularity) {
+        return aggregateService.getAggregates(account, type, granularity, FROM, TO);
+    }
+
+    private void assertBucket(TransactionAggregateResponse.Bucket bucket, String start, String end,
+                              TransactionType type, String totalAmount, long transactionCount) {
+        assertEquals(LocalDate.parse(start), bucket.getStart());
+        assertEquals(LocalDate.parse(end), bucket.getEnd());
+        assertEquals(type, bucket.getType());
+        assertEquals(0, new BigDecimal(totalAmount).compareTo(bucket.getTotalAmount()));
+        assertEquals(transactionCount, bucket.getTransactionCount());
+    }
+
+    private TransactionRequest request(String account, String type, String amount, LocalDateTime transactionDate) {
+        TransactionRequest request = new TransactionRequest();
+        request.setAccountNumber(account);
+        request.setAmount(new BigDecimal(amount));
+        request.setType(type);
+        request.setDescription("Aggregate test " + type.toLowerCase());
+        request.setTransactionDate(transactionDate);
+        return request;
+    }
+}
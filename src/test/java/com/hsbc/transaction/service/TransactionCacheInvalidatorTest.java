@@ -0,0 +1,159 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.cache.AccountBalanceKey;
+import com.hsbc.transaction.cache.PageIndexedCaffeineCache;
+import com.hsbc.transaction.cache.TransactionCacheInvalidator;
+import com.hsbc.transaction.cache.TransactionLookupKey;
+import com.hsbc.transaction.cache.TransactionPageKey;
+import com.hsbc.transaction.config.CacheConfig;
+import com.hsbc.transaction.config.CacheSpecProperties;
+import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCacheInvalidatorTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+
+    private Cache transactions;
+    private Cache recent;
+    private Cache balances;
+    private TransactionCacheInvalidator invalidator;
+
+    private Transaction alice;
+    private Transaction bob;
+
+    @BeforeEach
+    void setUp() {
+        CacheManager cacheManager = new CacheConfig().cacheManager(new CacheSpecProperties(), null);
+        transactions = cacheManager.getCache("transactions");
+        recent = cacheManager.getCache("recentTransactions");
+        balances = cacheManager.getCache("accountBalances");
+        invalidator = new TransactionCacheInvalidator(cacheManager);
+
+        alice = transaction(1L, "11110000", TransactionType.DEPOSIT, "100.00", "Salary");
+        bob = transaction(2L, "22220000", TransactionType.WITHDRAWAL, "40.00", "Groceries");
+
+        transactions.put(TransactionLookupKey.byId(1L), new TransactionResponse(alice));
+        transactions.put(TransactionLookupKey.byReference(alice.getReference()), new TransactionResponse(alice));
+        transactions.put(TransactionLookupKey.byId(2L), new TransactionResponse(bob));
+        transactions.put(TransactionPageKey.account("11110000", FIRST_PAGE), page(alice));
+        transactions.put(TransactionPageKey.account("22220000", FIRST_PAGE), page(bob));
+        transactions.put(TransactionPageKey.type(TransactionType.WITHDRAWAL, FIRST_PAGE), page(bob));
+        transactions.put(TransactionPageKey.amountRange(new BigDecimal("500"), new BigDecimal("1000"), FIRST_PAGE), page());
+        transactions.put(TransactionPageKey.search("Salary", FIRST_PAGE), page(alice));
+        transactions.put(TransactionPageKey.all(FIRST_PAGE), page(alice, bob));
+        balances.put(AccountBalanceKey.balance("11110000"), new BigDecimal("100.00"));
+        balances.put(AccountBalanceKey.count("11110000"), 1L);
+        balances.put(AccountBalanceKey.balance("22220000"), new BigDecimal("-40.00"));
+        balances.put(AccountBalanceKey.balance("22220000", TransactionType.WITHDRAWAL), new BigDecimal("40.00"));
+    }
+
+    @Test
+    void create_EvictsOnlyAffectedAccountPagesAndBalances() {
+        Transaction created = transaction(3L, "11110000", TransactionType.DEPOSIT, "25.00", "Refund");
+
+        invalidator.onTransactionChanged(TransactionChangedEvent.created(List.of(created)));
+
+        assertNull(transactions.get(TransactionPageKey.account("11110000", FIRST_PAGE)));
+        assertNull(transactions.get(TransactionPageKey.all(FIRST_PAGE)));
+        assertNull(balances.get(AccountBalanceKey.balance("11110000")));
+        assertNull(balances.get(AccountBalanceKey.count("11110000")));
+
+        assertNotNull(transactions.get(TransactionPageKey.account("22220000", FIRST_PAGE)));
+        assertNotNull(transactions.get(TransactionPageKey.type(TransactionType.WITHDRAWAL, FIRST_PAGE)));
+        assertNotNull(transactions.get(TransactionPageKey.amountRange(new BigDecimal("500.00"), new BigDecimal("1000.00"), FIRST_PAGE)));
+        assertNotNull(transactions.get(TransactionPageKey.search("Salary", FIRST_PAGE)));
+        assertNotNull(transactions.get(TransactionLookupKey.byId(1L)));
+        assertNotNull(balances.get(AccountBalanceKey.balance("22220000")));
+        // Evicted pages leave the key index with them
+        assertEquals(4, ((PageIndexedCaffeineCache) transactions).getKeyIndex().size());
+    }
+
+    @Test
+    void update_RefreshesLookupsAndPagesInPlace() {
+        alice.setDescription("Salary October");
+
+        invalidator.onTransactionChanged(TransactionChangedEvent.updated(alice));
+
+        TransactionResponse byId = (TransactionResponse) transactions.get(TransactionLookupKey.byId(1L)).get();
+        TransactionResponse byReference = (TransactionResponse) transactions.get(TransactionLookupKey.byReference(alice.getReference())).get();
+        assertEquals("Salary October", byId.getDescription());
+        assertEquals("Salary October", byReference.getDescription());
+
+        PageResponse<?> accountPage = (PageResponse<?>) transactions.get(TransactionPageKey.account("11110000", FIRST_PAGE)).get();
+        assertEquals("Salary October", ((TransactionResponse) accountPage.getContent().get(0)).getDescription());
+        PageResponse<?> allPage = (PageResponse<?>) transactions.get(TransactionPageKey.all(FIRST_PAGE)).get();
+        assertEquals(2, allPage.getContent().size());
+
+        // Search results depend on the description, so they cannot be patched
+        assertNull(transactions.get(TransactionPageKey.search("Salary", FIRST_PAGE)));
+        assertNotNull(balances.get(AccountBalanceKey.balance("11110000")));
+        assertNotNull(transactions.get(TransactionPageKey.account("22220000", FIRST_PAGE)));
+    }
+
+    @Test
+    void delete_EvictsLookupsAndMatchingEntries() {
+        invalidator.onTransactionChanged(TransactionChangedEvent.deleted(bob));
+
+        assertNull(transactions.get(TransactionLookupKey.byId(2L)));
+        assertNull(transactions.get(TransactionPageKey.account("22220000", FIRST_PAGE)));
+        assertNull(transactions.get(TransactionPageKey.type(TransactionType.WITHDRAWAL, FIRST_PAGE)));
+        assertNull(balances.get(AccountBalanceKey.balance("22220000", TransactionType.WITHDRAWAL)));
+
+        assertNotNull(transactions.get(TransactionLookupKey.byId(1L)));
+        assertNotNull(transactions.get(TransactionPageKey.account("11110000", FIRST_PAGE)));
+        assertNotNull(balances.get(AccountBalanceKey.balance("11110000")));
+    }
+
+    @Test
+    void create_KeepsFullRecentListWhenNewRowIsOlder() {
+        List<TransactionResponse> latest = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Transaction t = transaction(100L + i, "33330000", TransactionType.DEPOSIT, "1.00", "Recent");
+            t.setTransactionDate(LocalDateTime.now().minusMinutes(i));
+            latest.add(new TransactionResponse(t));
+        }
+        recent.put("recent", latest);
+
+        Transaction backdated = transaction(200L, "33330000", TransactionType.DEPOSIT, "1.00", "Backdated");
+        backdated.setTransactionDate(LocalDateTime.now().minusDays(30));
+        invalidator.onTransactionChanged(TransactionChangedEvent.created(List.of(backdated)));
+        assertNotNull(recent.get("recent"));
+
+        Transaction current = transaction(201L, "33330000", TransactionType.DEPOSIT, "1.00", "Now");
+        current.setTransactionDate(LocalDateTime.now());
+        invalidator.onTransactionChanged(TransactionChangedEvent.created(List.of(current)));
+        assertNull(recent.get("recent"));
+    }
+
+    private static Transaction transaction(Long id, String account, TransactionType type, String amount, String description) {
+        Transaction transaction = new Transaction("TXN" + id, account, new BigDecimal(amount), type, description,
+                LocalDateTime.now().minusHours(1));
+        transaction.setId(id);
+        return transaction;
+    }
+
+    private static PageResponse<TransactionResponse> page(Transaction... rows) {
+        List<TransactionResponse> content = new ArrayList<>();
+        for (Transaction row : rows) {
+            content.add(new TransactionResponse(row));
+        }
+        return new PageResponse<>(content, 0, 20, content.size(), 1, true, true);
+    }
+}
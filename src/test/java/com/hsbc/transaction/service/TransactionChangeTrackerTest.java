@@ -0,0 +1,84 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.cache.TransactionChangeTracker;
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionChangeTrackerTest {
+
+    private final TransactionChangeTracker tracker = new TransactionChangeTracker();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void tags_AreStableUntilTheAccountIsWritten() {
+        String before = tracker.accountTag("11110000");
+        assertNotNull(before);
+        assertEquals(before, tracker.accountTag("11110000"));
+
+        String recent = tracker.recentTag();
+        tracker.onTransactionChanged(TransactionChangedEvent.created(List.of(transaction("11110000"))));
+
+        assertNotEquals(before, tracker.accountTag("11110000"));
+        assertNotEquals(recent, tracker.recentTag());
+    }
+
+    @Test
+    void writeInFlight_WithholdsTagsUntilItCompletes() {
+        String before = tracker.accountTag("11110000");
+
+        TransactionSynchronizationManager.initSynchronization();
+        tracker.onTransactionChanged(TransactionChangedEvent.created(List.of(transaction("11110000"))));
+        // Readers cannot tell whether they saw the uncommitted row, so nothing is tagged
+        assertNull(tracker.accountTag("11110000"));
+        assertNull(tracker.recentTag());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        String after = tracker.accountTag("11110000");
+        assertNotNull(after);
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void invalidateAll_RetiresEveryTag() {
+        String account = tracker.accountTag("11110000");
+        String recent = tracker.recentTag();
+
+        tracker.invalidateAll();
+
+        assertNotEquals(account, tracker.accountTag("11110000"));
+        assertNotEquals(recent, tracker.recentTag());
+    }
+
+    @Test
+    void tags_DifferAcrossInstances() {
+        // Counters restart with the process, so tags from before a restart must not match
+        assertNotEquals(tracker.accountTag("11110000"), new TransactionChangeTracker().accountTag("11110000"));
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private Transaction transaction(String accountNumber) {
+        Transaction transaction = new Transaction();
+        transaction.setId(1L);
+        transaction.setAccountNumber(accountNumber);
+        return transaction;
+    }
+}
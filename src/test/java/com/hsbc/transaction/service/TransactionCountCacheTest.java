@@ -0,0 +1,161 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.cache.PageIndexedCaffeineCache;
+import com.hsbc.transaction.cache.TransactionCountCache;
+import com.hsbc.transaction.cache.TransactionPageKey;
+import com.hsbc.transaction.cache.TransactionPageKeyIndex;
+import com.hsbc.transaction.config.CacheConfig;
+import com.hsbc.transaction.config.CacheSpecProperties;
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionCountCacheTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 20);
+    private static final Pageable SECOND_PAGE = PageRequest.of(1, 20);
+
+    private Cache counts;
+    private TransactionCountCache countCache;
+    private AtomicInteger countQueries;
+
+    @BeforeEach
+    void setUp() {
+        CacheManager cacheManager = new CacheConfig().cacheManager(new CacheSpecProperties(), null);
+        counts = cacheManager.getCache(TransactionCountCache.TRANSACTION_COUNTS);
+        countCache = new TransactionCountCache(cacheManager);
+        countQueries = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void total_CountsOncePerFilterAcrossPagesAndQueries() {
+        assertEquals(7, countCache.total(TransactionPageKey.account("11110000", FIRST_PAGE), () -> count(7)));
+        assertEquals(7, countCache.total(TransactionPageKey.account("11110000", SECOND_PAGE), () -> count(99)));
+        // The same filters reached through the criteria endpoint share the total
+        assertEquals(7, countCache.total(TransactionPageKey.criteria("11110000", null, null, null, null, null, FIRST_PAGE),
+                () -> count(99)));
+
+        assertEquals(1, countQueries.get());
+    }
+
+    @Test
+    void committedWrites_AdjustMatchingTotalsOnly() {
+        countCache.total(TransactionPageKey.account("11110000", FIRST_PAGE), () -> count(7));
+        countCache.total(TransactionPageKey.account("22220000", FIRST_PAGE), () -> count(3));
+        countCache.total(TransactionPageKey.all(FIRST_PAGE), () -> count(10));
+        countCache.total(TransactionPageKey.type(TransactionType.WITHDRAWAL, FIRST_PAGE), () -> count(2));
+
+        countCache.onTransactionChanged(TransactionChangedEvent.created(List.of(
+                transaction(1L, "11110000", TransactionType.DEPOSIT), transaction(2L, "11110000", TransactionType.DEPOSIT))));
+        countCache.onTransactionChanged(TransactionChangedEvent.deleted(transaction(3L, "22220000", TransactionType.WITHDRAWAL)));
+        countCache.onTransactionChanged(TransactionChangedEvent.updated(transaction(4L, "22220000", TransactionType.DEPOSIT)));
+
+        assertEquals(9L, cached(TransactionPageKey.account("11110000", FIRST_PAGE)));
+        assertEquals(2L, cached(TransactionPageKey.account("22220000", FIRST_PAGE)));
+        assertEquals(11L, cached(TransactionPageKey.all(FIRST_PAGE)));
+        assertEquals(1L, cached(TransactionPageKey.type(TransactionType.WITHDRAWAL, FIRST_PAGE)));
+        assertEquals(4, countQueries.get());
+    }
+
+    @Test
+    void countDuringMatchingWrite_IsNotCached() {
+        TransactionSynchronizationManager.initSynchronization();
+        countCache.onTransactionChanged(TransactionChangedEvent.created(List.of(
+                transaction(1L, "11110000", TransactionType.DEPOSIT))));
+
+        // Whether the count sees the uncommitted row depends on timing, so it is not kept
+        assertEquals(7, countCache.total(TransactionPageKey.account("11110000", FIRST_PAGE), () -> count(7)));
+        assertNull(cached(TransactionPageKey.account("11110000", FIRST_PAGE)));
+        // Other filters are unaffected by the write
+        countCache.total(TransactionPageKey.account("22220000", FIRST_PAGE), () -> count(3));
+        assertEquals(3L, cached(TransactionPageKey.account("22220000", FIRST_PAGE)));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(8, countCache.total(TransactionPageKey.account("11110000", FIRST_PAGE), () -> count(8)));
+        assertEquals(8L, cached(TransactionPageKey.account("11110000", FIRST_PAGE)));
+    }
+
+    @Test
+    void keyIndex_OffersOnlyTotalsInTheRowsScope() {
+        TransactionPageKey account = TransactionPageKey.account("11110000", FIRST_PAGE).withoutPaging();
+        TransactionPageKey otherAccount = TransactionPageKey.account("22220000", FIRST_PAGE).withoutPaging();
+        TransactionPageKey withdrawals = TransactionPageKey.type(TransactionType.WITHDRAWAL, FIRST_PAGE).withoutPaging();
+        TransactionPageKey all = TransactionPageKey.all(FIRST_PAGE).withoutPaging();
+        for (TransactionPageKey key : List.of(account, otherAccount, withdrawals, all)) {
+            countCache.total(key, () -> count(1));
+        }
+        TransactionPageKeyIndex keyIndex = ((PageIndexedCaffeineCache) counts).getKeyIndex();
+
+        assertEquals(Set.of(account, all),
+                keyIndex.candidates(List.of(transaction(1L, "11110000", TransactionType.DEPOSIT))));
+
+        counts.evict(account);
+        assertEquals(3, keyIndex.size());
+        counts.clear();
+        assertEquals(0, keyIndex.size());
+    }
+
+    @Test
+    void rolledBackWrite_LeavesTotalsUnchanged() {
+        countCache.total(TransactionPageKey.account("11110000", FIRST_PAGE), () -> count(7));
+
+        TransactionSynchronizationManager.initSynchronization();
+        countCache.onTransactionChanged(TransactionChangedEvent.created(List.of(
+                transaction(1L, "11110000", TransactionType.DEPOSIT))));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(7L, cached(TransactionPageKey.account("11110000", FIRST_PAGE)));
+    }
+
+    private long count(long total) {
+        countQueries.incrementAndGet();
+        return total;
+    }
+
+    private Long cached(TransactionPageKey key) {
+        return counts.get(key.withoutPaging(), Long.class);
+    }
+
+    private void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private Transaction transaction(Long id, String accountNumber, TransactionType type) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setReference("TXN" + id);
+        transaction.setAccountNumber(accountNumber);
+        transaction.setAmount(new BigDecimal("10.00"));
+        transaction.setType(type);
+        transaction.setDescription("Count test " + id);
+        transaction.setTransactionDate(LocalDateTime.now().minusDays(1));
+        return transaction;
+    }
+}
@@ -1,29 +1,59 @@
 package com.hsbc.transaction.service;
 
+import com.hsbc.transaction.cache.HotTransactionStore;
+import com.hsbc.transaction.cache.IdempotencyKeyStore;
+import com.hsbc.transaction.cache.RequestFingerprint;
+import com.hsbc.transaction.cache.TransactionCountCache;
+import com.hsbc.transaction.cache.TransactionLookupCache;
+import com.hsbc.transaction.cache.TransactionLookupKey;
+import com.hsbc.transaction.config.BatchProperties;
+import com.hsbc.transaction.config.IdempotencyProperties;
+import com.hsbc.transaction.dto.BatchTransactionResponse;
+import com.hsbc.transaction.dto.PageResponse;
+import com.hsbc.transaction.dto.TransactionLookupResponse;
 import com.hsbc.transaction.dto.TransactionRequest;
 import com.hsbc.transaction.dto.UpdateTransactionRequest;
 import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.event.TransactionChangedEvent;
+import com.hsbc.transaction.exception.IdempotencyKeyMismatchException;
 import com.hsbc.transaction.exception.TransactionNotFoundException;
+import com.hsbc.transaction.exception.TransactionVersionMismatchException;
 import com.hsbc.transaction.exception.ValidationException;
 import com.hsbc.transaction.model.Transaction;
 import com.hsbc.transaction.model.TransactionType;
 import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.search.TransactionSearchIndex;
+import com.hsbc.transaction.service.impl.TransactionBatchWriter;
+import com.hsbc.transaction.service.impl.TimeBasedReferenceGenerator;
+import com.hsbc.transaction.service.impl.TransactionFactory;
 import com.hsbc.transaction.service.impl.TransactionServiceImpl;
+import com.hsbc.transaction.storage.TransactionLog;
+import com.hsbc.transaction.storage.TransactionLogStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,7 +62,32 @@ class TransactionServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
 
-    @InjectMocks
+    @Mock
+    private TransactionBatchWriter batchWriter;
+
+    @Mock
+    private AccountSummaryService accountSummaryService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionSearchIndex searchIndex;
+
+    @Mock
+    private TransactionCountCache countCache;
+
+    @Mock
+    private HotTransactionStore hotStore;
+
+    @Mock
+    private ObjectProvider<TransactionLogStore> logStoreProvider;
+
+    @Mock
+    private TransactionLogStore logStore;
+
+    private ConcurrentMapCacheManager cacheManager;
+
     private TransactionServiceImpl transactionService;
 
     private TransactionRequest validRequest;
@@ -40,6 +95,9 @@ class TransactionServiceTest {
 
     @BeforeEach
     void setUp() {
+        cacheManager = new ConcurrentMapCacheManager("transactions");
+        transactionService = newService();
+
         validRequest = new TransactionRequest();
         validRequest.setReference(null);
         validRequest.setAccountNumber("12345678");
@@ -61,7 +119,6 @@ class TransactionServiceTest {
 
     @Test
     void createTransaction_Success() {
-        when(transactionRepository.existsByReference(anyString())).thenReturn(false);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
 
         TransactionResponse response = transactionService.createTransaction(validRequest);
@@ -72,20 +129,18 @@ class TransactionServiceTest {
         assertEquals(new BigDecimal("100.00"), response.getAmount());
         assertEquals(TransactionType.DEPOSIT, response.getType());
 
-        verify(transactionRepository, atLeast(0)).existsByReference(anyString());
         verify(transactionRepository).save(any(Transaction.class));
     }
 
     @Test
-    void createTransaction_RetryOnGeneratedReferenceCollision_Succeeds() {
-        when(transactionRepository.existsByReference(anyString())).thenReturn(true, false);
-        when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
+    void createTransaction_GeneratedReference_NoDatabaseLookup() {
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         TransactionResponse response = transactionService.createTransaction(validRequest);
 
         assertNotNull(response);
-        assertNotNull(response.getReference());
-        verify(transactionRepository, atLeast(1)).existsByReference(anyString());
+        assertTrue(response.getReference().matches("TXN\\d{24}"));
+        verify(transactionRepository, never()).existsByReference(anyString());
         verify(transactionRepository).save(any(Transaction.class));
     }
 
@@ -113,7 +168,7 @@ class TransactionServiceTest {
 
     @Test
     void getTransactionById_Success() {
-        when(transactionRepository.findById(1L)).thenReturn(Optional.of(sampleTransaction));
+        when(transactionRepository.findResponseById(1L)).thenReturn(Optional.of(new TransactionResponse(sampleTransaction)));
 
         TransactionResponse response = transactionService.getTransactionById(1L);
 
@@ -121,18 +176,77 @@ class TransactionServiceTest {
         assertEquals(1L, response.getId());
         assertEquals("TXNTEST001", response.getReference());
 
-        verify(transactionRepository).findById(1L);
+        verify(transactionRepository).findResponseById(1L);
+        verify(transactionRepository, never()).findById(any());
     }
 
     @Test
     void getTransactionById_NotFound_ThrowsException() {
-        when(transactionRepository.findById(999L)).thenReturn(Optional.empty());
+        when(transactionRepository.findResponseById(999L)).thenReturn(Optional.empty());
 
         assertThrows(TransactionNotFoundException.class, () -> {
             transactionService.getTransactionById(999L);
         });
 
-        verify(transactionRepository).findById(999L);
+        verify(transactionRepository).findResponseById(999L);
+    }
+
+    @Test
+    void getTransactionById_WithLogStore_ReadsTheLog() {
+        useLogStore();
+        when(logStore.find(1L)).thenReturn(Optional.of(sampleTransaction));
+        when(logStore.findByReference("TXNTEST001")).thenReturn(Optional.of(sampleTransaction));
+
+        assertEquals("TXNTEST001", transactionService.getTransactionById(1L).getReference());
+        assertEquals(1L, transactionService.getTransactionByReference("TXNTEST001").getId());
+
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getTransactionById_NotYetLogged_FallsBackToRepository() {
+        useLogStore();
+        when(logStore.find(1L)).thenReturn(Optional.empty());
+        when(transactionRepository.findResponseById(1L)).thenReturn(Optional.of(new TransactionResponse(sampleTransaction)));
+
+        assertEquals("TXNTEST001", transactionService.getTransactionById(1L).getReference());
+        verify(transactionRepository).findResponseById(1L);
+    }
+
+    @Test
+    void getTransactionsByAccount_WithLogStore_PagesTheLoggedRows() {
+        useLogStore();
+        when(logStore.findByAccountNumber("12345678", 2, 2))
+                .thenReturn(Optional.of(new TransactionLog.AccountPage(List.of(sampleTransaction), 3)));
+        when(logStore.findByAccountNumber("12345678", 0, 2))
+                .thenReturn(Optional.of(new TransactionLog.AccountPage(List.of(transaction(3L), transaction(2L)), 3)));
+        PageRequest secondPage = PageRequest.of(1, 2, Sort.by("transactionDate").descending());
+
+        PageResponse<TransactionResponse> page = transactionService.getTransactionsByAccount("12345678", secondPage, true);
+        assertEquals(List.of(1L), page.getContent().stream().map(TransactionResponse::getId).toList());
+        assertEquals(3L, page.getTotalElements());
+        assertTrue(page.isLast());
+
+        PageResponse<TransactionResponse> slice = transactionService.getTransactionsByAccount("12345678",
+                PageRequest.of(0, 2, Sort.by("transactionDate").descending()), false);
+        assertEquals(List.of(3L, 2L), slice.getContent().stream().map(TransactionResponse::getId).toList());
+        assertFalse(slice.isLast());
+
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void getTransactionsByAccount_WithLogStoreStillAppending_PagesTheDatabase() {
+        useLogStore();
+        PageRequest firstPage = PageRequest.of(0, 2, Sort.by("transactionDate").descending());
+        when(logStore.findByAccountNumber("12345678", 0, 2)).thenReturn(Optional.empty());
+        when(transactionRepository.findSliceByCriteria("12345678", null, null, null, null, null, firstPage))
+                .thenReturn(new SliceImpl<>(List.of(new TransactionResponse(sampleTransaction)), firstPage, false));
+
+        PageResponse<TransactionResponse> page = transactionService.getTransactionsByAccount("12345678", firstPage, true);
+
+        assertEquals(List.of(1L), page.getContent().stream().map(TransactionResponse::getId).toList());
+        assertEquals(1L, page.getTotalElements());
     }
 
     @Test
@@ -150,6 +264,20 @@ class TransactionServiceTest {
         verify(transactionRepository).save(any(Transaction.class));
     }
 
+    @Test
+    void updateTransaction_StaleIfMatchVersion_IsRejectedBeforeWriting() {
+        sampleTransaction.setVersion(3L);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(sampleTransaction));
+
+        UpdateTransactionRequest updateReq = new UpdateTransactionRequest();
+        updateReq.setDescription("Updated description");
+
+        assertThrows(TransactionVersionMismatchException.class,
+                () -> transactionService.updateTransaction(1L, updateReq, 2L));
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     void updateTransaction_NotFound_ThrowsException() {
         when(transactionRepository.findById(999L)).thenReturn(Optional.empty());
@@ -168,27 +296,89 @@ class TransactionServiceTest {
 
     @Test
     void deleteTransaction_Success() {
-        when(transactionRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(transactionRepository).deleteById(1L);
+        when(transactionRepository.findById(1L)).thenReturn(Optional.of(sampleTransaction));
+        doNothing().when(transactionRepository).delete(sampleTransaction);
 
         assertDoesNotThrow(() -> {
             transactionService.deleteTransaction(1L);
         });
 
-        verify(transactionRepository).existsById(1L);
-        verify(transactionRepository).deleteById(1L);
+        verify(transactionRepository).findById(1L);
+        verify(transactionRepository).delete(sampleTransaction);
+        verify(eventPublisher).publishEvent(any(TransactionChangedEvent.class));
     }
 
     @Test
     void deleteTransaction_NotFound_ThrowsException() {
-        when(transactionRepository.existsById(999L)).thenReturn(false);
+        when(transactionRepository.findById(999L)).thenReturn(Optional.empty());
 
         assertThrows(TransactionNotFoundException.class, () -> {
             transactionService.deleteTransaction(999L);
         });
 
-        verify(transactionRepository).existsById(999L);
-        verify(transactionRepository, never()).deleteById(any());
+        verify(transactionRepository).findById(999L);
+        verify(transactionRepository, never()).delete(any(Transaction.class));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void searchTransactions_IndexReady_ReturnsRowsInRankOrder() {
+        Transaction other = new Transaction("TXNTEST002", "12345678", new BigDecimal("5.00"),
+                TransactionType.DEPOSIT, "Coffee", LocalDateTime.now());
+        other.setId(2L);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search("coffee", 0, 10)).thenReturn(new TransactionSearchIndex.Hits(List.of(2L, 1L), 2));
+        when(transactionRepository.findResponsesByIdIn(List.of(2L, 1L)))
+                .thenReturn(List.of(new TransactionResponse(sampleTransaction), new TransactionResponse(other)));
+
+        PageResponse<TransactionResponse> page = transactionService.searchTransactions("coffee", PageRequest.of(0, 10));
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals(List.of(2L, 1L), page.getContent().stream().map(TransactionResponse::getId).toList());
+        verify(transactionRepository, never()).searchByKeyword(anyString(), any());
+    }
+
+    @Test
+    void lookupTransactions_ServesCachedKeysAndFetchesMissesOnce() {
+        Transaction cached = new Transaction();
+        cached.setId(2L);
+        cached.setReference("TXNTEST002");
+        cached.setAccountNumber("12345678");
+        cached.setAmount(new BigDecimal("5.00"));
+        cached.setType(TransactionType.FEE);
+        cacheManager.getCache("transactions").put(TransactionLookupKey.byId(2L), new TransactionResponse(cached));
+        when(transactionRepository.findResponsesByIdIn(List.of(1L, 999L)))
+                .thenReturn(List.of(new TransactionResponse(sampleTransaction)));
+        when(transactionRepository.findResponsesByReferenceIn(List.of("TXNMISSING"))).thenReturn(List.of());
+
+        TransactionLookupResponse response = transactionService.lookupTransactions(
+                List.of(2L, 1L, 999L, 1L), List.of("TXNTEST001", "TXNMISSING"));
+
+        assertEquals(List.of(2L, 1L), List.copyOf(response.getIds().keySet()));
+        assertEquals("TXNTEST001", response.getIds().get(1L).getReference());
+        // Answered by the row already fetched by id, so no reference query includes it
+        assertEquals(1L, response.getReferences().get("TXNTEST001").getId());
+        assertEquals(List.of(999L), response.getNotFoundIds());
+        assertEquals(List.of("TXNMISSING"), response.getNotFoundReferences());
+        assertNotNull(cacheManager.getCache("transactions").get(TransactionLookupKey.byId(1L)));
+        assertNotNull(cacheManager.getCache("transactions").get(TransactionLookupKey.byReference("TXNTEST001")));
+        verify(transactionRepository, never()).findById(any());
+    }
+
+    @Test
+    void lookupTransactions_EmptyRequest_ThrowsException() {
+        assertThrows(ValidationException.class, () -> transactionService.lookupTransactions(List.of(), null));
+        assertThrows(ValidationException.class,
+                () -> transactionService.lookupTransactions(null, Arrays.asList("TXNTEST001", null)));
+    }
+
+    @Test
+    void getAccountBalance_ReadsFromAccountSummary() {
+        when(accountSummaryService.getBalance("12345678")).thenReturn(new BigDecimal("250.00"));
+
+        assertEquals(new BigDecimal("250.00"), transactionService.getAccountBalance("12345678"));
+
+        verify(transactionRepository, never()).sumByAccountNumberAndType(anyString(), any());
     }
 
     @Test
@@ -203,7 +393,6 @@ class TransactionServiceTest {
     @Test
     void createTransaction_EmptyReference_IgnoredAndGeneratesAutomatically() {
         validRequest.setReference("");
-        when(transactionRepository.existsByReference(anyString())).thenReturn(false);
         when(transactionRepository.save(any(Transaction.class))).thenReturn(sampleTransaction);
 
         TransactionResponse response = transactionService.createTransaction(validRequest);
@@ -224,6 +413,178 @@ class TransactionServiceTest {
         verify(transactionRepository, never()).save(any(Transaction.class));
     }
 
+    @Test
+    void createTransactions_WritesAcceptedItemsInChunks() {
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<TransactionRequest> requests = Arrays.asList(validRequest, validRequest, validRequest);
+        BatchTransactionResponse response = transactionService.createTransactions(requests);
+
+        assertEquals(3, response.getTotal());
+        assertEquals(3, response.getSucceeded());
+        assertEquals(0, response.getFailed());
+        assertEquals(3, response.getResults().stream()
+                .map(result -> result.getTransaction().getReference())
+                .distinct()
+                .count());
+        verify(batchWriter, times(2)).writeChunk(anyList());
+        verify(transactionRepository, never()).existsByReference(anyString());
+    }
+
+    @Test
+    void createTransactions_InvalidItem_RejectedWithoutFailingBatch() {
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionRequest invalid = new TransactionRequest();
+        invalid.setAccountNumber("123");
+        invalid.setAmount(new BigDecimal("10.00"));
+        invalid.setType("DEPOSIT");
+        invalid.setDescription("Bad account");
+
+        BatchTransactionResponse response = transactionService.createTransactions(Arrays.asList(validRequest, invalid));
+
+        assertEquals(1, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals(BatchTransactionResponse.ItemStatus.CREATED, response.getResults().get(0).getStatus());
+        assertEquals(BatchTransactionResponse.ItemStatus.REJECTED, response.getResults().get(1).getStatus());
+        assertNotNull(response.getResults().get(1).getError());
+    }
+
+    @Test
+    void createTransactions_FailedChunk_MarksOnlyThatChunkFailed() {
+        when(batchWriter.writeChunk(anyList()))
+                .thenThrow(new IllegalStateException("boom"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<TransactionRequest> requests = Arrays.asList(validRequest, validRequest, validRequest);
+        BatchTransactionResponse response = transactionService.createTransactions(requests);
+
+        assertEquals(1, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertEquals(BatchTransactionResponse.ItemStatus.FAILED, response.getResults().get(0).getStatus());
+        assertEquals(BatchTransactionResponse.ItemStatus.FAILED, response.getResults().get(1).getStatus());
+        assertEquals(BatchTransactionResponse.ItemStatus.CREATED, response.getResults().get(2).getStatus());
+    }
+
+    @Test
+    void createTransactions_EmptyBatch_ThrowsException() {
+        assertThrows(ValidationException.class, () -> {
+            transactionService.createTransactions(Collections.emptyList());
+        });
+
+        verify(batchWriter, never()).writeChunk(anyList());
+    }
+
+    @Test
+    void createTransaction_RepeatedIdempotencyKey_WritesOnce() {
+        when(transactionRepository.findByIdempotencyKey("retry-1")).thenReturn(Optional.empty());
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        TransactionResponse first = transactionService.createTransaction(validRequest, "retry-1");
+        TransactionResponse second = transactionService.createTransaction(validRequest, "retry-1");
+
+        assertEquals(first.getReference(), second.getReference());
+        verify(batchWriter, times(1)).writeChunk(argThat(chunk -> "retry-1".equals(chunk.get(0).getIdempotencyKey())));
+    }
+
+    @Test
+    void createTransaction_IdempotencyKeyReusedForAnotherRequest_ThrowsMismatch() {
+        when(transactionRepository.findByIdempotencyKey("retry-2")).thenReturn(Optional.empty());
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        transactionService.createTransaction(validRequest, "retry-2");
+        TransactionRequest other = new TransactionRequest();
+        other.setAccountNumber(validRequest.getAccountNumber());
+        other.setAmount(new BigDecimal("250.00"));
+        other.setType(validRequest.getType());
+        other.setDescription(validRequest.getDescription());
+        other.setTransactionDate(validRequest.getTransactionDate());
+
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> transactionService.createTransaction(other, "retry-2"));
+
+        verify(batchWriter, times(1)).writeChunk(anyList());
+    }
+
+    @Test
+    void createTransaction_KeyRecordedForAnotherRequest_ThrowsMismatch() {
+        Transaction recorded = transaction(7L);
+        recorded.setIdempotencyKey("retry-3");
+        recorded.setIdempotencyFingerprint("0".repeat(64));
+        when(transactionRepository.findByIdempotencyKey("retry-3")).thenReturn(Optional.of(recorded));
+
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> transactionService.createTransaction(validRequest, "retry-3"));
+
+        verify(batchWriter, never()).writeChunk(anyList());
+    }
+
+    @Test
+    void createTransaction_InvalidIdempotencyKey_ThrowsException() {
+        assertThrows(ValidationException.class, () -> transactionService.createTransaction(validRequest, "has:colon"));
+
+        verify(batchWriter, never()).writeChunk(anyList());
+    }
+
+    @Test
+    void createTransactions_KeyedRetryAfterFailedChunk_WritesOnlyMissingItems() {
+        when(batchWriter.writeChunk(anyList()))
+                .thenThrow(new IllegalStateException("boom"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        List<TransactionRequest> requests = Arrays.asList(validRequest, validRequest, validRequest);
+
+        BatchTransactionResponse firstAttempt = transactionService.createTransactions(requests, "batch-1");
+        assertEquals(2, firstAttempt.getFailed());
+
+        Transaction written = new Transaction();
+        written.setId(3L);
+        written.setReference("TXNWRITTEN");
+        written.setAccountNumber("12345678");
+        written.setIdempotencyKey("batch-1:2");
+        when(transactionRepository.findByIdempotencyKeyStartingWith("batch-1:")).thenReturn(List.of(written));
+        clearInvocations(batchWriter);
+
+        BatchTransactionResponse retry = transactionService.createTransactions(requests, "batch-1");
+
+        assertEquals(3, retry.getSucceeded());
+        assertEquals("TXNWRITTEN", retry.getResults().get(2).getTransaction().getReference());
+        verify(batchWriter).writeChunk(argThat(chunk -> chunk.size() == 2
+                && "batch-1:0".equals(chunk.get(0).getIdempotencyKey())
+                && "batch-1:1".equals(chunk.get(1).getIdempotencyKey())));
+        verifyNoMoreInteractions(batchWriter);
+    }
+
+    @Test
+    void createTransactions_KeyedReplayAfterExpiry_AnsweredFromRecordedItems() {
+        List<TransactionRequest> requests = Arrays.asList(validRequest, validRequest);
+        String fingerprint = RequestFingerprint.of(requests);
+        List<Transaction> written = List.of(transaction(1L), transaction(2L));
+        for (int i = 0; i < written.size(); i++) {
+            written.get(i).setIdempotencyKey("batch-2:" + i);
+            written.get(i).setIdempotencyFingerprint(fingerprint);
+        }
+        when(transactionRepository.findByIdempotencyKeyStartingWith("batch-2:")).thenReturn(written);
+
+        BatchTransactionResponse replay = transactionService.createTransactions(requests, "batch-2");
+
+        assertEquals(2, replay.getSucceeded());
+        assertEquals("TXNTEST002", replay.getResults().get(1).getTransaction().getReference());
+        verify(transactionRepository, times(1)).findByIdempotencyKeyStartingWith("batch-2:");
+        verifyNoInteractions(batchWriter);
+    }
+
+    @Test
+    void createTransactions_KeyRecordedForAnotherBatch_ThrowsMismatch() {
+        Transaction written = transaction(1L);
+        written.setIdempotencyKey("batch-3:0");
+        written.setIdempotencyFingerprint(RequestFingerprint.of(List.of(validRequest)));
+        when(transactionRepository.findByIdempotencyKeyStartingWith("batch-3:")).thenReturn(List.of(written));
+
+        assertThrows(IdempotencyKeyMismatchException.class,
+                () -> transactionService.createTransactions(Arrays.asList(validRequest, validRequest), "batch-3"));
+
+        verifyNoInteractions(batchWriter);
+    }
+
     @Test
     void getTransactionTypes_ReturnsAllEnumNames() {
         List<String> types = transactionService.getTransactionTypes();
@@ -235,5 +596,33 @@ class TransactionServiceTest {
         assertEquals(expected.size(), types.size());
         assertTrue(types.containsAll(expected));
     }
-}
 
+    private TransactionServiceImpl newService() {
+        BatchProperties batchProperties = new BatchProperties();
+        batchProperties.setChunkSize(2);
+        TransactionFactory transactionFactory = new TransactionFactory(
+                new TimeBasedReferenceGenerator(1, Clock.systemDefaultZone(), new SimpleMeterRegistry()),
+                Validation.buildDefaultValidatorFactory().getValidator(), new SimpleMeterRegistry());
+        return new TransactionServiceImpl(transactionRepository, batchWriter,
+                transactionFactory, accountSummaryService, eventPublisher, searchIndex, batchProperties, countCache,
+                new TransactionLookupCache(cacheManager), hotStore,
+                new IdempotencyKeyStore(new IdempotencyProperties(), new SimpleMeterRegistry()), logStoreProvider);
+    }
+
+    private void useLogStore() {
+        when(logStoreProvider.getIfAvailable()).thenReturn(logStore);
+        when(logStore.isRunning()).thenReturn(true);
+        transactionService = newService();
+    }
+
+    private Transaction transaction(Long id) {
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setReference("TXNTEST00" + id);
+        transaction.setAccountNumber("12345678");
+        transaction.setAmount(new BigDecimal("100.00"));
+        transaction.setType(TransactionType.DEPOSIT);
+        transaction.setTransactionDate(sampleTransaction.getTransactionDate().plusHours(id));
+        return transaction;
+    }
+}
@@ -0,0 +1,183 @@
+package com.hsbc.transaction.service;
+
+import com.hsbc.transaction.cache.IdempotencyKeyStore;
+import com.hsbc.transaction.config.IdempotencyProperties;
+import com.hsbc.transaction.config.IngestionProperties;
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.exception.IngestionQueueFullException;
+import com.hsbc.transaction.exception.TransactionException;
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionStatus;
+import com.hsbc.transaction.repository.TransactionRepository;
+import com.hsbc.transaction.service.impl.TimeBasedReferenceGenerator;
+import com.hsbc.transaction.service.impl.TransactionBatchWriter;
+import com.hsbc.transaction.service.impl.TransactionFactory;
+import com.hsbc.transaction.service.impl.WriteBehindIngestionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteBehindIngestionServiceTest {
+
+    @Mock
+    private TransactionBatchWriter batchWriter;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private IngestionProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private WriteBehindIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        properties = new IngestionProperties();
+        properties.setMode(IngestionProperties.Mode.ASYNC);
+        properties.setQueueCapacity(2);
+        properties.setWriterThreads(1);
+        properties.setMaxGroupSize(10);
+        properties.setPollInterval(Duration.ofMillis(10));
+        properties.setShutdownTimeout(Duration.ofSeconds(5));
+        meterRegistry = new SimpleMeterRegistry();
+
+        TransactionFactory transactionFactory = new TransactionFactory(
+                new TimeBasedReferenceGenerator(1, Clock.systemDefaultZone(), new SimpleMeterRegistry()),
+                Validation.buildDefaultValidatorFactory().getValidator(), new SimpleMeterRegistry());
+        ingestionService = new WriteBehindIngestionService(transactionFactory, batchWriter, transactionRepository,
+                new IdempotencyKeyStore(new IdempotencyProperties(), meterRegistry), properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ingestionService.stop();
+    }
+
+    @Test
+    void submit_ReturnsPendingWithReference_ThenCommitsInGroup() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> groupSizes = new ArrayList<>();
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            List<Transaction> group = invocation.getArgument(0);
+            groupSizes.add(group.size());
+            return group;
+        });
+        ingestionService.start();
+
+        TransactionResponse accepted = ingestionService.submit(createRequest());
+
+        assertEquals(TransactionStatus.PENDING, accepted.getStatus());
+        assertNotNull(accepted.getReference());
+        assertNull(accepted.getId());
+        assertEquals(TransactionStatus.PENDING, ingestionService.getStatus(accepted.getReference()).getStatus());
+
+        release.countDown();
+        ingestionService.stop();
+
+        assertEquals(0, ingestionService.getQueueDepth());
+        assertEquals(1, groupSizes.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(1L, meterRegistry.get("transaction.ingestion.commit.latency").timer().count());
+    }
+
+    @Test
+    void submit_QueueFull_ThrowsBackpressure() {
+        // Writers are not started, so nothing drains the queue
+        ingestionService.submit(createRequest());
+        ingestionService.submit(createRequest());
+
+        IngestionQueueFullException ex = assertThrows(IngestionQueueFullException.class, () -> {
+            ingestionService.submit(createRequest());
+        });
+        assertEquals("INGESTION_QUEUE_FULL", ex.getErrorCode());
+        assertEquals(2, ingestionService.getQueueDepth());
+        assertEquals(1.0, meterRegistry.get("transaction.ingestion.rejected").counter().count());
+    }
+
+    @Test
+    void stop_FlushesQueuedTransactions() {
+        when(batchWriter.writeChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        ingestionService.submit(createRequest());
+        ingestionService.submit(createRequest());
+
+        ingestionService.start();
+        ingestionService.stop();
+
+        assertEquals(0, ingestionService.getQueueDepth());
+        verify(batchWriter, atLeastOnce()).writeChunk(anyList());
+    }
+
+    @Test
+    void stop_ThenSubmit_Rejected() {
+        ingestionService.start();
+        ingestionService.stop();
+
+        TransactionException ex = assertThrows(TransactionException.class,
+                () -> ingestionService.submit(createRequest()));
+        assertEquals("INGESTION_UNAVAILABLE", ex.getErrorCode());
+        assertEquals(0, ingestionService.getQueueDepth());
+    }
+
+    @Test
+    void stop_UnwrittenTransactions_ReportedFailed() {
+        // Writers are not started, so everything queued is left behind at shutdown
+        TransactionResponse queued = ingestionService.submit(createRequest());
+
+        ingestionService.stop();
+
+        assertEquals(0, ingestionService.getQueueDepth());
+        assertEquals(TransactionStatus.FAILED, ingestionService.getStatus(queued.getReference()).getStatus());
+        assertEquals(1.0, meterRegistry.get("transaction.ingestion.failed").counter().count());
+        verifyNoInteractions(batchWriter);
+    }
+
+    @Test
+    void failedGroup_RetriedIndividually_FailureReported() {
+        when(batchWriter.writeChunk(anyList()))
+                .thenThrow(new IllegalStateException("group failed"))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(new IllegalStateException("row failed"));
+        TransactionResponse first = ingestionService.submit(createRequest());
+        TransactionResponse second = ingestionService.submit(createRequest());
+
+        ingestionService.start();
+        ingestionService.stop();
+
+        Transaction stored = new Transaction();
+        stored.setReference(first.getReference());
+        when(transactionRepository.findByReference(first.getReference())).thenReturn(Optional.of(stored));
+
+        assertEquals(TransactionStatus.COMPLETED, ingestionService.getStatus(first.getReference()).getStatus());
+        assertEquals(TransactionStatus.FAILED, ingestionService.getStatus(second.getReference()).getStatus());
+        assertEquals(1.0, meterRegistry.get("transaction.ingestion.failed").counter().count());
+        verify(batchWriter, times(3)).writeChunk(anyList());
+    }
+
+    private TransactionRequest createRequest() {
+        TransactionRequest request = new TransactionRequest();
+        request.setAccountNumber("12345678");
+        request.setAmount(new BigDecimal("100.00"));
+        request.setType("DEPOSIT");
+        request.setDescription("Queued transaction");
+        return request;
+    }
+}
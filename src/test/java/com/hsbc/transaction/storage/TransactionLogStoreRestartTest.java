@@ -0,0 +1,64 @@
+package com.hsbc.transaction.storage;
+
+import com.hsbc.transaction.TransactionManagementApplication;
+import com.hsbc.transaction.dto.TransactionRequest;
+import com.hsbc.transaction.dto.TransactionResponse;
+import com.hsbc.transaction.exception.IdempotencyKeyMismatchException;
+import com.hsbc.transaction.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the application twice on the same log directory. Each start gets a
+ * fresh in-memory database, so whatever the second one knows came from the log.
+ */
+class TransactionLogStoreRestartTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void idempotencyKey_StaysBoundToItsRequestAcrossRestarts() {
+        TransactionResponse created;
+        try (ConfigurableApplicationContext context = start()) {
+            created = context.getBean(TransactionService.class).createTransaction(request("25.00"), "restart-key-1");
+        }
+
+        try (ConfigurableApplicationContext context = start()) {
+            TransactionService transactionService = context.getBean(TransactionService.class);
+            // First, while only the replayed row knows what the key was used for
+            IdempotencyKeyMismatchException mismatch = assertThrows(IdempotencyKeyMismatchException.class,
+                    () -> transactionService.createTransaction(request("99.00"), "restart-key-1"));
+            assertEquals("IDEMPOTENCY_KEY_MISMATCH", mismatch.getErrorCode());
+
+            assertEquals(created.getReference(),
+                    transactionService.createTransaction(request("25.00"), "restart-key-1").getReference());
+        }
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(TransactionManagementApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test", TransactionLogStore.PROFILE)
+                // Arguments rather than default properties, which application.yml would override
+                .run("--transaction.log-store.directory=" + directory,
+                        "--transaction.log-store.segment-size=" + TransactionLog.MIN_SEGMENT_SIZE + "B");
+    }
+
+    private static TransactionRequest request(String amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setAccountNumber("77001122");
+        request.setAmount(new BigDecimal(amount));
+        request.setType("DEPOSIT");
+        request.setDescription("Restart test");
+        return request;
+    }
+}
@@ -0,0 +1,188 @@
+package com.hsbc.transaction.storage;
+
+import com.hsbc.transaction.model.Transaction;
+import com.hsbc.transaction.model.TransactionStatus;
+import com.hsbc.transaction.model.TransactionType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionLogTest {
+
+    private static final LocalDateTime DATE = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_456_000);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopening_RebuildsIndexesFromTheLatestRecords() throws IOException {
+        TransactionLog log = open(4);
+        Transaction first = transaction(1L, "11111111", 0L);
+        first.setNotes("Ünïcode notes");
+        first.setIdempotencyKey("key-1");
+        first.setIdempotencyFingerprint("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        log.write(List.of(first, transaction(2L, "11111111", 0L), transaction(3L, "22222222", 0L)));
+        Transaction updated = transaction(2L, "11111111", 1L);
+        updated.setDescription("Updated description");
+        log.write(List.of(updated));
+        log.delete(List.of(3L));
+
+        TransactionLog reopened = open(4);
+
+        assertEquals(2, reopened.size());
+        assertEquals(3, reopened.maxId());
+        Transaction restored = reopened.find(1L).orElseThrow();
+        assertEquals("TXN1", restored.getReference());
+        assertEquals(new BigDecimal("101.25"), restored.getAmount());
+        assertEquals(TransactionType.PAYMENT, restored.getType());
+        assertEquals(TransactionStatus.COMPLETED, restored.getStatus());
+        assertEquals(DATE, restored.getTransactionDate());
+        assertEquals("Ünïcode notes", restored.getNotes());
+        assertEquals("key-1", restored.getIdempotencyKey());
+        assertEquals("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08", restored.getIdempotencyFingerprint());
+        assertNull(reopened.find(2L).orElseThrow().getIdempotencyFingerprint());
+        assertEquals(1L, reopened.findByReference("TXN2").orElseThrow().getVersion());
+        assertEquals("Updated description", reopened.find(2L).orElseThrow().getDescription());
+        assertTrue(reopened.find(3L).isEmpty());
+        assertTrue(reopened.findByReference("TXN3").isEmpty());
+        assertEquals(List.of(2L, 1L), ids(reopened.findByAccountNumber("11111111", 0, 10)));
+        assertEquals(0, reopened.findByAccountNumber("22222222", 0, 10).total());
+    }
+
+    @Test
+    void accountPages_AreNewestFirstAndDecodeOnlyTheWindow() throws IOException {
+        TransactionLog log = open(1);
+        // Written out of date order; rows on the same date fall back to id
+        log.write(List.of(dated(1L, 2), dated(2L, 5), dated(3L, 1), dated(4L, 5), dated(5L, 3)));
+        log.write(List.of(transaction(6L, "22222222", 0L)));
+
+        TransactionLog.AccountPage first = log.findByAccountNumber("11111111", 0, 2);
+        assertEquals(List.of(4L, 2L), first.rows().stream().map(Transaction::getId).toList());
+        assertEquals(5, first.total());
+        assertEquals(List.of(5L, 1L), ids(log.findByAccountNumber("11111111", 2, 2)));
+        assertEquals(List.of(3L), ids(log.findByAccountNumber("11111111", 4, 2)));
+        assertTrue(log.findByAccountNumber("11111111", 6, 2).rows().isEmpty());
+
+        log.delete(List.of(2L, 3L));
+        log.write(List.of(dated(7L, 4)));
+        assertEquals(List.of(4L, 7L, 5L, 1L), ids(log.findByAccountNumber("11111111", 0, 10)));
+
+        TransactionLog reopened = open(1);
+        TransactionLog.AccountPage replayed = reopened.findByAccountNumber("11111111", 1, 2);
+        assertEquals(List.of(7L, 5L), replayed.rows().stream().map(Transaction::getId).toList());
+        assertEquals(4, replayed.total());
+    }
+
+    @Test
+    void outOfOrderAppends_ResolveToTheHighestVersionAndTombstonesWin() throws IOException {
+        TransactionLog log = open(1);
+        // Concurrent commits can reach the log in either order
+        log.write(List.of(transaction(1L, "11111111", 2L)));
+        log.write(List.of(transaction(1L, "11111111", 1L)));
+        log.delete(List.of(2L));
+        log.write(List.of(transaction(2L, "11111111", 0L)));
+
+        assertEquals(2L, log.find(1L).orElseThrow().getVersion());
+        assertTrue(log.find(2L).isEmpty());
+
+        TransactionLog reopened = open(1);
+        assertEquals(2L, reopened.find(1L).orElseThrow().getVersion());
+        assertTrue(reopened.find(2L).isEmpty());
+        assertEquals(1, reopened.size());
+    }
+
+    @Test
+    void manySegments_AreReplayedInParallel() throws IOException {
+        TransactionLog log = open(4);
+        List<Transaction> rows = new ArrayList<>();
+        for (long id = 1; id <= 2_000; id++) {
+            rows.add(transaction(id, "3333" + (1000 + id % 10), 0L));
+        }
+        log.write(rows);
+        log.write(List.of(transaction(7L, "33331007", 5L)));
+        assertTrue(log.segmentCount() > 2, "64KB segments hold a few hundred rows each");
+
+        TransactionLog reopened = open(4);
+
+        assertEquals(2_000, reopened.size());
+        assertEquals(5L, reopened.find(7L).orElseThrow().getVersion());
+        assertEquals(200, reopened.findByAccountNumber("33331003", 0, 10).total());
+        List<Long> visited = new ArrayList<>();
+        reopened.forEach(row -> visited.add(row.getId()));
+        assertEquals(2_000, visited.size());
+    }
+
+    @Test
+    void tornRecordAtTheTail_IsDroppedAndOverwritten() throws IOException {
+        TransactionLog log = open(1);
+        log.write(List.of(transaction(1L, "11111111", 0L), transaction(2L, "11111111", 0L)));
+        corrupt(0, log.usedBytes() - 12);
+
+        TransactionLog recovered = open(1);
+        assertEquals(1, recovered.size());
+        assertTrue(recovered.find(2L).isEmpty());
+
+        recovered.write(List.of(transaction(3L, "11111111", 0L)));
+        TransactionLog reopened = open(1);
+        assertEquals(List.of(3L, 1L), ids(reopened.findByAccountNumber("11111111", 0, 10)));
+    }
+
+    @Test
+    void damageBeforeTheTail_FailsTheOpen() throws IOException {
+        TransactionLog log = open(1);
+        List<Transaction> rows = new ArrayList<>();
+        for (long id = 1; id <= 1_000; id++) {
+            rows.add(transaction(id, "11111111", 0L));
+        }
+        log.write(rows);
+        assertTrue(log.segmentCount() > 1);
+        corrupt(0, 100);
+
+        assertThrows(IOException.class, () -> open(1));
+    }
+
+    private TransactionLog open(int replayThreads) throws IOException {
+        return TransactionLog.open(directory, TransactionLog.MIN_SEGMENT_SIZE, FsyncPolicy.ALWAYS, replayThreads);
+    }
+
+    private void corrupt(long segment, long position) throws IOException {
+        Path file = directory.resolve(String.format("%020d.log", segment));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer flipped = ByteBuffer.allocate(1);
+            channel.read(flipped, position);
+            flipped.put(0, (byte) (flipped.get(0) ^ 0x5A)).rewind();
+            channel.write(flipped, position);
+        }
+    }
+
+    private static List<Long> ids(TransactionLog.AccountPage page) {
+        return page.rows().stream().map(Transaction::getId).toList();
+    }
+
+    private static Transaction dated(Long id, int day) {
+        Transaction transaction = transaction(id, "11111111", 0L);
+        transaction.setTransactionDate(DATE.withDayOfMonth(day));
+        return transaction;
+    }
+
+    private static Transaction transaction(Long id, String accountNumber, Long version) {
+        Transaction transaction = new Transaction("TXN" + id, accountNumber, new BigDecimal("101.25"),
+                TransactionType.PAYMENT, "Log test " + id, DATE);
+        transaction.setId(id);
+        transaction.setVersion(version);
+        transaction.setCreatedAt(DATE);
+        transaction.setUpdatedAt(DATE);
+        return transaction;
+    }
+}